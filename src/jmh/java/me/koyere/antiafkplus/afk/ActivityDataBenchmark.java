@@ -0,0 +1,87 @@
+package me.koyere.antiafkplus.afk;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import me.koyere.antiafkplus.api.data.ActivityType;
+
+/**
+ * {@link AFKManager.PlayerActivityData}: recording an activity (every onPlayerActivity
+ * call), reading the decayed activity score (AFK checks, credit earning, pattern
+ * analysis) and counting activities per type over the last 5 minutes (API, analytics).
+ * {@code moveEventPerType} / {@code moveEventBatch} compare a busy move event (movement,
+ * head rotation and a jump) recorded one type at a time and as one activity mask.
+ * The data starts with a busy player's last 5 minutes of activity.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ActivityDataBenchmark {
+
+    private static final long COUNT_WINDOW_MS = 300000;
+    private static final ActivityType[] MIX = {
+            ActivityType.MOVEMENT, ActivityType.MOVEMENT, ActivityType.HEAD_ROTATION, ActivityType.MOVEMENT,
+            ActivityType.JUMP, ActivityType.BLOCK_BREAK, ActivityType.MOVEMENT, ActivityType.CHAT};
+    private static final int BUSY_MOVE = AFKManager.activityBit(ActivityType.MOVEMENT)
+            | AFKManager.activityBit(ActivityType.HEAD_ROTATION)
+            | AFKManager.activityBit(ActivityType.JUMP);
+
+    private AFKManager.PlayerActivityData data;
+    private long time;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        data = new AFKManager.PlayerActivityData();
+        // Two activities a second over the last 5 minutes
+        time = System.currentTimeMillis() - COUNT_WINDOW_MS;
+        for (int i = 0; i < 600; i++) {
+            recordActivity();
+        }
+    }
+
+    @Benchmark
+    public double recordActivity() {
+        data.recordActivity(MIX[next++ & (MIX.length - 1)], time);
+        time += 500;
+        return data.getActivityScore();
+    }
+
+    @Benchmark
+    public void moveEventPerType() {
+        data.recordActivity(ActivityType.MOVEMENT, time);
+        data.recordActivity(ActivityType.HEAD_ROTATION, time);
+        data.recordActivity(ActivityType.JUMP, time);
+        time += 50;
+    }
+
+    @Benchmark
+    public void moveEventBatch() {
+        data.recordActivities(BUSY_MOVE, time);
+        time += 50;
+    }
+
+    @Benchmark
+    public double getActivityScore() {
+        return data.getActivityScore();
+    }
+
+    @Benchmark
+    public Map<ActivityType, Integer> getActivityCounts() {
+        return data.getActivityCounts(COUNT_WINDOW_MS);
+    }
+}
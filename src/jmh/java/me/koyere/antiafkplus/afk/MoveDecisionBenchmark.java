@@ -0,0 +1,153 @@
+package me.koyere.antiafkplus.afk;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The detector decisions of one PlayerMoveEvent, as {@code MovementListener}
+ * takes them now ({@link #current}: deltas once, fast path, {@link MoveDecision})
+ * and as it took them before the fast path ({@link #baseline}: every detector on
+ * every event, rotation and deltas computed twice). Both append the sample to
+ * the history afterwards, like the listener does.
+ *
+ * <p>Not included: the {@code antiafkplus.bypass} permission lookup the baseline
+ * did on every event (now answered from the PermissionTierService cache) and
+ * the Player getters, which need a server.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoveDecisionBenchmark {
+
+    private static final int TRAJECTORY_SAMPLES = 4096; // power of two: cheap wrap-around
+    // config.yml defaults
+    private static final double MICRO_MOVEMENT_THRESHOLD = 0.1;
+    private static final double HEAD_ROTATION_THRESHOLD = 5.0;
+
+    @Param({"WATER_CIRCLE", "STRAIGHT_RUN", "RANDOM_WALK", "SNEAK"})
+    public Trajectories.Shape shape;
+
+    private Trajectories.Trajectory trajectory;
+    private MovementHistory history;
+    private long sample;
+
+    @Setup
+    public void setUp() {
+        trajectory = Trajectories.generate(shape, TRAJECTORY_SAMPLES, 42L);
+        history = Trajectories.history(trajectory, MovementHistory.DEFAULT_CAPACITY);
+        sample = MovementHistory.DEFAULT_CAPACITY;
+    }
+
+    @Benchmark
+    public int current() {
+        int to = (int) (sample & (TRAJECTORY_SAMPLES - 1));
+        int from = (to - 1) & (TRAJECTORY_SAMPLES - 1);
+        Trajectories.Trajectory t = trajectory;
+        boolean inWater = t.inWater[to];
+
+        double deltaX = t.x[to] - t.x[from];
+        double deltaY = t.y[to] - t.y[from];
+        double deltaZ = t.z[to] - t.z[from];
+        boolean significant = MoveDecision.significantMovement(deltaX, deltaY, deltaZ, MICRO_MOVEMENT_THRESHOLD);
+        boolean rotation = MoveDecision.headRotation(t.yaw[from], t.pitch[from], t.yaw[to], t.pitch[to],
+                HEAD_ROTATION_THRESHOLD);
+        boolean jumpCandidate = deltaY > 0 && !inWater;
+
+        int result;
+        if (MoveDecision.fastPath(deltaX, deltaY, deltaZ, MICRO_MOVEMENT_THRESHOLD,
+                rotation, jumpCandidate, false, inWater)) {
+            result = 0;
+        } else {
+            boolean manual = MoveDecision.appearsManual(history, deltaX, deltaZ, inWater, rotation,
+                    MICRO_MOVEMENT_THRESHOLD);
+            result = (significant ? 1 : 0) | (rotation ? 2 : 0) | (jumpCandidate ? 4 : 0) | (manual ? 8 : 0);
+        }
+        append(to);
+        return result;
+    }
+
+    @Benchmark
+    public int baseline() {
+        int to = (int) (sample & (TRAJECTORY_SAMPLES - 1));
+        int from = (to - 1) & (TRAJECTORY_SAMPLES - 1);
+        Trajectories.Trajectory t = trajectory;
+
+        boolean significant = Baseline.significantMovement(t, from, to);
+        boolean rotation = Baseline.headRotation(t, from, to);
+        boolean jump = t.y[to] > t.y[from] && !t.inWater[to];
+        boolean manual = Baseline.manualKeystroke(history, t, from, to);
+
+        append(to);
+        return (significant ? 1 : 0) | (rotation ? 2 : 0) | (jump ? 4 : 0) | (manual ? 8 : 0);
+    }
+
+    private void append(int i) {
+        Trajectories.Trajectory t = trajectory;
+        history.append(t.x[i], t.y[i], t.z[i], t.yaw[i], t.pitch[i],
+                Trajectories.START_MILLIS + sample * Trajectories.SAMPLE_INTERVAL_MS, t.inWater[i]);
+        sample++;
+    }
+
+    /** The pre-fast-path detectors, copied as they were (reading from/to each time). */
+    private static final class Baseline {
+
+        static boolean significantMovement(Trajectories.Trajectory t, int from, int to) {
+            double deltaX = Math.abs(t.x[to] - t.x[from]);
+            double deltaY = Math.abs(t.y[to] - t.y[from]);
+            double deltaZ = Math.abs(t.z[to] - t.z[from]);
+            return deltaX > MICRO_MOVEMENT_THRESHOLD ||
+                    deltaY > MICRO_MOVEMENT_THRESHOLD ||
+                    deltaZ > MICRO_MOVEMENT_THRESHOLD;
+        }
+
+        static boolean headRotation(Trajectories.Trajectory t, int from, int to) {
+            double deltaYaw = Math.abs(t.yaw[to] - t.yaw[from]);
+            double deltaPitch = Math.abs(t.pitch[to] - t.pitch[from]);
+            if (deltaYaw > 180) {
+                deltaYaw = 360 - deltaYaw;
+            }
+            return deltaYaw > HEAD_ROTATION_THRESHOLD || deltaPitch > HEAD_ROTATION_THRESHOLD;
+        }
+
+        static boolean manualKeystroke(MovementHistory history, Trajectories.Trajectory t, int from, int to) {
+            double deltaX = t.x[to] - t.x[from];
+            double deltaZ = t.z[to] - t.z[from];
+            double horizontalVelocity = Math.sqrt(deltaX * deltaX + deltaZ * deltaZ);
+            boolean inWater = t.inWater[to];
+            if (history.isEmpty()) {
+                return !inWater;
+            }
+
+            boolean appearsManual = false;
+            if (!inWater && horizontalVelocity > MICRO_MOVEMENT_THRESHOLD) {
+                appearsManual = true;
+            }
+            if (history.size() >= 3) {
+                double directionChanges = MoveDecision.directionChanges(history, 3);
+                double threshold = inWater ? 0.8 : 0.5;
+                if (directionChanges > threshold) {
+                    appearsManual = true;
+                }
+            }
+            // The baseline ran the rotation detector a second time here
+            if (headRotation(t, from, to)) {
+                appearsManual = true;
+            }
+            return appearsManual;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package me.koyere.antiafkplus.afk;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The per-event work {@code MovementListener.onPlayerMove} does on the movement
+ * history: appending the sample (which also updates the incremental features)
+ * and the direction-change check of the keystroke detection. The Bukkit side of
+ * the event (location getters, permission check) is not part of these numbers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MovementHistoryBenchmark {
+
+    private static final int TRAJECTORY_SAMPLES = 4096; // power of two: cheap wrap-around
+
+    @Param({"WATER_CIRCLE", "PENDULUM", "STRAIGHT_RUN", "RANDOM_WALK"})
+    public Trajectories.Shape shape;
+
+    private Trajectories.Trajectory trajectory;
+    private MovementHistory history;
+    private long sample;
+
+    @Setup
+    public void setUp() {
+        trajectory = Trajectories.generate(shape, TRAJECTORY_SAMPLES, 42L);
+        // Full buffer: every append also evicts, as on a player who has been online a while
+        history = Trajectories.history(trajectory, MovementHistory.DEFAULT_CAPACITY);
+        sample = MovementHistory.DEFAULT_CAPACITY;
+    }
+
+    @Benchmark
+    public int append() {
+        int i = (int) (sample & (TRAJECTORY_SAMPLES - 1));
+        history.append(trajectory.x[i], trajectory.y[i], trajectory.z[i], trajectory.yaw[i],
+                trajectory.pitch[i], Trajectories.START_MILLIS + sample * Trajectories.SAMPLE_INTERVAL_MS,
+                trajectory.inWater[i]);
+        sample++;
+        return history.size();
+    }
+
+    @Benchmark
+    public double directionChanges() {
+        return MoveDecision.directionChanges(history, 3);
+    }
+
+    /** Both, in the order onPlayerMove runs them for a sample. */
+    @Benchmark
+    public double moveEvent() {
+        double changes = MoveDecision.directionChanges(history, 3);
+        append();
+        return changes;
+    }
+}
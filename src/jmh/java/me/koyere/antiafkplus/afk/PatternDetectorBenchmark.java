@@ -0,0 +1,120 @@
+package me.koyere.antiafkplus.afk;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One player's pattern analysis, detector by detector, on a full history
+ * (MovementHistory.DEFAULT_CAPACITY samples) of each synthetic trajectory.
+ * {@link #analyze()} is what the PatternDetector runs per player and cycle;
+ * {@link #analyzeWhileTurning()} the same for a player whose view just turned.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PatternDetectorBenchmark {
+
+    @Param({"WATER_CIRCLE", "PENDULUM", "STRAIGHT_RUN", "RANDOM_WALK", "ROTATING_BOT"})
+    public Trajectories.Shape shape;
+
+    private final PatternAnalyzer.Settings settings = PatternAnalyzer.Settings.DEFAULTS;
+    // No recent input: no grace period, and the keystroke timeout has not expired yet
+    private PatternAnalyzer.Activity activity;
+    // Head rotation (and with it the keystroke time) refreshed on the last sample
+    private PatternAnalyzer.Activity turning;
+    private long now;
+
+    private MovementHistory history;
+    private final MovementHistory.Window window = new MovementHistory.Window();
+    private final PatternAnalyzer analyzer = new PatternAnalyzer();
+    private int size;
+    private int recentFrom;
+
+    @Setup
+    public void setUp() {
+        Trajectories.Trajectory trajectory = Trajectories.generate(shape, MovementHistory.DEFAULT_CAPACITY, 42L);
+        history = Trajectories.history(trajectory, trajectory.size);
+        history.setFeatureWindow(settings.minSamplesForPattern());
+        size = history.snapshot(window);
+        recentFrom = Math.max(0, size - settings.minSamplesForPattern());
+        now = trajectory.time(trajectory.size - 1);
+        activity = new PatternAnalyzer.Activity(now - 60000L, 0L, 0L, 0L);
+        turning = new PatternAnalyzer.Activity(now, 0L, now, 0L);
+        if (shape == Trajectories.Shape.ROTATING_BOT
+                && (analyzer.analyze(settings, history, turning, false, now, "bench", null)
+                    & PatternAnalyzer.PERIODIC) == 0) {
+            // The rotation steps must not buy the bot a grace period
+            throw new IllegalStateException("rotation loop not detected during the head-rotation grace period");
+        }
+    }
+
+    @Benchmark
+    public int snapshot() {
+        return history.snapshot(window);
+    }
+
+    @Benchmark
+    public boolean linearMovement() {
+        return PatternAnalyzer.isLinearMovement(settings, window.recent, null);
+    }
+
+    @Benchmark
+    public boolean waterCircle() {
+        return PatternAnalyzer.detectWaterCirclePattern(settings, window, window.recent, recentFrom, size);
+    }
+
+    @Benchmark
+    public boolean confinedSpace() {
+        return PatternAnalyzer.detectConfinedSpacePattern(settings, window.recent);
+    }
+
+    @Benchmark
+    public boolean repetitive() {
+        return PatternAnalyzer.detectRepetitivePattern(settings, window, recentFrom, size);
+    }
+
+    @Benchmark
+    public boolean pendulum() {
+        return PatternAnalyzer.detectPendulumPattern(window.recent);
+    }
+
+    @Benchmark
+    public boolean periodic() {
+        return analyzer.detectPeriodicPattern(settings, window, 0, size);
+    }
+
+    @Benchmark
+    public boolean largePool() {
+        return PatternAnalyzer.detectLargeAFKPool(settings, window, window.full, 0, size,
+                activity, false, now, "bench", null);
+    }
+
+    /** Snapshot plus every detector, as run for one player per analysis cycle. */
+    @Benchmark
+    public int analyze() {
+        return analyzer.analyze(settings, history, activity, false, now, "bench", null);
+    }
+
+    /**
+     * Recent head rotation: a periodicity check decides whether the grace period
+     * applies (GRACE_PERIOD for ordinary turning, a full analysis for ROTATING_BOT).
+     */
+    @Benchmark
+    public int analyzeWhileTurning() {
+        return analyzer.analyze(settings, history, turning, false, now, "bench", null);
+    }
+}
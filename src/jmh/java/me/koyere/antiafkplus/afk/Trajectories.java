@@ -0,0 +1,123 @@
+package me.koyere.antiafkplus.afk;
+
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic player trajectories for the benchmarks, sampled like PlayerMoveEvents
+ * (one sample every 50 ms): three AFK machine shapes and three kinds of ordinary
+ * movement, so every detector runs on input that both does and does not match it.
+ */
+final class Trajectories {
+
+    static final long SAMPLE_INTERVAL_MS = 50;
+    static final long START_MILLIS = 1_700_000_000_000L;
+
+    enum Shape {
+        /** AFK pool: 3-block circle in water, one lap every 37 samples. */
+        WATER_CIRCLE,
+        /** AFK machine pushing the player back and forth between two points (A -> B -> A). */
+        PENDULUM,
+        /** Sprinting in a straight line on land. */
+        STRAIGHT_RUN,
+        /** Walking around with a wandering heading and camera. */
+        RANDOM_WALK,
+        /** Sneaking diagonally on land: steps below the micro-movement threshold. */
+        SNEAK,
+        /** Client standing still and sweeping the view 0 -> 90 -> 0 degrees, 9 degrees per sample. */
+        ROTATING_BOT
+    }
+
+    /** Samples of one trajectory, in MovementHistory.append argument order. */
+    static final class Trajectory {
+        final int size;
+        final double[] x;
+        final double[] y;
+        final double[] z;
+        final float[] yaw;
+        final float[] pitch;
+        final boolean[] inWater;
+
+        private Trajectory(int size) {
+            this.size = size;
+            x = new double[size];
+            y = new double[size];
+            z = new double[size];
+            yaw = new float[size];
+            pitch = new float[size];
+            inWater = new boolean[size];
+        }
+
+        long time(int i) {
+            return START_MILLIS + i * SAMPLE_INTERVAL_MS;
+        }
+    }
+
+    private Trajectories() {}
+
+    static Trajectory generate(Shape shape, int samples, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Trajectory t = new Trajectory(samples);
+        double px = 100.0;
+        double pz = 100.0;
+        double heading = 0.0;
+        for (int i = 0; i < samples; i++) {
+            double jitter = (random.nextDouble() - 0.5) * 0.02;
+            switch (shape) {
+                case WATER_CIRCLE -> {
+                    double angle = 2 * Math.PI * i / 37.0;
+                    px = 100.0 + 3.0 * Math.cos(angle) + jitter;
+                    pz = 100.0 + 3.0 * Math.sin(angle) + jitter;
+                    heading = angle + Math.PI / 2;
+                    t.inWater[i] = true;
+                }
+                case PENDULUM -> {
+                    // A -> B -> A: 0.8 blocks out and back every other sample
+                    boolean out = (i & 1) == 1;
+                    px = 100.0 + (out ? 0.8 : 0.0) + jitter;
+                    pz = 100.0 + jitter;
+                    heading = out ? 0.0 : Math.PI;
+                }
+                case STRAIGHT_RUN -> {
+                    px += 0.28;
+                    pz += jitter;
+                    heading = 0.0;
+                }
+                case RANDOM_WALK -> {
+                    heading += (random.nextDouble() - 0.5) * 2.0;
+                    px += Math.cos(heading) * 0.2;
+                    pz += Math.sin(heading) * 0.2;
+                }
+                case SNEAK -> {
+                    // 0.065 per axis, about 0.09 blocks per sample
+                    heading = Math.PI / 4;
+                    px += 0.065 + jitter * 0.1;
+                    pz += 0.065 + jitter * 0.1;
+                }
+                case ROTATING_BOT -> {
+                    // Triangle wave with a 20-sample period; every step is above the
+                    // 5 degree head-rotation threshold, so each one counts as input
+                    int phase = i % 20;
+                    heading = Math.PI / 2 + Math.toRadians(9.0 * (phase <= 10 ? phase : 20 - phase));
+                    px = 100.0 + jitter * 0.1;
+                    pz = 100.0 + jitter * 0.1;
+                }
+            }
+            t.x[i] = px;
+            t.y[i] = 64.0;
+            t.z[i] = pz;
+            // Minecraft yaw: degrees, 0 = +Z, clockwise
+            t.yaw[i] = (float) Math.toDegrees(heading - Math.PI / 2);
+            t.pitch[i] = shape == Shape.RANDOM_WALK ? (float) ((random.nextDouble() - 0.5) * 30) : 0.0f;
+        }
+        return t;
+    }
+
+    /** A history holding the first {@code count} samples of the trajectory. */
+    static MovementHistory history(Trajectory t, int count) {
+        MovementHistory history = new MovementHistory(MovementHistory.DEFAULT_CAPACITY);
+        for (int i = 0; i < count; i++) {
+            history.append(t.x[i], t.y[i], t.z[i], t.yaw[i], t.pitch[i], t.time(i), t.inWater[i]);
+        }
+        return history;
+    }
+}
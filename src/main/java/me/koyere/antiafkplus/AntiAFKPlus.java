@@ -72,6 +72,7 @@ public final class AntiAFKPlus extends JavaPlugin {
     private CountdownSequenceService countdownSequenceService;
     private ActionPipelineService actionPipelineService;
     private TimeWindowService timeWindowService;
+    private me.koyere.antiafkplus.permission.PermissionTierService permissionTierService;
     private GUIManager guiManager;
     private VisualEffectsManager visualEffectsManager;
     private me.koyere.antiafkplus.reward.RewardManager rewardManager;
@@ -127,6 +128,11 @@ public final class AntiAFKPlus extends JavaPlugin {
         try {
             // Shutdown in reverse order of initialization for maximum stability
             
+            // Run queued one-shot work (reward commands, GUI clicks) while the systems it uses are still up
+            if (platformScheduler != null) {
+                platformScheduler.drainBudgetedTasks();
+            }
+
             // Clean up API and clear player data
             if (api instanceof AntiAFKPlusAPIImpl apiImpl) {
                 for (org.bukkit.entity.Player player : Bukkit.getOnlinePlayers()) {
@@ -174,6 +180,11 @@ public final class AntiAFKPlus extends JavaPlugin {
                 creditManager.shutdown();
             }
 
+            // Shutdown permission cache
+            if (permissionTierService != null) {
+                permissionTierService.shutdown();
+            }
+
             // Shutdown GUI system
             if (guiManager != null) {
                 guiManager.shutdown();
@@ -184,6 +195,11 @@ public final class AntiAFKPlus extends JavaPlugin {
                 visualEffectsManager.shutdown();
             }
 
+            // Finish open movement traces before the scheduler goes away
+            if (movementListener != null) {
+                movementListener.getTraceRecorder().shutdown();
+            }
+
             // Shutdown platform scheduler
             if (platformScheduler != null) {
                 getLogger().info("§6Shutting down platform scheduler...");
@@ -355,6 +371,10 @@ public final class AntiAFKPlus extends JavaPlugin {
                 getLogger().info("§aCredit System initialized (Phase 1)");
             }
 
+            // Credit tiers can only be resolved once the CreditManager exists
+            // (matters for players already online on /reload)
+            this.permissionTierService.refreshAll();
+
             // Initialize Server Transfer (v2.6 - Phase 1 backbone)
             this.serverTransferService = new ServerTransferService(this);
             this.countdownSequenceService = new CountdownSequenceService(this);
@@ -412,6 +432,10 @@ public final class AntiAFKPlus extends JavaPlugin {
      * Initializes legacy components for backward compatibility.
      */
     private void initializeLegacyComponents() {
+        // Permission cache first: the listeners below read bypass/tier flags from it
+        this.permissionTierService = new me.koyere.antiafkplus.permission.PermissionTierService(this);
+        getServer().getPluginManager().registerEvents(this.permissionTierService, this);
+
         // Initialize enhanced MovementListener
         this.movementListener = new MovementListener();
         getServer().getPluginManager().registerEvents(this.movementListener, this);
@@ -633,6 +657,11 @@ public final class AntiAFKPlus extends JavaPlugin {
         this.timeWindowService = new TimeWindowService(this, this.configManager.getTimeWindowSettings());
     }
 
+    /** Cached bypass flags and permission tiers (AFK time, credit ratio, max credits). */
+    public me.koyere.antiafkplus.permission.PermissionTierService getPermissionTierService() {
+        return permissionTierService;
+    }
+
     /**
      * Gets the AFK manager (legacy component).
      */
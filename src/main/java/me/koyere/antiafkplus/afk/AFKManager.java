@@ -3,14 +3,18 @@ package me.koyere.antiafkplus.afk;
 
 import java.time.Duration;
 import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.EnumMap;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
@@ -24,7 +28,9 @@ import me.koyere.antiafkplus.api.data.ActivityType;
 import me.koyere.antiafkplus.events.PlayerAFKKickEvent;
 import me.koyere.antiafkplus.events.PlayerAFKStateChangeEvent;
 import me.koyere.antiafkplus.events.PlayerAFKWarningEvent;
+import me.koyere.antiafkplus.permission.PermissionTierService;
 import me.koyere.antiafkplus.platform.PlatformScheduler;
+import me.koyere.antiafkplus.platform.TickBudgetQueue;
 import me.koyere.antiafkplus.time.TimeWindowService;
 import me.koyere.antiafkplus.time.TimeWindowService.WindowBehavior;
 import me.koyere.antiafkplus.utils.AFKLogger;
@@ -37,45 +43,67 @@ public class AFKManager {
 
     private static final long ACTIVITY_HISTORY_WINDOW_MS = Duration.ofMinutes(30).toMillis();
     private static final long ACTIVITY_SCORE_WINDOW_MS = Duration.ofMinutes(5).toMillis();
-    private static final int MAX_STORED_ACTIVITIES = 512;
+    // Safety re-check for players with no natural deadline (bypass, disabled world, unlimited manual AFK)
+    private static final long PARKED_RECHECK_MS = Duration.ofMinutes(1).toMillis();
+    private static final String CHECK_TASK_KIND = "afk-check";
 
     private final AntiAFKPlus plugin;
     private final MovementListener movementListener;
     private PatternDetector patternDetector;
 
-    private final Set<UUID> afkPlayers = new HashSet<>(); // Players currently marked as AFK (auto or manual)
-    private final Map<UUID, Set<Integer>> warningsSent = new HashMap<>(); // Tracks warnings sent to avoid spam
-    private final Set<UUID> manualAfkUsernames = new HashSet<>(); // Players who used /afk command (stores UUID)
-    private final Map<UUID, Long> manualAfkStartTimes = new HashMap<>(); // Tracks when manual AFK started
-
-    // Enhanced tracking for v2.0
-    private final Map<UUID, Long> afkDetectionTimes = new HashMap<>(); // When player was first detected as AFK
-    private final Map<UUID, String> afkDetectionReasons = new HashMap<>(); // Why player was marked AFK
-    private final Map<UUID, PlayerActivityData> playerActivityData = new HashMap<>(); // Enhanced activity tracking
-    private final Map<UUID, Integer> warningCounts = new HashMap<>(); // Count of warnings sent per player
-    private final Map<UUID, Long> windowMessageCooldown = new HashMap<>();
-    
-    // Professional fix: Prevent repeated kick/teleport actions
-    private final Set<UUID> playersAlreadyActioned = new HashSet<>(); // Players who already received final AFK action
+    /**
+     * One {@link AfkSessionState} per player: AFK phase, manual start time, detection
+     * time/reason, warnings, final-action flag, pattern lock and activity data.
+     * Concurrent map + CAS phase transitions so listeners, the API and entity-scheduled
+     * callbacks on Folia region threads can all touch it without a global lock.
+     */
+    private final Map<UUID, AfkSessionState> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * Next evaluation time of every tracked player. The check task only visits
+     * players whose deadline passed instead of scanning every online player.
+     * Activity never has to touch the wheel: a deadline reached after fresh activity
+     * is simply re-armed from the new timestamps by {@link #computeNextCheckTime}.
+     */
+    private final DeadlineWheel deadlines = new DeadlineWheel(System.currentTimeMillis());
 
     /**
-     * v3.0.5: Players whose AFK state was enforced by the PatternDetector
-     * (e.g. confined_space, keystroke_timeout). For these players a normal
-     * {@link #onPlayerActivity(Player, ActivityType)} call coming from a weak
-     * source (a single PlayerMoveEvent, a passive interact, a jump) is NOT
-     * enough to leave AFK. Only strong human signals (chat, command,
-     * inventory click, fishing, an explicit camera rotation, sprint, sneak)
-     * can lift the lock. This prevents the classic AFK-pool / hold-spacebar
-     * bypasses: those scenarios produce {@link PlayerMoveEvent}s without any
-     * actual player input, which used to immediately reset the AFK state set
-     * by the PatternDetector.
+     * Staggered checks (performance.staggered-checks): due players are spread into
+     * one bucket per tick of the check interval by a stable UUID hash and the task
+     * runs every tick serving a single bucket, so a cycle is never paid in one tick.
+     * {@code null} when disabled. Main thread only.
      */
-    private final Set<UUID> patternEnforcedAfk = new HashSet<>();
+    private ArrayDeque<UUID>[] staggerBuckets;
+    private int staggerCursor = 0;
+
+    // Per-tick slice cost of the check task: polling the wheel and queueing the due
+    // players' evaluations. Main thread only, read by /afkplus performance.
+    private static final long SLICE_WINDOW_MS = Duration.ofMinutes(1).toMillis();
+    private long sliceWindowStart = System.currentTimeMillis();
+    private volatile long sliceWindowWorstNanos = 0L;
+    private volatile long previousWindowWorstNanos = 0L;
+    private volatile long sliceCount = 0L;
+    private volatile long sliceTotalNanos = 0L;
+    private volatile long slicePlayersChecked = 0L;
+
+    // Cost of the queued evaluations themselves. They run in the tick budget queue,
+    // or on the players' region threads on Folia, hence the concurrent counters.
+    private final LongAdder evaluationCount = new LongAdder();
+    private final LongAdder evaluationTotalNanos = new LongAdder();
+    private final LongAccumulator evaluationWindowWorstNanos = new LongAccumulator(Math::max, 0L);
+    private volatile long previousEvaluationWorstNanos = 0L;
 
     private PlatformScheduler.ScheduledTask afkCheckTask;
     private Runnable afkCheckBody;
     private int currentAdaptiveIntervalTicks = 0;
 
+    /**
+     * AFK state published for polling readers (placeholders, API lists/statistics,
+     * particles). Replaced wholesale by {@link #publishSnapshot()}, never mutated.
+     */
+    private volatile AfkSnapshot snapshot = AfkSnapshot.EMPTY;
+    private PlatformScheduler.ScheduledTask snapshotTask;
+
     public AFKManager(AntiAFKPlus plugin, MovementListener movementListener) {
         this.plugin = plugin;
         this.movementListener = movementListener;
@@ -83,6 +111,7 @@ public class AFKManager {
             this.patternDetector = new PatternDetector(plugin, movementListener, this);
         }
         startAFKCheckTask();
+        startSnapshotTask();
     }
 
     private String adaptMsg(Player player, String message) {
@@ -108,169 +137,41 @@ public class AFKManager {
         }
 
         this.afkCheckBody = () -> {
+                long sliceStart = System.nanoTime();
+                // Only players whose next deadline has passed are evaluated; everyone
+                // else stays parked in the wheel until a warning/threshold/limit is due.
+                Collection<UUID> due = nextCheckSlice(deadlines.pollDue(System.currentTimeMillis()));
+                if (due.isEmpty()) {
+                    return;
+                }
+
                 TimeWindowService.WindowEvaluation windowEvaluation = null;
                 if (plugin.getTimeWindowService() != null) {
                     windowEvaluation = plugin.getTimeWindowService().evaluate();
                 }
 
-                for (Player player : Bukkit.getOnlinePlayers()) {
-                    UUID uuid = player.getUniqueId();
-
-                    if (player.hasPermission("antiafkplus.bypass")) {
-                        if (afkPlayers.contains(uuid) || manualAfkUsernames.contains(uuid)) {
-                            AFKLogger.logActivity(player.getName() + " has bypass, ensuring AFK state is cleared.");
-                            forceSetManualAFKState(player, false);
-                        }
-                        continue;
-                    }
-
-                    List<String> disabledWorlds = plugin.getConfigManager().getDisabledWorlds();
-                    List<String> enabledWorlds = plugin.getConfigManager().getEnabledWorlds();
-                    String currentWorldName = player.getWorld().getName();
-
-                    // PROFESSIONAL FIX: Clear AFK state when player is in disabled world
-                    // This prevents warnings and actions from persisting in disabled worlds
-                    if (disabledWorlds.contains(currentWorldName)) {
-                        // If player has AFK state, clear it completely
-                        if (afkPlayers.contains(uuid) || manualAfkUsernames.contains(uuid)) {
-                            AFKLogger.logActivity(player.getName() + " entered disabled world '" + currentWorldName + "', clearing AFK state.");
-
-                            // Clear all AFK-related data
-                            unmarkAsAFKInternal(player);
-                            forceSetManualAFKState(player, false);
-                            playersAlreadyActioned.remove(uuid);
-                            warningCounts.remove(uuid);
-                            afkDetectionTimes.remove(uuid);
-                            afkDetectionReasons.remove(uuid);
-                            patternEnforcedAfk.remove(uuid); // v3.0.5
-                        }
-                        // Clear pending warnings even for players not yet marked AFK — prevents
-                        // stale warningsSent entries from suppressing warnings on world return.
-                        warningsSent.remove(uuid);
-                        continue;
-                    }
-
-                    // If enabled-worlds is configured and player is not in one, clear state
-                    if (!enabledWorlds.isEmpty() && !enabledWorlds.contains(currentWorldName)) {
-                        if (afkPlayers.contains(uuid) || manualAfkUsernames.contains(uuid)) {
-                            AFKLogger.logActivity(player.getName() + " is in non-enabled world '" + currentWorldName + "', clearing AFK state.");
-
-                            unmarkAsAFKInternal(player);
-                            forceSetManualAFKState(player, false);
-                            playersAlreadyActioned.remove(uuid);
-                            warningCounts.remove(uuid);
-                            afkDetectionTimes.remove(uuid);
-                            afkDetectionReasons.remove(uuid);
-                            patternEnforcedAfk.remove(uuid); // v3.0.5
-                        }
-                        // Clear pending warnings even for players not yet marked AFK — prevents
-                        // stale warningsSent entries from suppressing warnings on world return.
-                        warningsSent.remove(uuid);
-                        continue;
-                    }
-
-                    // Refresh cached activity statistics window
-                    refreshPlayerActivityData(player);
-
-                    if (manualAfkUsernames.contains(uuid)) {
-                        long voluntaryAfkLimitMillis = plugin.getConfigManager().getMaxVoluntaryAfkTimeSeconds() * 1000L;
-                        if (voluntaryAfkLimitMillis > 0 && manualAfkStartTimes.containsKey(uuid)) {
-                            long manualAfkDurationMillis = System.currentTimeMillis() - manualAfkStartTimes.get(uuid);
-                            if (manualAfkDurationMillis >= voluntaryAfkLimitMillis) {
-                                // Fire event for time limit exceeded
-                                fireAFKStateChangeEvent(player, PlayerAFKStateChangeEvent.AFKState.AFK_MANUAL,
-                                        PlayerAFKStateChangeEvent.AFKState.ACTIVE,
-                                        PlayerAFKStateChangeEvent.AFKReason.TIME_LIMIT_EXCEEDED,
-                                        "voluntary_time_limit", false);
-
-                                sendSafe(player, plugin.getConfigManager().getMessageVoluntaryAFKLimit());
-                                forceSetManualAFKState(player, false);
-                            }
-                        }
-                        continue; // Skip auto AFK checks if manually AFK and not timed out
-                    }
-
-                    // Enhanced AFK detection with multiple activity checks
-                    boolean shouldBeAFK = performEnhancedAFKCheck(player);
-                    boolean applyWindowControls = false;
-                    WindowBehavior windowBehavior = WindowBehavior.DEFAULT;
-                    long windowExtendMillis = 0L;
-                    if (windowEvaluation != null && windowEvaluation.featureEnabled() && windowEvaluation.insideWindow()) {
-                        boolean bypass = hasWindowBypass(player, windowEvaluation.bypassPermission());
-                        if (!bypass) {
-                            applyWindowControls = true;
-                            windowBehavior = windowEvaluation.behavior();
-                            windowExtendMillis = windowEvaluation.extendMillis();
-                        }
-                    }
-
-                    if (!shouldBeAFK && plugin.getCountdownSequenceService() != null
-                            && plugin.getCountdownSequenceService().isRunning(player)) {
-                        long countdownStart = plugin.getCountdownSequenceService().getCountdownStart(player);
-                        long lastActivityTs = getLastRecordedActivityTimestamp(player);
-                        if (countdownStart > 0 && lastActivityTs <= countdownStart + 50L) {
-                            shouldBeAFK = true;
-                        }
+                List<Player> players = new ArrayList<>(due.size());
+                for (UUID uuid : due) {
+                    Player player = Bukkit.getPlayer(uuid);
+                    if (player != null && player.isOnline()) {
+                        players.add(player);
                     }
+                    // else: quit since it was scheduled, dropping the entry is enough
+                }
 
-                    if (shouldBeAFK) {
-                        if (!afkPlayers.contains(uuid)) {
-                            String detectionReason = determineAFKReason(player);
-                            markAsAFKInternal(player, "auto (" + detectionReason + ")", detectionReason);
-                            afkDetectionTimes.put(uuid, System.currentTimeMillis());
-                            afkDetectionReasons.put(uuid, detectionReason);
-                        }
-
-                        // Professional fix: Only execute final action once per AFK session
-                        if (!playersAlreadyActioned.contains(uuid)) {
-                            long timeSinceDetection = System.currentTimeMillis() - afkDetectionTimes.getOrDefault(uuid, System.currentTimeMillis());
-                            boolean canExecuteAction = true;
-
-                            if (applyWindowControls) {
-                                switch (windowBehavior) {
-                                    case SKIP_ACTIONS -> canExecuteAction = false;
-                                    case MESSAGE_ONLY -> {
-                                        canExecuteAction = false;
-                                        sendWindowMessage(player, windowEvaluation);
-                                    }
-                                    case EXTEND_THRESHOLD -> {
-                                        long required = Math.max(1000L, windowExtendMillis);
-                                        canExecuteAction = timeSinceDetection >= required;
-                                    }
-                                    default -> { }
-                                }
-                            }
-
-                            // Only take action if player has been AFK long enough (prevents immediate actions)
-                            if (canExecuteAction && timeSinceDetection >= 1000) { // At least 1 second delay for safety
-                                kickPlayerAfterAFK(player, timeSinceDetection);
-                                playersAlreadyActioned.add(uuid); // Mark as actioned to prevent repeated calls
-                            }
-                        }
-                    } else {
-                        if (!applyWindowControls) {
-                            checkWarnings(player);
-                        }
-                        if (afkPlayers.contains(uuid)) {
-                            long afkDuration = System.currentTimeMillis() - afkDetectionTimes.getOrDefault(uuid, System.currentTimeMillis());
-                            String detectionMethod = afkDetectionReasons.getOrDefault(uuid, "auto_detection");
-
-                            // Fire state change event
-                            fireAFKStateChangeEvent(player, PlayerAFKStateChangeEvent.AFKState.AFK_AUTO,
-                                    PlayerAFKStateChangeEvent.AFKState.ACTIVE,
-                                    determineActivityReason(player), detectionMethod, false);
-
-                            AFKLogger.logAFKExit(player, "auto (activity detected)", afkDuration / 1000L);
-                            unmarkAsAFKInternal(player);
-                            afkDetectionTimes.remove(uuid);
-                            afkDetectionReasons.remove(uuid);
-                            warningCounts.remove(uuid);
-                            
-                            // Professional fix: Clear actioned state when player becomes active again
-                            playersAlreadyActioned.remove(uuid);
-                        }
-                    }
+                // Each evaluation (and its warnings/actions) is a unit of the per-tick budget
+                // queue, so a burst of due players spreads over the following ticks; the slice
+                // time only covers picking them, the evaluations are timed where they run.
+                // On Folia it runs on the player's owning region thread instead, spreading
+                // the cycle over all region threads.
+                TimeWindowService.WindowEvaluation window = windowEvaluation;
+                PlatformScheduler scheduler = plugin.getPlatformScheduler();
+                for (Player player : players) {
+                    scheduler.runBudgetedForEntity(player,
+                            new TickBudgetQueue.Key(CHECK_TASK_KIND, player.getUniqueId()),
+                            () -> evaluateDuePlayer(player, window));
                 }
+                recordCheckSlice(System.nanoTime() - sliceStart, players.size());
             };
 
         // Use adaptive interval from PerformanceOptimizer when enabled
@@ -283,9 +184,307 @@ public class AFKManager {
         }
         currentAdaptiveIntervalTicks = intervalTicks;
 
+        // Staggered mode runs every tick and serves one of intervalTicks buckets, so each
+        // player is still checked once per interval
+        boolean staggered = plugin.getConfig().getBoolean("performance.staggered-checks.enabled", false);
+        configureStaggerBuckets(staggered ? intervalTicks : 0);
+        int periodTicks = staggered ? 1 : intervalTicks;
+
         this.afkCheckTask = plugin.getPlatformScheduler()
-                .runTaskTimer(afkCheckBody, intervalTicks, intervalTicks);
+                .runTaskTimer(afkCheckBody, periodTicks, periodTicks);
         // AFK check task started silently
+
+        // (Re)start or config reload: thresholds may have changed, re-evaluate everyone once
+        long now = System.currentTimeMillis();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            deadlines.schedule(player.getUniqueId(), now);
+        }
+    }
+
+    private void evaluateDuePlayer(Player player, TimeWindowService.WindowEvaluation windowEvaluation) {
+        if (!player.isOnline()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            checkPlayer(player, windowEvaluation);
+        } finally {
+            // pollDue already removed the player from the wheel: re-arm even if the check
+            // (an action, transfer or third-party hook) threw, or they would never be
+            // checked again. The check may have kicked or transferred the player.
+            if (player.isOnline()) {
+                long now = System.currentTimeMillis();
+                long next;
+                try {
+                    next = computeNextCheckTime(player, now);
+                } catch (RuntimeException e) {
+                    next = now + PARKED_RECHECK_MS;
+                }
+                deadlines.schedule(player.getUniqueId(), next);
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        evaluationCount.increment();
+        evaluationTotalNanos.add(nanos);
+        evaluationWindowWorstNanos.accumulate(nanos);
+    }
+
+    /**
+     * Requests an evaluation of the player on the next check cycle (join, world change,
+     * permission tier change). Never delays an earlier deadline.
+     */
+    public void scheduleCheck(Player player) {
+        if (player == null) {
+            return;
+        }
+        deadlines.scheduleNoLaterThan(player.getUniqueId(), System.currentTimeMillis());
+    }
+
+    public int getScheduledPlayerCount() {
+        return deadlines.size();
+    }
+
+    /**
+     * Computes when {@link #checkPlayer} can next change anything for this player,
+     * assuming no further activity: the earliest unsent warning, the AFK threshold
+     * or the voluntary-AFK limit. AFK players and running countdowns keep the old
+     * per-cycle cadence since their window, countdown and action handling is
+     * re-evaluated every cycle.
+     */
+    private long computeNextCheckTime(Player player, long now) {
+        if (isBypassed(player) || !isDetectionWorld(player.getWorld().getName())) {
+            return now + PARKED_RECHECK_MS;
+        }
+
+        AfkSessionState session = session(player);
+        AfkSessionState.Phase phase = session.phase();
+        if (phase == AfkSessionState.Phase.AFK_MANUAL) {
+            long voluntaryAfkLimitMillis = plugin.getConfigManager().getMaxVoluntaryAfkTimeSeconds() * 1000L;
+            long manualStart = session.manualAfkStartTime;
+            if (voluntaryAfkLimitMillis <= 0 || manualStart <= 0) {
+                return now + PARKED_RECHECK_MS;
+            }
+            return Math.max(manualStart + voluntaryAfkLimitMillis, now + 1);
+        }
+
+        if (phase.isAfk() || (plugin.getCountdownSequenceService() != null
+                && plugin.getCountdownSequenceService().isRunning(player))) {
+            return now + 1;
+        }
+
+        long afkThresholdMillis = getPlayerAfkTime(player) * 1000L;
+        long mostRecentActivity = Math.max(
+                Math.max(movementListener.getLastMovementTimestamp(player), movementListener.getLastHeadRotationTime(player)),
+                Math.max(movementListener.getLastJumpTime(player), movementListener.getLastCommandTime(player)));
+        long next = mostRecentActivity + afkThresholdMillis;
+
+        // checkWarnings fires warning W once (afkThreshold - idle) / 1000 <= W, i.e. from
+        // idle > afkThreshold - (W + 1) seconds on
+        Set<Integer> sent = session.warningsSent;
+        for (int warningTimeSeconds : plugin.getConfigManager().getAfkWarningTimes()) {
+            if (!sent.contains(warningTimeSeconds)) {
+                next = Math.min(next, mostRecentActivity + afkThresholdMillis - (warningTimeSeconds + 1) * 1000L + 1);
+            }
+        }
+        return Math.max(next, now + 1);
+    }
+
+    private boolean isDetectionWorld(String worldName) {
+        if (plugin.getConfigManager().getDisabledWorlds().contains(worldName)) {
+            return false;
+        }
+        List<String> enabledWorlds = plugin.getConfigManager().getEnabledWorlds();
+        return enabledWorlds.isEmpty() || enabledWorlds.contains(worldName);
+    }
+
+    /**
+     * Evaluates one player: bypass/world filtering, voluntary-AFK limit, AFK threshold,
+     * final action and warnings. Called for players whose deadline came due.
+     */
+    private void checkPlayer(Player player, TimeWindowService.WindowEvaluation windowEvaluation) {
+        AfkSessionState session = session(player);
+
+        if (isBypassed(player)) {
+            if (session.isAfk()) {
+                AFKLogger.logActivity(player.getName() + " has bypass, ensuring AFK state is cleared.");
+                forceSetManualAFKState(player, false);
+            }
+            return;
+        }
+
+        List<String> disabledWorlds = plugin.getConfigManager().getDisabledWorlds();
+        List<String> enabledWorlds = plugin.getConfigManager().getEnabledWorlds();
+        String currentWorldName = player.getWorld().getName();
+
+        // PROFESSIONAL FIX: Clear AFK state when player is in disabled world
+        // This prevents warnings and actions from persisting in disabled worlds
+        if (disabledWorlds.contains(currentWorldName)) {
+            clearAfkStateOutsideDetection(player, session,
+                    player.getName() + " entered disabled world '" + currentWorldName + "', clearing AFK state.");
+            return;
+        }
+
+        // If enabled-worlds is configured and player is not in one, clear state
+        if (!enabledWorlds.isEmpty() && !enabledWorlds.contains(currentWorldName)) {
+            clearAfkStateOutsideDetection(player, session,
+                    player.getName() + " is in non-enabled world '" + currentWorldName + "', clearing AFK state.");
+            return;
+        }
+
+        if (session.phase() == AfkSessionState.Phase.AFK_MANUAL) {
+            long voluntaryAfkLimitMillis = plugin.getConfigManager().getMaxVoluntaryAfkTimeSeconds() * 1000L;
+            long manualStart = session.manualAfkStartTime;
+            if (voluntaryAfkLimitMillis > 0 && manualStart > 0) {
+                long manualAfkDurationMillis = System.currentTimeMillis() - manualStart;
+                if (manualAfkDurationMillis >= voluntaryAfkLimitMillis) {
+                    // Fire event for time limit exceeded
+                    fireAFKStateChangeEvent(player, PlayerAFKStateChangeEvent.AFKState.AFK_MANUAL,
+                            PlayerAFKStateChangeEvent.AFKState.ACTIVE,
+                            PlayerAFKStateChangeEvent.AFKReason.TIME_LIMIT_EXCEEDED,
+                            "voluntary_time_limit", false);
+
+                    sendSafe(player, plugin.getConfigManager().getMessageVoluntaryAFKLimit());
+                    forceSetManualAFKState(player, false);
+                }
+            }
+            return; // Skip auto AFK checks if manually AFK and not timed out
+        }
+
+        // Enhanced AFK detection with multiple activity checks
+        boolean shouldBeAFK = performEnhancedAFKCheck(player);
+        boolean applyWindowControls = false;
+        WindowBehavior windowBehavior = WindowBehavior.DEFAULT;
+        long windowExtendMillis = 0L;
+        if (windowEvaluation != null && windowEvaluation.featureEnabled() && windowEvaluation.insideWindow()) {
+            boolean bypass = hasWindowBypass(player, windowEvaluation.bypassPermission());
+            if (!bypass) {
+                applyWindowControls = true;
+                windowBehavior = windowEvaluation.behavior();
+                windowExtendMillis = windowEvaluation.extendMillis();
+            }
+        }
+
+        if (!shouldBeAFK && plugin.getCountdownSequenceService() != null
+                && plugin.getCountdownSequenceService().isRunning(player)) {
+            long countdownStart = plugin.getCountdownSequenceService().getCountdownStart(player);
+            long lastActivityTs = getLastRecordedActivityTimestamp(player);
+            if (countdownStart > 0 && lastActivityTs <= countdownStart + 50L) {
+                shouldBeAFK = true;
+            }
+        }
+
+        if (shouldBeAFK) {
+            if (!session.isAfk()) {
+                String detectionReason = determineAFKReason(player);
+                markAsAFKInternal(player, "auto (" + detectionReason + ")", detectionReason);
+                session.afkDetectionTime = System.currentTimeMillis();
+                session.afkDetectionReason = detectionReason;
+            }
+
+            // Professional fix: Only execute final action once per AFK session
+            if (!session.isActioned()) {
+                long timeSinceDetection = System.currentTimeMillis() - detectionTimeOrNow(session);
+                boolean canExecuteAction = true;
+
+                if (applyWindowControls) {
+                    switch (windowBehavior) {
+                        case SKIP_ACTIONS -> canExecuteAction = false;
+                        case MESSAGE_ONLY -> {
+                            canExecuteAction = false;
+                            sendWindowMessage(player, windowEvaluation);
+                        }
+                        case EXTEND_THRESHOLD -> {
+                            long required = Math.max(1000L, windowExtendMillis);
+                            canExecuteAction = timeSinceDetection >= required;
+                        }
+                        default -> { }
+                    }
+                }
+
+                // Only take action if player has been AFK long enough (prevents immediate actions).
+                // claimAction() marks the session as actioned atomically to prevent repeated calls.
+                if (canExecuteAction && timeSinceDetection >= 1000 && session.claimAction()) { // At least 1 second delay for safety
+                    kickPlayerAfterAFK(player, timeSinceDetection);
+                }
+            }
+        } else {
+            if (!applyWindowControls) {
+                checkWarnings(player);
+            }
+            exitAutoAfkOnActivity(player, session);
+        }
+    }
+
+    /**
+     * Clears every trace of AFK state for a player in a world where detection does
+     * not apply (disabled world, or not one of the enabled worlds).
+     */
+    private void clearAfkStateOutsideDetection(Player player, AfkSessionState session, String logMessage) {
+        // If player has AFK state, clear it completely
+        AfkSessionState.Phase phase = session.phase();
+        if (phase.isAfk()) {
+            AFKLogger.logActivity(logMessage);
+            if (phase == AfkSessionState.Phase.AFK_MANUAL) {
+                forceSetManualAFKState(player, false);
+            } else {
+                unmarkAsAFKInternal(player);
+            }
+            session.clearAction();
+            session.clearDetection();
+            session.patternEnforced = false; // v3.0.5
+        }
+        // Clear pending warnings even for players not yet marked AFK — prevents
+        // stale warningsSent entries from suppressing warnings on world return.
+        session.warningsSent.clear();
+    }
+
+    /**
+     * Leaves auto-detected AFK because the player is active again. The ACTIVE transition
+     * is claimed first so the check task and an activity event racing on another
+     * region thread cannot both fire the exit event, log and broadcast.
+     */
+    private void exitAutoAfkOnActivity(Player player, AfkSessionState session) {
+        if (!session.transition(AfkSessionState.Phase.AFK_AUTO, AfkSessionState.Phase.ACTIVE)) {
+            return;
+        }
+        long afkDuration = System.currentTimeMillis() - detectionTimeOrNow(session);
+        String detectionMethod = session.afkDetectionReason != null ? session.afkDetectionReason : "auto_detection";
+
+        // Fire state change event
+        fireAFKStateChangeEvent(player, PlayerAFKStateChangeEvent.AFKState.AFK_AUTO,
+                PlayerAFKStateChangeEvent.AFKState.ACTIVE,
+                determineActivityReason(player), detectionMethod, false);
+
+        AFKLogger.logAFKExit(player, "auto (activity detected)", afkDuration / 1000L);
+        onLeftAfk(player, session);
+        session.clearDetection();
+
+        // Professional fix: Clear actioned state when player becomes active again
+        session.clearAction();
+    }
+
+    private static long detectionTimeOrNow(AfkSessionState session) {
+        long detectionTime = session.afkDetectionTime;
+        return detectionTime > 0 ? detectionTime : System.currentTimeMillis();
+    }
+
+    /** Returns the player's session, creating it on first use. */
+    private AfkSessionState session(Player player) {
+        return session(player.getUniqueId());
+    }
+
+    private AfkSessionState session(UUID uuid) {
+        AfkSessionState session = sessions.get(uuid);
+        if (session == null) {
+            session = sessions.computeIfAbsent(uuid, k -> new AfkSessionState());
+        }
+        return session;
+    }
+
+    /** Read-only lookup: phase of a player without creating a session. */
+    private AfkSessionState.Phase phaseOf(UUID uuid) {
+        AfkSessionState session = sessions.get(uuid);
+        return session != null ? session.phase() : AfkSessionState.Phase.ACTIVE;
     }
 
     private boolean shouldEnablePatternDetection() {
@@ -295,10 +494,33 @@ public class AFKManager {
         return plugin.getConfigManager().isPatternDetectionModuleEnabled();
     }
 
+    private void startSnapshotTask() {
+        if (this.snapshotTask != null && !this.snapshotTask.isCancelled()) {
+            this.snapshotTask.cancel();
+        }
+        long intervalTicks = Math.max(1, plugin.getConfig().getInt("performance.snapshot-interval-ticks", 1));
+        publishSnapshot();
+        this.snapshotTask = plugin.getPlatformScheduler().runTaskTimer(this::publishSnapshot, intervalTicks, intervalTicks);
+    }
+
+    /** Publishes a new {@link AfkSnapshot} if any player's AFK state changed since the last one. */
+    private void publishSnapshot() {
+        snapshot = AfkSnapshot.publish(snapshot, sessions, System.currentTimeMillis());
+    }
+
+    /**
+     * The latest published AFK state of all players. Lock-free and allocation-free
+     * to read; trails the live state by at most one snapshot interval.
+     */
+    public AfkSnapshot getSnapshot() {
+        return snapshot;
+    }
+
     public void handleConfigReload() {
         // Restart the AFK check task so a changed afk-check-interval-seconds takes effect
         // immediately without requiring a full server/plugin restart.
         startAFKCheckTask();
+        startSnapshotTask();
 
         boolean enable = shouldEnablePatternDetection();
         if (!enable && this.patternDetector != null) {
@@ -326,12 +548,116 @@ public class AFKManager {
         if (ticks <= 0 || afkCheckBody == null) return;
         if (Math.abs(ticks - currentAdaptiveIntervalTicks) < 20) return;
         currentAdaptiveIntervalTicks = ticks;
+        if (staggerBuckets != null) {
+            // Task already runs every tick; only the bucket count follows the interval
+            configureStaggerBuckets(ticks);
+            return;
+        }
         if (this.afkCheckTask != null && !this.afkCheckTask.isCancelled()) {
             this.afkCheckTask.cancel();
         }
         this.afkCheckTask = plugin.getPlatformScheduler().runTaskTimer(afkCheckBody, ticks, ticks);
     }
 
+    /**
+     * Returns the players to check this tick. Without staggering that is every due
+     * player; with staggering the due players join their bucket and only the bucket
+     * of the current tick is returned.
+     */
+    private Collection<UUID> nextCheckSlice(List<UUID> due) {
+        ArrayDeque<UUID>[] buckets = staggerBuckets;
+        if (buckets == null) {
+            return due;
+        }
+        for (UUID uuid : due) {
+            buckets[Math.floorMod(uuid.hashCode(), buckets.length)].add(uuid);
+        }
+        staggerCursor = (staggerCursor + 1) % buckets.length;
+        ArrayDeque<UUID> slice = buckets[staggerCursor];
+        if (slice.isEmpty()) {
+            return slice;
+        }
+        buckets[staggerCursor] = new ArrayDeque<>();
+        return slice;
+    }
+
+    /**
+     * (Re)builds the stagger buckets, {@code count <= 1} disables staggering. Players
+     * waiting in the old buckets are handed back to the wheel as due now.
+     */
+    @SuppressWarnings("unchecked")
+    private void configureStaggerBuckets(int count) {
+        ArrayDeque<UUID>[] previous = staggerBuckets;
+        if (count > 1) {
+            ArrayDeque<UUID>[] buckets = new ArrayDeque[count];
+            for (int i = 0; i < count; i++) {
+                buckets[i] = new ArrayDeque<>();
+            }
+            staggerBuckets = buckets;
+            staggerCursor = 0;
+        } else {
+            staggerBuckets = null;
+        }
+        if (previous != null) {
+            long now = System.currentTimeMillis();
+            for (ArrayDeque<UUID> bucket : previous) {
+                for (UUID uuid : bucket) {
+                    deadlines.scheduleNoLaterThan(uuid, now);
+                }
+            }
+        }
+    }
+
+    private void recordCheckSlice(long nanos, int playersChecked) {
+        sliceCount++;
+        sliceTotalNanos += nanos;
+        slicePlayersChecked += playersChecked;
+        long now = System.currentTimeMillis();
+        if (now - sliceWindowStart >= SLICE_WINDOW_MS) {
+            previousWindowWorstNanos = sliceWindowWorstNanos;
+            sliceWindowWorstNanos = 0L;
+            previousEvaluationWorstNanos = evaluationWindowWorstNanos.getThenReset();
+            sliceWindowStart = now;
+        }
+        if (nanos > sliceWindowWorstNanos) {
+            sliceWindowWorstNanos = nanos;
+        }
+    }
+
+    /**
+     * Cost of the AFK check task. A slice is the check task's own work in one tick:
+     * polling the deadline wheel and queueing the due players' evaluations. The
+     * evaluations (state checks, warnings, actions) run later as tick budget queue
+     * units and are reported separately.
+     *
+     * @param worstSliceNanos      most expensive single slice over the last one to two minutes
+     * @param avgSliceNanos        average cost of a slice that queued at least one player
+     * @param slices               slices that queued at least one player since startup
+     * @param playersChecked       evaluations queued since startup
+     * @param buckets              stagger bucket count, 0 when staggering is disabled
+     * @param evaluations          evaluations run since startup
+     * @param avgEvaluationNanos   average cost of one player's evaluation
+     * @param worstEvaluationNanos most expensive evaluation over the last one to two minutes
+     */
+    public record CheckSliceStats(long worstSliceNanos, double avgSliceNanos,
+                                  long slices, long playersChecked, int buckets,
+                                  long evaluations, double avgEvaluationNanos, long worstEvaluationNanos) {}
+
+    public CheckSliceStats getCheckSliceStats() {
+        long slices = sliceCount;
+        long evaluations = evaluationCount.sum();
+        ArrayDeque<UUID>[] buckets = staggerBuckets;
+        return new CheckSliceStats(
+                Math.max(sliceWindowWorstNanos, previousWindowWorstNanos),
+                slices > 0 ? (double) sliceTotalNanos / slices : 0.0,
+                slices,
+                slicePlayersChecked,
+                buckets != null ? buckets.length : 0,
+                evaluations,
+                evaluations > 0 ? (double) evaluationTotalNanos.sum() / evaluations : 0.0,
+                Math.max(evaluationWindowWorstNanos.get(), previousEvaluationWorstNanos));
+    }
+
     private boolean performEnhancedAFKCheck(Player player) {
         long currentTime = System.currentTimeMillis();
         long afkThresholdMillis = getPlayerAfkTime(player) * 1000L;
@@ -399,7 +725,7 @@ public class AFKManager {
         if (player == null) {
             return System.currentTimeMillis();
         }
-        PlayerActivityData data = playerActivityData.get(player.getUniqueId());
+        PlayerActivityData data = getPlayerActivityData(player);
         if (data != null && data.getLastActivityTimestamp() > 0) {
             return data.getLastActivityTimestamp();
         }
@@ -419,35 +745,28 @@ public class AFKManager {
             return;
         }
         long now = System.currentTimeMillis();
-        Long last = windowMessageCooldown.get(player.getUniqueId());
-        if (last != null && (now - last) < 60000L) {
+        AfkSessionState session = session(player);
+        if ((now - session.lastWindowMessage) < 60000L) {
             return;
         }
         String formatted = message.replace("{time}", evaluation.nextChangeDisplay());
         player.sendMessage(adaptMsg(player, formatted));
-        windowMessageCooldown.put(player.getUniqueId(), now);
+        session.lastWindowMessage = now;
     }
 
-    private void refreshPlayerActivityData(Player player) {
+    private void recordPlayerActivity(Player player, ActivityType activityType, long timestamp) {
         if (player == null) {
             return;
         }
-        PlayerActivityData data = playerActivityData.get(player.getUniqueId());
-        if (data != null) {
-            data.refresh();
-        }
+        recordPlayerActivities(session(player), activityBit(activityType != null ? activityType : ActivityType.UNKNOWN), timestamp);
     }
 
-    private void recordPlayerActivity(Player player, ActivityType activityType, long timestamp) {
-        if (player == null) {
-            return;
-        }
-        UUID uuid = player.getUniqueId();
-        PlayerActivityData data = playerActivityData.computeIfAbsent(uuid, k -> new PlayerActivityData(buildActivityWeights()));
-        data.recordActivity(activityType != null ? activityType : ActivityType.UNKNOWN, timestamp);
-        if (plugin.getPerformanceOptimizer() != null) {
-            plugin.getPerformanceOptimizer().updatePlayerActivity(player);
+    private void recordPlayerActivities(AfkSessionState session, int typeMask, long timestamp) {
+        PlayerActivityData data = session.activityData();
+        if (data == null) {
+            data = session.activityData(() -> new PlayerActivityData(buildActivityWeights()));
         }
+        data.recordActivities(typeMask, timestamp);
     }
 
     /**
@@ -465,7 +784,7 @@ public class AFKManager {
     }
 
     private void checkWarnings(Player player) {
-        UUID uuid = player.getUniqueId();
+        AfkSessionState session = session(player);
         long currentTime = System.currentTimeMillis();
         long afkThresholdMillis = getPlayerAfkTime(player) * 1000L;
 
@@ -483,13 +802,13 @@ public class AFKManager {
 
         for (int warningTimeSeconds : plugin.getConfigManager().getAfkWarningTimes()) {
             if (secondsRemaining <= warningTimeSeconds) {
-                Set<Integer> sentPlayerWarnings = warningsSent.computeIfAbsent(uuid, k -> new HashSet<>());
+                Set<Integer> sentPlayerWarnings = session.warningsSent;
                 if (!sentPlayerWarnings.contains(warningTimeSeconds)) {
                     // Fire warning event
                     PlayerAFKWarningEvent warningEvent = new PlayerAFKWarningEvent(
                             player,
                             secondsRemaining,
-                            warningCounts.getOrDefault(uuid, 0) + 1,
+                            session.warningCount.get() + 1,
                             plugin.getConfigManager().getAfkWarningTimes().size(),
                             PlayerAFKWarningEvent.WarningType.STANDARD,
                             timeSinceActivity,
@@ -524,7 +843,7 @@ public class AFKManager {
 
                         AFKLogger.logAFKWarning(player, secondsRemaining);
                         sentPlayerWarnings.add(warningTimeSeconds);
-                        warningCounts.put(uuid, warningCounts.getOrDefault(uuid, 0) + 1);
+                        session.warningCount.incrementAndGet();
                     }
                 }
             }
@@ -556,9 +875,15 @@ public class AFKManager {
      * Previously this iterated an unordered {@link Map} and returned the first match,
      * so a multi-rank player could randomly receive the shortest timeout.</p>
      *
-     * <p>Falls back to {@code default-afk-time} only when the player matches no entry.</p>
+     * <p>Falls back to {@code default-afk-time} only when the player matches no entry.
+     * Normally served from {@link PermissionTierService}; the scan below only runs
+     * while the service is unavailable.</p>
      */
     private long getPlayerAfkTime(Player player) {
+        PermissionTierService tiers = plugin.getPermissionTierService();
+        if (tiers != null) {
+            return tiers.getAfkTimeSeconds(player);
+        }
         long bestPermissionTime = -1L;
         for (Map.Entry<String, Integer> entry : plugin.getConfigManager().getPermissionTimes().entrySet()) {
             Integer value = entry.getValue();
@@ -569,9 +894,15 @@ public class AFKManager {
         return bestPermissionTime > 0 ? bestPermissionTime : plugin.getConfigManager().getDefaultAfkTime();
     }
 
+    private boolean isBypassed(Player player) {
+        PermissionTierService tiers = plugin.getPermissionTierService();
+        return tiers != null ? tiers.isBypassed(player) : player.hasPermission(PermissionTierService.BYPASS);
+    }
+
     private void kickPlayerAfterAFK(Player player, long afkTimeMillis) {
-        String detectionMethod = afkDetectionReasons.getOrDefault(player.getUniqueId(), "standard");
-        int warningsSentCount = warningCounts.getOrDefault(player.getUniqueId(), 0);
+        AfkSessionState session = session(player);
+        String detectionMethod = session.afkDetectionReason != null ? session.afkDetectionReason : "standard";
+        int warningsSentCount = session.warningCount.get();
 
         // Check if player is in an exempt world (mark as AFK but skip action)
         List<String> exemptWorlds = plugin.getConfig().getStringList("afk-action.exempt-worlds");
@@ -906,42 +1237,48 @@ public class AFKManager {
     }
 
     /**
-     * Internal method to mark a player as AFK. Handles adding to sets and broadcasting.
+     * Internal method to mark a player as AFK. Handles the phase transition and broadcasting.
      * @param player The player.
      * @param reason The reason (e.g., "auto", "manual (command)", "manual (API)").
      * @param detectionMethod The detection method for event firing.
      */
     private void markAsAFKInternal(Player player, String reason, String detectionMethod) {
-        UUID uuid = player.getUniqueId();
-        boolean wasAlreadyAFK = afkPlayers.contains(uuid);
-        boolean wasManualAFK = manualAfkUsernames.contains(uuid);
+        AfkSessionState session = session(player);
+        AfkSessionState.Phase from = session.phase();
+        boolean manual = reason.contains("manual");
 
-        if (wasAlreadyAFK && !reason.contains("manual")) {
+        if (from.isAfk() && !manual) {
             return; // Already AFK with same type
         }
 
-        PlayerAFKStateChangeEvent.AFKState fromState = wasManualAFK ?
-                PlayerAFKStateChangeEvent.AFKState.AFK_MANUAL :
-                (wasAlreadyAFK ? PlayerAFKStateChangeEvent.AFKState.AFK_AUTO : PlayerAFKStateChangeEvent.AFKState.ACTIVE);
+        PlayerAFKStateChangeEvent.AFKState fromState = toEventState(from);
 
-        PlayerAFKStateChangeEvent.AFKState toState = reason.contains("manual") ?
+        PlayerAFKStateChangeEvent.AFKState toState = manual ?
                 PlayerAFKStateChangeEvent.AFKState.AFK_MANUAL :
                 PlayerAFKStateChangeEvent.AFKState.AFK_AUTO;
 
-        PlayerAFKStateChangeEvent.AFKReason eventReason = reason.contains("manual") ?
+        PlayerAFKStateChangeEvent.AFKReason eventReason = manual ?
                 PlayerAFKStateChangeEvent.AFKReason.MANUAL_TOGGLE :
                 PlayerAFKStateChangeEvent.AFKReason.INACTIVITY_TIMEOUT;
 
         // Fire state change event
         PlayerAFKStateChangeEvent stateEvent = fireAFKStateChangeEvent(player, fromState, toState,
-                eventReason, detectionMethod, reason.contains("manual"));
+                eventReason, detectionMethod, manual);
 
         if (stateEvent.isCancelled()) {
             return; // Event was cancelled, don't proceed
         }
 
-        afkPlayers.add(uuid);
-        warningsSent.remove(uuid);
+        AfkSessionState.Phase to = manual ? AfkSessionState.Phase.AFK_MANUAL : AfkSessionState.Phase.AFK_AUTO;
+        if (!session.transition(from, to)) {
+            return; // Another thread changed the state while the event ran; its transition wins
+        }
+        if (manual && session.manualAfkStartTime <= 0) {
+            session.manualAfkStartTime = System.currentTimeMillis();
+        }
+        session.warningsSent.clear();
+        // AFK players are re-evaluated every cycle (window, countdown, final action)
+        deadlines.scheduleNoLaterThan(player.getUniqueId(), System.currentTimeMillis());
 
         String afkBroadcastMessage = plugin.getConfigManager().getMessagePlayerNowAFK()
                 .replace("{player}", player.getName());
@@ -956,16 +1293,31 @@ public class AFKManager {
     }
 
     /**
-     * Internal method to unmark a player from AFK. Handles removing from sets and broadcasting.
+     * Internal method to unmark a player from AFK (auto or manual). Handles the phase
+     * transition and broadcasting.
      * @param player The player.
+     * @return true if this call moved the player out of AFK.
      */
-    private void unmarkAsAFKInternal(Player player) {
-        UUID uuid = player.getUniqueId();
-        if (!afkPlayers.remove(uuid)) {
-            return; // Player was not in the general AFK set.
-        }
+    private boolean unmarkAsAFKInternal(Player player) {
+        AfkSessionState session = session(player);
+        AfkSessionState.Phase from;
+        do {
+            from = session.phase();
+            if (!from.isAfk()) {
+                return false; // Player was not AFK.
+            }
+        } while (!session.transition(from, AfkSessionState.Phase.ACTIVE));
+
+        onLeftAfk(player, session);
+        return true;
+    }
 
-        warningsSent.remove(uuid);
+    /** Side effects of leaving AFK, run by whichever thread won the ACTIVE transition. */
+    private void onLeftAfk(Player player, AfkSessionState session) {
+        session.manualAfkStartTime = 0L;
+        session.warningsSent.clear();
+        // Back to the active schedule: the parked AFK/manual deadline may be far too late
+        deadlines.scheduleNoLaterThan(player.getUniqueId(), System.currentTimeMillis());
 
         // Cancelar cualquier cuenta atrás en curso (Fase 2) y pipelines (Fase 4)
         if (plugin.getCountdownSequenceService() != null) {
@@ -986,13 +1338,21 @@ public class AFKManager {
         }
     }
 
+    private static PlayerAFKStateChangeEvent.AFKState toEventState(AfkSessionState.Phase phase) {
+        return switch (phase) {
+            case AFK_MANUAL -> PlayerAFKStateChangeEvent.AFKState.AFK_MANUAL;
+            case AFK_AUTO -> PlayerAFKStateChangeEvent.AFKState.AFK_AUTO;
+            default -> PlayerAFKStateChangeEvent.AFKState.ACTIVE;
+        };
+    }
+
     private PlayerAFKStateChangeEvent fireAFKStateChangeEvent(Player player,
                                                               PlayerAFKStateChangeEvent.AFKState fromState,
                                                               PlayerAFKStateChangeEvent.AFKState toState,
                                                               PlayerAFKStateChangeEvent.AFKReason reason,
                                                               String detectionMethod, boolean wasManual) {
-        PlayerActivityData activityData = playerActivityData.get(player.getUniqueId());
-        double activityScore = activityData != null ? activityData.activityScore : 0.0;
+        PlayerActivityData activityData = getPlayerActivityData(player);
+        double activityScore = activityData != null ? activityData.getActivityScore() : 0.0;
 
         PlayerAFKStateChangeEvent event = new PlayerAFKStateChangeEvent(
                 player, fromState, toState, reason, detectionMethod, activityScore, wasManual
@@ -1006,7 +1366,7 @@ public class AFKManager {
 
     public boolean isAFK(Player player) {
         if (player == null) return false;
-        return afkPlayers.contains(player.getUniqueId());
+        return phaseOf(player.getUniqueId()).isAfk();
     }
 
     /**
@@ -1016,18 +1376,15 @@ public class AFKManager {
      */
     public boolean isManuallyAFK(Player player) {
         if (player == null) return false;
-        return manualAfkUsernames.contains(player.getUniqueId());
+        return phaseOf(player.getUniqueId()) == AfkSessionState.Phase.AFK_MANUAL;
     }
 
     public boolean toggleManualAFK(Player player) {
-        UUID uuid = player.getUniqueId();
-        if (manualAfkUsernames.contains(uuid)) { // Is manually AFK, turn it off
+        if (isManuallyAFK(player)) { // Is manually AFK, turn it off
             forceSetManualAFKState(player, false);
             return false;
         } else { // Not manually AFK (or not AFK at all), turn it on
-            if (isAFK(player) && !manualAfkUsernames.contains(uuid)) { // Is AFK (auto) but not manually
-                sendSafe(player, plugin.getConfigManager().getMessageAlreadyAFK());
-            } else if (isAFK(player)) { // Already manually AFK (should have been caught by first if, but defensive)
+            if (isAFK(player)) { // Is AFK (auto) but not manually
                 sendSafe(player, plugin.getConfigManager().getMessageAlreadyAFK());
             }
             forceSetManualAFKState(player, true);
@@ -1041,39 +1398,31 @@ public class AFKManager {
      * @param setAfk True to set as manually AFK, false to remove from AFK.
      */
     public void forceSetManualAFKState(Player player, boolean setAfk) {
-        UUID uuid = player.getUniqueId();
+        AfkSessionState session = session(player);
         String apiReason = setAfk ? "manual (API)" : "manual (API activity/unmark)";
 
         if (setAfk) {
-            boolean wasAlreadyManuallyAfk = manualAfkUsernames.contains(uuid);
-            manualAfkUsernames.add(uuid);
-            if (!manualAfkStartTimes.containsKey(uuid)) {
-                manualAfkStartTimes.put(uuid, System.currentTimeMillis());
-            }
+            boolean wasAlreadyManuallyAfk = session.phase() == AfkSessionState.Phase.AFK_MANUAL;
             markAsAFKInternal(player, wasAlreadyManuallyAfk ? "manual (API - refresh)" : apiReason, "api_call");
         } else {
-            boolean wasManuallyAfk = manualAfkUsernames.remove(uuid);
-            manualAfkStartTimes.remove(uuid);
-            boolean wasGenerallyAfk = afkPlayers.contains(uuid);
-
-            if (wasGenerallyAfk || wasManuallyAfk) {
-                PlayerAFKStateChangeEvent.AFKState fromState = wasManuallyAfk ?
-                        PlayerAFKStateChangeEvent.AFKState.AFK_MANUAL :
-                        PlayerAFKStateChangeEvent.AFKState.AFK_AUTO;
+            AfkSessionState.Phase from = session.phase();
+            boolean wasManuallyAfk = from == AfkSessionState.Phase.AFK_MANUAL;
+            boolean wasGenerallyAfk = from.isAfk();
 
-                fireAFKStateChangeEvent(player, fromState, PlayerAFKStateChangeEvent.AFKState.ACTIVE,
+            if (wasGenerallyAfk) {
+                fireAFKStateChangeEvent(player, toEventState(from), PlayerAFKStateChangeEvent.AFKState.ACTIVE,
                         PlayerAFKStateChangeEvent.AFKReason.API_CALL, "api_call", false);
             }
 
             unmarkAsAFKInternal(player);
 
             // Professional fix: Clear actioned state when manually unmarked
-            playersAlreadyActioned.remove(uuid);
+            session.clearAction();
 
             // v3.0.5: an explicit unmark (admin command, /afk toggle, API call)
             // is always considered an authoritative decision and clears the
             // pattern lock too.
-            patternEnforcedAfk.remove(uuid);
+            session.patternEnforced = false;
 
             if (wasManuallyAfk) {
                 AFKLogger.logAFKExit(player, apiReason, -1);
@@ -1088,33 +1437,29 @@ public class AFKManager {
             return;
         }
 
-        UUID uuid = player.getUniqueId();
+        AfkSessionState session = session(player);
         String method = detectionMethod != null ? detectionMethod : "api_call";
 
         if (setAfk) {
-            if (manualAfkUsernames.contains(uuid)) {
+            if (session.phase() == AfkSessionState.Phase.AFK_MANUAL) {
                 forceSetManualAFKState(player, false);
             }
 
-            boolean wasAuto = afkPlayers.contains(uuid) && !manualAfkUsernames.contains(uuid);
-            if (!wasAuto) {
+            if (session.phase() != AfkSessionState.Phase.AFK_AUTO) {
                 markAsAFKInternal(player, "auto (API)", method);
             }
 
-            if (afkPlayers.contains(uuid)) {
-                afkDetectionTimes.put(uuid, System.currentTimeMillis());
-                afkDetectionReasons.put(uuid, method);
-            }
-        } else {
-            if (afkPlayers.contains(uuid) && !manualAfkUsernames.contains(uuid)) {
-                fireAFKStateChangeEvent(player, PlayerAFKStateChangeEvent.AFKState.AFK_AUTO,
-                        PlayerAFKStateChangeEvent.AFKState.ACTIVE,
-                        PlayerAFKStateChangeEvent.AFKReason.API_CALL, method, false);
-                unmarkAsAFKInternal(player);
-                afkDetectionTimes.remove(uuid);
-                afkDetectionReasons.remove(uuid);
-                playersAlreadyActioned.remove(uuid);
+            if (session.isAfk()) {
+                session.afkDetectionTime = System.currentTimeMillis();
+                session.afkDetectionReason = method;
             }
+        } else if (session.phase() == AfkSessionState.Phase.AFK_AUTO) {
+            fireAFKStateChangeEvent(player, PlayerAFKStateChangeEvent.AFKState.AFK_AUTO,
+                    PlayerAFKStateChangeEvent.AFKState.ACTIVE,
+                    PlayerAFKStateChangeEvent.AFKReason.API_CALL, method, false);
+            unmarkAsAFKInternal(player);
+            session.clearDetection();
+            session.clearAction();
         }
     }
 
@@ -1122,54 +1467,54 @@ public class AFKManager {
         if (player == null) {
             return;
         }
-        UUID uuid = player.getUniqueId();
+        AfkSessionState session = session(player);
         PlayerAFKStateChangeEvent.AFKReason finalReason = reason != null ? reason : PlayerAFKStateChangeEvent.AFKReason.API_CALL;
         String method = detectionMethod != null ? detectionMethod : "api_call";
 
         // v3.0.5: an explicit "make active" call (admin command, API,
         // duration-expired etc.) is authoritative and clears the pattern lock.
-        patternEnforcedAfk.remove(uuid);
+        session.patternEnforced = false;
 
-        if (manualAfkUsernames.contains(uuid)) {
+        if (session.phase() == AfkSessionState.Phase.AFK_MANUAL) {
             forceSetManualAFKState(player, false);
         }
 
-        if (afkPlayers.contains(uuid) && !manualAfkUsernames.contains(uuid)) {
+        if (session.phase() == AfkSessionState.Phase.AFK_AUTO) {
             fireAFKStateChangeEvent(player, PlayerAFKStateChangeEvent.AFKState.AFK_AUTO,
                     PlayerAFKStateChangeEvent.AFKState.ACTIVE,
                     finalReason, method, false);
             unmarkAsAFKInternal(player);
-            afkDetectionTimes.remove(uuid);
-            afkDetectionReasons.remove(uuid);
-            playersAlreadyActioned.remove(uuid);
+            session.clearDetection();
+            session.clearAction();
         }
     }
 
     public boolean isAutoAFK(Player player) {
         if (player == null) return false;
-        UUID uuid = player.getUniqueId();
-        return afkPlayers.contains(uuid) && !manualAfkUsernames.contains(uuid);
+        return phaseOf(player.getUniqueId()) == AfkSessionState.Phase.AFK_AUTO;
     }
 
     public Long getManualAFKStartTime(Player player) {
         if (player == null) return null;
-        return manualAfkStartTimes.get(player.getUniqueId());
+        AfkSessionState session = sessions.get(player.getUniqueId());
+        long start = session != null ? session.manualAfkStartTime : 0L;
+        return start > 0 ? start : null;
     }
 
     public Set<UUID> getAfkPlayerUUIDs() {
-        return new HashSet<>(afkPlayers);
+        return snapshot.afkPlayers();
     }
 
     public Map<UUID, Long> getAfkDetectionTimesSnapshot() {
-        return new HashMap<>(afkDetectionTimes);
+        return snapshot.detectionTimes();
     }
 
     public Map<UUID, String> getAfkDetectionReasonsSnapshot() {
-        return new HashMap<>(afkDetectionReasons);
+        return snapshot.detectionReasons();
     }
 
     public Map<UUID, Long> getManualAfkStartTimesSnapshot() {
-        return new HashMap<>(manualAfkStartTimes);
+        return snapshot.manualStartTimes();
     }
 
     public void onPlayerActivity(Player player) {
@@ -1177,13 +1522,26 @@ public class AFKManager {
     }
 
     public void onPlayerActivity(Player player, ActivityType activityType) {
-        if (player == null) {
+        onPlayerActivities(player, activityBit(activityType != null ? activityType : ActivityType.UNKNOWN));
+    }
+
+    /** Bit of {@code type} in the mask taken by {@link #onPlayerActivities}. */
+    public static int activityBit(ActivityType type) {
+        return 1 << type.ordinal();
+    }
+
+    /**
+     * Handles several activities detected in one event (e.g. movement, head rotation
+     * and a jump in the same PlayerMoveEvent) as a single input: the pattern lock and
+     * the AFK state transitions are evaluated once, and every type is recorded in one
+     * pass with one timestamp. Types are given as a mask of {@link #activityBit} bits.
+     */
+    public void onPlayerActivities(Player player, int typeMask) {
+        if (player == null || typeMask == 0) {
             return;
         }
 
-        UUID uuid = player.getUniqueId();
-        boolean wasManuallyAfk = manualAfkUsernames.contains(uuid);
-        ActivityType type = activityType != null ? activityType : ActivityType.UNKNOWN;
+        AfkSessionState session = session(player);
 
         // v3.0.5: If the player was forced AFK by the PatternDetector, only a
         // strong input signal can release them. A bare PlayerMoveEvent or a
@@ -1193,48 +1551,37 @@ public class AFKManager {
         // a script or a stuck key cannot reasonably fake on their own:
         // chat messages, executed commands, inventory clicks, fishing rod
         // success, sprint/sneak toggles and explicit camera rotation.
-        if (patternEnforcedAfk.contains(uuid) && !isStrongActivity(type)) {
+        // One strong type in the batch releases the whole batch.
+        if (session.patternEnforced && (typeMask & STRONG_ACTIVITY_MASK) == 0) {
             return;
         }
 
-        if (wasManuallyAfk) {
+        AfkSessionState.Phase phase = session.phase();
+        if (phase == AfkSessionState.Phase.AFK_MANUAL) {
             forceSetManualAFKState(player, false);
-        } else if (afkPlayers.contains(uuid)) {
+        } else if (phase == AfkSessionState.Phase.AFK_AUTO) {
             // Auto-detected AFK: unmark immediately so the "no longer AFK"
             // broadcast fires at the moment of activity instead of waiting for
             // the next check cycle (up to afk-check-interval-seconds later).
             // Without this, the broadcast only arrives after the next timer tick —
             // and if the kick fires in that same tick, it never arrives at all.
-            long afkDuration = System.currentTimeMillis() - afkDetectionTimes.getOrDefault(uuid, System.currentTimeMillis());
-            String detectionMethod = afkDetectionReasons.getOrDefault(uuid, "auto_detection");
-            fireAFKStateChangeEvent(player, PlayerAFKStateChangeEvent.AFKState.AFK_AUTO,
-                    PlayerAFKStateChangeEvent.AFKState.ACTIVE,
-                    determineActivityReason(player), detectionMethod, false);
-            AFKLogger.logAFKExit(player, "auto (activity detected)", afkDuration / 1000L);
-            unmarkAsAFKInternal(player);
-            afkDetectionTimes.remove(uuid);
-            afkDetectionReasons.remove(uuid);
-            warningCounts.remove(uuid);
+            exitAutoAfkOnActivity(player, session);
         }
 
         // Strong activity also lifts the pattern lock so future movement
         // is treated normally.
-        patternEnforcedAfk.remove(uuid);
+        session.patternEnforced = false;
 
         // Professional fix: Clear actioned state when player shows activity
-        playersAlreadyActioned.remove(uuid);
+        session.clearAction();
 
         // Update activity tracking
-        recordPlayerActivity(player, type, System.currentTimeMillis());
-
-        if (plugin.getAPI() instanceof AntiAFKPlusAPIImpl apiImpl) {
-            apiImpl.handleInternalActivity(player, type);
-        }
+        recordPlayerActivities(session, typeMask, System.currentTimeMillis());
     }
 
     /**
-     * v3.0.5: Returns whether an activity type is a strong human-input signal,
-     * i.e. one that cannot reasonably be reproduced by passive sources like
+     * v3.0.5: Activity types that are strong human-input signals,
+     * i.e. ones that cannot reasonably be reproduced by passive sources like
      * water current, slime bouncing, piston push or a held key. These are
      * the signals allowed to lift the pattern-enforced AFK lock.
      *
@@ -1248,21 +1595,18 @@ public class AFKManager {
      * HEAD_ROTATION is strong because the existing rotation threshold (5°)
      * is already well above any passive source — only mouse input can reach it.
      */
-    private boolean isStrongActivity(ActivityType type) {
-        if (type == null) {
-            return false;
-        }
-        switch (type) {
-            case CHAT:
-            case COMMAND:
-            case INVENTORY:
-            case FISHING:
-            case HEAD_ROTATION:
-                return true;
-            default:
-                return false;
-        }
-    }
+    private static final int STRONG_ACTIVITY_MASK = activityBit(ActivityType.CHAT)
+            | activityBit(ActivityType.COMMAND)
+            | activityBit(ActivityType.INVENTORY)
+            | activityBit(ActivityType.FISHING)
+            | activityBit(ActivityType.HEAD_ROTATION);
+
+    /**
+     * Input counted for the activity tiers (performance.player-categorization).
+     * HEAD_ROTATION is left out: a rotating macro sets it on every move event, so
+     * counting it would put bots in the high-activity tier.
+     */
+    private static final int DELIBERATE_INPUT_MASK = STRONG_ACTIVITY_MASK & ~activityBit(ActivityType.HEAD_ROTATION);
 
     public void recordCustomActivity(Player player, ActivityType activityType) {
         if (player == null || activityType == null) {
@@ -1273,21 +1617,9 @@ public class AFKManager {
 
     public void clearPlayerData(Player player) {
         UUID uuid = player.getUniqueId();
-        afkPlayers.remove(uuid);
-        manualAfkUsernames.remove(uuid);
-        manualAfkStartTimes.remove(uuid);
-        warningsSent.remove(uuid);
-        afkDetectionTimes.remove(uuid);
-        afkDetectionReasons.remove(uuid);
-        playerActivityData.remove(uuid);
-        warningCounts.remove(uuid);
-        windowMessageCooldown.remove(uuid);
-        
-        // Professional fix: Clear actioned state when player data is cleared
-        playersAlreadyActioned.remove(uuid);
-
-        // v3.0.5: clear the pattern-enforced AFK lock
-        patternEnforcedAfk.remove(uuid);
+        // Drops AFK phase, warnings, actioned flag, pattern lock and activity data at once
+        sessions.remove(uuid);
+        deadlines.remove(uuid);
 
         // Clear pattern detector data
         if (patternDetector != null) {
@@ -1305,15 +1637,18 @@ public class AFKManager {
     // Enhanced getters for v2.0
 
     public String getAFKDetectionReason(Player player) {
-        return afkDetectionReasons.get(player.getUniqueId());
+        AfkSessionState session = sessions.get(player.getUniqueId());
+        return session != null ? session.afkDetectionReason : null;
     }
 
     public long getAFKDetectionTime(Player player) {
-        return afkDetectionTimes.getOrDefault(player.getUniqueId(), 0L);
+        AfkSessionState session = sessions.get(player.getUniqueId());
+        return session != null ? session.afkDetectionTime : 0L;
     }
 
     public PlayerActivityData getPlayerActivityData(Player player) {
-        return playerActivityData.get(player.getUniqueId());
+        AfkSessionState session = sessions.get(player.getUniqueId());
+        return session != null ? session.activityData() : null;
     }
 
     public PatternDetector getPatternDetector() {
@@ -1330,25 +1665,24 @@ public class AFKManager {
     public void executeAFKAction(Player player, String detectionReason) {
         if (player == null || !player.isOnline()) return;
 
-        UUID uuid = player.getUniqueId();
+        AfkSessionState session = session(player);
 
         // v3.0.5: Lock the AFK state behind the strong-input requirement so that
         // passive movement (water push, hold-spacebar, piston, falling, etc.)
         // cannot immediately revert it.
-        patternEnforcedAfk.add(uuid);
+        session.patternEnforced = true;
 
         // Mark as AFK first
-        if (!afkPlayers.contains(uuid)) {
+        if (!session.isAfk()) {
             markAsAFKInternal(player, "auto (" + detectionReason + ")", detectionReason);
-            afkDetectionTimes.put(uuid, System.currentTimeMillis());
-            afkDetectionReasons.put(uuid, detectionReason);
+            session.afkDetectionTime = System.currentTimeMillis();
+            session.afkDetectionReason = detectionReason;
         }
 
         // Execute the configured action (kick/teleport/etc.) only once
-        if (!playersAlreadyActioned.contains(uuid)) {
-            long timeSinceDetection = System.currentTimeMillis() - afkDetectionTimes.getOrDefault(uuid, System.currentTimeMillis());
+        if (session.claimAction()) {
+            long timeSinceDetection = System.currentTimeMillis() - detectionTimeOrNow(session);
             kickPlayerAfterAFK(player, timeSinceDetection);
-            playersAlreadyActioned.add(uuid);
         }
     }
 
@@ -1360,6 +1694,11 @@ public class AFKManager {
             this.afkCheckTask = null;
             plugin.getLogger().info("AFK check task successfully cancelled.");
         }
+        if (this.snapshotTask != null && !this.snapshotTask.isCancelled()) {
+            this.snapshotTask.cancel();
+            this.snapshotTask = null;
+        }
+        deadlines.clear();
 
         if (this.patternDetector != null) {
             this.patternDetector.shutdown();
@@ -1401,21 +1740,59 @@ public class AFKManager {
         return null;
     }
 
-    // Inner class for enhanced activity tracking
+    /**
+     * Activity tracking of one player session: per-type counts over recent time
+     * windows, the last time of each activity type, and an activity score.
+     *
+     * <p>Counts live in two rings of fixed time buckets: 10-second buckets over
+     * the 5-minute score window and 1-minute buckets over the 30-minute history
+     * window. Each cell packs its bucket number with the count, so a cell reused
+     * for a newer bucket restarts at 1 on its first increment and recording is a
+     * single CAS per ring. A count over {@code windowMs} covers the current,
+     * partial bucket plus the whole buckets before it, so it is accurate to one
+     * bucket at the old end of the window.</p>
+     *
+     * <p>The score is the sum of activity weights decayed exponentially with a
+     * 5-minute time constant, which matches the old 5-minute sliding sum for a
+     * steady activity rate. It is packed with its update time into one
+     * AtomicLong and decayed on read. Recording, counting and scoring are
+     * lock-free, O(1) per type and bucket, and allocate nothing; only the
+     * Map-returning getters allocate their result.</p>
+     *
+     * <p>This is the only per-player activity store: the public API's activity
+     * queries ({@code getActivityInfo}, {@code getActivityStatistics},
+     * {@code getTimeSinceLastActivity}) read it through
+     * {@link #getPlayerActivityData(Player)}.</p>
+     */
     public static class PlayerActivityData {
-        private final Deque<ActivityEntry> activityHistory = new ArrayDeque<>();
-        private final EnumMap<ActivityType, Long> lastActivityTimes = new EnumMap<>(ActivityType.class);
-        private final EnumMap<ActivityType, Double> configWeights;
-        private long lastActivityTimestamp = 0L;
-        private ActivityType lastActivityType = ActivityType.UNKNOWN;
-        private double activityScore = 0.0;
+        private static final ActivityType[] TYPES = ActivityType.values();
+        private static final long FINE_BUCKET_MS = 10_000L;
+        private static final long COARSE_BUCKET_MS = 60_000L;
+        private static final int COUNT_BITS = 20; // Low bits of a cell; the bucket number is above
+        private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+        private static final long SCORE_TIME_UNIT_MS = 100L;
+
+        private final BucketRing fine = new BucketRing(ACTIVITY_SCORE_WINDOW_MS, FINE_BUCKET_MS);
+        private final BucketRing coarse = new BucketRing(ACTIVITY_HISTORY_WINDOW_MS, COARSE_BUCKET_MS);
+        private final AtomicLongArray lastActivityTimes = new AtomicLongArray(TYPES.length);
+        private final double[] weights = new double[TYPES.length];
+        // Decayed weight sum (float bits, high word) and its time in SCORE_TIME_UNIT_MS after scoreBase (low word)
+        private final AtomicLong score = new AtomicLong();
+        private final long scoreBase = System.currentTimeMillis() - ACTIVITY_HISTORY_WINDOW_MS;
+        private volatile long lastActivityTimestamp = 0L;
+        private volatile ActivityType lastActivityType = ActivityType.UNKNOWN;
 
         /**
          * Creates PlayerActivityData with custom activity weights from config.
          * @param configWeights weight overrides from config; null or empty falls back to enum defaults
          */
         public PlayerActivityData(EnumMap<ActivityType, Double> configWeights) {
-            this.configWeights = configWeights != null ? configWeights : new EnumMap<>(ActivityType.class);
+            for (ActivityType type : TYPES) {
+                // Use config weight if available, otherwise fall back to enum default
+                weights[type.ordinal()] = configWeights != null
+                        ? configWeights.getOrDefault(type, type.getActivityWeight())
+                        : type.getActivityWeight();
+            }
         }
 
         /** Creates PlayerActivityData with default enum weights. */
@@ -1423,96 +1800,191 @@ public class AFKManager {
             this(null);
         }
 
-        public synchronized void recordActivity(ActivityType type, long timestamp) {
-            activityHistory.addLast(new ActivityEntry(type, timestamp));
-            while (activityHistory.size() > MAX_STORED_ACTIVITIES) {
-                activityHistory.removeFirst();
+        public void recordActivity(ActivityType type, long timestamp) {
+            recordActivities(activityBit(type), timestamp);
+        }
+
+        /**
+         * Records every type in {@code typeMask} (see {@link AFKManager#activityBit})
+         * at one timestamp; the highest-ordinal type becomes the last activity type.
+         */
+        public void recordActivities(int typeMask, long timestamp) {
+            if (typeMask == 0) {
+                return;
+            }
+            double weight = 0.0;
+            for (int bits = typeMask; bits != 0; bits &= bits - 1) {
+                int index = Integer.numberOfTrailingZeros(bits);
+                fine.increment(index, timestamp);
+                coarse.increment(index, timestamp);
+                lastActivityTimes.accumulateAndGet(index, timestamp, Math::max);
+                weight += weights[index];
+            }
+            if (timestamp >= lastActivityTimestamp) {
+                lastActivityTimestamp = timestamp;
+                lastActivityType = TYPES[31 - Integer.numberOfLeadingZeros(typeMask)];
+            }
+            addScore(weight, timestamp);
+        }
+
+        private void addScore(double weight, long timestamp) {
+            long at = scoreTime(timestamp);
+            while (true) {
+                long current = score.get();
+                double value = Float.intBitsToFloat((int) (current >>> 32));
+                long currentAt = current & 0xFFFFFFFFL;
+                long next = at >= currentAt
+                        ? packScore(value * decay(at - currentAt) + weight, at)
+                        : packScore(value + weight * decay(currentAt - at), currentAt); // Out-of-order record
+                if (score.compareAndSet(current, next)) {
+                    return;
+                }
             }
-            lastActivityTimes.put(type, timestamp);
-            lastActivityTimestamp = timestamp;
-            lastActivityType = type;
-            trimHistory(timestamp);
-            recalculateScore(timestamp);
         }
 
-        public synchronized void refresh() {
-            long now = System.currentTimeMillis();
-            trimHistory(now);
-            recalculateScore(now);
+        private long scoreTime(long timestamp) {
+            return Math.min(0xFFFFFFFFL, Math.max(0L, (timestamp - scoreBase) / SCORE_TIME_UNIT_MS));
         }
 
-        private void trimHistory(long currentTime) {
-            while (!activityHistory.isEmpty() &&
-                    currentTime - activityHistory.peekFirst().timestamp > ACTIVITY_HISTORY_WINDOW_MS) {
-                activityHistory.removeFirst();
-            }
+        private static long packScore(double value, long at) {
+            return ((long) Float.floatToRawIntBits((float) value) << 32) | at;
         }
 
-        private void recalculateScore(long currentTime) {
-            double score = 0.0;
-            for (ActivityEntry entry : activityHistory) {
-                if (currentTime - entry.timestamp <= ACTIVITY_SCORE_WINDOW_MS) {
-                    // Use config weight if available, otherwise fall back to enum default
-                    double weight = configWeights.getOrDefault(entry.type, entry.type.getActivityWeight());
-                    score += weight;
-                }
-            }
-            activityScore = Math.min(100.0, score * 5.0); // Normalize to 0-100 range
+        private static double decay(long units) {
+            return Math.exp(-(double) (units * SCORE_TIME_UNIT_MS) / ACTIVITY_SCORE_WINDOW_MS);
+        }
+
+        private BucketRing ring(long windowMs) {
+            return windowMs <= ACTIVITY_SCORE_WINDOW_MS ? fine : coarse;
+        }
+
+        /** Activities of {@code type} over the last {@code windowMs}, capped at the 30-minute history. */
+        public int getActivityCount(ActivityType type, long windowMs) {
+            return ring(windowMs).count(type.ordinal(), System.currentTimeMillis(), windowMs);
         }
 
-        public synchronized Map<ActivityType, Integer> getActivityCounts(long windowMs) {
-            long cutoff = System.currentTimeMillis() - windowMs;
+        public Map<ActivityType, Integer> getActivityCounts(long windowMs) {
+            BucketRing ring = ring(windowMs);
+            long now = System.currentTimeMillis();
             EnumMap<ActivityType, Integer> counts = new EnumMap<>(ActivityType.class);
-            for (ActivityEntry entry : activityHistory) {
-                if (entry.timestamp >= cutoff) {
-                    counts.merge(entry.type, 1, Integer::sum);
+            for (ActivityType type : TYPES) {
+                int count = ring.count(type.ordinal(), now, windowMs);
+                if (count > 0) {
+                    counts.put(type, count);
                 }
             }
             return counts;
         }
 
-        public synchronized Map<ActivityType, Long> getLastActivityTimes() {
-            return new EnumMap<>(lastActivityTimes);
+        public Map<ActivityType, Long> getLastActivityTimes() {
+            EnumMap<ActivityType, Long> times = new EnumMap<>(ActivityType.class);
+            for (ActivityType type : TYPES) {
+                long time = lastActivityTimes.get(type.ordinal());
+                if (time != 0L) {
+                    times.put(type, time);
+                }
+            }
+            return times;
         }
 
-        public synchronized int getTotalActivities(long windowMs) {
-            long cutoff = System.currentTimeMillis() - windowMs;
+        /** Deliberate-input activities (see DELIBERATE_INPUT_MASK) over the last {@code windowMs}. */
+        public int getDeliberateInputCount(long windowMs) {
+            BucketRing ring = ring(windowMs);
+            long now = System.currentTimeMillis();
             int total = 0;
-            for (ActivityEntry entry : activityHistory) {
-                if (entry.timestamp >= cutoff) {
-                    total++;
-                }
+            for (int bits = DELIBERATE_INPUT_MASK; bits != 0; bits &= bits - 1) {
+                total += ring.count(Integer.numberOfTrailingZeros(bits), now, windowMs);
+            }
+            return total;
+        }
+
+        public int getTotalActivities(long windowMs) {
+            BucketRing ring = ring(windowMs);
+            long now = System.currentTimeMillis();
+            int total = 0;
+            for (int type = 0; type < TYPES.length; type++) {
+                total += ring.count(type, now, windowMs);
             }
             return total;
         }
 
-        public synchronized double getActivityScore() {
-            return activityScore;
+        /** Activity score (0-100) at the current time. */
+        public double getActivityScore() {
+            long current = score.get();
+            double value = Float.intBitsToFloat((int) (current >>> 32));
+            long now = scoreTime(System.currentTimeMillis());
+            long at = current & 0xFFFFFFFFL;
+            if (now > at) {
+                value *= decay(now - at);
+            }
+            return Math.min(100.0, value * 5.0); // Normalize to 0-100 range
         }
 
-        public synchronized long getLastActivityTimestamp() {
+        public long getLastActivityTimestamp() {
             return lastActivityTimestamp;
         }
 
-        public synchronized ActivityType getLastActivityType() {
+        public ActivityType getLastActivityType() {
             return lastActivityType;
         }
 
-        public synchronized boolean isHighActivity() {
-            return activityScore >= 50.0;
+        public boolean isHighActivity() {
+            return getActivityScore() >= 50.0;
         }
 
-        public synchronized boolean isLowActivity() {
-            return activityScore <= 10.0;
+        public boolean isLowActivity() {
+            return getActivityScore() <= 10.0;
         }
 
-        private static class ActivityEntry {
-            private final ActivityType type;
-            private final long timestamp;
+        /**
+         * Per-type counts in {@code buckets} time buckets of {@code bucketMs}, one
+         * AtomicLong cell per bucket and type holding (bucket number, count).
+         */
+        private static final class BucketRing {
+            private final int buckets;
+            private final long bucketMs;
+            private final AtomicLongArray cells;
+
+            BucketRing(long windowMs, long bucketMs) {
+                this.buckets = (int) (windowMs / bucketMs);
+                this.bucketMs = bucketMs;
+                this.cells = new AtomicLongArray(buckets * TYPES.length);
+            }
+
+            void increment(int type, long timestamp) {
+                long bucket = timestamp / bucketMs;
+                int index = (int) (bucket % buckets) * TYPES.length + type;
+                while (true) {
+                    long cell = cells.get(index);
+                    long cellBucket = cell >>> COUNT_BITS;
+                    long next;
+                    if (cellBucket == bucket) {
+                        if ((cell & COUNT_MASK) == COUNT_MASK) {
+                            return; // Saturated
+                        }
+                        next = cell + 1;
+                    } else if (cellBucket < bucket) {
+                        next = (bucket << COUNT_BITS) | 1; // The cell still holds an expired bucket
+                    } else {
+                        return; // Older than the ring covers
+                    }
+                    if (cells.compareAndSet(index, cell, next)) {
+                        return;
+                    }
+                }
+            }
 
-            private ActivityEntry(ActivityType type, long timestamp) {
-                this.type = type;
-                this.timestamp = timestamp;
+            int count(int type, long now, long windowMs) {
+                long span = Math.min(buckets, (windowMs + bucketMs - 1) / bucketMs);
+                long newest = now / bucketMs;
+                int total = 0;
+                for (long bucket = newest - span + 1; bucket <= newest; bucket++) {
+                    long cell = cells.get((int) (bucket % buckets) * TYPES.length + type);
+                    if (cell >>> COUNT_BITS == bucket) {
+                        total += (int) (cell & COUNT_MASK);
+                    }
+                }
+                return total;
             }
         }
     }
@@ -0,0 +1,118 @@
+package me.koyere.antiafkplus.afk;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * All per-player AFK session state owned by {@link AFKManager}.
+ *
+ * <p>Replaces the separate {@code afkPlayers}, {@code manualAfkUsernames},
+ * {@code manualAfkStartTimes}, {@code afkDetectionTimes}, {@code afkDetectionReasons},
+ * {@code warningsSent}, {@code warningCounts}, {@code playersAlreadyActioned},
+ * {@code patternEnforcedAfk}, {@code windowMessageCooldown} and
+ * {@code playerActivityData} collections, which were plain HashSet/HashMap fields
+ * mutated from the check timer, listeners, the API and entity-scheduled callbacks.</p>
+ *
+ * <p>THREAD-SAFETY: the AFK state itself is an explicit {@link Phase} changed only by
+ * compare-and-set, so two threads racing on the same player (e.g. an activity event
+ * on a Folia region thread and the check task) cannot both apply a transition.
+ * Everything else is volatile or atomic and can be read from any thread without
+ * locking.</p>
+ */
+public final class AfkSessionState {
+
+    public enum Phase {
+        ACTIVE,
+        AFK_AUTO,
+        AFK_MANUAL;
+
+        public boolean isAfk() {
+            return this != ACTIVE;
+        }
+    }
+
+    private final AtomicReference<Phase> phase = new AtomicReference<>(Phase.ACTIVE);
+
+    /** When /afk (or the API) put the player in manual AFK, 0 = not manual. */
+    volatile long manualAfkStartTime;
+
+    // When and why the player was first detected as AFK (0 / null = not detected)
+    volatile long afkDetectionTime;
+    volatile String afkDetectionReason;
+
+    // Warnings already delivered in the current idle period, and how many in total
+    final Set<Integer> warningsSent = ConcurrentHashMap.newKeySet();
+    final AtomicInteger warningCount = new AtomicInteger();
+
+    // Professional fix: the final AFK action (kick/teleport/...) runs once per AFK session
+    private final AtomicBoolean actioned = new AtomicBoolean();
+
+    /**
+     * v3.0.5: AFK state enforced by the PatternDetector (e.g. confined_space,
+     * keystroke_timeout). A weak activity source (a single PlayerMoveEvent, a passive
+     * interact, a jump) is NOT enough to leave AFK; only strong human signals (chat,
+     * command, inventory click, fishing, an explicit camera rotation) lift the lock.
+     * This prevents the AFK-pool / hold-spacebar bypasses, which produce move events
+     * without any actual player input.
+     */
+    volatile boolean patternEnforced;
+
+    volatile long lastWindowMessage;
+
+    private volatile AFKManager.PlayerActivityData activityData;
+
+    public Phase phase() {
+        return phase.get();
+    }
+
+    public boolean isAfk() {
+        return phase.get().isAfk();
+    }
+
+    /** Atomically moves from {@code expected} to {@code next}; false if another thread got there first. */
+    public boolean transition(Phase expected, Phase next) {
+        return phase.compareAndSet(expected, next);
+    }
+
+    /** Claims the once-per-session final action. Only the first caller gets {@code true}. */
+    boolean claimAction() {
+        return actioned.compareAndSet(false, true);
+    }
+
+    boolean isActioned() {
+        return actioned.get();
+    }
+
+    void clearAction() {
+        actioned.set(false);
+    }
+
+    /** Forgets the AFK detection (time, reason and warning count) of the previous session. */
+    void clearDetection() {
+        afkDetectionTime = 0L;
+        afkDetectionReason = null;
+        warningCount.set(0);
+    }
+
+    AFKManager.PlayerActivityData activityData() {
+        return activityData;
+    }
+
+    AFKManager.PlayerActivityData activityData(Supplier<AFKManager.PlayerActivityData> factory) {
+        AFKManager.PlayerActivityData data = activityData;
+        if (data == null) {
+            synchronized (this) {
+                data = activityData;
+                if (data == null) {
+                    data = factory.get();
+                    activityData = data;
+                }
+            }
+        }
+        return data;
+    }
+}
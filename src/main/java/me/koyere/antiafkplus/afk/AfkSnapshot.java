@@ -0,0 +1,216 @@
+package me.koyere.antiafkplus.afk;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Immutable view of every player's AFK state, published by {@link AFKManager}
+ * once per tick for readers that poll it: placeholders, the API's AFK lists and
+ * statistics, particle effects and the admin command.
+ *
+ * <p>Scoreboard and tab plugins resolve placeholders for every viewer on every
+ * refresh. Reading one published snapshot is a volatile read plus a map lookup,
+ * and the per-player maps and counts here are built once per version instead of
+ * once per call. A snapshot trails the live {@link AfkSessionState} by at most
+ * one publish interval; detection logic keeps reading the live state.</p>
+ *
+ * <p>Publishing is copy-on-write: entries of players whose state did not change
+ * are carried over, and if nothing changed the previous snapshot is kept, so
+ * {@link #version()} only moves when the content does. The last-activity
+ * timestamp is deliberately not part of an entry: it changes on nearly every
+ * move of an active player and would republish the snapshot every tick. The
+ * idle time is read live from {@link AFKManager#getLastMovementTimestampForPlayer}.</p>
+ */
+public final class AfkSnapshot {
+
+    /** One player's AFK state at publish time. */
+    public record Entry(AfkSessionState.Phase phase, long detectionTime, long manualStartTime,
+                        String reason) {
+
+        public boolean isAfk() {
+            return phase.isAfk();
+        }
+
+        /** When the current AFK period started, 0 if the player is active. */
+        public long afkSince() {
+            if (phase == AfkSessionState.Phase.AFK_MANUAL && manualStartTime > 0) {
+                return manualStartTime;
+            }
+            return phase.isAfk() ? detectionTime : 0L;
+        }
+    }
+
+    static final AfkSnapshot EMPTY = new AfkSnapshot(0L, 0L, Collections.emptyMap());
+
+    private final long version;
+    private final long publishedAt;
+    private final Map<UUID, Entry> entries;
+    private final Set<UUID> afkPlayers;
+    private final int manualAfkCount;
+    private final Map<String, Integer> reasonCounts;
+
+    // Derived maps for the legacy snapshot getters, built on first use
+    private volatile Map<UUID, Long> detectionTimes;
+    private volatile Map<UUID, String> detectionReasons;
+    private volatile Map<UUID, Long> manualStartTimes;
+
+    private AfkSnapshot(long version, long publishedAt, Map<UUID, Entry> entries) {
+        this.version = version;
+        this.publishedAt = publishedAt;
+        this.entries = entries;
+
+        Set<UUID> afk = new HashSet<>();
+        Map<String, Integer> reasons = new LinkedHashMap<>();
+        int manual = 0;
+        for (Map.Entry<UUID, Entry> e : entries.entrySet()) {
+            Entry entry = e.getValue();
+            if (entry.isAfk()) {
+                afk.add(e.getKey());
+                if (entry.phase() == AfkSessionState.Phase.AFK_MANUAL) {
+                    manual++;
+                }
+            }
+            if (entry.reason() != null && !entry.reason().isEmpty()) {
+                reasons.merge(entry.reason(), 1, Integer::sum);
+            }
+        }
+        this.afkPlayers = Collections.unmodifiableSet(afk);
+        this.manualAfkCount = manual;
+        this.reasonCounts = Collections.unmodifiableMap(reasons);
+    }
+
+    /**
+     * Builds the snapshot following {@code previous} from the live sessions, or
+     * returns {@code previous} itself if no player's entry changed.
+     */
+    static AfkSnapshot publish(AfkSnapshot previous, Map<UUID, AfkSessionState> sessions, long now) {
+        boolean changed = sessions.size() != previous.entries.size();
+        if (!changed) {
+            // Same size and every session matches its old entry: same key set, same content
+            for (Map.Entry<UUID, AfkSessionState> e : sessions.entrySet()) {
+                Entry old = previous.entries.get(e.getKey());
+                if (entryOf(e.getValue(), old) != old) {
+                    changed = true;
+                    break;
+                }
+            }
+            if (!changed) {
+                return previous;
+            }
+        }
+
+        Map<UUID, Entry> entries = new HashMap<>(Math.max(16, sessions.size() * 4 / 3 + 1));
+        for (Map.Entry<UUID, AfkSessionState> e : sessions.entrySet()) {
+            UUID uuid = e.getKey();
+            entries.put(uuid, entryOf(e.getValue(), previous.entries.get(uuid)));
+        }
+        return new AfkSnapshot(previous.version + 1, now, Collections.unmodifiableMap(entries));
+    }
+
+    private static Entry entryOf(AfkSessionState session, Entry old) {
+        AfkSessionState.Phase phase = session.phase();
+        long detectionTime = session.afkDetectionTime;
+        long manualStart = session.manualAfkStartTime;
+        String reason = session.afkDetectionReason;
+        if (old != null && old.phase() == phase && old.detectionTime() == detectionTime
+                && old.manualStartTime() == manualStart
+                && Objects.equals(old.reason(), reason)) {
+            return old;
+        }
+        return new Entry(phase, detectionTime, manualStart, reason);
+    }
+
+    /** Increases every time a publish changes the content. */
+    public long version() {
+        return version;
+    }
+
+    /** When this version was published (epoch millis). */
+    public long publishedAt() {
+        return publishedAt;
+    }
+
+    /** The player's entry, or {@code null} if they had no session at publish time. */
+    public Entry entry(UUID uuid) {
+        return entries.get(uuid);
+    }
+
+    public AfkSessionState.Phase phase(UUID uuid) {
+        Entry entry = entries.get(uuid);
+        return entry != null ? entry.phase() : AfkSessionState.Phase.ACTIVE;
+    }
+
+    public Map<UUID, Entry> entries() {
+        return entries;
+    }
+
+    /** UUIDs of the players that were AFK, manual or automatic. Unmodifiable. */
+    public Set<UUID> afkPlayers() {
+        return afkPlayers;
+    }
+
+    public int afkCount() {
+        return afkPlayers.size();
+    }
+
+    public int manualAfkCount() {
+        return manualAfkCount;
+    }
+
+    public int autoAfkCount() {
+        return afkPlayers.size() - manualAfkCount;
+    }
+
+    /** Number of players per AFK detection reason. Unmodifiable. */
+    public Map<String, Integer> reasonCounts() {
+        return reasonCounts;
+    }
+
+    Map<UUID, Long> detectionTimes() {
+        Map<UUID, Long> result = detectionTimes;
+        if (result == null) {
+            Map<UUID, Long> built = new HashMap<>();
+            entries.forEach((uuid, entry) -> {
+                if (entry.detectionTime() > 0) {
+                    built.put(uuid, entry.detectionTime());
+                }
+            });
+            detectionTimes = result = Collections.unmodifiableMap(built);
+        }
+        return result;
+    }
+
+    Map<UUID, String> detectionReasons() {
+        Map<UUID, String> result = detectionReasons;
+        if (result == null) {
+            Map<UUID, String> built = new HashMap<>();
+            entries.forEach((uuid, entry) -> {
+                if (entry.reason() != null) {
+                    built.put(uuid, entry.reason());
+                }
+            });
+            detectionReasons = result = Collections.unmodifiableMap(built);
+        }
+        return result;
+    }
+
+    Map<UUID, Long> manualStartTimes() {
+        Map<UUID, Long> result = manualStartTimes;
+        if (result == null) {
+            Map<UUID, Long> built = new HashMap<>();
+            entries.forEach((uuid, entry) -> {
+                if (entry.manualStartTime() > 0) {
+                    built.put(uuid, entry.manualStartTime());
+                }
+            });
+            manualStartTimes = result = Collections.unmodifiableMap(built);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,139 @@
+package me.koyere.antiafkplus.afk;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Hashed timing wheel holding the next instant at which each player's AFK state
+ * has to be re-evaluated (next warning, AFK threshold, voluntary-AFK limit, ...).
+ *
+ * <p>Slots are {@link #SLOT_MILLIS} wide and hold an intrusive doubly linked list
+ * of entries, so {@link #schedule(UUID, long)} and {@link #remove(UUID)} are O(1)
+ * regardless of how many players are tracked. Deadlines further away than one
+ * rotation simply stay in their slot and are skipped until their turn comes, so a
+ * {@link #pollDue(long)} call only touches the slots elapsed since the previous
+ * poll: its cost scales with the players actually due, not with the online count.</p>
+ *
+ * <p>THREAD-SAFETY: all methods are synchronized. Polling happens on the AFK check
+ * task; scheduling may also come from event threads (region threads on Folia).</p>
+ */
+public final class DeadlineWheel {
+
+    /** Width of one slot. Matches the second-level granularity of AFK timeouts and warnings. */
+    public static final long SLOT_MILLIS = 1000L;
+    private static final int SLOT_COUNT = 512; // ~8.5 minutes per rotation, power of two
+    private static final int SLOT_MASK = SLOT_COUNT - 1;
+
+    private static final class Entry {
+        final UUID uuid;
+        long deadline;
+        int slot;
+        Entry prev;
+        Entry next;
+
+        Entry(UUID uuid) {
+            this.uuid = uuid;
+        }
+    }
+
+    private final Entry[] slots = new Entry[SLOT_COUNT];
+    private final Map<UUID, Entry> entries = new HashMap<>();
+    private long cursor; // Slot time (deadline / SLOT_MILLIS) polled up to, inclusive
+
+    public DeadlineWheel(long now) {
+        this.cursor = now / SLOT_MILLIS;
+    }
+
+    /**
+     * Sets (or moves) a player's deadline. A deadline already in the past is placed in
+     * the current slot and returned by the next poll.
+     */
+    public synchronized void schedule(UUID uuid, long deadline) {
+        Entry entry = entries.get(uuid);
+        if (entry == null) {
+            entry = new Entry(uuid);
+            entries.put(uuid, entry);
+        } else {
+            unlink(entry);
+        }
+        entry.deadline = deadline;
+        link(entry, (int) (Math.max(deadline / SLOT_MILLIS, cursor) & SLOT_MASK));
+    }
+
+    /** Moves a player's deadline earlier only; later deadlines are left untouched. */
+    public synchronized void scheduleNoLaterThan(UUID uuid, long deadline) {
+        Entry entry = entries.get(uuid);
+        if (entry == null || deadline < entry.deadline) {
+            schedule(uuid, deadline);
+        }
+    }
+
+    public synchronized void remove(UUID uuid) {
+        Entry entry = entries.remove(uuid);
+        if (entry != null) {
+            unlink(entry);
+        }
+    }
+
+    /**
+     * Removes and returns every player whose deadline is {@code <= now}. Callers are
+     * expected to re-{@link #schedule} the players they still track.
+     */
+    public synchronized List<UUID> pollDue(long now) {
+        List<UUID> due = new ArrayList<>();
+        long target = now / SLOT_MILLIS;
+        // After a long stall every slot has elapsed; scan each one exactly once
+        long from = Math.max(cursor, target - SLOT_MASK);
+        for (long slotTime = from; slotTime <= target; slotTime++) {
+            Entry entry = slots[(int) (slotTime & SLOT_MASK)];
+            while (entry != null) {
+                Entry next = entry.next;
+                if (entry.deadline <= now) {
+                    unlink(entry);
+                    entries.remove(entry.uuid);
+                    due.add(entry.uuid);
+                }
+                entry = next;
+            }
+        }
+        // The current slot is not finished yet: entries due later this second stay put
+        cursor = Math.max(cursor, target);
+        return due;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(slots, null);
+        entries.clear();
+    }
+
+    private void link(Entry entry, int slot) {
+        entry.slot = slot;
+        entry.prev = null;
+        entry.next = slots[slot];
+        if (entry.next != null) {
+            entry.next.prev = entry;
+        }
+        slots[slot] = entry;
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            slots[entry.slot] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+        entry.prev = null;
+        entry.next = null;
+    }
+}
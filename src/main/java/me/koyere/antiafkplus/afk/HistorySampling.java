@@ -0,0 +1,81 @@
+package me.koyere.antiafkplus.afk;
+
+/**
+ * Decides which PlayerMoveEvents are stored in a player's {@link MovementHistory}.
+ *
+ * <p>By default ({@link #EVERY_MOVE}) every move is stored, up to 20 per second
+ * per player. A policy can thin that out in two ways:</p>
+ * <ul>
+ *   <li>{@code minIntervalMs} — at most one sample per interval, i.e. a fixed
+ *   minimum tick spacing. The detectors' sample-count windows are configured
+ *   at one sample per tick, so {@link PatternAnalyzer.Settings#withSampleSpacing}
+ *   scales them by {@link #spacingMs()} to keep covering the same time.</li>
+ *   <li>{@code minDistance} / {@code minRotation} — skip a move that changed the
+ *   position (blocks) and the view (degrees of yaw or pitch) by no more than
+ *   that since the last stored sample, e.g. slight rotations or bubble-column
+ *   jitter. A sample is still stored once {@code maxIntervalMs} has passed, so
+ *   a nearly motionless player keeps a steady heartbeat in the history.</li>
+ * </ul>
+ *
+ * <p>Thinning only ever stretches the time a full history covers, so the 15 s
+ * the large-pool detector relies on is kept. Bukkit-free, so {@link TraceReplay}
+ * applies the same policy to recorded traces.</p>
+ */
+public record HistorySampling(long minIntervalMs, double minDistance, double minRotation, long maxIntervalMs) {
+
+    /** One server tick; the spacing the sample-count windows are configured at. */
+    public static final long TICK_MS = 50L;
+
+    public static final HistorySampling EVERY_MOVE = new HistorySampling(0L, 0.0, 0.0, 1000L);
+
+    public HistorySampling {
+        minIntervalMs = Math.max(0L, minIntervalMs);
+        minDistance = Math.max(0.0, minDistance);
+        minRotation = Math.max(0.0, minRotation);
+        maxIntervalMs = Math.max(minIntervalMs, maxIntervalMs);
+    }
+
+    /** True if the distance/rotation epsilons are in effect. */
+    public boolean filtersSmallMoves() {
+        return minDistance > 0.0 || minRotation > 0.0;
+    }
+
+    /** Time between two stored samples at the densest, used to scale the sample windows. */
+    public long spacingMs() {
+        return Math.max(TICK_MS, minIntervalMs);
+    }
+
+    /**
+     * True if a move to the given position and facing at {@code now} should be
+     * appended to {@code history}. Writer thread only, like the history's
+     * indexed accessors.
+     */
+    public boolean accept(MovementHistory history, double x, double y, double z,
+                          float yaw, float pitch, long now) {
+        int size = history.size();
+        if (size == 0) {
+            return true;
+        }
+        int last = size - 1;
+        long elapsed = now - history.timestamp(last);
+        if (elapsed < minIntervalMs) {
+            return false;
+        }
+        if (!filtersSmallMoves() || elapsed >= maxIntervalMs) {
+            return true;
+        }
+
+        double dx = x - history.x(last);
+        double dy = y - history.y(last);
+        double dz = z - history.z(last);
+        if (dx * dx + dy * dy + dz * dz > minDistance * minDistance) {
+            return true;
+        }
+        // The history stores yaw wrapped to [-180, 180): compare on the circle
+        double yawChange = Math.abs(yaw - history.yaw(last)) % 360.0;
+        if (yawChange > 180.0) {
+            yawChange = 360.0 - yawChange;
+        }
+        return yawChange > minRotation || Math.abs(pitch - history.pitch(last)) > minRotation;
+    }
+}
@@ -3,6 +3,7 @@ package me.koyere.antiafkplus.afk;
 import me.koyere.antiafkplus.AntiAFKPlus;
 import me.koyere.antiafkplus.config.ConfigManager; // For direct access if needed
 import me.koyere.antiafkplus.afk.AFKManager;      // For direct access if needed
+import me.koyere.antiafkplus.permission.PermissionTierService;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority; // Good to specify if needed
@@ -84,7 +85,8 @@ public class ItemPickupBlocker implements Listener {
      */
     private boolean shouldBlockPickupForPlayer(Player player) {
         // Check bypass permission first
-        if (player.hasPermission("antiafkplus.bypass.itempickup")) {
+        PermissionTierService tiers = plugin.getPermissionTierService();
+        if (tiers != null ? tiers.hasItemPickupBypass(player) : player.hasPermission(PermissionTierService.BYPASS_ITEM_PICKUP)) {
             return false;
         }
         return this.configManager.isBlockPickupWhileAFK() && this.afkManager.isAFK(player);
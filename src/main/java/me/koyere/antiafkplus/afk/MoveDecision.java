@@ -0,0 +1,131 @@
+package me.koyere.antiafkplus.afk;
+
+/**
+ * The per-event decisions {@link MovementListener} takes on a PlayerMoveEvent,
+ * on plain deltas and flags so they run (and are benchmarked) without Bukkit.
+ *
+ * <p>The listener computes the deltas once per event, asks
+ * {@link #fastPath} whether any detector could react, and only otherwise runs
+ * the jump/state detectors and {@link #appearsManual}.</p>
+ */
+final class MoveDecision {
+
+    /** Direction-change score above which land movement counts as manual. */
+    static final double LAND_DIRECTION_CHANGE_THRESHOLD = 0.5;
+    /** Higher in water: pools redirect players at corners. */
+    static final double WATER_DIRECTION_CHANGE_THRESHOLD = 0.8;
+
+    private MoveDecision() {}
+
+    /** Any axis moved by more than the micro-movement threshold. */
+    static boolean significantMovement(double deltaX, double deltaY, double deltaZ, double threshold) {
+        return Math.abs(deltaX) > threshold
+                || Math.abs(deltaY) > threshold
+                || Math.abs(deltaZ) > threshold;
+    }
+
+    /** Yaw (wrap-around aware) or pitch changed by more than {@code threshold} degrees. */
+    static boolean headRotation(float fromYaw, float fromPitch, float toYaw, float toPitch, double threshold) {
+        double deltaYaw = Math.abs(toYaw - fromYaw);
+        double deltaPitch = Math.abs(toPitch - fromPitch);
+
+        // Normalize yaw difference (handle 360 degree wrap-around)
+        if (deltaYaw > 180) {
+            deltaYaw = 360 - deltaYaw;
+        }
+
+        return deltaYaw > threshold || deltaPitch > threshold;
+    }
+
+    /**
+     * True if the event can skip the detectors and only feed the history: no
+     * axis above the threshold, no rotation, no jump candidate, no swim/fly
+     * toggle, and on land a horizontal step (Euclidean, as {@link #appearsManual}
+     * measures it) within the threshold. A diagonal step can pass the per-axis
+     * test and still be a manual step, so both are checked.
+     *
+     * <p>The one input not covered is the direction-change score of
+     * {@link #appearsManual}: sub-threshold moves do not get it, it is evaluated
+     * on the next event that leaves the fast path.</p>
+     */
+    static boolean fastPath(double deltaX, double deltaY, double deltaZ, double threshold,
+                            boolean headRotation, boolean jumpCandidate, boolean stateToggled,
+                            boolean inWater) {
+        if (headRotation || jumpCandidate || stateToggled
+                || significantMovement(deltaX, deltaY, deltaZ, threshold)) {
+            return false;
+        }
+        return inWater || deltaX * deltaX + deltaZ * deltaZ <= threshold * threshold;
+    }
+
+    /**
+     * Whether the move looks like a key press rather than a water current:
+     * land velocity above the threshold, direction changes in the recent
+     * history, or head rotation.
+     *
+     * @param history the player's movement history, before this move is appended
+     */
+    static boolean appearsManual(MovementHistory history, double deltaX, double deltaZ,
+                                 boolean inWater, boolean headRotation, double threshold) {
+        if (history.isEmpty()) {
+            return !inWater; // No history: trust land movement, distrust water movement
+        }
+
+        // 1. Velocity-based detection (land only).
+        //    Water currents routinely exceed any reasonable velocity threshold, so velocity
+        //    alone is NOT a reliable indicator of deliberate key presses when in water.
+        if (!inWater && deltaX * deltaX + deltaZ * deltaZ > threshold * threshold) {
+            return true;
+        }
+
+        // 2. Head rotation is always a strong manual signal.
+        if (headRotation) {
+            return true;
+        }
+
+        // 3. Direction-change analysis.
+        //    Manual players change direction unpredictably; water currents are smoother.
+        //    We require a higher threshold in water (pools redirect players at corners,
+        //    generating spurious direction changes that must not be mistaken for manual input).
+        return history.size() >= 3 && directionChanges(history, 3)
+                > (inWater ? WATER_DIRECTION_CHANGE_THRESHOLD : LAND_DIRECTION_CHANGE_THRESHOLD);
+    }
+
+    /**
+     * Calculates direction change variance in recent movement history.
+     * Higher values indicate more erratic/manual movement patterns.
+     *
+     * @param history The player's movement history (read on the event thread)
+     * @param count Number of most recent samples to inspect
+     * @return Direction change metric (0.0 to 1.0+)
+     */
+    static double directionChanges(MovementHistory history, int count) {
+        int size = history.size();
+        int start = Math.max(0, size - count);
+        if (size - start < 3) return 0.0;
+
+        double totalAngleChange = 0.0;
+        double previousAngle = Double.NaN;
+
+        for (int i = start + 1; i < size; i++) {
+            double deltaX = history.x(i) - history.x(i - 1);
+            double deltaZ = history.z(i) - history.z(i - 1);
+
+            if (Math.abs(deltaX) > 0.01 || Math.abs(deltaZ) > 0.01) { // Only if there's movement
+                double currentAngle = Math.atan2(deltaZ, deltaX);
+
+                if (!Double.isNaN(previousAngle)) {
+                    double angleDiff = Math.abs(currentAngle - previousAngle);
+                    if (angleDiff > Math.PI) {
+                        angleDiff = 2 * Math.PI - angleDiff; // Normalize
+                    }
+                    totalAngleChange += angleDiff;
+                }
+
+                previousAngle = currentAngle;
+            }
+        }
+
+        return totalAngleChange / Math.PI; // Normalize to roughly 0-1 range
+    }
+}
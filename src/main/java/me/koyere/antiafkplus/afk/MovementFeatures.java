@@ -0,0 +1,98 @@
+package me.koyere.antiafkplus.afk;
+
+/**
+ * Aggregate features of the most recent samples of a {@link MovementHistory}:
+ * bounding box, centroid and variance, horizontal path length, water fraction,
+ * heading changes and A -> B -> A reversals.
+ *
+ * <p>The history keeps the sums (centroid, variance, path length, water samples,
+ * heading changes, reversals) up to date incrementally on every append. The
+ * bounding box is not tracked per append: it is found by one scan of the window
+ * while the snapshot copies the samples, which is O(window) once per analysis.
+ * Either way the detectors read finished values instead of each rescanning the
+ * samples. Instances are plain value holders filled by
+ * {@link MovementHistory#snapshot(MovementHistory.Window)} and reused across
+ * analysis cycles.</p>
+ */
+public final class MovementFeatures {
+
+    /** Steps shorter than this on both X and Z are ignored for heading changes. */
+    public static final double MEANINGFUL_STEP = 0.05;
+
+    /** Configured window length (samples); {@link #count} is below it until the history fills up. */
+    public int window;
+    /** Samples currently covered by these features. */
+    public int count;
+
+    // Horizontal bounding box
+    public double minX;
+    public double maxX;
+    public double minZ;
+    public double maxZ;
+
+    // Horizontal centroid and per-axis variance
+    public double meanX;
+    public double meanZ;
+    public double varianceX;
+    public double varianceZ;
+
+    // Oldest and newest sample of the window
+    public double firstX;
+    public double firstZ;
+    public double lastX;
+    public double lastZ;
+
+    /** Horizontal distance travelled between consecutive samples. */
+    public double pathLength;
+    /** Samples recorded while in water. */
+    public int waterSamples;
+    /** Steps that moved more than {@link #MEANINGFUL_STEP} on X or Z. */
+    public int meaningfulSteps;
+    /** Sum of heading changes (radians, 0..PI each) between consecutive meaningful steps. */
+    public double turnSum;
+    /** Samples that returned within 0.5 blocks of the position two samples earlier after two 0.5+ block steps. */
+    public int pendulumSteps;
+
+    public double spanX() {
+        return maxX - minX;
+    }
+
+    public double spanZ() {
+        return maxZ - minZ;
+    }
+
+    /** Distance between the oldest and the newest sample of the window. */
+    public double straightLineDistance() {
+        double dx = lastX - firstX;
+        double dz = lastZ - firstZ;
+        return Math.sqrt(dx * dx + dz * dz);
+    }
+
+    public double waterFraction() {
+        return count == 0 ? 0.0 : (double) waterSamples / count;
+    }
+
+    /**
+     * Average heading change between consecutive meaningful steps, normalized to
+     * 0..1 (0 = perfectly straight, 1 = reversing every step).
+     */
+    public double directionVariance() {
+        if (meaningfulSteps < 2) {
+            return 0.0;
+        }
+        return turnSum / (meaningfulSteps - 1) / Math.PI;
+    }
+
+    void clear(int window) {
+        this.window = window;
+        count = 0;
+        minX = maxX = minZ = maxZ = 0.0;
+        meanX = meanZ = varianceX = varianceZ = 0.0;
+        firstX = firstZ = lastX = lastZ = 0.0;
+        pathLength = 0.0;
+        waterSamples = 0;
+        meaningfulSteps = 0;
+        turnSum = 0.0;
+        pendulumSteps = 0;
+    }
+}
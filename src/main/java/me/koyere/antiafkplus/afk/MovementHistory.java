@@ -0,0 +1,650 @@
+package me.koyere.antiafkplus.afk;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Fixed-capacity ring buffer of movement samples used by the PatternDetector.
+ *
+ * <p>Samples are stored column-wise in parallel primitive arrays instead of one
+ * {@code LocationSnapshot} object per sample. Appending overwrites the oldest
+ * slot in O(1) and allocates nothing, replacing the previous
+ * {@code CopyOnWriteArrayList} that copied the whole 300-element array twice on
+ * every PlayerMoveEvent.</p>
+ *
+ * <p>Each sample takes 13 bytes: x/y/z as 16-bit steps from the previous
+ * sample in 1/4096 block, yaw and pitch as 16-bit fractions of a full turn, the
+ * interval since the previous sample as 16 bits (milliseconds, or rounded
+ * seconds for gaps over 32 s) and a water flag. Absolute values are kept only
+ * for the oldest and the newest sample, and decoded by walking the steps from
+ * the nearer end. The original list held one 56-byte snapshot plus a 4-byte
+ * reference per sample, about 17.8 KB per 300-sample history; this one takes
+ * about 4.2 KB. The 1/4096 block quantum is 40 times finer than the smallest
+ * step any detector reacts to (0.01 block). A step over 8 blocks (a teleport)
+ * or a gap over 9 hours does not fit and starts a fresh history.</p>
+ *
+ * <p>Nothing derived is stored: step lengths, headings, turns and reversals
+ * are recomputed from the stored steps, so the detectors see one consistent,
+ * slightly rounded history.</p>
+ *
+ * <p>THREAD-SAFETY: there is a single writer — the thread that fires
+ * PlayerMoveEvent for the owning player (main thread, or the player's region
+ * thread on Folia). The indexed accessors ({@link #x(int)}, {@link #z(int)}, ...)
+ * are unsynchronized and must only be used from that writer thread. Any other
+ * thread (e.g. the async pattern analysis) must go through
+ * {@link #snapshot(Window)}, which copies the samples into a caller-owned
+ * {@link Window} under an optimistic {@link StampedLock} read and retries if a
+ * write raced with the copy, so the reader always sees a consistent history.</p>
+ *
+ * <p>Each append also updates two sliding {@link MovementFeatures} accumulators:
+ * one over the last {@link #featureWindow()} samples (the PatternDetector's
+ * analysis window) and one over the whole buffer. They only add the new sample
+ * and drop the evicted one.</p>
+ */
+public final class MovementHistory {
+
+    /** 300 entries ≈ 15 s at 20 TPS — a full large-pool circuit. */
+    public static final int DEFAULT_CAPACITY = 300;
+    /** Matches the PatternDetector's default min-samples-for-pattern. */
+    public static final int DEFAULT_FEATURE_WINDOW = 40;
+    private static final int MIN_FEATURE_WINDOW = 3; // A reversal needs three samples
+
+    private static final double POSITION_SCALE = 4096.0; // Fixed-point steps per block
+    private static final float ANGLE_QUANTUM = 360.0f / 65536; // Degrees per yaw/pitch step
+    private static final char SECONDS = 0x8000; // Interval flag: the low 15 bits are whole seconds
+    private static final long MAX_INTERVAL = (SECONDS - 1) * 1000L; // About 9 hours
+
+    private final int capacity;
+    private final short[] dxs;     // Fixed-point step from the previous sample
+    private final short[] dys;
+    private final short[] dzs;
+    private final short[] yaws;    // Wrapped to [-180, 180)
+    private final short[] pitches;
+    private final char[] intervals; // Time since the previous sample, see SECONDS
+    private final boolean[] water;
+    // Absolute fixed-point position and time of the oldest and the newest sample
+    private long oldestX;
+    private long oldestY;
+    private long oldestZ;
+    private long oldestTime;
+    private long newestX;
+    private long newestY;
+    private long newestZ;
+    private long newestTime;
+
+    private final StampedLock lock = new StampedLock();
+    private int head; // next slot to write
+    private int size;
+    private long appended; // Sequence number of the next sample; slot = sequence % capacity
+
+    private FeatureAccumulator full;
+    private FeatureAccumulator recent;
+    private volatile int featureWindow;
+
+    public MovementHistory(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.dxs = new short[capacity];
+        this.dys = new short[capacity];
+        this.dzs = new short[capacity];
+        this.yaws = new short[capacity];
+        this.pitches = new short[capacity];
+        this.intervals = new char[capacity];
+        this.water = new boolean[capacity];
+        this.full = new FeatureAccumulator(capacity);
+        this.featureWindow = clampWindow(DEFAULT_FEATURE_WINDOW);
+        this.recent = new FeatureAccumulator(featureWindow);
+    }
+
+    /**
+     * Appends a sample, overwriting the oldest one once the buffer is full.
+     * Writer thread only.
+     */
+    public void append(double x, double y, double z, float yaw, float pitch, long timestamp, boolean water) {
+        long stamp = lock.writeLock();
+        try {
+            long qx = Math.round(x * POSITION_SCALE);
+            long qy = Math.round(y * POSITION_SCALE);
+            long qz = Math.round(z * POSITION_SCALE);
+            if (size > 0 && (!fits(qx - newestX) || !fits(qy - newestY) || !fits(qz - newestZ)
+                    || timestamp - newestTime > MAX_INTERVAL)) {
+                // Teleported or away for hours: the step cannot be stored, and the old samples are stale
+                size = 0;
+                full = new FeatureAccumulator(capacity);
+                recent = new FeatureAccumulator(featureWindow);
+            }
+
+            long seq = appended;
+            // Evict first: once full, the new sample overwrites the oldest one's slot
+            recent.makeRoomFor(seq);
+            full.makeRoomFor(seq);
+            if (size == capacity && capacity > 1) {
+                int next = head + 1 == capacity ? 0 : head + 1;
+                oldestX += dxs[next];
+                oldestY += dys[next];
+                oldestZ += dzs[next];
+                oldestTime += interval(intervals[next]);
+            }
+
+            int slot = head;
+            char interval = size == 0 ? 0 : encodeInterval(timestamp - newestTime);
+            dxs[slot] = (short) (size == 0 ? 0 : qx - newestX);
+            dys[slot] = (short) (size == 0 ? 0 : qy - newestY);
+            dzs[slot] = (short) (size == 0 ? 0 : qz - newestZ);
+            yaws[slot] = (short) Math.round(yaw / ANGLE_QUANTUM);
+            pitches[slot] = (short) Math.round(pitch / ANGLE_QUANTUM);
+            intervals[slot] = interval;
+            this.water[slot] = water;
+            newestX = qx;
+            newestY = qy;
+            newestZ = qz;
+            // Advance by the stored interval so decoding from either end agrees
+            newestTime = size == 0 ? timestamp : newestTime + interval(interval);
+            head = slot + 1 == capacity ? 0 : slot + 1;
+            if (size < capacity) {
+                size++;
+            }
+            if (size == 1) {
+                oldestX = newestX;
+                oldestY = newestY;
+                oldestZ = newestZ;
+                oldestTime = newestTime;
+            }
+            appended = seq + 1;
+
+            recent.add(seq, qx, qz);
+            full.add(seq, qx, qz);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private static boolean fits(long step) {
+        return step == (short) step;
+    }
+
+    /** Milliseconds below 32,768, rounded seconds up to MAX_INTERVAL above; a clock step back counts as 0. */
+    private static char encodeInterval(long millis) {
+        if (millis < SECONDS) {
+            return (char) Math.max(0L, millis);
+        }
+        return (char) (SECONDS | Math.min((millis + 500) / 1000, SECONDS - 1));
+    }
+
+    private static long interval(char encoded) {
+        return (encoded & SECONDS) == 0 ? encoded : (encoded & (SECONDS - 1)) * 1000L;
+    }
+
+    /** Moved more than MovementFeatures.MEANINGFUL_STEP horizontally on either axis. */
+    private boolean meaningful(int slot) {
+        return Math.abs(dxs[slot]) / POSITION_SCALE > MovementFeatures.MEANINGFUL_STEP
+                || Math.abs(dzs[slot]) / POSITION_SCALE > MovementFeatures.MEANINGFUL_STEP;
+    }
+
+    /** Heading change between the meaningful steps into {@code fromSlot} and {@code toSlot}. */
+    private double turn(int fromSlot, int toSlot) {
+        double diff = Math.abs(Math.atan2(dzs[toSlot], dxs[toSlot]) - Math.atan2(dzs[fromSlot], dxs[fromSlot]));
+        // Normalize angle difference (handle wrap-around at ±π)
+        return diff > Math.PI ? 2 * Math.PI - diff : diff;
+    }
+
+    /** Moved away then back to nearly the same position, ending at {@code slot}. */
+    private boolean reversal(int slot) {
+        int prev = slot == 0 ? capacity - 1 : slot - 1;
+        return length(dxs[prev], dys[prev], dzs[prev]) > 0.5
+                && length(dxs[slot], dys[slot], dzs[slot]) > 0.5
+                && length(dxs[prev] + dxs[slot], dys[prev] + dys[slot], dzs[prev] + dzs[slot]) < 0.5;
+    }
+
+    private static double length(int dx, int dy, int dz) {
+        return Math.sqrt((double) dx * dx + (double) dy * dy + (double) dz * dz) / POSITION_SCALE;
+    }
+
+    /** Horizontal length of the step into {@code slot}; the previous slot must hold a sample. */
+    private double stepLength(int slot) {
+        return length(dxs[slot], 0, dzs[slot]);
+    }
+
+    /** Fixed-point value of {@code column} at {@code index}, walked from the nearer end. */
+    private long decode(short[] column, long oldest, long newest, int index) {
+        long value;
+        if (index < size / 2) {
+            value = oldest;
+            for (int i = 1, slot = physicalSlot(0); i <= index; i++) {
+                slot = slot + 1 == capacity ? 0 : slot + 1;
+                value += column[slot];
+            }
+        } else {
+            value = newest;
+            for (int i = size - 1, slot = physicalSlot(size - 1); i > index; i--) {
+                value -= column[slot];
+                slot = slot == 0 ? capacity - 1 : slot - 1;
+            }
+        }
+        return value;
+    }
+
+    /** Length of the window covered by {@link Window#recent}. */
+    public int featureWindow() {
+        return featureWindow;
+    }
+
+    /**
+     * Resizes the {@link Window#recent} feature window (clamped to 3..capacity),
+     * rebuilding it from the stored samples. A no-op when the size is unchanged,
+     * so it can be called every analysis cycle; safe from any thread.
+     */
+    public void setFeatureWindow(int window) {
+        int clamped = clampWindow(window);
+        if (clamped == featureWindow) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            FeatureAccumulator resized = new FeatureAccumulator(clamped);
+            resized.rebuild();
+            recent = resized;
+            featureWindow = clamped;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private int clampWindow(int window) {
+        return Math.min(capacity, Math.max(MIN_FEATURE_WINDOW, window)); // Never past the stored samples
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /** Number of stored samples. Exact on the writer thread, a hint elsewhere. */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Indexed accessors: index 0 is the oldest sample, size() - 1 the newest.
+    // Writer thread only — other threads must use snapshot(Window).
+    // Positions and timestamps walk the steps from the nearer end: O(1) at
+    // either end, up to size / 2 steps in the middle.
+
+    public double x(int index) {
+        checkIndex(index);
+        return decode(dxs, oldestX, newestX, index) / POSITION_SCALE;
+    }
+
+    public double y(int index) {
+        checkIndex(index);
+        return decode(dys, oldestY, newestY, index) / POSITION_SCALE;
+    }
+
+    public double z(int index) {
+        checkIndex(index);
+        return decode(dzs, oldestZ, newestZ, index) / POSITION_SCALE;
+    }
+
+    /** Yaw wrapped to [-180, 180). */
+    public float yaw(int index) {
+        return yaws[physical(index)] * ANGLE_QUANTUM;
+    }
+
+    public float pitch(int index) {
+        return pitches[physical(index)] * ANGLE_QUANTUM;
+    }
+
+    public long timestamp(int index) {
+        checkIndex(index);
+        long time;
+        if (index < size / 2) {
+            time = oldestTime;
+            for (int i = 1, slot = physicalSlot(0); i <= index; i++) {
+                slot = slot + 1 == capacity ? 0 : slot + 1;
+                time += interval(intervals[slot]);
+            }
+        } else {
+            time = newestTime;
+            for (int i = size - 1, slot = physicalSlot(size - 1); i > index; i--) {
+                time -= interval(intervals[slot]);
+                slot = slot == 0 ? capacity - 1 : slot - 1;
+            }
+        }
+        return time;
+    }
+
+    public boolean inWater(int index) {
+        return water[physical(index)];
+    }
+
+    private int physical(int index) {
+        checkIndex(index);
+        return physicalSlot(index);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + " out of bounds for size " + size);
+        }
+    }
+
+    private int physicalSlot(int index) {
+        int slot = head - size + index;
+        return slot < 0 ? slot + capacity : slot;
+    }
+
+    /**
+     * Copies the current history into {@code into}, oldest sample first.
+     * Safe to call from any thread; the copy is always a consistent view of
+     * the buffer at a single point in time.
+     *
+     * @param into caller-owned window, reused across calls to avoid allocation
+     * @return the number of samples copied
+     */
+    public int snapshot(Window into) {
+        into.ensureCapacity(capacity);
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            copyInto(into);
+            if (lock.validate(stamp)) {
+                return into.size;
+            }
+        }
+        // A write raced with the optimistic copy: fall back to a real read lock.
+        stamp = lock.readLock();
+        try {
+            copyInto(into);
+            return into.size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private void copyInto(Window into) {
+        int n = size;
+        int slot = physicalSlot(0);
+        long qx = oldestX;
+        long qy = oldestY;
+        long qz = oldestZ;
+        long time = oldestTime;
+        for (int i = 0; i < n; i++) {
+            if (i > 0) {
+                qx += dxs[slot];
+                qy += dys[slot];
+                qz += dzs[slot];
+                time += interval(intervals[slot]);
+            }
+            into.x[i] = qx / POSITION_SCALE;
+            into.y[i] = qy / POSITION_SCALE;
+            into.z[i] = qz / POSITION_SCALE;
+            into.yaw[i] = yaws[slot] * ANGLE_QUANTUM;
+            into.pitch[i] = pitches[slot] * ANGLE_QUANTUM;
+            into.timestamp[i] = time;
+            into.inWater[i] = water[slot];
+            slot = slot + 1 == capacity ? 0 : slot + 1;
+        }
+        into.size = n;
+        recent.copyTo(into.recent);
+        full.copyTo(into.full);
+    }
+
+    private int slotOf(long seq) {
+        return (int) (seq % capacity);
+    }
+
+    /**
+     * Sliding features over the last {@code window} samples. Sums are kept relative
+     * to an anchor sample and recomputed from scratch once per {@code window}
+     * appends, so neither large coordinates nor add/subtract drift erode precision.
+     * The bounding box is scanned on {@link #copyTo}, which runs next to the
+     * snapshot's own O(window) copy. Evicting a meaningful step scans forward to
+     * the next one to drop its turn, so each sample is visited once more on its
+     * way out of the window.
+     * Writer (write lock) only, except {@link #copyTo} under the snapshot read.
+     */
+    private final class FeatureAccumulator {
+        private final int window;
+        private long start; // Sequence of the oldest covered sample
+        private long end;   // Sequence after the newest covered sample
+        private long startX; // Fixed-point position of the oldest covered sample
+        private long startZ;
+
+        private double anchorX;
+        private double anchorZ;
+        private double sumX;
+        private double sumZ;
+        private double sumXX;
+        private double sumZZ;
+        private double pathLength;
+        private double turnSum; // Turns of every meaningful step in the window except the first
+        private int waterSamples;
+        private int reversalCount;
+        private int meaningfulSteps;
+        private long lastMeaningful; // Sequence of the newest meaningful step, if any
+        private int sinceResync;
+
+        FeatureAccumulator(int window) {
+            this.window = window;
+            this.start = appended;
+            this.end = appended;
+        }
+
+        /** Replays the stored samples that fall inside the window. */
+        void rebuild() {
+            int count = Math.min(size, window);
+            long first = appended - count;
+            start = first;
+            end = first;
+            long qx = decode(dxs, oldestX, newestX, size - count);
+            long qz = decode(dzs, oldestZ, newestZ, size - count);
+            for (long seq = first; seq < appended; seq++) {
+                if (seq > first) {
+                    int slot = slotOf(seq);
+                    qx += dxs[slot];
+                    qz += dzs[slot];
+                }
+                add(seq, qx, qz);
+            }
+            resync();
+        }
+
+        void makeRoomFor(long seq) {
+            if (seq - start >= window) {
+                evictOldest();
+            }
+        }
+
+        /** Adds sample {@code seq}, whose fixed-point position is {@code (qx, qz)}. */
+        void add(long seq, long qx, long qz) {
+            int slot = slotOf(seq);
+            if (start == end) {
+                startX = qx;
+                startZ = qz;
+                anchorX = qx / POSITION_SCALE;
+                anchorZ = qz / POSITION_SCALE;
+            }
+            double rx = qx / POSITION_SCALE - anchorX;
+            double rz = qz / POSITION_SCALE - anchorZ;
+            sumX += rx;
+            sumZ += rz;
+            sumXX += rx * rx;
+            sumZZ += rz * rz;
+            if (water[slot]) {
+                waterSamples++;
+            }
+            if (seq > start) { // The step from the previous sample lies inside the window
+                pathLength += stepLength(slot);
+                if (meaningful(slot)) {
+                    if (meaningfulSteps > 0) {
+                        turnSum += turn(slotOf(lastMeaningful), slot);
+                    }
+                    lastMeaningful = seq;
+                    meaningfulSteps++;
+                }
+            }
+            if (seq - 2 >= start && reversal(slot)) {
+                reversalCount++;
+            }
+            end = seq + 1;
+
+            if (++sinceResync >= window) {
+                resync();
+            }
+        }
+
+        private void evictOldest() {
+            long seq = start;
+            int slot = slotOf(seq);
+            double rx = startX / POSITION_SCALE - anchorX;
+            double rz = startZ / POSITION_SCALE - anchorZ;
+            sumX -= rx;
+            sumZ -= rz;
+            sumXX -= rx * rx;
+            sumZZ -= rz * rz;
+            if (water[slot]) {
+                waterSamples--;
+            }
+            // The step into the next sample leaves the window with this sample
+            if (seq + 1 < end) {
+                int next = slotOf(seq + 1);
+                startX += dxs[next];
+                startZ += dzs[next];
+                pathLength -= stepLength(next);
+                if (meaningful(next)) {
+                    meaningfulSteps--;
+                    // The new first meaningful step no longer has a predecessor in the window
+                    if (meaningfulSteps > 0) {
+                        long following = seq + 2;
+                        while (!meaningful(slotOf(following))) {
+                            following++;
+                        }
+                        turnSum -= turn(next, slotOf(following));
+                    }
+                }
+            }
+            // So does the reversal ending two samples later
+            if (seq + 2 < end && reversal(slotOf(seq + 2))) {
+                reversalCount--;
+            }
+            start = seq + 1;
+        }
+
+        private void resync() {
+            sinceResync = 0;
+            sumX = sumZ = sumXX = sumZZ = 0.0;
+            pathLength = 0.0;
+            turnSum = 0.0;
+            if (start == end) {
+                return;
+            }
+            anchorX = startX / POSITION_SCALE;
+            anchorZ = startZ / POSITION_SCALE;
+            long qx = startX;
+            long qz = startZ;
+            int previousMeaningful = -1;
+            for (long seq = start; seq < end; seq++) {
+                int slot = slotOf(seq);
+                if (seq > start) {
+                    qx += dxs[slot];
+                    qz += dzs[slot];
+                    pathLength += stepLength(slot);
+                    if (meaningful(slot)) {
+                        if (previousMeaningful >= 0) {
+                            turnSum += turn(previousMeaningful, slot);
+                        }
+                        previousMeaningful = slot;
+                    }
+                }
+                double rx = qx / POSITION_SCALE - anchorX;
+                double rz = qz / POSITION_SCALE - anchorZ;
+                sumX += rx;
+                sumZ += rz;
+                sumXX += rx * rx;
+                sumZZ += rz * rz;
+            }
+        }
+
+        void copyTo(MovementFeatures f) {
+            int n = (int) (end - start);
+            f.clear(window);
+            if (n <= 0) {
+                return;
+            }
+            long qx = startX;
+            long qz = startZ;
+            long minX = qx;
+            long maxX = qx;
+            long minZ = qz;
+            long maxZ = qz;
+            for (int i = 1, slot = slotOf(start); i < n; i++) {
+                slot = slot + 1 == capacity ? 0 : slot + 1;
+                qx += dxs[slot];
+                qz += dzs[slot];
+                minX = Math.min(minX, qx);
+                maxX = Math.max(maxX, qx);
+                minZ = Math.min(minZ, qz);
+                maxZ = Math.max(maxZ, qz);
+            }
+            f.count = n;
+            f.minX = minX / POSITION_SCALE;
+            f.maxX = maxX / POSITION_SCALE;
+            f.minZ = minZ / POSITION_SCALE;
+            f.maxZ = maxZ / POSITION_SCALE;
+            double meanRx = sumX / n;
+            double meanRz = sumZ / n;
+            f.meanX = anchorX + meanRx;
+            f.meanZ = anchorZ + meanRz;
+            f.varianceX = Math.max(0.0, sumXX / n - meanRx * meanRx);
+            f.varianceZ = Math.max(0.0, sumZZ / n - meanRz * meanRz);
+            f.firstX = startX / POSITION_SCALE;
+            f.firstZ = startZ / POSITION_SCALE;
+            f.lastX = qx / POSITION_SCALE;
+            f.lastZ = qz / POSITION_SCALE;
+            f.pathLength = Math.max(0.0, pathLength);
+            f.waterSamples = waterSamples;
+            f.meaningfulSteps = meaningfulSteps;
+            f.turnSum = Math.max(0.0, turnSum);
+            f.pendulumSteps = reversalCount;
+        }
+    }
+
+    /**
+     * Linear, caller-owned copy of a {@link MovementHistory}. Index 0 is the
+     * oldest sample. A window is meant to be reused by one reader thread across
+     * analysis cycles, so after warm-up a snapshot allocates nothing.
+     */
+    public static final class Window {
+        public double[] x = new double[0];
+        public double[] y = new double[0];
+        public double[] z = new double[0];
+        public float[] yaw = new float[0];
+        public float[] pitch = new float[0];
+        public long[] timestamp = new long[0];
+        public boolean[] inWater = new boolean[0];
+        /** Features of the last {@link MovementHistory#featureWindow()} samples. */
+        public final MovementFeatures recent = new MovementFeatures();
+        /** Features of every sample in the window. */
+        public final MovementFeatures full = new MovementFeatures();
+        private int size;
+
+        public int size() {
+            return size;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (x.length >= capacity) {
+                return;
+            }
+            x = new double[capacity];
+            y = new double[capacity];
+            z = new double[capacity];
+            yaw = new float[capacity];
+            pitch = new float[capacity];
+            timestamp = new long[capacity];
+            inWater = new boolean[capacity];
+        }
+    }
+}
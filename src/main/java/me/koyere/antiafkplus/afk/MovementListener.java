@@ -1,11 +1,12 @@
 package me.koyere.antiafkplus.afk;
 
-import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.bukkit.Bukkit;
+import org.bukkit.Location;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
 import org.bukkit.entity.Player;
@@ -14,6 +15,7 @@ import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.Action;
 import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
 import org.bukkit.event.player.PlayerCommandPreprocessEvent;
 import org.bukkit.event.player.PlayerFishEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
@@ -25,48 +27,22 @@ import org.bukkit.event.player.PlayerQuitEvent;
 import io.papermc.paper.event.player.AsyncChatEvent;
 import me.koyere.antiafkplus.AntiAFKPlus;
 import me.koyere.antiafkplus.api.data.ActivityType;
+import me.koyere.antiafkplus.permission.PermissionTierService;
 import me.koyere.antiafkplus.platform.PlayerInputUtil;
 
 public class MovementListener implements Listener {
 
-    // All maps use ConcurrentHashMap so the async PatternDetector can read
-    // timestamp values concurrently with main-thread writes without data races.
-    private final Map<UUID, Long> lastMovementTime = new ConcurrentHashMap<>();
-
-    // Enhanced detection data structures
-    private final Map<UUID, PlayerLocationData> lastLocationData = new ConcurrentHashMap<>();
-    private final Map<UUID, Long> lastHeadRotationTime = new ConcurrentHashMap<>();
-    private final Map<UUID, Long> lastJumpTime = new ConcurrentHashMap<>();
-    private final Map<UUID, Integer> jumpCounter = new ConcurrentHashMap<>();
-    private final Map<UUID, Long> lastSwimStateChange = new ConcurrentHashMap<>();
-    private final Map<UUID, Long> lastFlyStateChange = new ConcurrentHashMap<>();
-    private final Map<UUID, Long> lastCommandTime = new ConcurrentHashMap<>();
-
-    // v2.4 NEW: Keystroke detection for large AFK pools
-    private final Map<UUID, Long> lastKeystrokeTime = new ConcurrentHashMap<>();
-    private final Map<UUID, Boolean> lastMovementWasAutomatic = new ConcurrentHashMap<>();
-
-    // v3.0.5: State for "Use Item / Place Block" toggle-mode bypass detection.
-    private final Map<UUID, InteractContext> lastInteractContext = new ConcurrentHashMap<>();
-
-    // v3.1: Timestamp of the last PlayerInteractEvent (recorded BEFORE the passive
-    // filter). Used by PatternDetector to distinguish a stationary AFK miner (whose
-    // client keeps firing LEFT_CLICK_BLOCK) from a player who is doing absolutely
-    // nothing, so the detector can skip the latter without skipping the former.
-    private final Map<UUID, Long> lastAnyInteractTime = new ConcurrentHashMap<>();
-
-    // v3.1: Player position captured at the time of the most recent door/trapdoor
-    // RIGHT_CLICK_BLOCK. When a door opens, subsequent auto-clicks may land on AIR
-    // (the cursor passes through the open door) or on a block behind the door — both
-    // should still be treated as passive when the player hasn't moved.
-    private final Map<UUID, InteractContext> lastDoorToggleContext = new ConcurrentHashMap<>();
-
-    // v3.1.1 FIX: Plugin-teleport settle window for manual AFK.
-    // Maps a player UUID to a timestamp (ms) until which positional movement is
-    // ignored as activity, because a co-existing plugin (e.g. EssentialsX) just
-    // teleported a manually-AFK player to its AFK zone. The teleport itself and
-    // the landing/gravity movement that follows must not unmark the manual AFK.
-    private final Map<UUID, Long> pluginTeleportSettleUntil = new ConcurrentHashMap<>();
+    // One mutable state object per online player (created on join, dropped on quit).
+    // A PlayerMoveEvent does a single lookup here and then works on primitive fields;
+    // see PlayerMovementState for which fields are volatile and why. The map itself is
+    // concurrent so the async PatternDetector and API callers can look players up safely.
+    //
+    // v3.0.5 / v3.1 interact contexts and the v3.1.1 plugin-teleport settle window
+    // (EssentialsX AFK-zone conflict) live in the state object as well.
+    private final Map<UUID, PlayerMovementState> states = new ConcurrentHashMap<>();
+
+    // Offline trace recording (/afkplus trace), fed from updatePlayerLocationData
+    private final TraceRecorder traceRecorder = new TraceRecorder();
 
     // Configuration thresholds for micro-movement detection (loaded from config)
     private double microMovementThreshold = 0.1;
@@ -74,7 +50,29 @@ public class MovementListener implements Listener {
     private long jumpSpamThreshold = 1000;
     private int maxJumpsPerPeriod = 10;
     private long jumpResetPeriod = 30000;
+
+    // Which moves are stored in the pattern-detection history (performance.history-sampling)
+    private volatile HistorySampling historySampling = HistorySampling.EVERY_MOVE;
     
+    // PlayerMoveEvent cost tracking for /afkplus performance. Every event bumps a
+    // path counter; 1 in (MOVE_SAMPLE_MASK + 1) events is also timed with nanoTime.
+    private static final int MOVE_SAMPLE_MASK = 63;
+    private int moveSampleCounter;
+    private final LongAdder fastPathEvents = new LongAdder();
+    private final LongAdder fullPathEvents = new LongAdder();
+    private final LongAdder fastPathSamples = new LongAdder();
+    private final LongAdder fastPathSampleNanos = new LongAdder();
+    private final LongAdder fullPathSamples = new LongAdder();
+    private final LongAdder fullPathSampleNanos = new LongAdder();
+    private final LongAdder historySamples = new LongAdder();
+    private final LongAdder historySamplesSkipped = new LongAdder();
+
+    // Activity bits of a coalesced move-event dispatch (AFKManager.onPlayerActivities)
+    private static final int MOVEMENT_BIT = AFKManager.activityBit(ActivityType.MOVEMENT);
+    private static final int HEAD_ROTATION_BIT = AFKManager.activityBit(ActivityType.HEAD_ROTATION);
+    private static final int JUMP_BIT = AFKManager.activityBit(ActivityType.JUMP);
+    private static final int CUSTOM_BIT = AFKManager.activityBit(ActivityType.CUSTOM);
+
     // v2.4 NEW: Keystroke timeout detection constants
     private static final long DEFAULT_KEYSTROKE_TIMEOUT_MS = 180000; // 3 minutes without keystrokes
     private static final double AUTOMATIC_MOVEMENT_VELOCITY_THRESHOLD = 0.15; // Water current movement speed
@@ -96,7 +94,31 @@ public class MovementListener implements Listener {
             this.jumpSpamThreshold = plugin.getConfigManager().getJumpSpamThreshold();
             this.maxJumpsPerPeriod = plugin.getConfigManager().getMaxJumpsPerPeriod();
             this.jumpResetPeriod = plugin.getConfigManager().getJumpResetPeriod();
+            this.historySampling = new HistorySampling(
+                    plugin.getConfig().getLong("performance.history-sampling.min-interval-ms", 0L),
+                    plugin.getConfig().getDouble("performance.history-sampling.min-distance", 0.0),
+                    plugin.getConfig().getDouble("performance.history-sampling.min-rotation", 0.0),
+                    plugin.getConfig().getLong("performance.history-sampling.max-interval-ms", 1000L));
+        }
+    }
+
+    /**
+     * Returns the player's movement state, creating it if an event arrives before
+     * the join seeding ran (e.g. events fired during login by other plugins).
+     */
+    private PlayerMovementState state(Player player) {
+        UUID uuid = player.getUniqueId();
+        PlayerMovementState state = states.get(uuid);
+        if (state == null) {
+            state = states.computeIfAbsent(uuid, k -> new PlayerMovementState());
         }
+        return state;
+    }
+
+    private boolean isBypassed(Player player) {
+        AntiAFKPlus plugin = AntiAFKPlus.getInstance();
+        PermissionTierService tiers = plugin != null ? plugin.getPermissionTierService() : null;
+        return tiers != null ? tiers.isBypassed(player) : player.hasPermission(PermissionTierService.BYPASS);
     }
 
     private AFKManager getAfkManager() {
@@ -117,13 +139,50 @@ public class MovementListener implements Listener {
         }
         initializePlayerData(player);
         updateLastMovementTimestamp(player);
+        if (AntiAFKPlus.getInstance() != null && AntiAFKPlus.getInstance().getAfkManager() != null) {
+            getAfkManager().scheduleCheck(player);
+        }
+    }
+
+    // Disabled/enabled worlds change what AFKManager does with the player
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        if (AntiAFKPlus.getInstance() != null && AntiAFKPlus.getInstance().getAfkManager() != null) {
+            getAfkManager().scheduleCheck(event.getPlayer());
+        }
     }
 
     @EventHandler
     public void onPlayerMove(PlayerMoveEvent event) {
+        // Only one in every 64 events is timed, so the sampling itself stays off
+        // the hot path. The racy counter is intentional: on Folia several region
+        // threads may bump it concurrently and an occasional lost increment only
+        // shifts which event gets sampled.
+        if ((++moveSampleCounter & MOVE_SAMPLE_MASK) != 0) {
+            handlePlayerMove(event);
+            return;
+        }
+        long start = System.nanoTime();
+        MoveOutcome outcome = handlePlayerMove(event);
+        long elapsed = System.nanoTime() - start;
+        if (outcome == MoveOutcome.FAST_PATH) {
+            fastPathSampleNanos.add(elapsed);
+            fastPathSamples.increment();
+        } else if (outcome == MoveOutcome.FULL) {
+            fullPathSampleNanos.add(elapsed);
+            fullPathSamples.increment();
+        }
+    }
+
+    private MoveOutcome handlePlayerMove(PlayerMoveEvent event) {
         Player player = event.getPlayer();
 
-        if (player.hasPermission("antiafkplus.bypass")) return;
+        if (isBypassed(player)) return MoveOutcome.SKIPPED;
+
+        PlayerMovementState state = state(player);
+        Location from = event.getFrom();
+        Location to = event.getTo();
+        if (to == null) return MoveOutcome.SKIPPED;
 
         // v3.0.3 FIX: Passive vehicle movement bypass prevention
         // When a player is riding an entity (horse, donkey, camel, boat, etc.),
@@ -136,7 +195,7 @@ public class MovementListener implements Listener {
         // can continue monitoring the player's position while mounted.
         if (player.isInsideVehicle()) {
             // Always feed location data to PatternDetector for continued monitoring
-            updatePlayerLocationData(player, event);
+            updatePlayerLocationData(state, to, player.isInWater());
 
             // While mounted, two things count as genuine player activity:
             //   1. Head rotation — requires mouse input.
@@ -151,7 +210,7 @@ public class MovementListener implements Listener {
             // view, so the original anti-bypass guard is preserved. Steering input is
             // available on Paper/Spigot 1.21.3+ (see PlayerInputUtil); on older servers
             // the head-rotation-only behaviour is unchanged.
-            boolean headRotation = detectHeadRotation(player, event);
+            boolean headRotation = detectHeadRotation(from, to);
             boolean steeringInput = !headRotation && PlayerInputUtil.hasActiveMovementInput(player);
 
             if (headRotation || steeringInput) {
@@ -159,14 +218,15 @@ public class MovementListener implements Listener {
                 if (manager != null) {
                     manager.onPlayerActivity(player,
                             headRotation ? ActivityType.HEAD_ROTATION : ActivityType.MOVEMENT);
+                    long now = System.currentTimeMillis();
                     if (headRotation) {
-                        lastHeadRotationTime.put(player.getUniqueId(), System.currentTimeMillis());
+                        state.lastHeadRotationTime = now;
                     }
-                    updateLastMovementTimestamp(player);
-                    updateLastKeystrokeTime(player);
+                    state.lastMovementTime = now;
+                    state.lastKeystrokeTime = now;
                 }
             }
-            return;
+            return MoveOutcome.SKIPPED;
         }
 
         // v3.0.5 NOTE: passive movement filtering is now handled centrally in
@@ -190,8 +250,8 @@ public class MovementListener implements Listener {
         // short settle window. While that window is open we ignore positional
         // movement for a manually-AFK player, absorbing both the teleport and the
         // landing/gravity PlayerMoveEvents that immediately follow it.
-        Long settleUntil = pluginTeleportSettleUntil.get(player.getUniqueId());
-        if (settleUntil != null) {
+        long settleUntil = state.pluginTeleportSettleUntil;
+        if (settleUntil != 0L) {
             if (System.currentTimeMillis() < settleUntil) {
                 AFKManager graceManager = AntiAFKPlus.getInstance() != null
                         ? AntiAFKPlus.getInstance().getAfkManager() : null;
@@ -199,76 +259,102 @@ public class MovementListener implements Listener {
                     // Keep feeding location data to the PatternDetector, but do
                     // NOT count this as player activity — the player did not move
                     // themselves, a plugin teleported them.
-                    updatePlayerLocationData(player, event);
-                    return;
+                    updatePlayerLocationData(state, to, player.isInWater());
+                    return MoveOutcome.SKIPPED;
                 }
             }
             // Window expired (or player is no longer manually AFK): drop it.
-            pluginTeleportSettleUntil.remove(player.getUniqueId());
+            state.pluginTeleportSettleUntil = 0L;
+        }
+
+        // Every detector input is computed exactly once per event and shared.
+        double deltaX = to.getX() - from.getX();
+        double deltaY = to.getY() - from.getY();
+        double deltaZ = to.getZ() - from.getZ();
+        boolean significantMovement = MoveDecision.significantMovement(deltaX, deltaY, deltaZ, microMovementThreshold);
+        boolean headRotation = detectHeadRotation(from, to);
+        boolean isSwimming = player.isSwimming();
+        boolean isFlying = player.isFlying();
+        boolean inWater = player.isInWater();
+        // Jump candidate: moving up from the ground while not flying
+        boolean jumpCandidate = deltaY > 0 && !isFlying && player.isOnGround();
+
+        // Fast path: the move is below every configured threshold (per axis, and
+        // on land also the horizontal step the keystroke check measures), is not
+        // a jump candidate and did not toggle swimming/flying. Only the
+        // PatternDetector history is fed. This covers the bulk of move events
+        // (water drift, gravity settle, slow sneaking, tiny mouse jitter).
+        // The one detector input skipped here is the history-based direction-change
+        // score of the keystroke check: a sub-threshold move does not count as
+        // manual through it, the score is evaluated again on the next event that
+        // leaves the fast path.
+        boolean stateToggled = isSwimming != state.wasSwimming || isFlying != state.wasFlying;
+        if (MoveDecision.fastPath(deltaX, deltaY, deltaZ, microMovementThreshold,
+                headRotation, jumpCandidate, stateToggled, inWater)) {
+            updatePlayerLocationData(state, to, inWater);
+            fastPathEvents.increment();
+            return MoveOutcome.FAST_PATH;
         }
+        fullPathEvents.increment();
 
         // Enhanced movement detection
-        boolean significantMovement = detectSignificantMovement(event);
-        boolean headRotation = detectHeadRotation(player, event);
-        boolean jumpActivity = detectJumpActivity(player, event);
-        boolean swimStateChange = detectSwimStateChange(player);
-        boolean flyStateChange = detectFlyStateChange(player);
-        
+        boolean jumpActivity = jumpCandidate && detectJumpActivity(state, player);
+        boolean swimStateChange = detectSwimStateChange(state, isSwimming);
+        boolean flyStateChange = detectFlyStateChange(state, isFlying);
+
         // v2.4 NEW: Detect if movement is from manual keystroke or automatic (water current)
-        boolean isManualKeystroke = detectManualKeystroke(player, event);
+        boolean isManualKeystroke = detectManualKeystroke(state, player, deltaX, deltaZ, inWater, headRotation);
 
         // Update location data for pattern detection
-        updatePlayerLocationData(player, event);
+        updatePlayerLocationData(state, to, inWater);
 
-        boolean recorded = false;
+        // Everything this event detected is collected into one activity mask and
+        // dispatched once, so the AFK state transitions run once per event.
+        int activities = 0;
         AFKManager manager = AntiAFKPlus.getInstance() != null ? AntiAFKPlus.getInstance().getAfkManager() : null;
+        long now = System.currentTimeMillis();
 
         if (manager != null) {
-            long now = System.currentTimeMillis();
             if (significantMovement) {
                 // Any real movement invalidates the door-toggle context so that
                 // subsequent clicks on blocks behind an open door are not suppressed
                 // (the player moved, so those clicks are genuine activity).
-                lastDoorToggleContext.remove(player.getUniqueId());
-                manager.onPlayerActivity(player, ActivityType.MOVEMENT);
-                recorded = true;
+                state.lastDoorToggleContext = null;
+                activities |= MOVEMENT_BIT;
             }
             if (headRotation) {
-                manager.onPlayerActivity(player, ActivityType.HEAD_ROTATION);
-                lastHeadRotationTime.put(player.getUniqueId(), now);
+                activities |= HEAD_ROTATION_BIT;
+                state.lastHeadRotationTime = now;
                 // Head rotation always requires mouse input — update keystroke timer here
                 // so that hasKeystrokeTimeout() correctly reflects real manual presence.
-                // This mirrors the vehicle code path (lines 122-131) for consistency.
-                updateLastKeystrokeTime(player);
-                recorded = true;
+                // This mirrors the vehicle code path above for consistency.
+                state.lastKeystrokeTime = now;
             }
             if (jumpActivity) {
-                manager.onPlayerActivity(player, ActivityType.JUMP);
-                lastJumpTime.put(player.getUniqueId(), now);
-                recorded = true;
+                activities |= JUMP_BIT;
+                state.lastJumpTime = now;
             }
             if (swimStateChange) {
-                manager.onPlayerActivity(player, ActivityType.MOVEMENT);
-                lastSwimStateChange.put(player.getUniqueId(), now);
-                recorded = true;
+                activities |= MOVEMENT_BIT;
+                state.lastSwimStateChange = now;
             }
             if (flyStateChange) {
-                manager.onPlayerActivity(player, ActivityType.MOVEMENT);
-                lastFlyStateChange.put(player.getUniqueId(), now);
-                recorded = true;
+                activities |= MOVEMENT_BIT;
+                state.lastFlyStateChange = now;
             }
-            if (!recorded && isManualKeystroke) {
-                manager.onPlayerActivity(player, ActivityType.CUSTOM);
-                updateLastKeystrokeTime(player);
-                recorded = true;
-            } else if (recorded && isManualKeystroke) {
-                updateLastKeystrokeTime(player);
+            if (activities == 0 && isManualKeystroke) {
+                activities = CUSTOM_BIT;
+                state.lastKeystrokeTime = now;
+            } else if (activities != 0 && isManualKeystroke) {
+                state.lastKeystrokeTime = now;
             }
+            manager.onPlayerActivities(player, activities);
         }
 
-        if (recorded) {
-            updateLastMovementTimestamp(player);
+        if (activities != 0) {
+            state.lastMovementTime = now;
         }
+        return MoveOutcome.FULL;
     }
 
     @EventHandler
@@ -278,7 +364,7 @@ public class MovementListener implements Listener {
         if (plugin == null || !plugin.isEnabled()) return;
 
         plugin.getPlatformScheduler().runTaskForEntity(player, () -> {
-            if (player.hasPermission("antiafkplus.bypass")) return;
+            if (isBypassed(player)) return;
             if (plugin.getAfkManager() != null) {
                 plugin.getAfkManager().onPlayerActivity(player, ActivityType.CHAT);
             }
@@ -289,7 +375,7 @@ public class MovementListener implements Listener {
     @EventHandler
     public void onInventoryClick(InventoryClickEvent event) {
         if (event.getWhoClicked() instanceof Player player) {
-            if (player.hasPermission("antiafkplus.bypass")) return;
+            if (isBypassed(player)) return;
             if (AntiAFKPlus.getInstance() != null && AntiAFKPlus.getInstance().getAfkManager() != null) {
                 getAfkManager().onPlayerActivity(player, ActivityType.INVENTORY);
             }
@@ -307,13 +393,13 @@ public class MovementListener implements Listener {
     @EventHandler
     public void onPlayerInteract(PlayerInteractEvent event) {
         Player player = event.getPlayer();
-        if (player.hasPermission("antiafkplus.bypass")) return;
+        if (isBypassed(player)) return;
 
         // Record that any interact happened — BEFORE the passive filter and before
         // checking cancellation status — so PatternDetector can distinguish a
         // stationary AFK miner (whose client keeps firing LEFT_CLICK_BLOCK) from
         // a player who is doing absolutely nothing.
-        lastAnyInteractTime.put(player.getUniqueId(), System.currentTimeMillis());
+        state(player).lastAnyInteractTime = System.currentTimeMillis();
 
         // v3.0.5 FIX: "Use Item / Place Block" toggle-mode bypass prevention.
         // Minecraft's accessibility option lets the right-click action be toggled
@@ -345,7 +431,7 @@ public class MovementListener implements Listener {
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onPlayerCommand(PlayerCommandPreprocessEvent event) {
         Player player = event.getPlayer();
-        if (player.hasPermission("antiafkplus.bypass")) return;
+        if (isBypassed(player)) return;
 
         // Filter out AFK-related commands to prevent exploitation
         String command = event.getMessage().toLowerCase();
@@ -353,7 +439,7 @@ public class MovementListener implements Listener {
             return; // Don't count AFK commands as activity
         }
 
-        lastCommandTime.put(player.getUniqueId(), System.currentTimeMillis());
+        state(player).lastCommandTime = System.currentTimeMillis();
 
         if (AntiAFKPlus.getInstance() != null && AntiAFKPlus.getInstance().getAfkManager() != null) {
             getAfkManager().onPlayerActivity(player, ActivityType.COMMAND);
@@ -387,7 +473,7 @@ public class MovementListener implements Listener {
         }
 
         Player player = event.getPlayer();
-        if (player.hasPermission("antiafkplus.bypass")) return;
+        if (isBypassed(player)) return;
 
         AFKManager manager = AntiAFKPlus.getInstance() != null
                 ? AntiAFKPlus.getInstance().getAfkManager() : null;
@@ -406,13 +492,13 @@ public class MovementListener implements Listener {
         // Open a short settle window. onPlayerMove() will ignore positional
         // movement for this player until it elapses, covering both the teleport
         // and the landing/gravity PlayerMoveEvents that follow it.
-        pluginTeleportSettleUntil.put(player.getUniqueId(), System.currentTimeMillis() + 2_000L);
+        state(player).pluginTeleportSettleUntil = System.currentTimeMillis() + 2_000L;
     }
 
     @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerFish(PlayerFishEvent event) {
         Player player = event.getPlayer();
-        if (player.hasPermission("antiafkplus.bypass")) return;
+        if (isBypassed(player)) return;
         
         // Only count successful fishing attempts (catching fish, items, or pulling in rod)
         PlayerFishEvent.State state = event.getState();
@@ -430,84 +516,49 @@ public class MovementListener implements Listener {
 
     // Enhanced detection methods
 
-    private boolean detectSignificantMovement(PlayerMoveEvent event) {
-        if (event.getTo() == null) return false;
-
-        double deltaX = Math.abs(event.getTo().getX() - event.getFrom().getX());
-        double deltaY = Math.abs(event.getTo().getY() - event.getFrom().getY());
-        double deltaZ = Math.abs(event.getTo().getZ() - event.getFrom().getZ());
+    private boolean detectHeadRotation(Location from, Location to) {
+        if (to == null) return false;
 
-        // Check for micro-movement threshold
-        return deltaX > microMovementThreshold ||
-                deltaY > microMovementThreshold ||
-                deltaZ > microMovementThreshold;
+        return MoveDecision.headRotation(from.getYaw(), from.getPitch(), to.getYaw(), to.getPitch(),
+                headRotationThreshold);
     }
 
-    private boolean detectHeadRotation(Player player, PlayerMoveEvent event) {
-        if (event.getTo() == null) return false;
-
-        double deltaYaw = Math.abs(event.getTo().getYaw() - event.getFrom().getYaw());
-        double deltaPitch = Math.abs(event.getTo().getPitch() - event.getFrom().getPitch());
-
-        // Normalize yaw difference (handle 360 degree wrap-around)
-        if (deltaYaw > 180) {
-            deltaYaw = 360 - deltaYaw;
-        }
-
-        return deltaYaw > headRotationThreshold || deltaPitch > headRotationThreshold;
-    }
-
-    private boolean detectJumpActivity(Player player, PlayerMoveEvent event) {
-        if (event.getTo() == null) return false;
-
-        UUID uuid = player.getUniqueId();
+    /**
+     * Applies the jump spam rules to a jump candidate (moving up from the ground
+     * while not flying — checked by the caller).
+     */
+    private boolean detectJumpActivity(PlayerMovementState state, Player player) {
         long currentTime = System.currentTimeMillis();
-
-        // Check if player is jumping (Y velocity > 0 and not flying)
-        boolean isJumping = event.getTo().getY() > event.getFrom().getY() &&
-                !player.isFlying() &&
-                player.isOnGround();
-
-        if (isJumping) {
-            Long lastJump = lastJumpTime.get(uuid);
-            if (lastJump == null || (currentTime - lastJump) > jumpSpamThreshold) {
-                // Reset jump counter if enough time has passed
-                if (lastJump == null || (currentTime - lastJump) > jumpResetPeriod) {
-                    jumpCounter.put(uuid, 1);
-                } else {
-                    int jumps = jumpCounter.getOrDefault(uuid, 0) + 1;
-                    jumpCounter.put(uuid, jumps);
-
-                    // If too many jumps in short period, might be AFK farm
-                    if (jumps > maxJumpsPerPeriod) {
-                        // Log suspicious jump activity
-                        AntiAFKPlus plugin = AntiAFKPlus.getInstance();
-                        if (plugin != null && plugin.getConfigManager().isDebugEnabled()) {
-                            plugin.getLogger().warning("[DEBUG_Jump] Suspicious jump activity detected for " +
-                                    player.getName() + ": " + jumps + " jumps in short period");
-                        }
-                        return false; // Don't count excessive jumping as legitimate activity
+        long lastJump = state.lastJumpTime;
+        if (lastJump == 0L || (currentTime - lastJump) > jumpSpamThreshold) {
+            // Reset jump counter if enough time has passed
+            if (lastJump == 0L || (currentTime - lastJump) > jumpResetPeriod) {
+                state.jumpCounter = 1;
+            } else {
+                int jumps = ++state.jumpCounter;
+
+                // If too many jumps in short period, might be AFK farm
+                if (jumps > maxJumpsPerPeriod) {
+                    // Log suspicious jump activity
+                    AntiAFKPlus plugin = AntiAFKPlus.getInstance();
+                    if (plugin != null && plugin.getConfigManager().isDebugEnabled()) {
+                        plugin.getLogger().warning("[DEBUG_Jump] Suspicious jump activity detected for " +
+                                player.getName() + ": " + jumps + " jumps in short period");
                     }
+                    return false; // Don't count excessive jumping as legitimate activity
                 }
-                return true;
             }
+            return true;
         }
 
         return false;
     }
 
-    private boolean detectSwimStateChange(Player player) {
-        UUID uuid = player.getUniqueId();
-        long currentTime = System.currentTimeMillis();
-        boolean isSwimming = player.isSwimming();
-
-        PlayerLocationData data = lastLocationData.get(uuid);
-        if (data != null && data.wasSwimming != isSwimming) {
-            lastSwimStateChange.put(uuid, currentTime);
-            data.wasSwimming = isSwimming;
+    private boolean detectSwimStateChange(PlayerMovementState state, boolean isSwimming) {
+        if (state.wasSwimming != isSwimming) {
+            state.lastSwimStateChange = System.currentTimeMillis();
+            state.wasSwimming = isSwimming;
             return true;
-        } else if (data != null) {
-            data.wasSwimming = isSwimming;
         }
 
         return false;
@@ -547,7 +598,7 @@ public class MovementListener implements Listener {
      */
     public boolean isPassiveRepeatedInteract(Player player, PlayerInteractEvent event) {
         Action action = event.getAction();
-        UUID uuid = player.getUniqueId();
+        PlayerMovementState state = state(player);
 
         // Non-block actions (air clicks, entity clicks) cannot form a toggle loop
         // themselves, with one important exception: when a door or trapdoor opens,
@@ -559,7 +610,7 @@ public class MovementListener implements Listener {
         // lastInteractContext — see the original comment for the full rationale.
         if (action != Action.RIGHT_CLICK_BLOCK && action != Action.LEFT_CLICK_BLOCK) {
             if (action == Action.RIGHT_CLICK_AIR || action == Action.LEFT_CLICK_AIR) {
-                InteractContext doorCtx = lastDoorToggleContext.get(uuid);
+                InteractContext doorCtx = state.lastDoorToggleContext;
                 if (doorCtx != null) {
                     org.bukkit.Location loc = player.getLocation();
                     if (doorCtx.matchesPlayerLocation(loc.getX(), loc.getY(), loc.getZ(),
@@ -619,13 +670,13 @@ public class MovementListener implements Listener {
         // Track door toggles so the air-click check above and the through-door
         // block-click check below have a reference player position to compare against.
         if (isDoor) {
-            lastDoorToggleContext.put(uuid, current);
+            state.lastDoorToggleContext = current;
         }
 
-        InteractContext previous = lastInteractContext.get(uuid);
+        InteractContext previous = state.lastInteractContext;
+        state.lastInteractContext = current;
 
         if (previous == null) {
-            lastInteractContext.put(uuid, current);
             return false;
         }
 
@@ -640,7 +691,7 @@ public class MovementListener implements Listener {
             // other functional block that the player deliberately walked to and
             // interacted with — and must NOT be suppressed even if the player's
             // feet happen to be at the same position as during the door toggle.
-            InteractContext doorCtx = lastDoorToggleContext.get(uuid);
+            InteractContext doorCtx = state.lastDoorToggleContext;
             if (doorCtx != null) {
                 org.bukkit.Location loc = player.getLocation();
                 if (doorCtx.matchesPlayerLocation(loc.getX(), loc.getY(), loc.getZ(),
@@ -650,22 +701,14 @@ public class MovementListener implements Listener {
                             Math.abs(current.blockY - doorCtx.blockY)),
                             Math.abs(current.blockZ - doorCtx.blockZ));
                     if (chebyshev <= 2) {
-                        lastInteractContext.put(uuid, current);
                         return true; // Block within door reach, player still → passive
                     }
                 }
             }
-            lastInteractContext.put(uuid, current);
-            return false;
-        }
-
-        if (!previous.matchesPlayerStillness(current)) {
-            lastInteractContext.put(uuid, current);
             return false;
         }
 
-        lastInteractContext.put(uuid, current);
-        return true;
+        return previous.matchesPlayerStillness(current);
     }
 
     private void updateInteractContext(Player player, PlayerInteractEvent event) {
@@ -673,10 +716,10 @@ public class MovementListener implements Listener {
         if (clicked == null) {
             // Air interacts and the like still update the marker so that any
             // subsequent block click is treated as the start of a new sequence.
-            lastInteractContext.remove(player.getUniqueId());
+            state(player).lastInteractContext = null;
             return;
         }
-        lastInteractContext.put(player.getUniqueId(), new InteractContext(
+        state(player).lastInteractContext = new InteractContext(
                 event.getAction().name(),
                 clicked.getWorld().getUID(),
                 clicked.getX(),
@@ -689,7 +732,7 @@ public class MovementListener implements Listener {
                 player.getLocation().getZ(),
                 player.getLocation().getYaw(),
                 player.getLocation().getPitch()
-        ));
+        );
     }
 
     /**
@@ -700,174 +743,86 @@ public class MovementListener implements Listener {
      * - Manual WASD key movement (irregular, directional changes)
      * - Automatic water current movement (consistent velocity, predictable direction)
      * 
+     * @param state The player's movement state
      * @param player The player being analyzed
-     * @param event The movement event
+     * @param deltaX Horizontal X displacement of this move
+     * @param deltaZ Horizontal Z displacement of this move
+     * @param inWater Result of player.isInWater() (server water-collision flag)
+     * @param headRotation Head rotation result already computed for this event
      * @return true if movement appears to be from manual input
      */
-    private boolean detectManualKeystroke(Player player, PlayerMoveEvent event) {
-        if (event.getTo() == null || event.getFrom() == null) {
-            return false;
-        }
-
-        UUID uuid = player.getUniqueId();
-
-        // Calculate horizontal displacement and velocity
-        double deltaX = event.getTo().getX() - event.getFrom().getX();
-        double deltaZ = event.getTo().getZ() - event.getFrom().getZ();
-        double horizontalVelocity = Math.sqrt(deltaX * deltaX + deltaZ * deltaZ);
-
-        // isInWater() uses the server's water-collision flag — more reliable than block checks.
-        boolean inWater = player.isInWater();
-
-        // Get previous movement data for direction-change analysis
-        PlayerLocationData locationData = lastLocationData.get(uuid);
-        if (locationData == null || locationData.locationHistory.isEmpty()) {
-            return !inWater; // No history: trust land movement, distrust water movement
-        }
-
-        boolean appearsManual = false;
-
-        // 1. Velocity-based detection (land only).
-        //    Water currents routinely exceed any reasonable velocity threshold, so velocity
-        //    alone is NOT a reliable indicator of deliberate key presses when in water.
-        if (!inWater && horizontalVelocity > microMovementThreshold) {
-            appearsManual = true;
-        }
-
-        // 2. Direction-change analysis.
-        //    Manual players change direction unpredictably; water currents are smoother.
-        //    We require a higher threshold in water (pools redirect players at corners,
-        //    generating spurious direction changes that must not be mistaken for manual input).
-        if (locationData.locationHistory.size() >= 3) {
-            int histSize = locationData.locationHistory.size();
-            List<LocationSnapshot> recent = locationData.locationHistory.subList(
-                    Math.max(0, histSize - 3), histSize);
-            double directionChanges = calculateDirectionChanges(recent);
-            double threshold = inWater ? 0.8 : 0.5;
-            if (directionChanges > threshold) {
-                appearsManual = true;
-            }
-        }
-
-        // 3. Head rotation is always a strong manual signal and is handled separately
-        //    in the onPlayerMove block above (it also calls updateLastKeystrokeTime).
-        //    We re-check here only to set appearsManual so the caller's logic stays correct.
-        if (detectHeadRotation(player, event)) {
-            appearsManual = true;
-        }
+    private boolean detectManualKeystroke(PlayerMovementState state, Player player,
+                                          double deltaX, double deltaZ,
+                                          boolean inWater, boolean headRotation) {
+        boolean appearsManual = MoveDecision.appearsManual(state.history, deltaX, deltaZ, inWater,
+                headRotation, microMovementThreshold);
 
         // Debug logging
         AntiAFKPlus plugin = AntiAFKPlus.getInstance();
-        if (plugin != null && plugin.getConfigManager().isDebugEnabled() && horizontalVelocity > 0.05) {
-            plugin.getLogger().info(String.format(
-                "[DEBUG_Keystroke] %s: vel=%.3f, inWater=%s, manual=%s",
-                player.getName(), horizontalVelocity, inWater, appearsManual));
+        if (plugin != null && plugin.getConfigManager().isDebugEnabled()) {
+            double horizontalVelocity = Math.sqrt(deltaX * deltaX + deltaZ * deltaZ);
+            if (horizontalVelocity > 0.05) {
+                plugin.getLogger().info(String.format(
+                    "[DEBUG_Keystroke] %s: vel=%.3f, inWater=%s, manual=%s",
+                    player.getName(), horizontalVelocity, inWater, appearsManual));
+            }
         }
 
         return appearsManual;
     }
     
-    /**
-     * Calculates direction change variance in recent movement history.
-     * Higher values indicate more erratic/manual movement patterns.
-     * 
-     * @param recentHistory List of recent location snapshots
-     * @return Direction change metric (0.0 to 1.0+)
-     */
-    private double calculateDirectionChanges(List<LocationSnapshot> recentHistory) {
-        if (recentHistory.size() < 3) return 0.0;
-        
-        double totalAngleChange = 0.0;
-        double previousAngle = Double.NaN;
-        
-        for (int i = 1; i < recentHistory.size(); i++) {
-            LocationSnapshot prev = recentHistory.get(i - 1);
-            LocationSnapshot curr = recentHistory.get(i);
-            
-            double deltaX = curr.x - prev.x;
-            double deltaZ = curr.z - prev.z;
-            
-            if (Math.abs(deltaX) > 0.01 || Math.abs(deltaZ) > 0.01) { // Only if there's movement
-                double currentAngle = Math.atan2(deltaZ, deltaX);
-                
-                if (!Double.isNaN(previousAngle)) {
-                    double angleDiff = Math.abs(currentAngle - previousAngle);
-                    if (angleDiff > Math.PI) {
-                        angleDiff = 2 * Math.PI - angleDiff; // Normalize
-                    }
-                    totalAngleChange += angleDiff;
-                }
-                
-                previousAngle = currentAngle;
-            }
-        }
-        
-        return totalAngleChange / Math.PI; // Normalize to roughly 0-1 range
-    }
-    
-    /**
-     * Updates the last keystroke timestamp for a player.
-     * Called when we detect what appears to be manual input.
-     * 
-     * @param player The player who provided manual input
-     */
-    private void updateLastKeystrokeTime(Player player) {
-        lastKeystrokeTime.put(player.getUniqueId(), System.currentTimeMillis());
-    }
-
-    private boolean detectFlyStateChange(Player player) {
-        UUID uuid = player.getUniqueId();
-        long currentTime = System.currentTimeMillis();
-        boolean isFlying = player.isFlying();
-
-        PlayerLocationData data = lastLocationData.get(uuid);
-        if (data != null && data.wasFlying != isFlying) {
-            lastFlyStateChange.put(uuid, currentTime);
-            data.wasFlying = isFlying;
+    private boolean detectFlyStateChange(PlayerMovementState state, boolean isFlying) {
+        if (state.wasFlying != isFlying) {
+            state.lastFlyStateChange = System.currentTimeMillis();
+            state.wasFlying = isFlying;
             return true;
-        } else if (data != null) {
-            data.wasFlying = isFlying;
         }
 
         return false;
     }
 
-    private void updatePlayerLocationData(Player player, PlayerMoveEvent event) {
-        if (event.getTo() == null) return;
-
-        UUID uuid = player.getUniqueId();
-        PlayerLocationData data = lastLocationData.computeIfAbsent(uuid, k -> new PlayerLocationData());
-
-        data.lastX = event.getTo().getX();
-        data.lastY = event.getTo().getY();
-        data.lastZ = event.getTo().getZ();
-        data.lastYaw = event.getTo().getYaw();
-        data.lastPitch = event.getTo().getPitch();
+    private void updatePlayerLocationData(PlayerMovementState data, Location to, boolean inWater) {
+        data.lastX = to.getX();
+        data.lastY = to.getY();
+        data.lastZ = to.getZ();
+        data.lastYaw = to.getYaw();
+        data.lastPitch = to.getPitch();
         data.lastUpdate = System.currentTimeMillis();
 
         // Store historical data for pattern detection (used by PatternDetector).
         // 300 entries ≈ 15 s at 20 TPS — enough to capture a full large-pool circuit
-        // before PatternDetector's 30-second analysis window fires.
-        boolean inWater = player.isInWater();
-        if (data.locationHistory.size() >= 300) {
-            data.locationHistory.remove(0);
+        // before PatternDetector's 30-second analysis window fires. The sampling policy
+        // may skip moves; that only stretches the time the 300 entries cover.
+        // The ring buffer overwrites the oldest sample in place: no per-event allocation.
+        if (historySampling.accept(data.history, data.lastX, data.lastY, data.lastZ,
+                data.lastYaw, data.lastPitch, data.lastUpdate)) {
+            data.history.append(
+                    data.lastX,
+                    data.lastY,
+                    data.lastZ,
+                    data.lastYaw,
+                    data.lastPitch,
+                    data.lastUpdate,
+                    inWater
+            );
+            historySamples.increment();
+        } else {
+            historySamplesSkipped.increment();
+        }
+
+        // Traces keep every move, so a replay can try other sampling policies
+        TraceRecorder.Session trace = data.trace;
+        if (trace != null) {
+            trace.recordMove(inWater);
         }
-        data.locationHistory.add(new LocationSnapshot(
-                event.getTo().getX(),
-                event.getTo().getY(),
-                event.getTo().getZ(),
-                event.getTo().getYaw(),
-                event.getTo().getPitch(),
-                System.currentTimeMillis(),
-                inWater
-        ));
     }
 
     private void initializePlayerData(Player player) {
-        UUID uuid = player.getUniqueId();
-        updateLastMovementTimestamp(player);
+        long now = System.currentTimeMillis();
 
-        PlayerLocationData data = new PlayerLocationData();
+        // A fresh state object per session: nothing from a previous login survives.
+        PlayerMovementState data = new PlayerMovementState();
+        data.lastMovementTime = now;
         data.lastX = player.getLocation().getX();
         data.lastY = player.getLocation().getY();
         data.lastZ = player.getLocation().getZ();
@@ -875,12 +830,12 @@ public class MovementListener implements Listener {
         data.lastPitch = player.getLocation().getPitch();
         data.wasSwimming = player.isSwimming();
         data.wasFlying = player.isFlying();
-        data.lastUpdate = System.currentTimeMillis();
+        data.lastUpdate = now;
 
-        lastLocationData.put(uuid, data);
-        
         // v2.4 NEW: Initialize keystroke tracking for new players
-        updateLastKeystrokeTime(player);
+        data.lastKeystrokeTime = now;
+
+        states.put(player.getUniqueId(), data);
     }
 
     /**
@@ -900,62 +855,64 @@ public class MovementListener implements Listener {
             } catch (Exception e) {
                 // Defensive fallback: at minimum record a current movement timestamp
                 // so the player is never treated as instantly AFK.
-                lastMovementTime.put(player.getUniqueId(), System.currentTimeMillis());
+                state(player).lastMovementTime = System.currentTimeMillis();
             }
         }
     }
 
     private void clearPlayerData(Player player) {
-        UUID uuid = player.getUniqueId();
-        lastMovementTime.remove(uuid);
-        lastLocationData.remove(uuid);
-        lastHeadRotationTime.remove(uuid);
-        lastJumpTime.remove(uuid);
-        jumpCounter.remove(uuid);
-        lastSwimStateChange.remove(uuid);
-        lastFlyStateChange.remove(uuid);
-        lastCommandTime.remove(uuid);
-        
-        // v2.4 NEW: Clear keystroke tracking data
-        lastKeystrokeTime.remove(uuid);
-        lastMovementWasAutomatic.remove(uuid);
-
-        // v3.0.5: Clear interact-context tracking
-        lastInteractContext.remove(uuid);
-        lastAnyInteractTime.remove(uuid);
-        lastDoorToggleContext.remove(uuid);
-        pluginTeleportSettleUntil.remove(uuid);
+        traceRecorder.stop(player.getUniqueId());
+        states.remove(player.getUniqueId());
     }
 
     private void updateLastMovementTimestamp(Player player) {
-        lastMovementTime.put(player.getUniqueId(), System.currentTimeMillis());
+        state(player).lastMovementTime = System.currentTimeMillis();
     }
 
     public long getLastMovementTimestamp(Player player) {
         // 0L = "never moved": AFKManager will compute timeSinceActivity = now - 0 = very large,
         // treating the player as immediately AFK. initializePlayerData() on join sets a real
         // timestamp, so this default only triggers if data was cleared mid-session.
-        return lastMovementTime.getOrDefault(player.getUniqueId(), 0L);
+        PlayerMovementState state = states.get(player.getUniqueId());
+        return state != null ? state.lastMovementTime : 0L;
     }
 
     // Enhanced getters for advanced detection data (used by other systems)
 
     public long getLastHeadRotationTime(Player player) {
-        return lastHeadRotationTime.getOrDefault(player.getUniqueId(), 0L);
+        PlayerMovementState state = states.get(player.getUniqueId());
+        return state != null ? state.lastHeadRotationTime : 0L;
     }
 
     public long getLastJumpTime(Player player) {
-        return lastJumpTime.getOrDefault(player.getUniqueId(), 0L);
+        PlayerMovementState state = states.get(player.getUniqueId());
+        return state != null ? state.lastJumpTime : 0L;
     }
 
     public long getLastCommandTime(Player player) {
-        return lastCommandTime.getOrDefault(player.getUniqueId(), 0L);
+        PlayerMovementState state = states.get(player.getUniqueId());
+        return state != null ? state.lastCommandTime : 0L;
     }
 
-    public PlayerLocationData getPlayerLocationData(Player player) {
-        return lastLocationData.get(player.getUniqueId());
+    public PlayerMovementState getMovementState(Player player) {
+        return states.get(player.getUniqueId());
     }
-    
+
+    /**
+     * Starts recording the player's movement samples and activity stamps to a trace
+     * file for offline replay ({@link TraceReplay}).
+     *
+     * @param durationMs recording length, capped at {@link TraceRecorder#MAX_DURATION_MS}
+     */
+    public TraceRecorder.Session startTrace(Player player, long durationMs) {
+        return traceRecorder.start(player.getUniqueId(), player.getName(), state(player),
+                durationMs, getKeystrokeTimeoutMs());
+    }
+
+    public TraceRecorder getTraceRecorder() {
+        return traceRecorder;
+    }
+
     // v2.4 NEW: Keystroke detection methods
     
     /**
@@ -967,7 +924,8 @@ public class MovementListener implements Listener {
      * @return Last keystroke timestamp, or 0 if never detected
      */
     public long getLastKeystrokeTime(Player player) {
-        return lastKeystrokeTime.getOrDefault(player.getUniqueId(), 0L);
+        PlayerMovementState state = states.get(player.getUniqueId());
+        return state != null ? state.lastKeystrokeTime : 0L;
     }
     
     /**
@@ -986,6 +944,11 @@ public class MovementListener implements Listener {
         }
         return DEFAULT_KEYSTROKE_TIMEOUT_MS;
     }
+
+    /** Policy deciding which moves are stored in the pattern-detection history. */
+    public HistorySampling getHistorySampling() {
+        return historySampling;
+    }
     
     /**
      * Checks if a player has exceeded the keystroke timeout threshold.
@@ -995,14 +958,15 @@ public class MovementListener implements Listener {
      * @return true if player hasn't provided manual input for too long
      */
     public long getLastAnyInteractTime(Player player) {
-        return lastAnyInteractTime.getOrDefault(player.getUniqueId(), 0L);
+        PlayerMovementState state = states.get(player.getUniqueId());
+        return state != null ? state.lastAnyInteractTime : 0L;
     }
 
     public boolean hasKeystrokeTimeout(Player player) {
         long lastKeystroke = getLastKeystrokeTime(player);
         if (lastKeystroke == 0L) {
             // If we've never detected a keystroke, use join time as baseline
-            PlayerLocationData data = lastLocationData.get(player.getUniqueId());
+            PlayerMovementState data = states.get(player.getUniqueId());
             if (data != null && data.lastUpdate > 0) {
                 lastKeystroke = data.lastUpdate;
             } else {
@@ -1014,33 +978,49 @@ public class MovementListener implements Listener {
         return timeSinceKeystroke > getKeystrokeTimeoutMs();
     }
 
+    /**
+     * Returns PlayerMoveEvent processing statistics: how many events took the
+     * fast path vs. the full detector path, the sampled average cost of each,
+     * and how many moves the history sampling policy stored or skipped.
+     */
+    public MoveEventStats getMoveEventStats() {
+        long fastSamples = fastPathSamples.sum();
+        long fullSamples = fullPathSamples.sum();
+        return new MoveEventStats(
+                fastPathEvents.sum(),
+                fullPathEvents.sum(),
+                fastSamples > 0 ? (double) fastPathSampleNanos.sum() / fastSamples : 0.0,
+                fullSamples > 0 ? (double) fullPathSampleNanos.sum() / fullSamples : 0.0,
+                historySamples.sum(),
+                historySamplesSkipped.sum());
+    }
+
     // Inner classes for data structures
 
-    public static class PlayerLocationData {
-        public double lastX, lastY, lastZ;
-        public float lastYaw, lastPitch;
-        public boolean wasSwimming = false;
-        public boolean wasFlying = false;
-        public long lastUpdate;
-        // CopyOnWriteArrayList: main-thread writes + async PatternDetector reads are safe without external locks.
-        public java.util.List<LocationSnapshot> locationHistory = new java.util.concurrent.CopyOnWriteArrayList<>();
-    }
+    /** Which branch of onPlayerMove handled an event (bypass/vehicle/settle = SKIPPED). */
+    private enum MoveOutcome { SKIPPED, FAST_PATH, FULL }
+
+    /**
+     * PlayerMoveEvent cost snapshot.
+     *
+     * @param fastPathEvents   events rejected by the fast-path filter
+     * @param fullPathEvents   events that ran the full detector set
+     * @param avgFastPathNanos sampled average handler time of a fast-path event
+     * @param avgFullPathNanos sampled average handler time of a full-path event
+     * @param historySamples   moves appended to a movement history
+     * @param historySkipped   moves the history sampling policy left out
+     */
+    public record MoveEventStats(long fastPathEvents, long fullPathEvents,
+                                 double avgFastPathNanos, double avgFullPathNanos,
+                                 long historySamples, long historySkipped) {
+        public double fastPathRatio() {
+            long total = fastPathEvents + fullPathEvents;
+            return total > 0 ? (double) fastPathEvents / total : 0.0;
+        }
 
-    public static class LocationSnapshot {
-        public final double x, y, z;
-        public final float yaw, pitch;
-        public final long timestamp;
-        /** True if the player was in water when this snapshot was recorded. */
-        public final boolean inWater;
-
-        public LocationSnapshot(double x, double y, double z, float yaw, float pitch, long timestamp, boolean inWater) {
-            this.x = x;
-            this.y = y;
-            this.z = z;
-            this.yaw = yaw;
-            this.pitch = pitch;
-            this.timestamp = timestamp;
-            this.inWater = inWater;
+        public double historySkipRatio() {
+            long total = historySamples + historySkipped;
+            return total > 0 ? (double) historySkipped / total : 0.0;
         }
     }
 
@@ -1059,7 +1039,7 @@ public class MovementListener implements Listener {
      * preventing false positives when a player alternates between the two on
      * the same block.
      */
-    private static final class InteractContext {
+    static final class InteractContext {
         // Tolerance for comparing player coordinates: anything below this is
         // treated as "no movement". 0.001 blocks is well below the smallest
         // measurable Minecraft player movement.
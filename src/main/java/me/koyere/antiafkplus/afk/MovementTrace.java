@@ -0,0 +1,205 @@
+package me.koyere.antiafkplus.afk;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Binary format of the movement traces written by {@link TraceRecorder} and read
+ * back by {@link TraceReplay}.
+ *
+ * <p>A trace is one player's recording, GZIP-compressed:</p>
+ * <pre>
+ *   header : int MAGIC, short VERSION, long startMillis, UTF playerName,
+ *            long uuidMost, long uuidLeast, long keystrokeTimeoutMs
+ *   record : byte MOVE, int dtMillis, double x, double y, double z,
+ *            float yaw, float pitch, byte flags (bit 0 = in water)
+ *          | byte ACTIVITY, int dtMillis, byte kind
+ *          | byte END
+ * </pre>
+ * <p>{@code dtMillis} is relative to the previous record's time (the header's
+ * start for the first one) and can be negative: activity stamps are sometimes
+ * written after a move that happened later. A trace cut short (server crash) is
+ * still readable up to its last complete record.</p>
+ *
+ * <p>Bukkit-free on purpose: {@link TraceReplay} loads this class on a plain JVM.</p>
+ */
+public final class MovementTrace {
+
+    public static final int MAGIC = 0x41465452; // "AFTR"
+    public static final short VERSION = 1;
+    public static final String FILE_EXTENSION = ".afktrace";
+
+    // Record tags
+    public static final byte END = 0;
+    public static final byte MOVE = 1;
+    public static final byte ACTIVITY = 2;
+
+    // Activity kinds: the PlayerMovementState timestamps the PatternDetector reads
+    public static final byte KEYSTROKE = 0;
+    public static final byte COMMAND = 1;
+    public static final byte HEAD_ROTATION = 2;
+    public static final byte JUMP = 3;
+    public static final byte INTERACT = 4;
+    public static final int ACTIVITY_KINDS = 5;
+
+    private static final byte FLAG_WATER = 1;
+
+    private MovementTrace() {}
+
+    // ==================== Writing ====================
+
+    static void writeHeader(DataOutputStream out, long startMillis, String playerName, UUID uuid,
+                            long keystrokeTimeoutMs) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeLong(startMillis);
+        out.writeUTF(playerName);
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+        out.writeLong(keystrokeTimeoutMs);
+    }
+
+    static void writeMove(DataOutputStream out, int dtMillis, double x, double y, double z,
+                          float yaw, float pitch, boolean inWater) throws IOException {
+        out.writeByte(MOVE);
+        out.writeInt(dtMillis);
+        out.writeDouble(x);
+        out.writeDouble(y);
+        out.writeDouble(z);
+        out.writeFloat(yaw);
+        out.writeFloat(pitch);
+        out.writeByte(inWater ? FLAG_WATER : 0);
+    }
+
+    static void writeActivity(DataOutputStream out, int dtMillis, byte kind) throws IOException {
+        out.writeByte(ACTIVITY);
+        out.writeInt(dtMillis);
+        out.writeByte(kind);
+    }
+
+    // ==================== Reading ====================
+
+    /** Reads a whole trace into memory. */
+    public static Recording read(File file) throws IOException {
+        try (InputStream in = new GZIPInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            return read(new DataInputStream(in));
+        }
+    }
+
+    static Recording read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a movement trace");
+        }
+        short version = in.readShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported trace version " + version);
+        }
+        Recording r = new Recording(in.readLong(), in.readUTF(),
+                new UUID(in.readLong(), in.readLong()), in.readLong());
+
+        long clock = r.startMillis;
+        try {
+            while (true) {
+                byte tag = in.readByte();
+                if (tag == END) {
+                    r.complete = true;
+                    break;
+                }
+                clock += in.readInt();
+                switch (tag) {
+                    case MOVE -> r.addMove(clock, in.readDouble(), in.readDouble(), in.readDouble(),
+                            in.readFloat(), in.readFloat(), (in.readByte() & FLAG_WATER) != 0);
+                    case ACTIVITY -> r.addActivity(clock, in.readByte());
+                    default -> throw new IOException("Corrupt trace: unknown record " + tag);
+                }
+            }
+        } catch (EOFException e) {
+            // Truncated trace: keep every complete record
+        }
+        return r;
+    }
+
+    /**
+     * A trace loaded in memory, one entry per record in file order. Moves and
+     * activity stamps share the arrays; {@link #kind} tells them apart.
+     */
+    public static final class Recording {
+
+        /** {@link #kind} value of a move entry; activity entries hold their activity kind. */
+        public static final byte KIND_MOVE = -1;
+
+        public final long startMillis;
+        public final String playerName;
+        public final UUID uuid;
+        public final long keystrokeTimeoutMs;
+        /** False if the trace ended without an END record. */
+        public boolean complete;
+
+        public int size;
+        public int moves;
+        public byte[] kind = new byte[1024];
+        public long[] time = new long[1024];
+        public double[] x = new double[1024];
+        public double[] y = new double[1024];
+        public double[] z = new double[1024];
+        public float[] yaw = new float[1024];
+        public float[] pitch = new float[1024];
+        public boolean[] inWater = new boolean[1024];
+
+        Recording(long startMillis, String playerName, UUID uuid, long keystrokeTimeoutMs) {
+            this.startMillis = startMillis;
+            this.playerName = playerName;
+            this.uuid = uuid;
+            this.keystrokeTimeoutMs = keystrokeTimeoutMs;
+        }
+
+        /** Time of the last record, or the start if the trace is empty. */
+        public long endMillis() {
+            return size == 0 ? startMillis : time[size - 1];
+        }
+
+        private void addMove(long t, double px, double py, double pz, float pyaw, float ppitch, boolean water) {
+            int i = next(KIND_MOVE, t);
+            x[i] = px;
+            y[i] = py;
+            z[i] = pz;
+            yaw[i] = pyaw;
+            pitch[i] = ppitch;
+            inWater[i] = water;
+            moves++;
+        }
+
+        private void addActivity(long t, byte activityKind) throws IOException {
+            if (activityKind < 0 || activityKind >= ACTIVITY_KINDS) {
+                throw new IOException("Corrupt trace: unknown activity " + activityKind);
+            }
+            next(activityKind, t);
+        }
+
+        private int next(byte k, long t) {
+            if (size == kind.length) {
+                int capacity = size * 2;
+                kind = Arrays.copyOf(kind, capacity);
+                time = Arrays.copyOf(time, capacity);
+                x = Arrays.copyOf(x, capacity);
+                y = Arrays.copyOf(y, capacity);
+                z = Arrays.copyOf(z, capacity);
+                yaw = Arrays.copyOf(yaw, capacity);
+                pitch = Arrays.copyOf(pitch, capacity);
+                inWater = Arrays.copyOf(inWater, capacity);
+            }
+            kind[size] = k;
+            time[size] = t;
+            return size++;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package me.koyere.antiafkplus.afk;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bounded worker pool for the CPU-bound part of pattern analysis.
+ *
+ * <p>The PatternDetector used to hand the whole cycle to a single
+ * {@code runTaskAsync}, so one thread analyzed every online player serially in a
+ * burst. A cycle is now split into one task per player on a work-stealing
+ * {@link ForkJoinPool} of {@code performance.pattern-analysis.threads} workers.</p>
+ *
+ * <p>Only one cycle is in flight at a time: if the previous cycle has not finished
+ * when the next one fires, the new one is dropped (and counted) instead of queueing
+ * behind it. The next cycle snapshots fresh data anyway.</p>
+ *
+ * <p>Tasks must not touch the Bukkit API; they work on snapshots taken on the main
+ * thread and hand player-affecting work back through the PlatformScheduler.</p>
+ */
+public final class PatternAnalysisExecutor {
+
+    /**
+     * Analysis metrics since startup (or the last executor restart).
+     *
+     * @param threads         worker threads
+     * @param queueDepth      players of the current cycle not analyzed yet
+     * @param cyclesRun       cycles submitted to the pool
+     * @param cyclesSkipped   cycles dropped because the previous one was still running
+     * @param playersAnalyzed total per-player analyses
+     * @param avgPlayerNanos  average time of one player's analysis
+     * @param maxPlayerNanos  slowest single player's analysis
+     * @param lastCycleNanos  wall time of the last completed cycle
+     */
+    public record AnalysisStats(int threads, int queueDepth, long cyclesRun, long cyclesSkipped,
+                                long playersAnalyzed, double avgPlayerNanos, long maxPlayerNanos,
+                                long lastCycleNanos) {}
+
+    private final Logger logger;
+    private final int threads;
+    private final ForkJoinPool pool;
+
+    private final AtomicBoolean cycleRunning = new AtomicBoolean();
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile long cycleStartNanos;
+
+    private final LongAdder cyclesRun = new LongAdder();
+    private final LongAdder cyclesSkipped = new LongAdder();
+    private final LongAdder playersAnalyzed = new LongAdder();
+    private final LongAdder playerNanos = new LongAdder();
+    private final AtomicLong maxPlayerNanos = new AtomicLong();
+    private volatile long lastCycleNanos;
+
+    public PatternAnalysisExecutor(Logger logger, int threads) {
+        this.logger = logger;
+        this.threads = Math.max(1, threads);
+        this.pool = new ForkJoinPool(this.threads, PatternAnalysisExecutor::newWorker, null, true);
+    }
+
+    /** Worker count used when the config asks for 0 (auto): half the cores, between 1 and 4. */
+    public static int defaultThreads() {
+        return Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    private static ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("AntiAFKPlus-PatternAnalysis-" + thread.getPoolIndex());
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /** True while a cycle still has players queued or being analyzed. */
+    public boolean isCycleRunning() {
+        return cycleRunning.get();
+    }
+
+    /** Counts a cycle the caller dropped itself (e.g. before snapshotting) because one is running. */
+    public void recordSkippedCycle() {
+        cyclesSkipped.increment();
+    }
+
+    /**
+     * Analyzes every item of a cycle in parallel.
+     *
+     * @return false if the previous cycle is still running; the items are then dropped
+     */
+    public <T> boolean submitCycle(List<T> items, Consumer<T> analyzer) {
+        if (items.isEmpty()) {
+            return true;
+        }
+        if (pool.isShutdown() || !cycleRunning.compareAndSet(false, true)) {
+            cyclesSkipped.increment();
+            return false;
+        }
+        cyclesRun.increment();
+        cycleStartNanos = System.nanoTime();
+        pending.set(items.size());
+        try {
+            for (T item : items) {
+                pool.execute(() -> analyze(item, analyzer));
+            }
+        } catch (RuntimeException e) {
+            // Pool shut down mid-submit (plugin disable): release the cycle
+            logger.log(Level.FINE, "Pattern analysis cycle aborted", e);
+            pending.set(0);
+            cycleRunning.set(false);
+        }
+        return true;
+    }
+
+    private <T> void analyze(T item, Consumer<T> analyzer) {
+        long start = System.nanoTime();
+        try {
+            analyzer.accept(item);
+        } catch (Throwable t) {
+            logger.log(Level.WARNING, "Pattern analysis task failed", t);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            playersAnalyzed.increment();
+            playerNanos.add(elapsed);
+            maxPlayerNanos.accumulateAndGet(elapsed, Math::max);
+            if (pending.decrementAndGet() == 0) {
+                lastCycleNanos = System.nanoTime() - cycleStartNanos;
+                cycleRunning.set(false);
+            }
+        }
+    }
+
+    public AnalysisStats getStats() {
+        long analyzed = playersAnalyzed.sum();
+        return new AnalysisStats(
+                threads,
+                Math.max(0, pending.get()),
+                cyclesRun.sum(),
+                cyclesSkipped.sum(),
+                analyzed,
+                analyzed == 0 ? 0.0 : (double) playerNanos.sum() / analyzed,
+                maxPlayerNanos.get(),
+                lastCycleNanos);
+    }
+
+    /** Stops accepting cycles and waits briefly for the running one to finish. */
+    public void shutdown() {
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(2, TimeUnit.SECONDS)) {
+                pool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
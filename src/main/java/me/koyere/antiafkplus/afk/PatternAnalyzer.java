@@ -0,0 +1,628 @@
+package me.koyere.antiafkplus.afk;
+
+import java.util.function.Consumer;
+
+/**
+ * The pure detection logic of the {@link PatternDetector}: grace period, linear
+ * movement exclusion and every movement detector, applied to one player's
+ * {@link MovementHistory}.
+ *
+ * <p>This class does not touch the Bukkit API or the plugin instance, so the same
+ * code runs on the server's analysis workers and in {@link TraceReplay} on a plain
+ * JVM. Everything it needs comes in through {@link Settings}, {@link Activity} and
+ * the analysis time; what it found comes back as a bit set of detection flags. The
+ * caller owns the consequences (violations, counters, events).</p>
+ *
+ * <p>Not thread-safe: the copy window and the FFT buffers are reused across calls,
+ * so keep one instance per analysis thread.</p>
+ */
+public final class PatternAnalyzer {
+
+    // Outcomes that end the analysis before the detectors run
+    /** Fewer samples than {@code minSamplesForPattern}; nothing was analyzed. */
+    public static final int TOO_FEW_SAMPLES = 1;
+    /** Recent command, head rotation, jump or keystroke: the activity grace period applies. */
+    public static final int GRACE_PERIOD = 1 << 1;
+    /** Running in a straight line on land. */
+    public static final int LINEAR_MOVEMENT = 1 << 2;
+
+    // Detections, in the order the reason precedence is applied (last one wins)
+    public static final int WATER_CIRCLE = 1 << 3;
+    public static final int CONFINED_SPACE = 1 << 4;
+    public static final int REPETITIVE = 1 << 5;
+    public static final int PENDULUM = 1 << 6;
+    public static final int PERIODIC = 1 << 7;
+    public static final int LARGE_POOL = 1 << 8;
+    public static final int KEYSTROKE_TIMEOUT = 1 << 9;
+
+    public static final int SKIPPED = TOO_FEW_SAMPLES | GRACE_PERIOD | LINEAR_MOVEMENT;
+    public static final int DETECTIONS = WATER_CIRCLE | CONFINED_SPACE | REPETITIVE | PENDULUM
+            | PERIODIC | LARGE_POOL | KEYSTROKE_TIMEOUT;
+
+    private static final int[] DETECTION_FLAGS = {
+            WATER_CIRCLE, CONFINED_SPACE, REPETITIVE, PENDULUM, PERIODIC, LARGE_POOL, KEYSTROKE_TIMEOUT};
+    private static final String[] DETECTION_REASONS = {
+            "water_circle", "confined_space", "repetitive_movement", "pendulum_movement",
+            "periodic_movement", "large_afk_pool", "keystroke_timeout"};
+
+    // Periodicity: autocorrelation strength (0-1) at the dominant period that counts as a loop
+    private static final double PERIODIC_MOVEMENT_MIN_STRENGTH = 0.85;
+    // Floor for scaled sample windows: two of the shortest loops PERIODIC can detect
+    private static final int MIN_SCALED_SAMPLES = 2 * PeriodicityDetector.MIN_PERIOD_SAMPLES;
+
+    /**
+     * Detection thresholds, as loaded from the pattern-detection section of config.yml.
+     * {@code keystrokeTimeoutMs} comes from the keystroke-timeout settings of the
+     * MovementListener.
+     */
+    public record Settings(double waterCircleRadius,
+                           int minSamplesForPattern,
+                           double confinedSpaceThreshold,
+                           double repetitiveMovementThreshold,
+                           double largePoolThreshold,
+                           int minSamplesForLargePool,
+                           boolean largePoolDetectionEnabled,
+                           boolean keystrokeTimeoutDetectionEnabled,
+                           long keystrokeTimeoutMs,
+                           long activityGracePeriodMs,
+                           double linearMovementThreshold,
+                           boolean linearMovementExclusionEnabled) {
+
+        // v2.9.4: defaults tuned to reduce false positives
+        public static final Settings DEFAULTS = new Settings(
+                4.0, 40, 12.0, 0.95, 25.0, 30, true, true, 180000L, 60000L, 0.3, true);
+
+        public Settings withKeystrokeTimeoutMs(long timeoutMs) {
+            return new Settings(waterCircleRadius, minSamplesForPattern, confinedSpaceThreshold,
+                    repetitiveMovementThreshold, largePoolThreshold, minSamplesForLargePool,
+                    largePoolDetectionEnabled, keystrokeTimeoutDetectionEnabled, timeoutMs,
+                    activityGracePeriodMs, linearMovementThreshold, linearMovementExclusionEnabled);
+        }
+
+        /**
+         * The sample-count windows are configured at one sample per tick. For a
+         * history stored at most every {@code spacingMs} (see {@link HistorySampling}),
+         * scales them down so each window keeps covering the same stretch of time.
+         */
+        public Settings withSampleSpacing(long spacingMs) {
+            if (spacingMs <= HistorySampling.TICK_MS) {
+                return this;
+            }
+            return new Settings(waterCircleRadius, samplesOver(minSamplesForPattern, spacingMs),
+                    confinedSpaceThreshold, repetitiveMovementThreshold, largePoolThreshold,
+                    samplesOver(minSamplesForLargePool, spacingMs), largePoolDetectionEnabled,
+                    keystrokeTimeoutDetectionEnabled, keystrokeTimeoutMs, activityGracePeriodMs,
+                    linearMovementThreshold, linearMovementExclusionEnabled);
+        }
+
+        private static int samplesOver(int ticks, long spacingMs) {
+            int samples = (int) Math.ceil(ticks * (double) HistorySampling.TICK_MS / spacingMs);
+            // Never below what the periodicity detector needs to find a loop
+            return Math.max(Math.min(ticks, MIN_SCALED_SAMPLES), samples);
+        }
+    }
+
+    /**
+     * Last time (ms, 0 = never) of each human input that influences the analysis,
+     * as recorded in {@link PlayerMovementState}.
+     */
+    public record Activity(long lastKeystrokeTime,
+                           long lastCommandTime,
+                           long lastHeadRotationTime,
+                           long lastJumpTime) {}
+
+    private final MovementHistory.Window window = new MovementHistory.Window();
+    private final PeriodicityDetector periodicity = new PeriodicityDetector();
+
+    // Period found by the last analysis that flagged PERIODIC
+    private long periodMillis;
+    private double periodStrength;
+    private boolean periodRotation;
+
+    /**
+     * Analyzes the player's movement history at time {@code now}.
+     *
+     * @param inWater  whether the player is in water right now; only used while the
+     *                 history has no samples
+     * @param name     player name for the debug output
+     * @param debug    receives debug lines, or null to stay silent
+     * @return bit set of the outcome flags above: one of the {@link #SKIPPED} flags,
+     *         or any combination of {@link #DETECTIONS} (0 = nothing suspicious)
+     */
+    public int analyze(Settings settings, MovementHistory movementHistory, Activity activity,
+                       boolean inWater, long now, String name, Consumer<String> debug) {
+        // Copy the ring buffer into the reusable window: a consistent, allocation-free
+        // view that the event thread can keep appending past. The history maintains
+        // the features of the last minSamplesForPattern samples and of the whole
+        // buffer incrementally, so they come with the copy.
+        movementHistory.setFeatureWindow(settings.minSamplesForPattern());
+        MovementHistory.Window history = window;
+        int historySize = movementHistory.snapshot(history);
+        MovementFeatures recent = history.recent;
+        if (historySize < settings.minSamplesForPattern()) {
+            return TOO_FEW_SAMPLES;
+        }
+
+        // v2.9.4: Skip if the player has recent active gameplay (grace period).
+        // A client that turns the view on a loop refreshes the head-rotation time (and
+        // with it the keystroke time) on every step above the rotation threshold, so
+        // view input alone only opens the grace period while the facing is not periodic.
+        boolean periodicChecked = false;
+        boolean periodic = false;
+        if (shouldSkipDueToRecentActivity(settings, activity, now, true)) {
+            boolean otherInput = shouldSkipDueToRecentActivity(settings, activity, now, false);
+            if (!otherInput) {
+                periodic = detectPeriodicPattern(settings, history, 0, historySize);
+                periodicChecked = true;
+            }
+            if (otherInput || periodicity.rotationStrength() < PERIODIC_MOVEMENT_MIN_STRENGTH) {
+                if (debug != null) {
+                    debug.accept("[PatternDetector] Skipping " + name + " - recent activity grace period active");
+                }
+                return GRACE_PERIOD;
+            }
+            if (debug != null) {
+                debug.accept(String.format("[PatternDetector] %s - head rotation repeats (strength %.2f),"
+                        + " ignoring the rotation grace period", name, periodicity.rotationStrength()));
+            }
+        }
+
+        // Get recent movement history (last N positions) as an index range into the window
+        int recentFrom = Math.max(0, historySize - settings.minSamplesForPattern());
+
+        // v2.9.4: Skip linear movement (running straight) — not an AFK pattern.
+        // Exception: linear movement in water = water current; analysis must continue.
+        if (settings.linearMovementExclusionEnabled() && isLinearMovement(settings, recent, debug)) {
+            if (!isPlayerMostlyInWater(recent, inWater)) {
+                if (debug != null) {
+                    debug.accept("[PatternDetector] Skipping " + name
+                            + " - linear movement on land detected (running straight)");
+                }
+                return LINEAR_MOVEMENT;
+            }
+            if (debug != null) {
+                debug.accept("[PatternDetector] " + name
+                        + " - linear movement but mostly in water, continuing analysis (possible AFK pool current)");
+            }
+        }
+
+        int detected = 0;
+        if (detectWaterCirclePattern(settings, history, recent, recentFrom, historySize)) {
+            detected |= WATER_CIRCLE;
+        }
+        if (detectConfinedSpacePattern(settings, recent)) {
+            detected |= CONFINED_SPACE;
+        }
+        if (detectRepetitivePattern(settings, history, recentFrom, historySize)) {
+            detected |= REPETITIVE;
+        }
+        if (detectPendulumPattern(recent)) {
+            detected |= PENDULUM;
+        }
+        // Loops of any length: needs the full history to see several repetitions.
+        if (periodicChecked ? periodic : detectPeriodicPattern(settings, history, 0, historySize)) {
+            detected |= PERIODIC;
+        }
+        // v2.4: Large pool check uses full history so bounding-box covers the full circuit.
+        if (detectLargeAFKPool(settings, history, history.full, 0, historySize, activity, inWater, now, name, debug)) {
+            detected |= LARGE_POOL;
+        }
+        // v2.4: Keystroke timeout
+        if (settings.keystrokeTimeoutDetectionEnabled() && hasKeystrokeTimeout(settings, activity, now)) {
+            detected |= KEYSTROKE_TIMEOUT;
+        }
+        return detected;
+    }
+
+    /**
+     * The detection reason reported for a set of flags: when several detectors fire,
+     * the last one in detector order wins.
+     *
+     * @return the reason, or null if no detection flag is set
+     */
+    public static String reason(int flags) {
+        String reason = null;
+        for (int i = 0; i < DETECTION_FLAGS.length; i++) {
+            if ((flags & DETECTION_FLAGS[i]) != 0) {
+                reason = DETECTION_REASONS[i];
+            }
+        }
+        return reason;
+    }
+
+    /** Comma-separated names of every detection flag set, for reports. */
+    public static String describe(int flags) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < DETECTION_FLAGS.length; i++) {
+            if ((flags & DETECTION_FLAGS[i]) != 0) {
+                if (sb.length() > 0) {
+                    sb.append(',');
+                }
+                sb.append(DETECTION_REASONS[i]);
+            }
+        }
+        return sb.toString();
+    }
+
+    /** Dominant period of the last PERIODIC detection, in milliseconds. */
+    public long periodMillis() {
+        return periodMillis;
+    }
+
+    /** Autocorrelation strength of the last PERIODIC detection (0-1). */
+    public double periodStrength() {
+        return periodStrength;
+    }
+
+    /** True if the last PERIODIC detection came from the head rotation. */
+    public boolean periodRotation() {
+        return periodRotation;
+    }
+
+    // ==================== v2.9.4 NEW: False Positive Reduction Methods ====================
+
+    /**
+     * v2.9.4 NEW: Checks if pattern detection should be skipped due to recent active gameplay.
+     * Active gameplay includes: breaking/placing blocks, chat, commands, item interactions, combat.
+     * This prevents false positives when players are actively playing but happen to move in
+     * patterns similar to AFK behaviors (e.g., running in their base, exploring tunnels).
+     *
+     * @param includeView whether head rotation and keystrokes (which head rotation also
+     *                    refreshes) count, or only commands and jumps
+     * @return true if recent activity warrants skipping pattern detection
+     */
+    private static boolean shouldSkipDueToRecentActivity(Settings settings, Activity activity, long now,
+                                                         boolean includeView) {
+        long grace = settings.activityGracePeriodMs();
+        if (grace <= 0) {
+            return false;
+        }
+        if (activity.lastCommandTime() > 0 && (now - activity.lastCommandTime()) < grace) {
+            return true;
+        }
+        if (includeView && activity.lastHeadRotationTime() > 0
+                && (now - activity.lastHeadRotationTime()) < (grace / 2)) {
+            return true;
+        }
+        if (activity.lastJumpTime() > 0 && (now - activity.lastJumpTime()) < (grace / 3)) {
+            return true;
+        }
+        if (includeView && activity.lastKeystrokeTime() > 0
+                && (now - activity.lastKeystrokeTime()) < (grace / 2)) {
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * v2.9.4 NEW: Detects if the player is moving in a predominantly linear direction.
+     * Linear movement (running straight) is NOT an AFK pattern - it indicates active exploration,
+     * traveling, or running through areas like forests, tunnels, paths, etc.
+     *
+     * AFK patterns are characterized by:
+     * - Circular or confined movement
+     * - High repetition (returning to same spots)
+     * - Low direction variance over time
+     *
+     * Linear movement is characterized by:
+     * - Consistent direction (low direction variance)
+     * - Large travel distance
+     * - No returning to previous positions
+     *
+     * @param f Precomputed features of the recent movement window
+     * @return true if movement appears to be linear (running straight)
+     */
+    static boolean isLinearMovement(Settings settings, MovementFeatures f, Consumer<String> debug) {
+        if (f.count < 10) {
+            return false;
+        }
+
+        // Total travel distance vs straight-line distance from start to end
+        double totalDistance = f.pathLength;
+        double straightLineDistance = f.straightLineDistance();
+
+        // If straight-line distance is close to total distance, movement is linear
+        // Ratio close to 1.0 = very linear movement
+        double linearityRatio = totalDistance > 0.1 ? (straightLineDistance / totalDistance) : 0.0;
+
+        // Also check direction variance (average heading change, 0 = perfectly straight)
+        double directionVariance = f.directionVariance();
+
+        // Movement is considered linear if:
+        // 1. Linearity ratio is high (>0.7 means path is mostly straight)
+        // 2. Direction variance is low (below threshold)
+        // 3. Total distance is significant (not standing still)
+        boolean isLinear = linearityRatio > 0.7 &&
+                directionVariance < settings.linearMovementThreshold() &&
+                totalDistance > 5.0; // At least 5 blocks traveled
+
+        if (debug != null && totalDistance > 1.0) {
+            debug.accept(String.format(
+                    "[DEBUG_Linear] linearity=%.2f, variance=%.3f, distance=%.1f, isLinear=%s",
+                    linearityRatio, directionVariance, totalDistance, isLinear));
+        }
+
+        return isLinear;
+    }
+
+    // ==================== End v2.9.4 Methods ====================
+
+    // Detectors below read the MovementFeatures maintained by the history; those
+    // that need the samples themselves operate on the half-open range [from, to)
+    // of a MovementHistory.Window. The window is private to the analysis thread,
+    // so no defensive copies are needed.
+
+    static boolean detectWaterCirclePattern(Settings settings, MovementHistory.Window w,
+                                                    MovementFeatures f, int from, int to) {
+        int count = to - from;
+        if (count < 8)
+            return false;
+
+        // Center point of movement
+        double centerX = f.meanX;
+        double centerZ = f.meanZ;
+
+        // Cheap rejections: a span wider than the diameter, or a mean squared distance
+        // to the center above radius², means some sample lies outside the circle
+        double radius = settings.waterCircleRadius();
+        double radiusSquared = radius * radius;
+        if (f.spanX() > 2 * radius || f.spanZ() > 2 * radius
+                || f.varianceX + f.varianceZ > radiusSquared)
+            return false;
+
+        // Check if all movements are within circle radius
+        for (int i = from; i < to; i++) {
+            double dx = w.x[i] - centerX;
+            double dz = w.z[i] - centerZ;
+            if (dx * dx + dz * dz > radiusSquared)
+                return false;
+        }
+
+        // Check for circular movement pattern
+        int circularMovements = 0;
+        double previousAngle = Math.atan2(w.z[from] - centerZ, w.x[from] - centerX);
+        for (int i = from + 1; i < to; i++) {
+            // Calculate angle change
+            double angle = Math.atan2(w.z[i] - centerZ, w.x[i] - centerX);
+            double angleDiff = Math.abs(angle - previousAngle);
+            previousAngle = angle;
+
+            // Normalize angle difference
+            if (angleDiff > Math.PI)
+                angleDiff = 2 * Math.PI - angleDiff;
+
+            // If angle change is consistent (suggesting circular movement)
+            if (angleDiff > 0.1 && angleDiff < Math.PI / 2) {
+                circularMovements++;
+            }
+        }
+
+        return circularMovements >= (count * 0.6); // 60% of movements should be circular
+    }
+
+    static boolean detectConfinedSpacePattern(Settings settings, MovementFeatures f) {
+        if (f.count < settings.minSamplesForPattern())
+            return false;
+
+        // Check if movement (bounding box) is confined to small area
+        double threshold = settings.confinedSpaceThreshold();
+        return f.spanX() <= threshold && f.spanZ() <= threshold;
+    }
+
+    static boolean detectRepetitivePattern(Settings settings, MovementHistory.Window w, int from, int to) {
+        if (to - from < 12)
+            return false;
+
+        // Split history into three equal segments and compare their similarity
+        int segmentSize = (to - from) / 3;
+        int segment1 = from;
+        int segment2 = from + segmentSize;
+        int segment3 = from + segmentSize * 2;
+
+        double similarity12 = calculatePatternSimilarity(w, segment1, segment2, segmentSize);
+        double similarity23 = calculatePatternSimilarity(w, segment2, segment3, segmentSize);
+        double similarity13 = calculatePatternSimilarity(w, segment1, segment3, segmentSize);
+
+        // If segments are highly similar, it's likely a repetitive pattern
+        double threshold = settings.repetitiveMovementThreshold();
+        return (similarity12 > threshold ||
+                similarity23 > threshold ||
+                similarity13 > threshold);
+    }
+
+    static boolean detectPendulumPattern(MovementFeatures f) {
+        if (f.count < 10)
+            return false;
+
+        // Back-and-forth movement (A -> B -> A pattern), counted by the history on append
+        return f.pendulumSteps >= (f.count * 0.3); // 30% of movements are back-and-forth
+    }
+
+    /**
+     * Detects movement (or head rotation) that repeats with a fixed period of any
+     * length, via the autocorrelation computed by {@link PeriodicityDetector}.
+     * Keeps the period found for {@link #periodMillis()} and friends.
+     */
+    boolean detectPeriodicPattern(Settings settings, MovementHistory.Window w, int from, int to) {
+        if (to - from < settings.minSamplesForPattern())
+            return false;
+
+        if (!periodicity.analyze(w, from, to) || periodicity.strength() < PERIODIC_MOVEMENT_MIN_STRENGTH)
+            return false;
+
+        periodMillis = (long) periodicity.periodMillis();
+        periodStrength = periodicity.strength();
+        periodRotation = periodicity.isRotation();
+        return true;
+    }
+
+    // v2.4 NEW: Large AFK pool detection methods
+
+    /**
+     * Detects large AFK pools (20x10+ blocks) that bypass traditional confined
+     * space detection.
+     * This method identifies pools that are too large for the standard confined
+     * space threshold
+     * but still represent artificial AFK setups.
+     *
+     * Detection criteria:
+     * 1. Movement area larger than small pool threshold but smaller than large pool
+     * threshold
+     * 2. Player is in water for extended periods
+     * 3. Movement patterns suggest water current automation
+     * 4. No manual keystrokes detected for extended periods
+     *
+     * @param w    Movement window to analyze
+     * @param f    Precomputed features of the same range
+     * @param from First sample index (inclusive)
+     * @param to   Last sample index (exclusive)
+     * @return true if large AFK pool pattern detected
+     */
+    static boolean detectLargeAFKPool(Settings settings, MovementHistory.Window w, MovementFeatures f,
+                                              int from, int to, Activity activity, boolean inWater, long now,
+                                              String name, Consumer<String> debug) {
+        if (!settings.largePoolDetectionEnabled()) {
+            return false;
+        }
+        if (to - from < settings.minSamplesForLargePool())
+            return false;
+
+        // Bounding box of movement area
+        double areaX = f.spanX();
+        double areaZ = f.spanZ();
+        double totalArea = areaX * areaZ;
+
+        // Check if movement area suggests large AFK pool
+        double confined = settings.confinedSpaceThreshold();
+        double largePool = settings.largePoolThreshold();
+        boolean isLargePoolSize = (areaX > confined || areaZ > confined) &&
+                (totalArea <= largePool * largePool);
+
+        if (!isLargePoolSize)
+            return false;
+
+        // Check historical water presence (Fix #2: use recorded inWater flags, not a snapshot).
+        // Rectangular pools fail an automatic-movement check at corners, so we do NOT require
+        // detectAutomaticMovementPattern() anymore. The three conditions below are sufficient
+        // and robust: large area + mostly in water + no manual keystrokes for timeout period.
+        boolean mostlyInWater = isPlayerMostlyInWater(f, inWater);
+        if (!mostlyInWater)
+            return false;
+
+        boolean hasKeystrokeTimeout = hasKeystrokeTimeout(settings, activity, now);
+
+        // Debug logging (includes auto-movement for informational purposes only)
+        if (debug != null) {
+            boolean autoMove = detectAutomaticMovementPattern(w, from, to);
+            debug.accept(String.format(
+                    "[DEBUG_LargePool] %s: area=%.1fx%.1f (%.1f), inWater=%s, keystrokeTimeout=%s, autoMove(info)=%s",
+                    name, areaX, areaZ, totalArea, mostlyInWater, hasKeystrokeTimeout, autoMove));
+        }
+
+        return hasKeystrokeTimeout;
+    }
+
+    private static boolean hasKeystrokeTimeout(Settings settings, Activity activity, long now) {
+        return activity.lastKeystrokeTime() > 0
+                && (now - activity.lastKeystrokeTime()) > settings.keystrokeTimeoutMs();
+    }
+
+    /**
+     * Checks if the player was mostly in water during the recorded movement history.
+     * Uses the {@code inWater} flag stored with each {@link MovementHistory} sample
+     * (recorded at the time of the PlayerMoveEvent on the main thread) rather than the
+     * player's current block state, which is unreliable when the analysis runs async and
+     * the player may momentarily be at the pool edge.
+     *
+     * @param f                Precomputed features of the window to check
+     * @param inWaterSnapshot  Fallback captured on the main thread when the window is empty
+     * @return true if ≥ 60 % of recorded positions were in water
+     */
+    static boolean isPlayerMostlyInWater(MovementFeatures f, boolean inWaterSnapshot) {
+        if (f.count == 0) {
+            // No history yet: use the snapshot captured on the main thread.
+            // This avoids calling player.isInWater() from the async analysis thread.
+            return inWaterSnapshot;
+        }
+        return f.waterFraction() >= 0.60;
+    }
+
+    /**
+     * Detects automatic movement patterns typical of water currents in AFK pools.
+     * Automatic movement has consistent velocity and fewer direction changes.
+     *
+     * @param w    Movement window to analyze
+     * @param from First sample index (inclusive)
+     * @param to   Last sample index (exclusive)
+     * @return true if movement appears to be automatic (water current)
+     */
+    private static boolean detectAutomaticMovementPattern(MovementHistory.Window w, int from, int to) {
+        if (to - from < 10)
+            return false;
+
+        double totalVelocityVariance = 0.0;
+        double totalDirectionChanges = 0.0;
+        int validMeasurements = 0;
+
+        for (int i = from + 1; i < to; i++) {
+            double deltaX = w.x[i] - w.x[i - 1];
+            double deltaZ = w.z[i] - w.z[i - 1];
+            double velocity = Math.sqrt(deltaX * deltaX + deltaZ * deltaZ);
+
+            if (velocity > 0.01) { // Only analyze when there's movement
+                // Calculate velocity variance (automatic movement has consistent velocity)
+                if (validMeasurements > 0) {
+                    // Simple variance approximation
+                    totalVelocityVariance += Math.abs(velocity - 0.1); // 0.1 is typical water current speed
+                }
+
+                // Calculate direction changes (automatic movement has fewer changes)
+                if (i > from + 1) {
+                    double prevAngle = Math.atan2(w.z[i - 1] - w.z[i - 2], w.x[i - 1] - w.x[i - 2]);
+                    double currAngle = Math.atan2(deltaZ, deltaX);
+
+                    double angleDiff = Math.abs(currAngle - prevAngle);
+                    if (angleDiff > Math.PI)
+                        angleDiff = 2 * Math.PI - angleDiff;
+
+                    totalDirectionChanges += angleDiff;
+                }
+
+                validMeasurements++;
+            }
+        }
+
+        if (validMeasurements < 5)
+            return false;
+
+        double avgVelocityVariance = totalVelocityVariance / validMeasurements;
+        double avgDirectionChange = totalDirectionChanges / Math.max(1, validMeasurements - 1);
+
+        // Automatic movement has low velocity variance and low direction changes
+        boolean lowVelocityVariance = avgVelocityVariance < 0.05;
+        boolean lowDirectionChanges = avgDirectionChange < 0.3;
+
+        return lowVelocityVariance && lowDirectionChanges;
+    }
+
+    private static double calculatePatternSimilarity(MovementHistory.Window w, int start1, int start2, int length) {
+        if (length <= 0)
+            return 0.0;
+
+        double totalSimilarity = 0.0;
+
+        for (int i = 0; i < length; i++) {
+            double distance = calculateDistance(w, start1 + i, start2 + i);
+            totalSimilarity += Math.max(0, 1.0 - (distance / 10.0)); // Normalize to 0-1
+        }
+
+        return totalSimilarity / length;
+    }
+
+    private static double calculateDistance(MovementHistory.Window w, int i, int j) {
+        double dx = w.x[j] - w.x[i];
+        double dy = w.y[j] - w.y[i];
+        double dz = w.z[j] - w.z[i];
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+}
@@ -13,7 +13,11 @@ import org.bukkit.Location;
 import org.bukkit.entity.Player;
 
 import me.koyere.antiafkplus.AntiAFKPlus;
+import me.koyere.antiafkplus.config.ConfigManager;
 import me.koyere.antiafkplus.events.PlayerAFKPatternDetectedEvent;
+import me.koyere.antiafkplus.performance.FeedbackController;
+import me.koyere.antiafkplus.performance.PerformanceOptimizer;
+import me.koyere.antiafkplus.permission.PermissionTierService;
 import me.koyere.antiafkplus.platform.PlatformScheduler;
 import me.koyere.antiafkplus.utils.AFKLogger;
 
@@ -23,7 +27,8 @@ import me.koyere.antiafkplus.utils.AFKLogger;
  * patterns.
  *
  * THREAD-SAFETY (v2.8):
- * - Pattern analysis runs asynchronously (runTaskTimerAsync) for performance
+ * - Pattern analysis runs asynchronously (runTaskTimerAsync) for performance;
+ * each player of a cycle is analyzed in parallel on the PatternAnalysisExecutor
  * - Event firing and post-processing happens synchronously on main thread
  * (runTaskForEntity)
  * - All data structures use ConcurrentHashMap/ConcurrentLinkedDeque for
@@ -43,12 +48,36 @@ public class PatternDetector {
             String playerName,
             boolean inWater,
             long lastKeystrokeTime,     // pre-fetched on main thread
-            long keystrokeTimeoutMs,    // pre-fetched on main thread
+            PatternAnalyzer.Settings settings, // thresholds + keystroke timeout of this cycle
             long lastCommandTime,       // pre-fetched on main thread
             long lastHeadRotationTime,  // pre-fetched on main thread
             long lastJumpTime,          // pre-fetched on main thread
             long lastAnyInteractTime,   // pre-fetched on main thread — set even for passive (filtered) events
-            MovementListener.PlayerLocationData locationData) {}
+            double activityScore,       // pre-fetched on main thread — AFKManager activity score (0-100)
+            boolean highActivity,       // high-activity tier and not under suspicion: stretched cadence
+            PlayerMovementState locationData) {}
+
+    /**
+     * How often a player is analyzed, relative to pattern-analysis-interval.
+     * Clean, active players are sampled rarely; players accumulating violations
+     * or recent detections are sampled often so a real pool reaches
+     * max-pattern-violations sooner.
+     */
+    public enum SuspicionTier {
+        CLEAN(3.0),
+        NORMAL(1.0),
+        SUSPICIOUS(0.25);
+
+        private final double intervalMultiplier;
+
+        SuspicionTier(double intervalMultiplier) {
+            this.intervalMultiplier = intervalMultiplier;
+        }
+
+        public double getIntervalMultiplier() {
+            return intervalMultiplier;
+        }
+    }
 
     private final AntiAFKPlus plugin;
     private final MovementListener movementListener;
@@ -56,20 +85,24 @@ public class PatternDetector {
 
     // Default pattern detection configuration (overridden by config)
     // v2.9.4: Updated defaults to reduce false positives
-    private static final double DEFAULT_WATER_CIRCLE_RADIUS = 4.0;
-    private static final int DEFAULT_MIN_SAMPLES_FOR_PATTERN = 40;
-    private static final double DEFAULT_CONFINED_SPACE_THRESHOLD = 12.0;
+    // (detector thresholds: PatternAnalyzer.Settings.DEFAULTS)
     private static final long DEFAULT_PATTERN_ANALYSIS_INTERVAL_MS = 30000;
-    private static final double DEFAULT_REPETITIVE_MOVEMENT_THRESHOLD = 0.95;
     private static final int DEFAULT_MAX_PATTERN_VIOLATIONS = 8;
-    private static final double DEFAULT_LARGE_POOL_THRESHOLD = 25.0;
-    private static final int DEFAULT_MIN_SAMPLES_FOR_LARGE_POOL = 30;
     private static final long MINIMUM_ANALYSIS_INTERVAL_TICKS = 20L; // 1s safety floor
 
-    // v2.9.4 NEW: Constants for linear movement detection and activity grace period
-    private static final long DEFAULT_ACTIVITY_GRACE_PERIOD_MS = 60000; // 1 minute grace after active gameplay
-    private static final double DEFAULT_LINEAR_MOVEMENT_THRESHOLD = 0.3; // Max direction variance for linear movement
-    private static final double DEFAULT_MIN_DIRECTION_VARIANCE = 0.15; // Min variance required for repetitive detection
+    // Suspicion score (0-1) weights and tier boundaries for the adaptive cadence
+    private static final double SUSPICION_VIOLATION_WEIGHT = 0.5;
+    private static final double SUSPICION_DETECTION_WEIGHT = 0.3;
+    private static final double SUSPICION_INACTIVITY_WEIGHT = 0.2;
+    private static final long SUSPICION_DETECTION_WINDOW_MS = 300000; // detections in the last 5 minutes
+    private static final int SUSPICION_DETECTIONS_FOR_MAX = 3;
+    private static final double SUSPICIOUS_TIER_SCORE = 0.4;
+    private static final double CLEAN_TIER_SCORE = 0.15;
+    // Cadence of high-activity-tier players without violations, relative to pattern-analysis-interval
+    private static final double HIGH_ACTIVITY_INTERVAL_MULTIPLIER = 6.0;
+
+    // v2.9.4 NEW: Min variance required for repetitive detection
+    private static final double DEFAULT_MIN_DIRECTION_VARIANCE = 0.15;
 
     // Player pattern tracking (thread-safe for concurrent access)
     private final Map<UUID, PatternData> playerPatterns = new java.util.concurrent.ConcurrentHashMap<>();
@@ -77,25 +110,24 @@ public class PatternDetector {
     private final Map<UUID, Deque<DetectedPatternRecord>> recentDetections = new java.util.concurrent.ConcurrentHashMap<>();
     private static final int MAX_STORED_PATTERN_DETECTIONS = 64;
 
+    // Detector scratch (history copy window, FFT buffers) is reused: one analyzer per analysis thread.
+    private final ThreadLocal<PatternAnalyzer> patternAnalyzer = ThreadLocal.withInitial(PatternAnalyzer::new);
+
     private PlatformScheduler.ScheduledTask analysisTask;
+    private volatile PatternAnalysisExecutor analysisExecutor;
+    private final FeedbackController.Gate cycleGate = new FeedbackController.Gate(); // Analysis timer thread only
+    // Main-thread time spent collecting the cycle snapshots (the workers' time is in AnalysisStats)
+    private final java.util.concurrent.atomic.LongAdder snapshotNanos = new java.util.concurrent.atomic.LongAdder();
 
     // Configurable values (loaded from ConfigManager)
-    private double waterCircleRadius;
+    private volatile PatternAnalyzer.Settings analyzerSettings = PatternAnalyzer.Settings.DEFAULTS;
     private int minSamplesForPattern;
-    private double confinedSpaceThreshold;
     private long patternAnalysisIntervalMs;
-    private double repetitiveMovementThreshold;
     private int maxPatternViolations;
-    private double largePoolThreshold;
-    private int minSamplesForLargePool;
-    private boolean largePoolDetectionEnabled;
-    private boolean keystrokeTimeoutDetectionEnabled;
 
     // v2.9.4 NEW: Configurable values for false positive reduction
-    private long activityGracePeriodMs;
-    private double linearMovementThreshold;
     private double minDirectionVariance;
-    private boolean linearMovementExclusionEnabled;
+    private boolean adaptiveCadenceEnabled;
 
     public PatternDetector(AntiAFKPlus plugin, MovementListener movementListener, AFKManager afkManager) {
         this.plugin = plugin;
@@ -113,40 +145,42 @@ public class PatternDetector {
     private void loadConfigValues() {
         if (plugin.getConfigManager() == null) {
             // Fallback to defaults if config manager is unavailable
-            this.waterCircleRadius = DEFAULT_WATER_CIRCLE_RADIUS;
-            this.minSamplesForPattern = DEFAULT_MIN_SAMPLES_FOR_PATTERN;
-            this.confinedSpaceThreshold = DEFAULT_CONFINED_SPACE_THRESHOLD;
+            this.analyzerSettings = PatternAnalyzer.Settings.DEFAULTS;
+            this.minSamplesForPattern = analyzerSettings.minSamplesForPattern();
             this.patternAnalysisIntervalMs = DEFAULT_PATTERN_ANALYSIS_INTERVAL_MS;
-            this.repetitiveMovementThreshold = DEFAULT_REPETITIVE_MOVEMENT_THRESHOLD;
             this.maxPatternViolations = DEFAULT_MAX_PATTERN_VIOLATIONS;
-            this.largePoolThreshold = DEFAULT_LARGE_POOL_THRESHOLD;
-            this.minSamplesForLargePool = DEFAULT_MIN_SAMPLES_FOR_LARGE_POOL;
-            this.largePoolDetectionEnabled = true;
-            this.keystrokeTimeoutDetectionEnabled = true;
             // v2.9.4 defaults
-            this.activityGracePeriodMs = DEFAULT_ACTIVITY_GRACE_PERIOD_MS;
-            this.linearMovementThreshold = DEFAULT_LINEAR_MOVEMENT_THRESHOLD;
             this.minDirectionVariance = DEFAULT_MIN_DIRECTION_VARIANCE;
-            this.linearMovementExclusionEnabled = true;
             return;
         }
 
-        this.waterCircleRadius = plugin.getConfigManager().getWaterCircleRadius();
-        this.minSamplesForPattern = plugin.getConfigManager().getMinSamplesForPattern();
-        this.confinedSpaceThreshold = plugin.getConfigManager().getConfinedSpaceThreshold();
-        this.patternAnalysisIntervalMs = plugin.getConfigManager().getPatternAnalysisInterval();
-        this.repetitiveMovementThreshold = plugin.getConfigManager().getRepetitiveMovementThreshold();
-        this.maxPatternViolations = plugin.getConfigManager().getMaxPatternViolations();
-        this.largePoolThreshold = plugin.getConfigManager().getLargePoolThreshold();
-        this.minSamplesForLargePool = plugin.getConfigManager().getMinSamplesForLargePool();
-        this.largePoolDetectionEnabled = plugin.getConfigManager().isLargePoolDetectionEnabled();
-        this.keystrokeTimeoutDetectionEnabled = plugin.getConfigManager().isKeystrokeTimeoutDetectionEnabled();
-
-        // v2.9.4 NEW: Load false positive reduction settings
-        this.activityGracePeriodMs = plugin.getConfigManager().getActivityGracePeriodMs();
-        this.linearMovementThreshold = plugin.getConfigManager().getLinearMovementThreshold();
-        this.minDirectionVariance = plugin.getConfigManager().getMinDirectionVariance();
-        this.linearMovementExclusionEnabled = plugin.getConfigManager().isLinearMovementExclusionEnabled();
+        ConfigManager config = plugin.getConfigManager();
+        this.minSamplesForPattern = config.getMinSamplesForPattern();
+        this.patternAnalysisIntervalMs = config.getPatternAnalysisInterval();
+        this.maxPatternViolations = config.getMaxPatternViolations();
+        this.minDirectionVariance = config.getMinDirectionVariance();
+
+        // Detector thresholds, including the v2.9.4 false positive reduction settings.
+        // The keystroke timeout and the history sample spacing are refreshed from the
+        // MovementListener every cycle.
+        this.analyzerSettings = new PatternAnalyzer.Settings(
+                config.getWaterCircleRadius(),
+                minSamplesForPattern,
+                config.getConfinedSpaceThreshold(),
+                config.getRepetitiveMovementThreshold(),
+                config.getLargePoolThreshold(),
+                config.getMinSamplesForLargePool(),
+                config.isLargePoolDetectionEnabled(),
+                config.isKeystrokeTimeoutDetectionEnabled(),
+                movementListener.getKeystrokeTimeoutMs(),
+                config.getActivityGracePeriodMs(),
+                config.getLinearMovementThreshold(),
+                config.isLinearMovementExclusionEnabled());
+    }
+
+    /** Detector thresholds currently in effect. */
+    public PatternAnalyzer.Settings getAnalyzerSettings() {
+        return analyzerSettings;
     }
 
     private void restartPatternAnalysis() {
@@ -156,8 +190,24 @@ public class PatternDetector {
         if (!isPatternDetectionGloballyEnabled()) {
             return;
         }
+        // Adaptive cadence: the timer runs at the SUSPICIOUS tier's pace and each cycle
+        // only snapshots the players whose own next analysis is due
+        adaptiveCadenceEnabled = plugin.getConfig().getBoolean("performance.pattern-analysis.adaptive-cadence", true);
+        int threads = plugin.getConfig().getInt("performance.pattern-analysis.threads", 0);
+        if (threads <= 0) {
+            threads = PatternAnalysisExecutor.defaultThreads();
+        }
+        if (analysisExecutor == null || analysisExecutor.getThreads() != threads) {
+            if (analysisExecutor != null) {
+                analysisExecutor.shutdown();
+            }
+            analysisExecutor = new PatternAnalysisExecutor(plugin.getLogger(), threads);
+        }
         Runnable analysisBody = this::analyzeAllPlayerPatterns;
-        long intervalTicks = Math.max(MINIMUM_ANALYSIS_INTERVAL_TICKS, patternAnalysisIntervalMs / 50L);
+        long baseIntervalMs = adaptiveCadenceEnabled
+                ? (long) (patternAnalysisIntervalMs * SuspicionTier.SUSPICIOUS.getIntervalMultiplier())
+                : patternAnalysisIntervalMs;
+        long intervalTicks = Math.max(MINIMUM_ANALYSIS_INTERVAL_TICKS, baseIntervalMs / 50L);
         this.analysisTask = plugin.getPlatformScheduler()
                 .runTaskTimerAsync(analysisBody, intervalTicks, intervalTicks);
     }
@@ -173,65 +223,114 @@ public class PatternDetector {
         if (!isPatternDetectionGloballyEnabled()) {
             return;
         }
+        // Previous cycle still analyzing: skip this one rather than pile up behind it
+        PatternAnalysisExecutor executor = analysisExecutor;
+        if (executor == null) {
+            return;
+        }
+        if (executor.isCycleRunning()) {
+            executor.recordSkippedCycle();
+            return;
+        }
+        // Under server load the feedback controller stretches the analysis cadence
+        PerformanceOptimizer optimizer = plugin.getPerformanceOptimizer();
+        if (optimizer != null && !cycleGate.tryPass(optimizer.getLoadScale("pattern-detection"))) {
+            return;
+        }
         // Step 1 — collect player snapshots on the main thread.
         // All Bukkit API calls (getOnlinePlayers, hasPermission, getWorld, isInWater)
         // must happen here; the async analysis phase below uses only the snapshot.
         plugin.getPlatformScheduler().runTask(() -> {
-            if (!isPatternDetectionGloballyEnabled()) return;
-
-            List<String> disabledWorlds = plugin.getConfigManager().getDisabledWorlds();
-            List<String> enabledWorlds = plugin.getConfigManager().getEnabledWorlds();
-
-            List<PlayerAnalysisSnapshot> snapshots = new ArrayList<>();
-            for (Player player : plugin.getServer().getOnlinePlayers()) {
-                if (player.hasPermission("antiafkplus.bypass")) continue;
-
-                String worldName = player.getWorld().getName();
-                if (disabledWorlds.contains(worldName)) continue;
-                if (!enabledWorlds.isEmpty() && !enabledWorlds.contains(worldName)) continue;
-
-                MovementListener.PlayerLocationData locationData = movementListener.getPlayerLocationData(player);
-                if (locationData == null || locationData.locationHistory.size() < minSamplesForPattern) continue;
-
-                snapshots.add(new PlayerAnalysisSnapshot(
-                        player,
-                        player.getUniqueId(),
-                        player.getName(),
-                        player.isInWater(),
-                        movementListener.getLastKeystrokeTime(player),
-                        movementListener.getKeystrokeTimeoutMs(),
-                        movementListener.getLastCommandTime(player),
-                        movementListener.getLastHeadRotationTime(player),
-                        movementListener.getLastJumpTime(player),
-                        movementListener.getLastAnyInteractTime(player),
-                        locationData));
+            long start = System.nanoTime();
+            try {
+                collectAndSubmitCycle(executor, optimizer);
+            } finally {
+                snapshotNanos.add(System.nanoTime() - start);
             }
+        });
+    }
+
+    /** Main-thread half of a cycle: snapshots every due player and hands them to the workers. */
+    private void collectAndSubmitCycle(PatternAnalysisExecutor executor, PerformanceOptimizer optimizer) {
+        if (!isPatternDetectionGloballyEnabled()) return;
 
-            if (snapshots.isEmpty()) return;
+        List<String> disabledWorlds = plugin.getConfigManager().getDisabledWorlds();
+        List<String> enabledWorlds = plugin.getConfigManager().getEnabledWorlds();
 
-            // Step 2 — run CPU-bound analysis async. The snapshot carries every value
-            // the analyzer needs; no Bukkit API calls happen inside this phase.
-            // handleSuspiciousPattern schedules player-affecting actions back to the
-            // main/entity thread via runTaskForEntity.
-            plugin.getPlatformScheduler().runTaskAsync(() -> {
-                for (PlayerAnalysisSnapshot snap : snapshots) {
-                    analyzePlayerPattern(snap);
+        PatternAnalyzer.Settings settings = analyzerSettings
+                .withKeystrokeTimeoutMs(movementListener.getKeystrokeTimeoutMs())
+                .withSampleSpacing(movementListener.getHistorySampling().spacingMs());
+        PermissionTierService tiers = plugin.getPermissionTierService();
+        long now = System.currentTimeMillis();
+        List<PlayerAnalysisSnapshot> snapshots = new ArrayList<>();
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            // Activity tiers (performance.player-categorization): players giving steady
+            // human input are analyzed at a stretched cadence. Violations or the
+            // SUSPICIOUS tier always win over the high-activity tier.
+            PatternData existing = playerPatterns.get(player.getUniqueId());
+            boolean underSuspicion = patternViolations.getOrDefault(player.getUniqueId(), 0) > 0
+                    || existing != null && existing.suspicionTier == SuspicionTier.SUSPICIOUS;
+            boolean highActivity = !underSuspicion && optimizer != null && optimizer.isHighActivityPlayer(player);
+
+            // Not due yet for this player's suspicion tier (or stretched high-activity cadence).
+            // A player idle on both counts (low-activity tier and a low activity score,
+            // which movement also feeds) is due at the NORMAL cadence at the latest, so
+            // going idle right after being rated CLEAN does not wait out the CLEAN interval.
+            AFKManager.PlayerActivityData activityData = afkManager.getPlayerActivityData(player);
+            if ((adaptiveCadenceEnabled || highActivity) && existing != null) {
+                long dueAt = existing.nextAnalysis;
+                if (optimizer != null && optimizer.isLowActivityPlayer(player)
+                        && (activityData == null || activityData.isLowActivity())) {
+                    dueAt = Math.min(dueAt, existing.scheduledAt
+                            + (long) (patternAnalysisIntervalMs * SuspicionTier.NORMAL.getIntervalMultiplier()));
                 }
-            });
-        });
+                if (dueAt > now) continue;
+            }
+
+            if (tiers != null ? tiers.isBypassed(player) : player.hasPermission(PermissionTierService.BYPASS)) continue;
+
+            String worldName = player.getWorld().getName();
+            if (disabledWorlds.contains(worldName)) continue;
+            if (!enabledWorlds.isEmpty() && !enabledWorlds.contains(worldName)) continue;
+
+            PlayerMovementState locationData = movementListener.getMovementState(player);
+            if (locationData == null || locationData.history.size() < settings.minSamplesForPattern()) continue;
+
+            snapshots.add(new PlayerAnalysisSnapshot(
+                    player,
+                    player.getUniqueId(),
+                    player.getName(),
+                    player.isInWater(),
+                    locationData.lastKeystrokeTime,
+                    settings,
+                    locationData.lastCommandTime,
+                    locationData.lastHeadRotationTime,
+                    locationData.lastJumpTime,
+                    locationData.lastAnyInteractTime,
+                    activityData != null ? activityData.getActivityScore() : 0.0,
+                    highActivity,
+                    locationData));
+        }
+
+        if (snapshots.isEmpty()) return;
+
+        // Step 2 — run CPU-bound analysis on the worker pool, one task per player.
+        // The snapshot carries every value the analyzer needs; no Bukkit API calls
+        // happen inside this phase. handleSuspiciousPattern schedules
+        // player-affecting actions back to the main/entity thread via runTaskForEntity.
+        executor.submitCycle(snapshots, this::analyzePlayerPattern);
     }
 
     private void analyzePlayerPattern(PlayerAnalysisSnapshot snap) {
+        PatternData patternData = playerPatterns.computeIfAbsent(snap.uuid(), k -> new PatternData());
+        analyzePlayerPattern(snap, patternData);
+        scheduleNextAnalysis(snap, patternData);
+    }
+
+    private void analyzePlayerPattern(PlayerAnalysisSnapshot snap, PatternData patternData) {
         // Extract snapshot values — no Bukkit API calls below this point.
         UUID uuid = snap.uuid();
-        MovementListener.PlayerLocationData locationData = snap.locationData();
-
-        PatternData patternData = playerPatterns.computeIfAbsent(uuid, k -> new PatternData());
-
-        // Take a consistent snapshot of the CopyOnWriteArrayList before analysis.
-        List<MovementListener.LocationSnapshot> history = new java.util.ArrayList<>(locationData.locationHistory);
-        if (history.size() < minSamplesForPattern)
-            return;
+        PlayerMovementState locationData = snap.locationData();
 
         // Lightweight activity gate: skip only when the player has done absolutely
         // nothing since the last analysis cycle — no movement, no interact event,
@@ -248,87 +347,44 @@ public class PatternDetector {
             return;
         }
 
-        // v2.9.4: Skip if the player has recent active gameplay (grace period).
-        // shouldSkipDueToRecentActivity reads only ConcurrentHashMap timestamps — safe from async.
-        if (shouldSkipDueToRecentActivity(snap)) {
-            if (plugin.getConfigManager().isDebugEnabled()) {
-                plugin.getLogger().info("[PatternDetector] Skipping " + snap.playerName() +
-                        " - recent activity grace period active");
-            }
+        // The detectors themselves live in the Bukkit-free PatternAnalyzer, so traces
+        // replayed offline by TraceReplay go through exactly the same code.
+        PatternAnalyzer analyzer = patternAnalyzer.get();
+        PatternAnalyzer.Activity activity = new PatternAnalyzer.Activity(
+                snap.lastKeystrokeTime(), snap.lastCommandTime(), snap.lastHeadRotationTime(), snap.lastJumpTime());
+        int result = analyzer.analyze(snap.settings(), locationData.history, activity, snap.inWater(),
+                System.currentTimeMillis(), snap.playerName(),
+                plugin.getConfigManager().isDebugEnabled() ? plugin.getLogger()::info : null);
+
+        if ((result & PatternAnalyzer.TOO_FEW_SAMPLES) != 0) {
+            return;
+        }
+        if ((result & PatternAnalyzer.GRACE_PERIOD) != 0) {
             patternViolations.computeIfPresent(uuid, (k, v) -> Math.max(0, v - 2));
             patternData.lastAnalysis = System.currentTimeMillis();
             return;
         }
-
-        // Get recent movement history (last N positions)
-        List<MovementListener.LocationSnapshot> recentHistory = history.subList(
-                Math.max(0, history.size() - minSamplesForPattern),
-                history.size());
-
-        // v2.9.4: Skip linear movement (running straight) — not an AFK pattern.
-        // Exception: linear movement in water = water current; analysis must continue.
-        if (linearMovementExclusionEnabled && isLinearMovement(recentHistory)) {
-            boolean inWaterContext = isPlayerMostlyInWater(recentHistory, snap.inWater());
-            if (!inWaterContext) {
-                if (plugin.getConfigManager().isDebugEnabled()) {
-                    plugin.getLogger().info("[PatternDetector] Skipping " + snap.playerName() +
-                            " - linear movement on land detected (running straight)");
-                }
-                patternViolations.computeIfPresent(uuid, (k, v) -> Math.max(0, v - 1));
-                patternData.lastAnalysis = System.currentTimeMillis();
-                return;
-            }
-            if (plugin.getConfigManager().isDebugEnabled()) {
-                plugin.getLogger().info("[PatternDetector] " + snap.playerName() +
-                        " - linear movement but mostly in water, continuing analysis (possible AFK pool current)");
-            }
-        }
-
-        boolean suspiciousPattern = false;
-        String detectionReason = "";
-
-        if (detectWaterCirclePattern(recentHistory)) {
-            suspiciousPattern = true;
-            detectionReason = "water_circle";
-            patternData.waterCircleDetections++;
-        }
-
-        if (detectConfinedSpacePattern(recentHistory)) {
-            suspiciousPattern = true;
-            detectionReason = "confined_space";
-            patternData.confinedSpaceDetections++;
-        }
-
-        if (detectRepetitivePattern(recentHistory)) {
-            suspiciousPattern = true;
-            detectionReason = "repetitive_movement";
-            patternData.repetitivePatternDetections++;
-        }
-
-        if (detectPendulumPattern(recentHistory)) {
-            suspiciousPattern = true;
-            detectionReason = "pendulum_movement";
-            patternData.pendulumDetections++;
-        }
-
-        // v2.4: Large pool check uses full history so bounding-box covers the full circuit.
-        if (detectLargeAFKPool(snap, history)) {
-            suspiciousPattern = true;
-            detectionReason = "large_afk_pool";
-            patternData.largePoolDetections++;
+        if ((result & PatternAnalyzer.LINEAR_MOVEMENT) != 0) {
+            patternViolations.computeIfPresent(uuid, (k, v) -> Math.max(0, v - 1));
+            patternData.lastAnalysis = System.currentTimeMillis();
+            return;
         }
 
-        // v2.4: Keystroke timeout — computed from snapshot values, no Bukkit API needed.
-        if (keystrokeTimeoutDetectionEnabled) {
-            long timeSinceKeystroke = System.currentTimeMillis() - snap.lastKeystrokeTime();
-            if (snap.lastKeystrokeTime() > 0 && timeSinceKeystroke > snap.keystrokeTimeoutMs()) {
-                suspiciousPattern = true;
-                detectionReason = "keystroke_timeout";
-                patternData.keystrokeTimeouts++;
-            }
+        if ((result & PatternAnalyzer.WATER_CIRCLE) != 0) patternData.waterCircleDetections++;
+        if ((result & PatternAnalyzer.CONFINED_SPACE) != 0) patternData.confinedSpaceDetections++;
+        if ((result & PatternAnalyzer.REPETITIVE) != 0) patternData.repetitivePatternDetections++;
+        if ((result & PatternAnalyzer.PENDULUM) != 0) patternData.pendulumDetections++;
+        if ((result & PatternAnalyzer.PERIODIC) != 0) {
+            patternData.periodicDetections++;
+            patternData.lastPeriodMillis = analyzer.periodMillis();
+            patternData.lastPeriodStrength = analyzer.periodStrength();
+            patternData.lastPeriodRotation = analyzer.periodRotation();
         }
+        if ((result & PatternAnalyzer.LARGE_POOL) != 0) patternData.largePoolDetections++;
+        if ((result & PatternAnalyzer.KEYSTROKE_TIMEOUT) != 0) patternData.keystrokeTimeouts++;
 
-        if (suspiciousPattern) {
+        String detectionReason = PatternAnalyzer.reason(result);
+        if (detectionReason != null) {
             handleSuspiciousPattern(snap.uuid(), snap.playerName(), snap.player(), detectionReason, patternData);
         } else {
             patternViolations.computeIfPresent(uuid, (k, v) -> Math.max(0, v - 1));
@@ -337,459 +393,47 @@ public class PatternDetector {
         patternData.lastAnalysis = System.currentTimeMillis();
     }
 
-    // ==================== v2.9.4 NEW: False Positive Reduction Methods ====================
-
-    /**
-     * v2.9.4 NEW: Checks if pattern detection should be skipped due to recent active gameplay.
-     * Active gameplay includes: breaking/placing blocks, chat, commands, item interactions, combat.
-     * This prevents false positives when players are actively playing but happen to move in
-     * patterns similar to AFK behaviors (e.g., running in their base, exploring tunnels).
-     *
-     * @param player The player to check
-     * @return true if recent activity warrants skipping pattern detection
-     */
-    private boolean shouldSkipDueToRecentActivity(PlayerAnalysisSnapshot snap) {
-        if (activityGracePeriodMs <= 0) {
-            return false;
-        }
-        long now = System.currentTimeMillis();
-        // All timestamps pre-fetched on main thread — no Bukkit or MovementListener calls here.
-        if (snap.lastCommandTime() > 0 && (now - snap.lastCommandTime()) < activityGracePeriodMs) {
-            return true;
-        }
-        if (snap.lastHeadRotationTime() > 0 && (now - snap.lastHeadRotationTime()) < (activityGracePeriodMs / 2)) {
-            return true;
-        }
-        if (snap.lastJumpTime() > 0 && (now - snap.lastJumpTime()) < (activityGracePeriodMs / 3)) {
-            return true;
-        }
-        if (snap.lastKeystrokeTime() > 0 && (now - snap.lastKeystrokeTime()) < (activityGracePeriodMs / 2)) {
-            return true;
-        }
-        return false;
-    }
-
     /**
-     * v2.9.4 NEW: Detects if the player is moving in a predominantly linear direction.
-     * Linear movement (running straight) is NOT an AFK pattern - it indicates active exploration,
-     * traveling, or running through areas like forests, tunnels, paths, etc.
-     *
-     * AFK patterns are characterized by:
-     * - Circular or confined movement
-     * - High repetition (returning to same spots)
-     * - Low direction variance over time
-     *
-     * Linear movement is characterized by:
-     * - Consistent direction (low direction variance)
-     * - Large travel distance
-     * - No returning to previous positions
-     *
-     * @param history Movement history to analyze
-     * @return true if movement appears to be linear (running straight)
+     * Scores how suspicious the player currently looks (0 = clean, 1 = very likely
+     * AFK-pooling) and sets when they are analyzed next. Inputs: accumulated
+     * violations, detections recorded in the last 5 minutes and a low activity score.
      */
-    private boolean isLinearMovement(List<MovementListener.LocationSnapshot> history) {
-        if (history.size() < 10) {
-            return false;
-        }
-
-        // Create defensive copy
-        List<MovementListener.LocationSnapshot> safeCopy = new java.util.ArrayList<>(history);
-
-        // Calculate total travel distance
-        double totalDistance = 0.0;
-        for (int i = 1; i < safeCopy.size(); i++) {
-            MovementListener.LocationSnapshot prev = safeCopy.get(i - 1);
-            MovementListener.LocationSnapshot curr = safeCopy.get(i);
-            totalDistance += Math.sqrt(
-                    Math.pow(curr.x - prev.x, 2) +
-                    Math.pow(curr.z - prev.z, 2));
-        }
-
-        // Calculate straight-line distance from start to end
-        MovementListener.LocationSnapshot first = safeCopy.get(0);
-        MovementListener.LocationSnapshot last = safeCopy.get(safeCopy.size() - 1);
-        double straightLineDistance = Math.sqrt(
-                Math.pow(last.x - first.x, 2) +
-                Math.pow(last.z - first.z, 2));
-
-        // If straight-line distance is close to total distance, movement is linear
-        // Ratio close to 1.0 = very linear movement
-        double linearityRatio = totalDistance > 0.1 ? (straightLineDistance / totalDistance) : 0.0;
-
-        // Also check direction variance
-        double directionVariance = calculateDirectionVariance(safeCopy);
-
-        // Movement is considered linear if:
-        // 1. Linearity ratio is high (>0.7 means path is mostly straight)
-        // 2. Direction variance is low (below threshold)
-        // 3. Total distance is significant (not standing still)
-        boolean isLinear = linearityRatio > 0.7 &&
-                directionVariance < linearMovementThreshold &&
-                totalDistance > 5.0; // At least 5 blocks traveled
-
-        if (plugin.getConfigManager().isDebugEnabled() && totalDistance > 1.0) {
-            plugin.getLogger().info(String.format(
-                    "[DEBUG_Linear] linearity=%.2f, variance=%.3f, distance=%.1f, isLinear=%s",
-                    linearityRatio, directionVariance, totalDistance, isLinear));
-        }
-
-        return isLinear;
-    }
-
-    /**
-     * v2.9.4 NEW: Calculates the variance in movement direction over the history.
-     * Low variance = consistent direction (linear movement)
-     * High variance = changing directions (could be circular/repetitive pattern)
-     *
-     * @param history Movement history to analyze
-     * @return Direction variance (0.0 = perfectly straight, higher = more varied)
-     */
-    private double calculateDirectionVariance(List<MovementListener.LocationSnapshot> history) {
-        if (history.size() < 3) {
-            return 0.0;
-        }
-
-        List<Double> angles = new java.util.ArrayList<>();
-
-        for (int i = 1; i < history.size(); i++) {
-            MovementListener.LocationSnapshot prev = history.get(i - 1);
-            MovementListener.LocationSnapshot curr = history.get(i);
-
-            double deltaX = curr.x - prev.x;
-            double deltaZ = curr.z - prev.z;
-
-            // Only calculate angle if there's meaningful movement
-            if (Math.abs(deltaX) > 0.05 || Math.abs(deltaZ) > 0.05) {
-                angles.add(Math.atan2(deltaZ, deltaX));
-            }
-        }
-
-        if (angles.size() < 2) {
-            return 0.0;
-        }
-
-        // Calculate variance in angles
-        double sumAngleDiff = 0.0;
-        for (int i = 1; i < angles.size(); i++) {
-            double diff = Math.abs(angles.get(i) - angles.get(i - 1));
-            // Normalize angle difference (handle wrap-around at ±π)
-            if (diff > Math.PI) {
-                diff = 2 * Math.PI - diff;
-            }
-            sumAngleDiff += diff;
-        }
-
-        // Return average angle change (normalized to 0-1 scale roughly)
-        return sumAngleDiff / (angles.size() - 1) / Math.PI;
-    }
-
-    // ==================== End v2.9.4 Methods ====================
-
-    private boolean detectWaterCirclePattern(List<MovementListener.LocationSnapshot> history) {
-        if (history.size() < 8)
-            return false;
-
-        // PROFESSIONAL FIX: Create defensive copy to prevent
-        // ConcurrentModificationException
-        // The original list can be modified by other threads during stream operations
-        List<MovementListener.LocationSnapshot> safeCopy = new java.util.ArrayList<>(history);
-
-        // Calculate center point of movement using thread-safe copy
-        double centerX = safeCopy.stream().mapToDouble(pos -> pos.x).average().orElse(0);
-        double centerZ = safeCopy.stream().mapToDouble(pos -> pos.z).average().orElse(0);
-
-        // Check if all movements are within circle radius
-        boolean allWithinRadius = safeCopy.stream().allMatch(pos -> {
-            double distance = Math.sqrt(Math.pow(pos.x - centerX, 2) + Math.pow(pos.z - centerZ, 2));
-            return distance <= waterCircleRadius;
-        });
-
-        if (!allWithinRadius)
-            return false;
-
-        // Check for circular movement pattern using thread-safe copy
-        int circularMovements = 0;
-        for (int i = 1; i < safeCopy.size(); i++) {
-            MovementListener.LocationSnapshot prev = safeCopy.get(i - 1);
-            MovementListener.LocationSnapshot curr = safeCopy.get(i);
-
-            // Calculate angle change
-            double angle1 = Math.atan2(prev.z - centerZ, prev.x - centerX);
-            double angle2 = Math.atan2(curr.z - centerZ, curr.x - centerX);
-            double angleDiff = Math.abs(angle2 - angle1);
-
-            // Normalize angle difference
-            if (angleDiff > Math.PI)
-                angleDiff = 2 * Math.PI - angleDiff;
-
-            // If angle change is consistent (suggesting circular movement)
-            if (angleDiff > 0.1 && angleDiff < Math.PI / 2) {
-                circularMovements++;
+    private void scheduleNextAnalysis(PlayerAnalysisSnapshot snap, PatternData patternData) {
+        int violations = patternViolations.getOrDefault(snap.uuid(), 0);
+        double violationFactor = maxPatternViolations > 0
+                ? Math.min(1.0, (double) violations / maxPatternViolations) : 0.0;
+
+        int recent = 0;
+        Deque<DetectedPatternRecord> detections = recentDetections.get(snap.uuid());
+        if (detections != null) {
+            long cutoff = System.currentTimeMillis() - SUSPICION_DETECTION_WINDOW_MS;
+            for (DetectedPatternRecord record : detections) {
+                if (record.getTimestamp() >= cutoff) recent++;
             }
         }
+        double detectionFactor = Math.min(1.0, (double) recent / SUSPICION_DETECTIONS_FOR_MAX);
+        double inactivityFactor = 1.0 - Math.max(0.0, Math.min(100.0, snap.activityScore())) / 100.0;
 
-        return circularMovements >= (safeCopy.size() * 0.6); // 60% of movements should be circular
-    }
-
-    private boolean detectConfinedSpacePattern(List<MovementListener.LocationSnapshot> history) {
-        if (history.size() < minSamplesForPattern)
-            return false;
-
-        // PROFESSIONAL FIX: Create defensive copy to prevent
-        // ConcurrentModificationException
-        List<MovementListener.LocationSnapshot> safeCopy = new java.util.ArrayList<>(history);
-
-        // Calculate bounding box of movement using thread-safe copy
-        double minX = safeCopy.stream().mapToDouble(pos -> pos.x).min().orElse(0);
-        double maxX = safeCopy.stream().mapToDouble(pos -> pos.x).max().orElse(0);
-        double minZ = safeCopy.stream().mapToDouble(pos -> pos.z).min().orElse(0);
-        double maxZ = safeCopy.stream().mapToDouble(pos -> pos.z).max().orElse(0);
-
-        double areaX = maxX - minX;
-        double areaZ = maxZ - minZ;
-
-        // Check if movement is confined to small area
-        return areaX <= confinedSpaceThreshold && areaZ <= confinedSpaceThreshold;
-    }
-
-    private boolean detectRepetitivePattern(List<MovementListener.LocationSnapshot> history) {
-        if (history.size() < 12)
-            return false;
-
-        // PROFESSIONAL FIX: Create defensive copy to prevent
-        // ConcurrentModificationException
-        List<MovementListener.LocationSnapshot> safeCopy = new java.util.ArrayList<>(history);
-
-        // Split history into segments and compare similarity using thread-safe copy
-        int segmentSize = safeCopy.size() / 3;
-        List<MovementListener.LocationSnapshot> segment1 = new java.util.ArrayList<>(safeCopy.subList(0, segmentSize));
-        List<MovementListener.LocationSnapshot> segment2 = new java.util.ArrayList<>(
-                safeCopy.subList(segmentSize, segmentSize * 2));
-        List<MovementListener.LocationSnapshot> segment3 = new java.util.ArrayList<>(
-                safeCopy.subList(segmentSize * 2, segmentSize * 3));
-
-        double similarity12 = calculatePatternSimilarity(segment1, segment2);
-        double similarity23 = calculatePatternSimilarity(segment2, segment3);
-        double similarity13 = calculatePatternSimilarity(segment1, segment3);
-
-        // If segments are highly similar, it's likely a repetitive pattern
-        return (similarity12 > repetitiveMovementThreshold ||
-                similarity23 > repetitiveMovementThreshold ||
-                similarity13 > repetitiveMovementThreshold);
-    }
-
-    private boolean detectPendulumPattern(List<MovementListener.LocationSnapshot> history) {
-        if (history.size() < 10)
-            return false;
-
-        // PROFESSIONAL FIX: Create defensive copy to prevent
-        // ConcurrentModificationException
-        List<MovementListener.LocationSnapshot> safeCopy = new java.util.ArrayList<>(history);
-
-        int backAndForthCount = 0;
-
-        for (int i = 2; i < safeCopy.size(); i++) {
-            MovementListener.LocationSnapshot pos1 = safeCopy.get(i - 2);
-            MovementListener.LocationSnapshot pos2 = safeCopy.get(i - 1);
-            MovementListener.LocationSnapshot pos3 = safeCopy.get(i);
-
-            // Check for back-and-forth movement (A -> B -> A pattern)
-            double dist12 = calculateDistance(pos1, pos2);
-            double dist23 = calculateDistance(pos2, pos3);
-            double dist13 = calculateDistance(pos1, pos3);
-
-            // If player moves away then back to nearly same position
-            if (dist12 > 0.5 && dist23 > 0.5 && dist13 < 0.5) {
-                backAndForthCount++;
-            }
-        }
-
-        return backAndForthCount >= (safeCopy.size() * 0.3); // 30% of movements are back-and-forth
-    }
-
-    // v2.4 NEW: Large AFK pool detection methods
-
-    /**
-     * Detects large AFK pools (20x10+ blocks) that bypass traditional confined
-     * space detection.
-     * This method identifies pools that are too large for the standard confined
-     * space threshold
-     * but still represent artificial AFK setups.
-     * 
-     * Detection criteria:
-     * 1. Movement area larger than small pool threshold but smaller than large pool
-     * threshold
-     * 2. Player is in water for extended periods
-     * 3. Movement patterns suggest water current automation
-     * 4. No manual keystrokes detected for extended periods
-     * 
-     * @param player  The player being analyzed
-     * @param history Recent movement history
-     * @return true if large AFK pool pattern detected
-     */
-    private boolean detectLargeAFKPool(PlayerAnalysisSnapshot snap, List<MovementListener.LocationSnapshot> history) {
-        if (!largePoolDetectionEnabled) {
-            return false;
-        }
-        if (history.size() < minSamplesForLargePool)
-            return false;
-
-        // PROFESSIONAL FIX: Create defensive copy to prevent
-        // ConcurrentModificationException
-        List<MovementListener.LocationSnapshot> safeCopy = new java.util.ArrayList<>(history);
-
-        // Calculate bounding box of movement area using thread-safe copy
-        double minX = safeCopy.stream().mapToDouble(pos -> pos.x).min().orElse(0);
-        double maxX = safeCopy.stream().mapToDouble(pos -> pos.x).max().orElse(0);
-        double minZ = safeCopy.stream().mapToDouble(pos -> pos.z).min().orElse(0);
-        double maxZ = safeCopy.stream().mapToDouble(pos -> pos.z).max().orElse(0);
-
-        double areaX = maxX - minX;
-        double areaZ = maxZ - minZ;
-        double totalArea = areaX * areaZ;
-
-        // Check if movement area suggests large AFK pool
-        boolean isLargePoolSize = (areaX > confinedSpaceThreshold || areaZ > confinedSpaceThreshold) &&
-                (totalArea <= largePoolThreshold * largePoolThreshold);
-
-        if (!isLargePoolSize)
-            return false;
-
-        // Check historical water presence (Fix #2: use recorded inWater flags, not a snapshot).
-        // Rectangular pools fail an automatic-movement check at corners, so we do NOT require
-        // detectAutomaticMovementPattern() anymore. The three conditions below are sufficient
-        // and robust: large area + mostly in water + no manual keystrokes for timeout period.
-        boolean mostlyInWater = isPlayerMostlyInWater(safeCopy, snap.inWater());
-        if (!mostlyInWater)
-            return false;
-
-        boolean hasKeystrokeTimeout = snap.lastKeystrokeTime() > 0 &&
-                (System.currentTimeMillis() - snap.lastKeystrokeTime()) > snap.keystrokeTimeoutMs();
-
-        // Debug logging (includes auto-movement for informational purposes only)
-        if (plugin.getConfigManager().isDebugEnabled()) {
-            boolean autoMove = detectAutomaticMovementPattern(safeCopy);
-            plugin.getLogger().info(String.format(
-                    "[DEBUG_LargePool] %s: area=%.1fx%.1f (%.1f), inWater=%s, keystrokeTimeout=%s, autoMove(info)=%s",
-                    snap.playerName(), areaX, areaZ, totalArea, mostlyInWater, hasKeystrokeTimeout, autoMove));
-        }
-
-        return hasKeystrokeTimeout;
-    }
+        double score = SUSPICION_VIOLATION_WEIGHT * violationFactor
+                + SUSPICION_DETECTION_WEIGHT * detectionFactor
+                + SUSPICION_INACTIVITY_WEIGHT * inactivityFactor;
+        SuspicionTier tier = score >= SUSPICIOUS_TIER_SCORE ? SuspicionTier.SUSPICIOUS
+                : score < CLEAN_TIER_SCORE ? SuspicionTier.CLEAN
+                : SuspicionTier.NORMAL;
 
-    /**
-     * Checks if the player was mostly in water during the recorded movement history.
-     * Uses the {@code inWater} flag stored in each {@link MovementListener.LocationSnapshot}
-     * (recorded at the time of the PlayerMoveEvent on the main thread) rather than the
-     * player's current block state, which is unreliable when the analysis runs async and
-     * the player may momentarily be at the pool edge.
-     *
-     * @param player  The player to check (used as fallback when history is empty)
-     * @param history Already-snapshotted movement history (stable list, safe to iterate)
-     * @return true if ≥ 60 % of recorded positions were in water
-     */
-    private boolean isPlayerMostlyInWater(List<MovementListener.LocationSnapshot> history,
-                                           boolean inWaterSnapshot) {
-        if (history == null || history.isEmpty()) {
-            // No history yet: use the snapshot captured on the main thread.
-            // This avoids calling player.isInWater() from the async analysis thread.
-            return inWaterSnapshot;
+        if (tier != patternData.suspicionTier && plugin.getConfigManager().isDebugEnabled()) {
+            plugin.getLogger().info(String.format("[PatternDetector] %s suspicion %.2f -> %s tier",
+                    snap.playerName(), score, tier));
         }
-        long inWaterCount = history.stream().filter(s -> s.inWater).count();
-        return (double) inWaterCount / history.size() >= 0.60;
-    }
-
-    /**
-     * Detects automatic movement patterns typical of water currents in AFK pools.
-     * Automatic movement has consistent velocity and fewer direction changes.
-     * 
-     * @param history Movement history to analyze
-     * @return true if movement appears to be automatic (water current)
-     */
-    private boolean detectAutomaticMovementPattern(List<MovementListener.LocationSnapshot> history) {
-        if (history.size() < 10)
-            return false;
-
-        // PROFESSIONAL FIX: Create defensive copy to prevent
-        // ConcurrentModificationException
-        List<MovementListener.LocationSnapshot> safeCopy = new java.util.ArrayList<>(history);
-
-        double totalVelocityVariance = 0.0;
-        double totalDirectionChanges = 0.0;
-        int validMeasurements = 0;
-
-        for (int i = 1; i < safeCopy.size(); i++) {
-            MovementListener.LocationSnapshot prev = safeCopy.get(i - 1);
-            MovementListener.LocationSnapshot curr = safeCopy.get(i);
-
-            double deltaX = curr.x - prev.x;
-            double deltaZ = curr.z - prev.z;
-            double velocity = Math.sqrt(deltaX * deltaX + deltaZ * deltaZ);
-
-            if (velocity > 0.01) { // Only analyze when there's movement
-                // Calculate velocity variance (automatic movement has consistent velocity)
-                if (validMeasurements > 0) {
-                    // Simple variance approximation
-                    totalVelocityVariance += Math.abs(velocity - 0.1); // 0.1 is typical water current speed
-                }
-
-                // Calculate direction changes (automatic movement has fewer changes)
-                if (i > 1) {
-                    MovementListener.LocationSnapshot prevPrev = safeCopy.get(i - 2); // Fix #3: use safeCopy, not the parameter `history`
-                    double prevAngle = Math.atan2(prev.z - prevPrev.z, prev.x - prevPrev.x);
-                    double currAngle = Math.atan2(deltaZ, deltaX);
-
-                    double angleDiff = Math.abs(currAngle - prevAngle);
-                    if (angleDiff > Math.PI)
-                        angleDiff = 2 * Math.PI - angleDiff;
-
-                    totalDirectionChanges += angleDiff;
-                }
-
-                validMeasurements++;
-            }
+        double multiplier = tier.getIntervalMultiplier();
+        if (snap.highActivity() && tier != SuspicionTier.SUSPICIOUS && violations == 0) {
+            multiplier = Math.max(multiplier, HIGH_ACTIVITY_INTERVAL_MULTIPLIER);
         }
-
-        if (validMeasurements < 5)
-            return false;
-
-        double avgVelocityVariance = totalVelocityVariance / validMeasurements;
-        double avgDirectionChange = totalDirectionChanges / Math.max(1, validMeasurements - 1);
-
-        // Automatic movement has low velocity variance and low direction changes
-        boolean lowVelocityVariance = avgVelocityVariance < 0.05;
-        boolean lowDirectionChanges = avgDirectionChange < 0.3;
-
-        return lowVelocityVariance && lowDirectionChanges;
-    }
-
-    private double calculatePatternSimilarity(List<MovementListener.LocationSnapshot> pattern1,
-            List<MovementListener.LocationSnapshot> pattern2) {
-        if (pattern1.size() != pattern2.size())
-            return 0.0;
-
-        double totalSimilarity = 0.0;
-        int comparisons = 0;
-
-        for (int i = 0; i < pattern1.size(); i++) {
-            MovementListener.LocationSnapshot pos1 = pattern1.get(i);
-            MovementListener.LocationSnapshot pos2 = pattern2.get(i);
-
-            double distance = calculateDistance(pos1, pos2);
-            double similarity = Math.max(0, 1.0 - (distance / 10.0)); // Normalize to 0-1
-
-            totalSimilarity += similarity;
-            comparisons++;
-        }
-
-        return comparisons > 0 ? totalSimilarity / comparisons : 0.0;
-    }
-
-    private double calculateDistance(MovementListener.LocationSnapshot pos1,
-            MovementListener.LocationSnapshot pos2) {
-        return Math.sqrt(Math.pow(pos2.x - pos1.x, 2) +
-                Math.pow(pos2.y - pos1.y, 2) +
-                Math.pow(pos2.z - pos1.z, 2));
+        patternData.suspicionScore = score;
+        patternData.suspicionTier = tier;
+        long now = System.currentTimeMillis();
+        patternData.scheduledAt = now;
+        patternData.nextAnalysis = now + (long) (patternAnalysisIntervalMs * multiplier);
     }
 
     private void handleSuspiciousPattern(UUID uuid, String playerName, Player player,
@@ -814,6 +458,11 @@ public class PatternDetector {
         additionalData.put("reason", detectionReason);
         additionalData.put("violations", violations);
         additionalData.put("totalDetections", patternData.getTotalDetections());
+        if ("periodic_movement".equals(detectionReason)) {
+            additionalData.put("periodMillis", patternData.lastPeriodMillis);
+            additionalData.put("periodStrength", patternData.lastPeriodStrength);
+            additionalData.put("periodSignal", patternData.lastPeriodRotation ? "rotation" : "movement");
+        }
 
         PlayerAFKPatternDetectedEvent.PatternType patternType = mapPatternType(detectionReason);
         double confidence = computeConfidence(detectionReason, violations);
@@ -945,6 +594,17 @@ public class PatternDetector {
         recentDetections.remove(uuid);
     }
 
+    /** Analysis pool metrics, or null while pattern detection is disabled. */
+    /** Main-thread nanoseconds spent collecting analysis snapshots since startup. */
+    public long getSnapshotNanos() {
+        return snapshotNanos.sum();
+    }
+
+    public PatternAnalysisExecutor.AnalysisStats getAnalysisStats() {
+        PatternAnalysisExecutor executor = analysisExecutor;
+        return executor != null ? executor.getStats() : null;
+    }
+
     public PatternData getPlayerPatternData(Player player) {
         return playerPatterns.get(player.getUniqueId());
     }
@@ -954,6 +614,10 @@ public class PatternDetector {
             analysisTask.cancel();
             plugin.getLogger().info("PatternDetector analysis task cancelled.");
         }
+        if (analysisExecutor != null) {
+            analysisExecutor.shutdown();
+            analysisExecutor = null;
+        }
         playerPatterns.clear();
         patternViolations.clear();
         recentDetections.clear();
@@ -1057,6 +721,7 @@ public class PatternDetector {
             case "confined_space" -> PlayerAFKPatternDetectedEvent.PatternType.CONFINED_SPACE;
             case "repetitive", "repetitive_pattern" -> PlayerAFKPatternDetectedEvent.PatternType.REPETITIVE_MOVEMENT;
             case "pendulum" -> PlayerAFKPatternDetectedEvent.PatternType.PENDULUM_MOVEMENT;
+            case "periodic_movement" -> PlayerAFKPatternDetectedEvent.PatternType.PERIODIC_MOVEMENT;
             case "large_afk_pool" -> PlayerAFKPatternDetectedEvent.PatternType.COMBINED_PATTERNS;
             case "keystroke_timeout" -> PlayerAFKPatternDetectedEvent.PatternType.AUTOCLICK_PATTERN;
             case "mining_pattern" -> PlayerAFKPatternDetectedEvent.PatternType.MINING_PATTERN;
@@ -1083,6 +748,9 @@ public class PatternDetector {
                 case "pendulum":
                     base = 0.65;
                     break;
+                case "periodic_movement":
+                    base = 0.8;
+                    break;
                 case "large_afk_pool":
                     base = 0.8;
                     break;
@@ -1105,6 +773,7 @@ public class PatternDetector {
         public int confinedSpaceDetections = 0;
         public int repetitivePatternDetections = 0;
         public int pendulumDetections = 0;
+        public int periodicDetections = 0;
 
         // v2.4 NEW: Large AFK pool detection counters
         public int largePoolDetections = 0;
@@ -1113,16 +782,27 @@ public class PatternDetector {
         public long lastAnalysis = 0;
         public long firstDetection = 0;
 
+        // Last periodic movement found: period, autocorrelation strength and signal
+        public long lastPeriodMillis = 0;
+        public double lastPeriodStrength = 0.0;
+        public boolean lastPeriodRotation = false;
+
+        // Adaptive cadence: current suspicion and when the player is analyzed next
+        public volatile double suspicionScore = 0.0;
+        public volatile SuspicionTier suspicionTier = SuspicionTier.NORMAL;
+        public volatile long nextAnalysis = 0;
+        public volatile long scheduledAt = 0;
+
         public int getTotalDetections() {
             return waterCircleDetections + confinedSpaceDetections +
-                    repetitivePatternDetections + pendulumDetections +
+                    repetitivePatternDetections + pendulumDetections + periodicDetections +
                     largePoolDetections + keystrokeTimeouts; // v2.4: Include new detection types
         }
 
         public String getMostCommonPattern() {
             int max = Math.max(Math.max(waterCircleDetections, confinedSpaceDetections),
                     Math.max(repetitivePatternDetections,
-                            Math.max(pendulumDetections,
+                            Math.max(Math.max(pendulumDetections, periodicDetections),
                                     Math.max(largePoolDetections, keystrokeTimeouts)))); // v2.4: Include new types
 
             if (max == 0)
@@ -1135,6 +815,8 @@ public class PatternDetector {
                 return "repetitive";
             if (max == pendulumDetections)
                 return "pendulum";
+            if (max == periodicDetections)
+                return "periodic_movement";
             if (max == largePoolDetections)
                 return "large_afk_pool"; // v2.4 NEW
             if (max == keystrokeTimeouts)
@@ -0,0 +1,254 @@
+package me.koyere.antiafkplus.afk;
+
+/**
+ * Finds the dominant period of a player's movement (or head rotation) through the
+ * autocorrelation of the samples in a {@link MovementHistory.Window}.
+ *
+ * <p>{@code detectRepetitivePattern} only notices a loop whose length happens to
+ * line up with a third of the window. Autocorrelation catches loops of any period:
+ * a looping AFK machine produces a strong correlation peak at its period, whatever
+ * the period is. Two signals are analyzed, each as one complex sequence so a single
+ * FFT covers both axes:</p>
+ * <ul>
+ *   <li>horizontal velocity {@code dx + i·dz} (velocity rather than position, so
+ *   walking in a straight line has no trend to correlate with), and</li>
+ *   <li>facing {@code e^(i·yaw)}, which catches clients that rotate the head on a loop.</li>
+ * </ul>
+ * <p>The autocorrelation is the inverse FFT of the power spectrum (Wiener-Khinchin),
+ * O(n log n) per signal. Real part of a complex signal's autocorrelation is the sum
+ * of both components' autocorrelations.</p>
+ *
+ * <p>Not thread-safe: the FFT buffers are reused across calls, so keep one
+ * instance per analysis thread. After warm-up an analysis allocates nothing.</p>
+ */
+public final class PeriodicityDetector {
+
+    /** Shortest period reported, in samples (0.5 s at 20 samples/s); shorter lags are jitter. */
+    public static final int MIN_PERIOD_SAMPLES = 10;
+
+    // Signals with less energy than this (per sample) are treated as constant
+    private static final double MIN_VELOCITY_ENERGY = 1.0e-4; // ~0.01 blocks/sample
+    private static final double MIN_YAW_ENERGY = 1.0e-3;
+    private static final double HARMONIC_TOLERANCE = 0.9;
+
+    private double[] re = new double[0];
+    private double[] im = new double[0];
+
+    // Result of the last analyze() call
+    private int period;
+    private double strength;
+    private double periodMillis;
+    private boolean rotation;
+    private double rotationStrength;
+
+    /**
+     * Analyzes the samples {@code [from, to)} of the window.
+     *
+     * @return true if a period was found; read it with {@link #period()},
+     *         {@link #strength()} and {@link #periodMillis()}
+     */
+    public boolean analyze(MovementHistory.Window w, int from, int to) {
+        period = 0;
+        strength = 0.0;
+        periodMillis = 0.0;
+        rotation = false;
+        rotationStrength = 0.0;
+
+        // Velocity has one sample less than the positions
+        int n = to - from - 1;
+        if (n < MIN_PERIOD_SAMPLES * 2) {
+            return false;
+        }
+        ensureCapacity(n);
+
+        // Movement loop: horizontal velocity
+        for (int i = 0; i < n; i++) {
+            re[i] = w.x[from + i + 1] - w.x[from + i];
+            im[i] = w.z[from + i + 1] - w.z[from + i];
+        }
+        findPeak(n, MIN_VELOCITY_ENERGY, false);
+
+        // Head rotation loop: facing as a unit vector
+        for (int i = 0; i < n; i++) {
+            double yaw = Math.toRadians(w.yaw[from + i + 1]);
+            re[i] = Math.cos(yaw);
+            im[i] = Math.sin(yaw);
+        }
+        rotationStrength = Math.min(1.0, findPeak(n, MIN_YAW_ENERGY, true));
+
+        if (period == 0) {
+            return false;
+        }
+        long span = w.timestamp[to - 1] - w.timestamp[from];
+        periodMillis = span > 0 ? (double) span / (to - from - 1) * period : 0.0;
+        return true;
+    }
+
+    /** Dominant period in samples, 0 if none. */
+    public int period() {
+        return period;
+    }
+
+    /** Normalized autocorrelation at the period: 1 = perfect repetition. */
+    public double strength() {
+        return strength;
+    }
+
+    /** Dominant period converted to wall time using the samples' timestamps. */
+    public double periodMillis() {
+        return periodMillis;
+    }
+
+    /** True if the period was found in the head rotation rather than in the movement. */
+    public boolean isRotation() {
+        return rotation;
+    }
+
+    /**
+     * Highest autocorrelation peak of the head rotation alone (0-1), also when the
+     * movement reported a stronger period: a loop that moves and turns has both.
+     */
+    public double rotationStrength() {
+        return rotationStrength;
+    }
+
+    /**
+     * Autocorrelates the complex signal in {@code re/im[0, n)} and keeps its highest
+     * peak if it beats the current result. Destroys the buffers.
+     *
+     * @return the signal's highest peak correlation, 0 if it has none
+     */
+    private double findPeak(int n, double minEnergy, boolean rotationSignal) {
+        int size = re.length;
+
+        // Remove the mean: a constant offset would correlate at every lag
+        double meanRe = 0.0;
+        double meanIm = 0.0;
+        for (int i = 0; i < n; i++) {
+            meanRe += re[i];
+            meanIm += im[i];
+        }
+        meanRe /= n;
+        meanIm /= n;
+        for (int i = 0; i < n; i++) {
+            re[i] -= meanRe;
+            im[i] -= meanIm;
+        }
+        // Zero padding to >= 2n makes the circular correlation a linear one
+        for (int i = n; i < size; i++) {
+            re[i] = 0.0;
+            im[i] = 0.0;
+        }
+
+        fft(false);
+        for (int i = 0; i < size; i++) {
+            re[i] = re[i] * re[i] + im[i] * im[i];
+            im[i] = 0.0;
+        }
+        fft(true);
+
+        double zeroLag = re[0];
+        if (zeroLag / n < minEnergy) {
+            return 0.0; // Constant signal (standing still / fixed facing)
+        }
+
+        // The lag-0 lobe decays first; a real period shows up as a peak after the
+        // first zero crossing. Lags above n/2 would cover less than two repetitions.
+        int maxLag = n / 2;
+        int lag = 1;
+        while (lag <= maxLag && re[lag] > 0.0) {
+            lag++;
+        }
+        int firstLag = Math.max(lag, MIN_PERIOD_SAMPLES);
+        double best = 0.0;
+        for (lag = firstLag; lag <= maxLag; lag++) {
+            if (isPeak(lag, maxLag)) {
+                best = Math.max(best, correlation(lag, n, zeroLag));
+            }
+        }
+        if (best <= strength) {
+            return best;
+        }
+        // Multiples of the period peak almost as high; report the fundamental
+        for (lag = firstLag; lag <= maxLag; lag++) {
+            double r = correlation(lag, n, zeroLag);
+            if (isPeak(lag, maxLag) && r >= best * HARMONIC_TOLERANCE) {
+                strength = Math.min(1.0, r);
+                period = lag;
+                rotation = rotationSignal;
+                return best;
+            }
+        }
+        return best;
+    }
+
+    private boolean isPeak(int lag, int maxLag) {
+        return re[lag] >= re[lag - 1] && (lag == maxLag || re[lag] >= re[lag + 1]);
+    }
+
+    /** Normalized, unbiased autocorrelation: fewer sample pairs overlap at larger lags. */
+    private double correlation(int lag, int n, double zeroLag) {
+        return re[lag] / zeroLag * n / (n - lag);
+    }
+
+    private void ensureCapacity(int n) {
+        int size = Integer.highestOneBit(Math.max(1, 2 * n - 1));
+        if (size < 2 * n - 1) {
+            size <<= 1;
+        }
+        if (re.length != size) {
+            re = new double[size];
+            im = new double[size];
+        }
+    }
+
+    /** In-place iterative radix-2 FFT of re/im; the inverse is scaled by 1/size. */
+    private void fft(boolean inverse) {
+        int size = re.length;
+        // Bit-reversal permutation
+        for (int i = 1, j = 0; i < size; i++) {
+            int bit = size >> 1;
+            for (; (j & bit) != 0; bit >>= 1) {
+                j ^= bit;
+            }
+            j ^= bit;
+            if (i < j) {
+                double t = re[i];
+                re[i] = re[j];
+                re[j] = t;
+                t = im[i];
+                im[i] = im[j];
+                im[j] = t;
+            }
+        }
+        for (int len = 2; len <= size; len <<= 1) {
+            double angle = 2 * Math.PI / len * (inverse ? 1 : -1);
+            double stepRe = Math.cos(angle);
+            double stepIm = Math.sin(angle);
+            int half = len >> 1;
+            for (int i = 0; i < size; i += len) {
+                double wRe = 1.0;
+                double wIm = 0.0;
+                for (int k = 0; k < half; k++) {
+                    int a = i + k;
+                    int b = a + half;
+                    double bRe = re[b] * wRe - im[b] * wIm;
+                    double bIm = re[b] * wIm + im[b] * wRe;
+                    re[b] = re[a] - bRe;
+                    im[b] = im[a] - bIm;
+                    re[a] += bRe;
+                    im[a] += bIm;
+                    double nextRe = wRe * stepRe - wIm * stepIm;
+                    wIm = wRe * stepIm + wIm * stepRe;
+                    wRe = nextRe;
+                }
+            }
+        }
+        if (inverse) {
+            for (int i = 0; i < size; i++) {
+                re[i] /= size;
+                im[i] /= size;
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package me.koyere.antiafkplus.afk;
+
+/**
+ * All per-player movement/activity tracking state owned by {@link MovementListener}.
+ *
+ * <p>Replaces the dozen UUID-keyed {@code ConcurrentHashMap}s the listener used
+ * to keep (last movement, head rotation, jump, swim/fly state, command, keystroke,
+ * interact contexts, teleport settle window, location data). One object is created
+ * when the player joins and dropped when they quit, so a PlayerMoveEvent does a
+ * single map lookup and then works on primitive fields — no boxed {@code Long}
+ * puts and no per-event garbage.</p>
+ *
+ * <p>THREAD-SAFETY: fields are written from the thread that owns the player
+ * (main thread, or the player's region thread on Folia). Timestamps read by other
+ * threads — AFKManager, the async PatternDetector analysis, API callers — are
+ * {@code volatile} so they are always published. Fields that are only touched
+ * by the owning thread ({@code lastX}, {@code jumpCounter}, interact contexts, ...)
+ * are plain.</p>
+ */
+public final class PlayerMovementState {
+
+    // Last known position/rotation (owning thread only)
+    public double lastX, lastY, lastZ;
+    public float lastYaw, lastPitch;
+    public boolean wasSwimming = false;
+    public boolean wasFlying = false;
+
+    /** Time of the last PlayerMoveEvent processed for this player. */
+    public volatile long lastUpdate;
+
+    // Activity timestamps (ms, 0 = never)
+    public volatile long lastMovementTime;
+    public volatile long lastHeadRotationTime;
+    public volatile long lastJumpTime;
+    public volatile long lastSwimStateChange;
+    public volatile long lastFlyStateChange;
+    public volatile long lastCommandTime;
+
+    // v2.4: Keystroke detection for large AFK pools
+    public volatile long lastKeystrokeTime;
+
+    // v3.1: Timestamp of the last PlayerInteractEvent, recorded BEFORE the passive filter
+    public volatile long lastAnyInteractTime;
+
+    // v3.1.1 FIX: Plugin-teleport settle window for manual AFK (0 = no window open)
+    public volatile long pluginTeleportSettleUntil;
+
+    // Jump spam tracking (owning thread only)
+    int jumpCounter;
+
+    // v3.0.5 / v3.1: Interact contexts for toggle-mode bypass detection (owning thread only)
+    MovementListener.InteractContext lastInteractContext;
+    MovementListener.InteractContext lastDoorToggleContext;
+
+    // Set while /afkplus trace records this player (null otherwise): one volatile read per sample.
+    public volatile TraceRecorder.Session trace;
+
+    // Primitive ring buffer: event-thread appends, async PatternDetector reads via MovementHistory.snapshot().
+    public final MovementHistory history = new MovementHistory(MovementHistory.DEFAULT_CAPACITY);
+}
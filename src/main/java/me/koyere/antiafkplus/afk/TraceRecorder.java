@@ -0,0 +1,290 @@
+package me.koyere.antiafkplus.afk;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.zip.GZIPOutputStream;
+
+import me.koyere.antiafkplus.AntiAFKPlus;
+import me.koyere.antiafkplus.platform.PlatformScheduler;
+
+/**
+ * Records selected players' movement samples and activity stamps to
+ * {@code plugins/AntiAFKPlus/traces/} so pattern detection can be replayed and
+ * tuned offline with {@link TraceReplay}.
+ *
+ * <p>Started per player with {@code /afkplus trace start}. While a player is traced,
+ * every sample the MovementListener appends to their {@link MovementHistory} is
+ * also encoded into an in-memory buffer of the {@link Session} (a few bytes under a
+ * per-session lock, no IO). A one-second async task drains the buffers into the
+ * GZIP files and notices activity that happened without movement (a command while
+ * standing still). Untraced players only pay one volatile read per sample.</p>
+ *
+ * <p>See {@link MovementTrace} for the file format.</p>
+ */
+public final class TraceRecorder {
+
+    public static final long DEFAULT_DURATION_MS = 300000; // 5 minutes
+    public static final long MAX_DURATION_MS = 3600000; // 1 hour
+    private static final long FLUSH_INTERVAL_TICKS = 20L;
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Map<UUID, Session> sessions = new ConcurrentHashMap<>();
+    // Sessions stopped but not yet written out by the flush task
+    private final Set<Session> closing = ConcurrentHashMap.newKeySet();
+    private PlatformScheduler.ScheduledTask flushTask;
+
+    /**
+     * One player's recording. Producers (the player's event thread, the flush task)
+     * encode into the buffer under the session lock; only the flush task touches the file.
+     */
+    public static final class Session {
+        private final UUID uuid;
+        private final String playerName;
+        private final File file;
+        private final PlayerMovementState state;
+        private final long expiresAt;
+
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+        private final DataOutputStream pending = new DataOutputStream(buffer);
+        private final long[] activity = new long[MovementTrace.ACTIVITY_KINDS];
+        private final long[] current = new long[MovementTrace.ACTIVITY_KINDS];
+        private long clock;
+        private long samples;
+        private boolean closed;
+
+        // Flush task only
+        private DataOutputStream out;
+
+        private Session(UUID uuid, String playerName, File file, PlayerMovementState state,
+                        long durationMs, long keystrokeTimeoutMs) {
+            long now = System.currentTimeMillis();
+            this.uuid = uuid;
+            this.playerName = playerName;
+            this.file = file;
+            this.state = state;
+            this.expiresAt = now + durationMs;
+            this.clock = now;
+            try {
+                MovementTrace.writeHeader(pending, now, playerName, uuid, keystrokeTimeoutMs);
+            } catch (IOException e) {
+                throw new IllegalStateException(e); // In-memory stream: never thrown
+            }
+            // Stamps from before the recording still matter (grace period, keystroke timeout)
+            recordActivity();
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        public String getPlayerName() {
+            return playerName;
+        }
+
+        public synchronized long getSamples() {
+            return samples;
+        }
+
+        /** Called right after the sample was appended to the player's history. */
+        synchronized void recordMove(boolean inWater) {
+            if (closed) {
+                return;
+            }
+            recordActivity();
+            try {
+                MovementTrace.writeMove(pending, tick(state.lastUpdate), state.lastX, state.lastY, state.lastZ,
+                        state.lastYaw, state.lastPitch, inWater);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            samples++;
+        }
+
+        /** Writes an ACTIVITY record for every stamp that changed since the last call. */
+        synchronized void recordActivity() {
+            if (closed) {
+                return;
+            }
+            current[MovementTrace.KEYSTROKE] = state.lastKeystrokeTime;
+            current[MovementTrace.COMMAND] = state.lastCommandTime;
+            current[MovementTrace.HEAD_ROTATION] = state.lastHeadRotationTime;
+            current[MovementTrace.JUMP] = state.lastJumpTime;
+            current[MovementTrace.INTERACT] = state.lastAnyInteractTime;
+            try {
+                for (byte kind = 0; kind < MovementTrace.ACTIVITY_KINDS; kind++) {
+                    if (current[kind] != activity[kind] && current[kind] > 0) {
+                        activity[kind] = current[kind];
+                        MovementTrace.writeActivity(pending, tick(current[kind]), kind);
+                    }
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private int tick(long time) {
+            int dt = (int) (time - clock);
+            clock = time;
+            return dt;
+        }
+
+        private synchronized byte[] drain(boolean close) {
+            if (close && !closed) {
+                buffer.write(MovementTrace.END);
+                closed = true;
+            }
+            byte[] bytes = buffer.toByteArray();
+            buffer.reset();
+            return bytes;
+        }
+
+        /** Moves the buffered records to the file; closes it after the END record if {@code close}. */
+        private void flush(boolean close) throws IOException {
+            byte[] bytes = drain(close);
+            if (out == null) {
+                file.getParentFile().mkdirs();
+                OutputStream stream = new GZIPOutputStream(
+                        new BufferedOutputStream(new FileOutputStream(file)), true);
+                out = new DataOutputStream(stream);
+            }
+            out.write(bytes);
+            if (close) {
+                out.close();
+            } else {
+                out.flush(); // Sync flush: a crash loses at most the last second
+            }
+        }
+
+        /** Gives up on the file after a write error. */
+        private void abort() {
+            drain(true);
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException ignored) {
+                    // Already failing
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts recording a player; an existing recording of the same player is closed first.
+     *
+     * @param durationMs recording stops by itself after this long (capped at {@link #MAX_DURATION_MS})
+     * @return the new session
+     */
+    public Session start(UUID uuid, String playerName, PlayerMovementState state,
+                         long durationMs, long keystrokeTimeoutMs) {
+        AntiAFKPlus plugin = AntiAFKPlus.getInstance();
+        stop(uuid);
+
+        File directory = new File(plugin.getDataFolder(), "traces");
+        String fileName = playerName + "-" + LocalDateTime.now().format(FILE_TIME) + MovementTrace.FILE_EXTENSION;
+        long duration = Math.max(1000L, Math.min(MAX_DURATION_MS, durationMs));
+        Session session = new Session(uuid, playerName, new File(directory, fileName), state,
+                duration, keystrokeTimeoutMs);
+        sessions.put(uuid, session);
+        state.trace = session;
+
+        synchronized (this) {
+            if (flushTask == null || flushTask.isCancelled()) {
+                flushTask = plugin.getPlatformScheduler()
+                        .runTaskTimerAsync(this::flushAll, FLUSH_INTERVAL_TICKS, FLUSH_INTERVAL_TICKS);
+            }
+        }
+        return session;
+    }
+
+    /**
+     * Stops recording a player. The file is completed by the next flush.
+     *
+     * @return the stopped session, or null if the player was not being recorded
+     */
+    public Session stop(UUID uuid) {
+        Session session = sessions.remove(uuid);
+        if (session != null && session.state.trace == session) {
+            session.state.trace = null;
+        }
+        if (session != null) {
+            closing.add(session);
+        }
+        return session;
+    }
+
+    public Map<UUID, Session> getSessions() {
+        return Collections.unmodifiableMap(sessions);
+    }
+
+    public boolean isRecording(UUID uuid) {
+        return sessions.containsKey(uuid);
+    }
+
+    private synchronized void flushAll() {
+        long now = System.currentTimeMillis();
+        for (Session session : sessions.values()) {
+            if (now >= session.expiresAt) {
+                stop(session.uuid);
+                continue;
+            }
+            session.recordActivity();
+            flushQuietly(session, false);
+        }
+        for (Session session : closing) {
+            flushQuietly(session, true);
+            closing.remove(session);
+            AntiAFKPlus.getInstance().getLogger().info("[Trace] Saved " + session.getSamples() + " samples of "
+                    + session.playerName + " to " + session.file.getName());
+        }
+        if (sessions.isEmpty() && closing.isEmpty() && flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+    }
+
+    private void flushQuietly(Session session, boolean close) {
+        try {
+            session.flush(close);
+        } catch (IOException e) {
+            AntiAFKPlus.getInstance().getLogger().log(Level.WARNING,
+                    "[Trace] Could not write " + session.file.getName() + ", recording stopped", e);
+            stop(session.uuid);
+            closing.remove(session);
+            session.abort();
+        }
+    }
+
+    /** Stops every recording and writes the files out on the calling thread (plugin disable). */
+    public void shutdown() {
+        for (UUID uuid : sessions.keySet()) {
+            stop(uuid);
+        }
+        synchronized (this) {
+            if (flushTask != null) {
+                flushTask.cancel();
+                flushTask = null;
+            }
+            for (Session session : closing) {
+                try {
+                    session.flush(true);
+                } catch (IOException ignored) {
+                    // Disabling: nothing left to report to
+                }
+            }
+            closing.clear();
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package me.koyere.antiafkplus.afk;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Headless replay of {@link MovementTrace} files through the pattern detectors,
+ * for tuning thresholds and catching performance regressions without a server.
+ *
+ * <pre>
+ *   java -cp AntiAFKPlus.jar me.koyere.antiafkplus.afk.TraceReplay [options] trace.afktrace...
+ *
+ *   --interval=MS          simulated pattern-analysis-interval (default 30000)
+ *   --max-violations=N     violations that trigger the AFK action (default 8)
+ *   --repeat=N             replay each trace N times, for stable throughput numbers
+ *   --sample-interval=MS   history sampling policy (default: every move), see HistorySampling;
+ *   --sample-distance=B    the same as performance.history-sampling in config.yml
+ *   --sample-rotation=DEG
+ *   --sample-max-interval=MS
+ *   --quiet                summary lines only
+ *   --debug                print the detectors' debug output
+ *   --SETTING=VALUE        override a detector threshold, e.g. --confined-space-threshold=10
+ *                          (any PatternAnalyzer.Settings component, camelCase or kebab-case)
+ * </pre>
+ *
+ * <p>Samples are appended to a {@link MovementHistory} exactly as the MovementListener
+ * does, through the same {@link HistorySampling} policy, and the {@link PatternAnalyzer} runs every {@code interval} of trace time
+ * with the same activity gate and violation bookkeeping as the PatternDetector.
+ * Only Bukkit-free classes are loaded, so the plugin jar alone is the classpath.</p>
+ */
+public final class TraceReplay {
+
+    private static final long DEFAULT_INTERVAL_MS = 30000;
+    private static final int DEFAULT_MAX_VIOLATIONS = 8;
+
+    private final PatternAnalyzer.Settings baseSettings;
+    private final HistorySampling sampling;
+    private final long intervalMs;
+    private final int maxViolations;
+    private final PrintStream out;
+    private final boolean quiet;
+    private final Consumer<String> debug;
+
+    private final PatternAnalyzer analyzer = new PatternAnalyzer();
+
+    // Totals over every replay
+    private long totalSamples;
+    private long totalAnalyses;
+    private long totalDetections;
+    private long totalActions;
+    private long totalReplayNanos;
+    private long totalAnalysisNanos;
+
+    public TraceReplay(PatternAnalyzer.Settings settings, HistorySampling sampling, long intervalMs,
+                       int maxViolations, PrintStream out, boolean quiet, boolean debug) {
+        this.baseSettings = settings.withSampleSpacing(sampling.spacingMs());
+        this.sampling = sampling;
+        this.intervalMs = Math.max(1L, intervalMs);
+        this.maxViolations = maxViolations;
+        this.out = out;
+        this.quiet = quiet;
+        this.debug = debug ? out::println : null;
+    }
+
+    public static void main(String[] args) {
+        PatternAnalyzer.Settings settings = PatternAnalyzer.Settings.DEFAULTS;
+        long interval = DEFAULT_INTERVAL_MS;
+        int maxViolations = DEFAULT_MAX_VIOLATIONS;
+        int repeat = 1;
+        boolean quiet = false;
+        boolean debug = false;
+        HistorySampling sampling = HistorySampling.EVERY_MOVE;
+        List<File> files = new ArrayList<>();
+        List<String[]> overrides = new ArrayList<>();
+
+        try {
+            for (String arg : args) {
+                if (!arg.startsWith("--")) {
+                    files.add(new File(arg));
+                    continue;
+                }
+                int eq = arg.indexOf('=');
+                String key = eq < 0 ? arg.substring(2) : arg.substring(2, eq);
+                String value = eq < 0 ? "" : arg.substring(eq + 1);
+                switch (key) {
+                    case "interval" -> interval = Long.parseLong(value);
+                    case "max-violations" -> maxViolations = Integer.parseInt(value);
+                    case "repeat" -> repeat = Math.max(1, Integer.parseInt(value));
+                    case "sample-interval" -> sampling = new HistorySampling(Long.parseLong(value),
+                            sampling.minDistance(), sampling.minRotation(), sampling.maxIntervalMs());
+                    case "sample-distance" -> sampling = new HistorySampling(sampling.minIntervalMs(),
+                            Double.parseDouble(value), sampling.minRotation(), sampling.maxIntervalMs());
+                    case "sample-rotation" -> sampling = new HistorySampling(sampling.minIntervalMs(),
+                            sampling.minDistance(), Double.parseDouble(value), sampling.maxIntervalMs());
+                    case "sample-max-interval" -> sampling = new HistorySampling(sampling.minIntervalMs(),
+                            sampling.minDistance(), sampling.minRotation(), Long.parseLong(value));
+                    case "quiet" -> quiet = true;
+                    case "debug" -> debug = true;
+                    case "help" -> {
+                        usage();
+                        return;
+                    }
+                    default -> overrides.add(new String[]{key, value});
+                }
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid number: " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+        if (files.isEmpty()) {
+            usage();
+            System.exit(2);
+            return;
+        }
+
+        TraceReplay replay;
+        try {
+            // Explicit overrides win over the keystroke timeout recorded in each trace
+            replay = new TraceReplay(override(settings, overrides), sampling, interval, maxViolations,
+                    System.out, quiet, debug);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+        boolean keystrokeOverridden = overrides.stream()
+                .anyMatch(o -> camelCase(o[0]).equals("keystrokeTimeoutMs"));
+
+        int failures = 0;
+        for (File file : files) {
+            try {
+                MovementTrace.Recording recording = MovementTrace.read(file);
+                for (int i = 0; i < repeat; i++) {
+                    replay.replay(file.getName(), recording, !keystrokeOverridden, i == 0);
+                }
+            } catch (IOException e) {
+                System.err.println(file + ": " + e.getMessage());
+                failures++;
+            }
+        }
+        replay.printTotals();
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Replays one recording.
+     *
+     * @param useRecordedKeystrokeTimeout take the keystroke timeout the server used while recording
+     * @param report                      print detections and the per-trace summary
+     */
+    public void replay(String name, MovementTrace.Recording r, boolean useRecordedKeystrokeTimeout, boolean report) {
+        PatternAnalyzer.Settings settings = useRecordedKeystrokeTimeout
+                ? baseSettings.withKeystrokeTimeoutMs(r.keystrokeTimeoutMs) : baseSettings;
+        boolean print = report && !quiet;
+        if (report) {
+            out.printf(Locale.ROOT, "== %s: %s, %d samples over %.1f s%s%n", name, r.playerName, r.moves,
+                    (r.endMillis() - r.startMillis) / 1000.0, r.complete ? "" : " (truncated)");
+        }
+
+        MovementHistory history = new MovementHistory(MovementHistory.DEFAULT_CAPACITY);
+        long[] activity = new long[MovementTrace.ACTIVITY_KINDS];
+        long lastMove = 0;
+        boolean inWater = false;
+        long lastAnalysis = 0;
+        int violations = 0;
+        long nextAnalysis = r.startMillis + intervalMs;
+
+        int stored = 0;
+        int analyses = 0;
+        int detections = 0;
+        int actions = 0;
+        long analysisNanos = 0;
+        long start = System.nanoTime();
+
+        for (int i = 0; i <= r.size; i++) {
+            // The analysis timer fires before the next record happens
+            long t = i < r.size ? r.time[i] : r.endMillis() + 1;
+            while (t >= nextAnalysis) {
+                long now = nextAnalysis;
+                nextAnalysis += intervalMs;
+
+                // PatternDetector's activity gate: nothing happened since the last analysis
+                long lastActivity = Math.max(lastMove,
+                        Math.max(activity[MovementTrace.INTERACT], activity[MovementTrace.COMMAND]));
+                if (lastActivity > 0 && lastActivity <= lastAnalysis) {
+                    continue;
+                }
+
+                long analysisStart = System.nanoTime();
+                int result = analyzer.analyze(settings, history, new PatternAnalyzer.Activity(
+                                activity[MovementTrace.KEYSTROKE], activity[MovementTrace.COMMAND],
+                                activity[MovementTrace.HEAD_ROTATION], activity[MovementTrace.JUMP]),
+                        inWater, now, r.playerName, debug);
+                analysisNanos += System.nanoTime() - analysisStart;
+                if ((result & PatternAnalyzer.TOO_FEW_SAMPLES) != 0) {
+                    continue;
+                }
+                analyses++;
+                lastAnalysis = now;
+
+                if ((result & PatternAnalyzer.GRACE_PERIOD) != 0) {
+                    violations = Math.max(0, violations - 2);
+                } else if ((result & PatternAnalyzer.DETECTIONS) == 0) {
+                    // Linear movement or nothing suspicious
+                    violations = Math.max(0, violations - 1);
+                } else {
+                    violations++;
+                    detections++;
+                    boolean action = violations >= maxViolations;
+                    if (print) {
+                        String period = (result & PatternAnalyzer.PERIODIC) != 0
+                                ? String.format(Locale.ROOT, " period=%dms/%.2f%s", analyzer.periodMillis(),
+                                analyzer.periodStrength(), analyzer.periodRotation() ? " (rotation)" : "")
+                                : "";
+                        out.printf(Locale.ROOT, "  +%8.1fs  %-20s violations %d/%d  [%s]%s%s%n",
+                                (now - r.startMillis) / 1000.0, PatternAnalyzer.reason(result),
+                                violations, maxViolations, PatternAnalyzer.describe(result), period,
+                                action ? "  -> AFK ACTION" : "");
+                    }
+                    if (action) {
+                        actions++;
+                        violations = 0;
+                    }
+                }
+            }
+            if (i == r.size) {
+                break;
+            }
+
+            byte kind = r.kind[i];
+            if (kind == MovementTrace.Recording.KIND_MOVE) {
+                if (sampling.accept(history, r.x[i], r.y[i], r.z[i], r.yaw[i], r.pitch[i], r.time[i])) {
+                    history.append(r.x[i], r.y[i], r.z[i], r.yaw[i], r.pitch[i], r.time[i], r.inWater[i]);
+                    stored++;
+                }
+                lastMove = r.time[i];
+                inWater = r.inWater[i];
+            } else {
+                activity[kind] = r.time[i];
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        totalSamples += r.moves;
+        totalAnalyses += analyses;
+        totalDetections += detections;
+        totalActions += actions;
+        totalReplayNanos += elapsed;
+        totalAnalysisNanos += analysisNanos;
+
+        if (report) {
+            out.printf(Locale.ROOT, "   %d of %d samples stored, %d analyses, %d detections, %d AFK actions"
+                            + " | %.0f samples/s, %.1f us/analysis%n",
+                    stored, r.moves, analyses, detections, actions, rate(r.moves, elapsed),
+                    analyses == 0 ? 0.0 : analysisNanos / 1000.0 / analyses);
+        }
+    }
+
+    private void printTotals() {
+        out.printf(Locale.ROOT, "== Total: %d samples, %d analyses, %d detections, %d AFK actions%n",
+                totalSamples, totalAnalyses, totalDetections, totalActions);
+        out.printf(Locale.ROOT, "   throughput %.0f samples/s, %.1f us/analysis (%.1f ms replaying)%n",
+                rate(totalSamples, totalReplayNanos),
+                totalAnalyses == 0 ? 0.0 : totalAnalysisNanos / 1000.0 / totalAnalyses,
+                totalReplayNanos / 1_000_000.0);
+    }
+
+    private static double rate(long samples, long nanos) {
+        return nanos <= 0 ? 0.0 : samples * 1_000_000_000.0 / nanos;
+    }
+
+    /** Applies {@code --name=value} overrides to the settings record components. */
+    static PatternAnalyzer.Settings override(PatternAnalyzer.Settings settings, List<String[]> overrides) {
+        if (overrides.isEmpty()) {
+            return settings;
+        }
+        RecordComponent[] components = PatternAnalyzer.Settings.class.getRecordComponents();
+        Object[] values = new Object[components.length];
+        Class<?>[] types = new Class<?>[components.length];
+        try {
+            for (int i = 0; i < components.length; i++) {
+                values[i] = components[i].getAccessor().invoke(settings);
+                types[i] = components[i].getType();
+            }
+            for (String[] o : overrides) {
+                String key = camelCase(o[0]);
+                int index = -1;
+                for (int i = 0; i < components.length; i++) {
+                    if (components[i].getName().equals(key)) {
+                        index = i;
+                    }
+                }
+                if (index < 0) {
+                    throw new IllegalArgumentException("Unknown option --" + o[0]);
+                }
+                values[index] = parse(types[index], o[1], o[0]);
+            }
+            Constructor<PatternAnalyzer.Settings> constructor =
+                    PatternAnalyzer.Settings.class.getDeclaredConstructor(types);
+            return constructor.newInstance(values);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Object parse(Class<?> type, String value, String key) {
+        try {
+            if (type == double.class) return Double.parseDouble(value);
+            if (type == int.class) return Integer.parseInt(value);
+            if (type == long.class) return Long.parseLong(value);
+            if (type == boolean.class) return Boolean.parseBoolean(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for --" + key + ": " + value);
+        }
+        throw new IllegalArgumentException("Unsupported option --" + key);
+    }
+
+    private static String camelCase(String key) {
+        StringBuilder sb = new StringBuilder(key.length());
+        boolean upper = false;
+        for (char c : key.toCharArray()) {
+            if (c == '-') {
+                upper = true;
+            } else {
+                sb.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void usage() {
+        System.out.println("Usage: java -cp AntiAFKPlus.jar " + TraceReplay.class.getName()
+                + " [--interval=MS] [--max-violations=N] [--repeat=N] [--sample-interval=MS] [--sample-distance=B]"
+                + " [--sample-rotation=DEG] [--sample-max-interval=MS] [--quiet] [--debug] [--SETTING=VALUE] trace...");
+        System.out.print("Settings:");
+        for (RecordComponent c : PatternAnalyzer.Settings.class.getRecordComponents()) {
+            System.out.print(" " + c.getName());
+        }
+        System.out.println();
+    }
+}
@@ -396,6 +396,8 @@ public interface AntiAFKPlusAPI {
     
     /**
      * Get performance metrics for the AFK system.
+     * The {@code "latency"} module metric maps each monitored component to its
+     * count, avgMs, p50Ms, p95Ms, p99Ms and maxMs over the last latency window.
      * 
      * @return Performance metrics
      */
@@ -5,6 +5,7 @@ import me.koyere.antiafkplus.api.data.*;
 import me.koyere.antiafkplus.api.events.*;
 import me.koyere.antiafkplus.api.exceptions.AFKException;
 import me.koyere.antiafkplus.afk.AFKManager;
+import me.koyere.antiafkplus.afk.AfkSnapshot;
 import me.koyere.antiafkplus.afk.MovementListener;
 import me.koyere.antiafkplus.afk.PatternDetector;
 import me.koyere.antiafkplus.afk.PatternDetector.DetectedPatternRecord;
@@ -15,6 +16,7 @@ import me.koyere.antiafkplus.events.PlayerAFKWarningEvent;
 import me.koyere.antiafkplus.compatibility.BedrockCompatibility;
 import me.koyere.antiafkplus.i18n.LocalizationManager;
 import me.koyere.antiafkplus.modules.ModuleManager;
+import me.koyere.antiafkplus.permission.PermissionTierService;
 import me.koyere.antiafkplus.performance.PerformanceOptimizer;
 
 import org.bukkit.Bukkit;
@@ -49,16 +51,13 @@ public class AntiAFKPlusAPIImpl implements AntiAFKPlusAPI {
     private final AFKManager afkManager;
     private final MovementListener movementListener;
     private final PatternDetector patternDetector;
-    private final Map<UUID, Deque<ActivityRecord>> activityHistory = new ConcurrentHashMap<>();
     private final Map<UUID, AFKSessionTracker> activeSessions = new ConcurrentHashMap<>();
     private final Map<UUID, List<AFKHistoryData.AFKSession>> sessionHistory = new ConcurrentHashMap<>();
     private final Map<UUID, PlayerAFKSummary> playerSummaries = new ConcurrentHashMap<>();
     private final Map<UUID, List<AFKWarningEvent>> warningHistory = new ConcurrentHashMap<>();
 
-    private static final int MAX_ACTIVITY_RECORDS = 512;
     private static final int MAX_SESSIONS_STORED = 64;
     private static final Duration ACTIVITY_WINDOW = Duration.ofMinutes(5);
-    private static final Duration ACTIVITY_HISTORY_WINDOW = Duration.ofMinutes(30);
     
     public AntiAFKPlusAPIImpl(AntiAFKPlus plugin) {
         this.plugin = plugin;
@@ -329,7 +328,6 @@ public class AntiAFKPlusAPIImpl implements AntiAFKPlusAPI {
             if (afkManager != null) {
                 afkManager.recordCustomActivity(player, activityType);
             }
-            plugin.getPerformanceOptimizer().updatePlayerActivity(player);
         });
     }
     
@@ -487,7 +485,8 @@ public class AntiAFKPlusAPIImpl implements AntiAFKPlusAPI {
         }
         
         // Check permission-based exemption
-        if (player.hasPermission("antiafkplus.bypass")) {
+        PermissionTierService tiers = plugin.getPermissionTierService();
+        if (tiers != null ? tiers.isBypassed(player) : player.hasPermission(PermissionTierService.BYPASS)) {
             return true;
         }
         
@@ -535,18 +534,31 @@ public class AntiAFKPlusAPIImpl implements AntiAFKPlusAPI {
     
     // ============= AFK LISTS AND QUERIES =============
     
+    // The list queries start from the AFK players of the published snapshot
+    // instead of testing every online player.
+
     @Override
     public Set<Player> getAFKPlayers() {
-        return Bukkit.getOnlinePlayers().stream()
-                .filter(this::isAFK)
-                .collect(Collectors.toSet());
+        Set<Player> result = new HashSet<>();
+        for (UUID uuid : snapshotAfkPlayers()) {
+            Player player = Bukkit.getPlayer(uuid);
+            if (player != null && player.isOnline()) {
+                result.add(player);
+            }
+        }
+        return result;
     }
     
     @Override
     public Set<Player> getAFKPlayers(AFKStatus status) {
-        return Bukkit.getOnlinePlayers().stream()
-                .filter(player -> getAFKStatus(player) == status)
-                .collect(Collectors.toSet());
+        if (status == null || !status.isAFK()) {
+            return Bukkit.getOnlinePlayers().stream()
+                    .filter(player -> getAFKStatus(player) == status)
+                    .collect(Collectors.toSet());
+        }
+        Set<Player> result = getAFKPlayers();
+        result.removeIf(player -> getAFKStatus(player) != status);
+        return result;
     }
     
     @Override
@@ -555,9 +567,9 @@ public class AntiAFKPlusAPIImpl implements AntiAFKPlusAPI {
             return Collections.emptySet();
         }
         
-        return world.getPlayers().stream()
-                .filter(this::isAFK)
-                .collect(Collectors.toSet());
+        Set<Player> result = getAFKPlayers();
+        result.removeIf(player -> !world.equals(player.getWorld()));
+        return result;
     }
     
     @Override
@@ -566,15 +578,20 @@ public class AntiAFKPlusAPIImpl implements AntiAFKPlusAPI {
             return Collections.emptySet();
         }
         
-        return location.getWorld().getPlayers().stream()
-                .filter(player -> isAFK(player) && 
-                       player.getLocation().distance(location) <= radius)
-                .collect(Collectors.toSet());
+        double radiusSquared = radius * radius;
+        Set<Player> result = getAFKPlayers();
+        result.removeIf(player -> !location.getWorld().equals(player.getWorld())
+                || player.getLocation().distanceSquared(location) > radiusSquared);
+        return result;
     }
     
     @Override
     public int getAFKPlayerCount() {
-        return getAFKPlayers().size();
+        return afkManager != null ? afkManager.getSnapshot().afkCount() : 0;
+    }
+
+    private Set<UUID> snapshotAfkPlayers() {
+        return afkManager != null ? afkManager.getSnapshot().afkPlayers() : Collections.emptySet();
     }
     
     // ============= TIME LIMITS AND THRESHOLDS =============
@@ -693,8 +710,8 @@ public class AntiAFKPlusAPIImpl implements AntiAFKPlusAPI {
     @Override
     public AFKStatistics getAFKStatistics() {
         return plugin.getPerformanceOptimizer().executeWithMonitoring("api-getAFKStatistics", () -> {
-            Set<Player> onlinePlayers = new HashSet<>(Bukkit.getOnlinePlayers());
-            Set<Player> afkPlayers = getAFKPlayers();
+            Collection<? extends Player> onlinePlayers = Bukkit.getOnlinePlayers();
+            AfkSnapshot snapshot = afkManager != null ? afkManager.getSnapshot() : null;
 
             long totalAfkMillis = 0L;
             for (Player player : onlinePlayers) {
@@ -707,25 +724,15 @@ public class AntiAFKPlusAPIImpl implements AntiAFKPlusAPI {
                     ? 0.0
                     : (totalAfkMillis / 1000.0 / 60.0) / onlinePlayers.size();
 
-            Map<String, Integer> reasonCounts = new LinkedHashMap<>();
-            if (afkManager != null) {
-                Map<UUID, String> reasons = afkManager.getAfkDetectionReasonsSnapshot();
-                for (String reason : reasons.values()) {
-                    if (reason == null || reason.isEmpty()) {
-                        continue;
-                    }
-                    reasonCounts.merge(reason, 1, Integer::sum);
-                }
-            }
-
+            // Counts and reasons are precomputed once per snapshot version
             return new AFKStatistics(
                 onlinePlayers.size(),
-                afkPlayers.size(),
-                (int) afkPlayers.stream().filter(this::isManuallyAFK).count(),
-                (int) afkPlayers.stream().filter(this::isAutomaticallyAFK).count(),
+                snapshot != null ? snapshot.afkCount() : 0,
+                snapshot != null ? snapshot.manualAfkCount() : 0,
+                snapshot != null ? snapshot.autoAfkCount() : 0,
                 averageMinutes,
                 totalAfkMillis,
-                Collections.unmodifiableMap(reasonCounts)
+                snapshot != null ? snapshot.reasonCounts() : Collections.emptyMap()
             );
         });
     }
@@ -791,12 +798,29 @@ public class AntiAFKPlusAPIImpl implements AntiAFKPlusAPI {
         moduleMetrics.put("highActivityPlayers", perfStats.getHighActivityPlayers());
         moduleMetrics.put("lowActivityPlayers", perfStats.getLowActivityPlayers());
 
+        // Per-component latency percentiles of the last window, in milliseconds
+        Map<String, Object> latency = new LinkedHashMap<>();
+        plugin.getPerformanceOptimizer().getLatencySummaries().forEach((component, summary) -> {
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("count", summary.count());
+            values.put("avgMs", summary.avgNanos() / 1_000_000.0);
+            values.put("p50Ms", summary.p50Nanos() / 1_000_000.0);
+            values.put("p95Ms", summary.p95Nanos() / 1_000_000.0);
+            values.put("p99Ms", summary.p99Nanos() / 1_000_000.0);
+            values.put("maxMs", summary.maxNanos() / 1_000_000.0);
+            latency.put(component, Collections.unmodifiableMap(values));
+        });
+        moduleMetrics.put("latency", Collections.unmodifiableMap(latency));
+
+        var cacheStats = plugin.getPerformanceOptimizer().getCacheStats();
+        moduleMetrics.put("cacheEvictions", cacheStats.evictions());
+
         return new PerformanceMetrics(
             perfStats.getTotalOperations(),
             perfStats.getAverageExecutionTime(),
             perfStats.getMemoryUsage(),
             cpuUsage,
-            100, // cache hit rate (no cache stats available)
+            (int) Math.round(cacheStats.hitRate() * 100),
             Collections.unmodifiableMap(moduleMetrics)
         );
     }
@@ -851,23 +875,6 @@ public class AntiAFKPlusAPIImpl implements AntiAFKPlusAPI {
         }
     }
 
-    public void handleInternalActivity(Player player, ActivityType activityType) {
-        if (player == null) {
-            return;
-        }
-        UUID uuid = player.getUniqueId();
-        ActivityType type = activityType != null ? activityType : ActivityType.UNKNOWN;
-        long now = System.currentTimeMillis();
-
-        Deque<ActivityRecord> records = activityHistory.computeIfAbsent(uuid, k -> new ArrayDeque<>());
-        records.addLast(new ActivityRecord(type, now));
-
-        long cutoff = now - ACTIVITY_HISTORY_WINDOW.toMillis();
-        while (!records.isEmpty() && (records.size() > MAX_ACTIVITY_RECORDS || records.peekFirst().timestamp < cutoff)) {
-            records.removeFirst();
-        }
-    }
-    
     public void handleInternalAFKStateChange(PlayerAFKStateChangeEvent event) {
         if (event == null || event.getPlayer() == null) {
             return;
@@ -1479,16 +1486,6 @@ public class AntiAFKPlusAPIImpl implements AntiAFKPlusAPI {
         }
     }
 
-    private static class ActivityRecord {
-        private final ActivityType type;
-        private final long timestamp;
-
-        private ActivityRecord(ActivityType type, long timestamp) {
-            this.type = type;
-            this.timestamp = timestamp;
-        }
-    }
-
     private static class AFKSessionTracker {
         private AFKStatus status;
         private final Instant startTime;
@@ -1608,7 +1605,6 @@ public class AntiAFKPlusAPIImpl implements AntiAFKPlusAPI {
         UUID uuid = player.getUniqueId();
         playerExemptions.remove(uuid);
         customTimeouts.remove(uuid);
-        activityHistory.remove(uuid);
         activeSessions.remove(uuid);
         sessionHistory.remove(uuid);
         playerSummaries.remove(uuid);
@@ -106,10 +106,168 @@ public class AFKPlusCommand implements CommandExecutor, TabCompleter { // Implem
             sender.sendMessage(color("&7Avg execution: &f" + String.format("%.3f", stats.getAverageExecutionTime()) + " ms"));
             sender.sendMessage(color("&7Total operations: &f" + stats.getTotalOperations()));
             sender.sendMessage(color("&7Memory usage: &f" + (stats.getMemoryUsage() / 1024 / 1024) + " MB"));
-            sender.sendMessage(color("&7Cache entries: &f" + stats.getCacheSize()));
+            var cache = plugin.getPerformanceOptimizer().getCacheStats();
+            sender.sendMessage(color("&7Cache entries: &f" + cache.size() + "/" + cache.maximumSize()
+                    + " &7| hit rate &a" + String.format("%.1f", cache.hitRate() * 100) + "%"
+                    + " &7| evictions &f" + cache.evictions() + " &7| expired &f" + cache.expirations()));
             sender.sendMessage(color("&7Components tracked: &f" + stats.getComponentCount()));
             sender.sendMessage(color("&7High activity players: &a" + stats.getHighActivityPlayers()));
             sender.sendMessage(color("&7Low activity players: &c" + stats.getLowActivityPlayers()));
+            sender.sendMessage(color("&7Load controller: &fx" + String.format("%.2f",
+                    plugin.getPerformanceOptimizer().getFeedbackController().getScale())
+                    + " &7interval scale &8(/afkplus performance controller)"));
+            var latencies = plugin.getPerformanceOptimizer().getLatencySummaries().entrySet().stream()
+                    .filter(e -> e.getValue().count() > 0)
+                    .sorted((a, b) -> Long.compare(b.getValue().p99Nanos(), a.getValue().p99Nanos()))
+                    .limit(5)
+                    .toList();
+            if (!latencies.isEmpty()) {
+                sender.sendMessage(color("&7Slowest components &8(p50 / p95 / p99 / max ms):"));
+                for (var entry : latencies) {
+                    var latency = entry.getValue();
+                    sender.sendMessage(color("&7  " + entry.getKey() + ": &f"
+                            + String.format("%.3f / %.3f / %.3f / %.3f", latency.p50Nanos() / 1_000_000.0,
+                                    latency.p95Nanos() / 1_000_000.0, latency.p99Nanos() / 1_000_000.0,
+                                    latency.maxNanos() / 1_000_000.0)
+                            + " &7(" + latency.count() + " calls)"));
+                }
+            }
+            if (plugin.getMovementListener() != null) {
+                var move = plugin.getMovementListener().getMoveEventStats();
+                sender.sendMessage(color("&7Move events: &f" + (move.fastPathEvents() + move.fullPathEvents())
+                        + " &7(fast path &a" + String.format("%.1f", move.fastPathRatio() * 100) + "%&7)"));
+                sender.sendMessage(color("&7Move event cost: &afast " + String.format("%.0f", move.avgFastPathNanos())
+                        + " ns &7| &efull " + String.format("%.0f", move.avgFullPathNanos()) + " ns"
+                        + " &7| &f" + String.format("%.3f", plugin.getPerformanceOptimizer().getMoveEventCostPerTick())
+                        + " ms/tick &8(not load-controlled)"));
+                sender.sendMessage(color("&7History samples: &f" + move.historySamples()
+                        + " &7(skipped &a" + String.format("%.1f", move.historySkipRatio() * 100) + "%&7)"));
+            }
+            if (plugin.getAfkManager() != null) {
+                var slices = plugin.getAfkManager().getCheckSliceStats();
+                sender.sendMessage(color("&7AFK check scheduling: &fworst " + String.format("%.2f", slices.worstSliceNanos() / 1_000_000.0)
+                        + " ms &7| avg " + String.format("%.3f", slices.avgSliceNanos() / 1_000_000.0) + " ms"
+                        + (slices.buckets() > 0 ? " &7(" + slices.buckets() + " buckets)" : " &7(not staggered)")));
+                sender.sendMessage(color("&7AFK check evaluations: &favg " + String.format("%.3f", slices.avgEvaluationNanos() / 1_000_000.0)
+                        + " ms/player &7| worst " + String.format("%.2f", slices.worstEvaluationNanos() / 1_000_000.0)
+                        + " ms &7| run &f" + slices.evaluations()));
+            }
+            var scheduler = plugin.getPlatformScheduler();
+            if (scheduler != null) {
+                var budget = scheduler.getTickBudgetStats();
+                sender.sendMessage(color("&7Tick budget: " + (scheduler.isTickBudgetEnabled()
+                        ? "&f" + String.format("%.2f", scheduler.getTickBudgetMillis()) + " ms" : "&cdisabled")
+                        + " &7| queued &f" + budget.pending() + " &7(max " + budget.maxPending() + ")"
+                        + " &7| run &f" + budget.executed() + " &7| coalesced &f" + budget.coalesced()));
+                sender.sendMessage(color("&7Tick budget drain: &favg " + String.format("%.3f", budget.avgDrainNanos() / 1_000_000.0)
+                        + " ms &7| worst " + String.format("%.2f", budget.worstDrainNanos() / 1_000_000.0) + " ms"
+                        + " &7| carried over &f" + budget.carriedTicks() + "/" + budget.busyTicks() + " &7ticks"
+                        + " &7| worst wait &f" + budget.worstWaitTicks() + " &7ticks"));
+            }
+            if (plugin.getAfkManager() != null && plugin.getAfkManager().getPatternDetector() != null) {
+                var analysis = plugin.getAfkManager().getPatternDetector().getAnalysisStats();
+                if (analysis != null) {
+                    sender.sendMessage(color("&7Pattern analysis: &f" + analysis.threads() + " threads &7| queue &f" + analysis.queueDepth()
+                            + " &7| skipped cycles &f" + analysis.cyclesSkipped() + "/" + (analysis.cyclesRun() + analysis.cyclesSkipped())));
+                    sender.sendMessage(color("&7Pattern analysis cost: &favg " + String.format("%.3f", analysis.avgPlayerNanos() / 1_000_000.0)
+                            + " ms/player &7| worst " + String.format("%.2f", analysis.maxPlayerNanos() / 1_000_000.0)
+                            + " ms &7| last cycle " + String.format("%.2f", analysis.lastCycleNanos() / 1_000_000.0) + " ms"));
+                }
+            }
+            return true;
+        }
+
+        // Subcommand: /afkplus performance controller [count] — recent load controller decisions
+        if (args.length >= 2 && args[0].equalsIgnoreCase("performance") && args[1].equalsIgnoreCase("controller")) {
+            if (!sender.hasPermission("antiafkplus.stats")) {
+                sender.sendMessage(this.configManager.getMessage("no-permission", "&cNo permission."));
+                return true;
+            }
+            if (plugin.getPerformanceOptimizer() == null) {
+                sender.sendMessage(color("&cPerformance optimizer is not available."));
+                return true;
+            }
+            int count = 10;
+            if (args.length >= 3) {
+                try {
+                    count = Integer.parseInt(args[2]);
+                } catch (NumberFormatException e) {
+                    sender.sendMessage(color("&cInvalid number format."));
+                    return true;
+                }
+            }
+            var controller = plugin.getPerformanceOptimizer().getFeedbackController();
+            var decisions = controller.getRecentDecisions(count);
+            sender.sendMessage(color("&6=== AntiAFK+ Load Controller ==="));
+            sender.sendMessage(color("&7Current scale: &fx" + String.format("%.2f", controller.getScale())
+                    + " &7(last " + decisions.size() + " of up to "
+                    + me.koyere.antiafkplus.performance.FeedbackController.DECISION_LOG_SIZE + " decisions)"));
+            java.time.format.DateTimeFormatter fmt = java.time.format.DateTimeFormatter.ofPattern("HH:mm:ss")
+                    .withZone(java.time.ZoneId.systemDefault());
+            for (var decision : decisions) {
+                String actionColor = switch (decision.action()) {
+                    case BACK_OFF -> "&c";
+                    case RECOVER -> "&a";
+                    case HOLD -> "&7";
+                };
+                sender.sendMessage(color("&8" + fmt.format(java.time.Instant.ofEpochMilli(decision.timeMillis()))
+                        + " " + actionColor + decision.action()
+                        + " &fx" + String.format("%.2f", decision.scale())
+                        + " &7MSPT " + (Double.isNaN(decision.msptAvg()) ? "n/a" : String.format("%.1f", decision.msptAvg()))
+                        + " | own " + String.format("%.3f", decision.ownCostMs()) + " ms/tick &8- " + decision.reason()));
+            }
+            return true;
+        }
+
+        // Subcommand: /afkplus trace <start|stop|list> — movement traces for offline replay
+        if (args.length >= 1 && args[0].equalsIgnoreCase("trace")) {
+            if (!sender.hasPermission("antiafkplus.reload")) {
+                sender.sendMessage(this.configManager.getMessage("no-permission", "&cNo permission."));
+                return true;
+            }
+            if (plugin.getMovementListener() == null) {
+                sender.sendMessage(color("&cMovement tracking is not available."));
+                return true;
+            }
+            var recorder = plugin.getMovementListener().getTraceRecorder();
+            if (args.length >= 2 && args[1].equalsIgnoreCase("list")) {
+                if (recorder.getSessions().isEmpty()) {
+                    sender.sendMessage(color("&7No traces are being recorded."));
+                }
+                for (var session : recorder.getSessions().values()) {
+                    sender.sendMessage(color("&7Tracing &f" + session.getPlayerName() + " &7-> &f"
+                            + session.getFile().getName() + " &7(" + session.getSamples() + " samples)"));
+                }
+                return true;
+            }
+            if (args.length < 3 || !(args[1].equalsIgnoreCase("start") || args[1].equalsIgnoreCase("stop"))) {
+                sender.sendMessage(color("&cUsage: /afkplus trace <start|stop> <player> [seconds] &7| /afkplus trace list"));
+                return true;
+            }
+            Player target = org.bukkit.Bukkit.getPlayerExact(args[2]);
+            if (target == null) {
+                sender.sendMessage(color("&cPlayer not found: " + args[2]));
+                return true;
+            }
+            if (args[1].equalsIgnoreCase("stop")) {
+                var session = recorder.stop(target.getUniqueId());
+                sender.sendMessage(session != null
+                        ? color("&aTrace of " + target.getName() + " stopped: &f" + session.getFile().getName())
+                        : color("&7" + target.getName() + " is not being traced."));
+                return true;
+            }
+            long seconds = me.koyere.antiafkplus.afk.TraceRecorder.DEFAULT_DURATION_MS / 1000;
+            if (args.length >= 4) {
+                try {
+                    seconds = Long.parseLong(args[3]);
+                } catch (NumberFormatException e) {
+                    sender.sendMessage(color("&cInvalid number format."));
+                    return true;
+                }
+            }
+            var session = plugin.getMovementListener().startTrace(target, seconds * 1000L);
+            sender.sendMessage(color("&aTracing " + target.getName() + " for up to " + seconds + "s to &ftraces/"
+                    + session.getFile().getName()));
             return true;
         }
 
@@ -213,6 +371,7 @@ public class AFKPlusCommand implements CommandExecutor, TabCompleter { // Implem
                 if ("reload".startsWith(input)) completions.add("reload");
                 if ("gui".startsWith(input) && sender instanceof Player) completions.add("gui");
                 if ("event".startsWith(input)) completions.add("event");
+                if ("trace".startsWith(input)) completions.add("trace");
             }
             if (sender.hasPermission("antiafkplus.stats")) {
                 if ("status".startsWith(input))      completions.add("status");
@@ -221,6 +380,23 @@ public class AFKPlusCommand implements CommandExecutor, TabCompleter { // Implem
             }
         } else if (args.length == 2 && args[0].equalsIgnoreCase("event")) {
             if ("credits".startsWith(args[1].toLowerCase())) completions.add("credits");
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("trace")) {
+            if (sender.hasPermission("antiafkplus.reload")) {
+                for (String sub : List.of("start", "stop", "list")) {
+                    if (sub.startsWith(args[1].toLowerCase())) completions.add(sub);
+                }
+            }
+        } else if (args.length == 3 && args[0].equalsIgnoreCase("trace") && !args[1].equalsIgnoreCase("list")) {
+            if (sender.hasPermission("antiafkplus.reload")) {
+                String input = args[2].toLowerCase();
+                for (Player p : org.bukkit.Bukkit.getOnlinePlayers()) {
+                    if (p.getName().toLowerCase().startsWith(input)) completions.add(p.getName());
+                }
+            }
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("performance")) {
+            if (sender.hasPermission("antiafkplus.stats")) {
+                if ("controller".startsWith(args[1].toLowerCase())) completions.add("controller");
+            }
         } else if (args.length == 2 && args[0].equalsIgnoreCase("analytics")) {
             if (sender.hasPermission("antiafkplus.stats")) {
                 if ("export".startsWith(args[1].toLowerCase())) completions.add("export");
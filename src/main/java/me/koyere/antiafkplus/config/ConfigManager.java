@@ -952,6 +952,13 @@ public class ConfigManager {
         if (plugin.getModuleManager() != null) {
             plugin.getModuleManager().reloadModuleStates();
         }
+        if (plugin.getPlatformScheduler() != null) {
+            plugin.getPlatformScheduler().loadTickBudgetSettings();
+        }
+        // Cached lookups (e.g. WorldGuard zones) may depend on changed settings
+        if (plugin.getPerformanceOptimizer() != null) {
+            plugin.getPerformanceOptimizer().clearCache();
+        }
         if (plugin.getAfkManager() != null) {
             plugin.getAfkManager().handleConfigReload();
         }
@@ -963,6 +970,10 @@ public class ConfigManager {
         if (plugin.getCreditManager() != null) {
             plugin.getCreditManager().clearCache();
         }
+        // Re-resolve cached permission tiers (permission-times, credit groups may have changed)
+        if (plugin.getPermissionTierService() != null) {
+            plugin.getPermissionTierService().reloadFromConfig();
+        }
         plugin.getLogger().info("Configuration reloaded successfully.");
     }
 }
@@ -37,7 +37,7 @@ public class CreditListener implements Listener {
         var player = event.getPlayer();
 
         // Check if player has permission to use credits
-        if (!player.hasPermission("antiafkplus.credit.use")) return;
+        if (!creditManager.canUseCredits(player)) return;
 
         // If player has credits available, delay the kick/teleport action
         if (creditManager.getData(player.getUniqueId()).getBalanceMinutes() > 0) {
@@ -23,6 +23,7 @@ import me.koyere.antiafkplus.api.data.CreditTransactionType;
 import me.koyere.antiafkplus.credit.storage.CreditStorage;
 import me.koyere.antiafkplus.credit.storage.FileCreditStorage;
 import me.koyere.antiafkplus.credit.storage.SqlCreditStorage;
+import me.koyere.antiafkplus.permission.PermissionTierService;
 import me.koyere.antiafkplus.platform.PlatformScheduler;
 
 /**
@@ -95,33 +96,39 @@ public class CreditManager {
 
     private void tickEarning() {
         if (!isEnabled()) return;
-        for (Player player : Bukkit.getOnlinePlayers()) {
-            if (!player.isOnline()) continue;
-            if (player.hasPermission("antiafkplus.bypass")) continue;
-            if (!player.hasPermission("antiafkplus.credit.earn")) continue;
+        // En Folia cada jugador se procesa en el hilo de su región; en el resto, inline
+        plugin.getPlatformScheduler().runForEachEntity(Bukkit.getOnlinePlayers(), this::tickEarning);
+    }
 
-            // Considerar como "activo" si no está AFK según AFKManager
-            boolean isAfk = plugin.getAfkManager() != null && plugin.getAfkManager().isAFK(player);
-            if (isAfk) continue;
+    private void tickEarning(Player player) {
+        if (!player.isOnline()) return;
+        // Permisos cacheados (PermissionTierService), sin hasPermission por tick
+        PermissionTierService tiers = plugin.getPermissionTierService();
+        PermissionTierService.PlayerTiers playerTiers = tiers != null ? tiers.get(player) : null;
+        if (playerTiers != null ? playerTiers.bypass() : player.hasPermission(PermissionTierService.BYPASS)) return;
+        if (!(playerTiers != null ? playerTiers.creditEarn() : player.hasPermission(PermissionTierService.CREDIT_EARN))) return;
 
-            // Requisitos mínimos
-            int minSession = plugin.getConfig().getInt("credit-system.earning-requirements.minimum-session-minutes", 5);
-            double activityThreshold = plugin.getConfig().getDouble("credit-system.earning-requirements.activity-threshold", 0.3);
+        // Considerar como "activo" si no está AFK según AFKManager
+        boolean isAfk = plugin.getAfkManager() != null && plugin.getAfkManager().isAFK(player);
+        if (isAfk) return;
 
-            // Medimos por heurística: tiempo en línea y score de actividad si disponible
-            // (en esta fase, aproximamos a 1 minuto de tiempo activo por ciclo si no AFK)
+        // Requisitos mínimos
+        int minSession = plugin.getConfig().getInt("credit-system.earning-requirements.minimum-session-minutes", 5);
+        double activityThreshold = plugin.getConfig().getDouble("credit-system.earning-requirements.activity-threshold", 0.3);
 
-            // Ratio y tope
-            Ratio ratio = getRatioFor(player);
-            long max = getMaxCreditsFor(player);
+        // Medimos por heurística: tiempo en línea y score de actividad si disponible
+        // (en esta fase, aproximamos a 1 minuto de tiempo activo por ciclo si no AFK)
 
-            // Acumular minutos activos en un contador simple por jugador
-            CreditData data = getData(player.getUniqueId());
-            // Usamos lastEarnedAt como marcador simple de progreso; aquí, por simplicidad, cada 5 minutos (minSession) sumamos 1 de crédito según ratio
-            // Implementación mínima: sumar 1 crédito cada (ratio.active) minutos. Dado nuestro tick de 60s, acumulamos en metadata de sesión.
-            // Para fase 1, simplificamos: cada tick (1 min) añadimos fracción y aplicamos cuando completamos ratio.
-            addActiveMinuteProgress(player, data, ratio, max);
-        }
+        // Ratio y tope
+        Ratio ratio = getRatioFor(player);
+        long max = getMaxCreditsFor(player);
+
+        // Acumular minutos activos en un contador simple por jugador
+        CreditData data = getData(player.getUniqueId());
+        // Usamos lastEarnedAt como marcador simple de progreso; aquí, por simplicidad, cada 5 minutos (minSession) sumamos 1 de crédito según ratio
+        // Implementación mínima: sumar 1 crédito cada (ratio.active) minutos. Dado nuestro tick de 60s, acumulamos en metadata de sesión.
+        // Para fase 1, simplificamos: cada tick (1 min) añadimos fracción y aplicamos cuando completamos ratio.
+        addActiveMinuteProgress(player, data, ratio, max);
     }
 
     private final Map<UUID, Integer> activeMinuteCounter = new ConcurrentHashMap<>();
@@ -155,12 +162,12 @@ public class CreditManager {
                 // Tipos de actividad requeridos
                 int requiredTypes = Math.max(0, plugin.getConfig().getInt("credit-system.earning-requirements.required-activity-types", 0));
                 if (requiredTypes > 0) {
-                    Map<ActivityType, Integer> counts = pdata.getActivityCounts(Duration.ofMinutes(5).toMillis());
+                    long windowMs = Duration.ofMinutes(5).toMillis();
                     int types = 0;
-                    if (counts.getOrDefault(ActivityType.MOVEMENT, 0) > 0) types++;
-                    if (counts.getOrDefault(ActivityType.HEAD_ROTATION, 0) > 0) types++;
-                    if (counts.getOrDefault(ActivityType.JUMP, 0) > 0) types++;
-                    if (counts.getOrDefault(ActivityType.COMMAND, 0) > 0) types++;
+                    if (pdata.getActivityCount(ActivityType.MOVEMENT, windowMs) > 0) types++;
+                    if (pdata.getActivityCount(ActivityType.HEAD_ROTATION, windowMs) > 0) types++;
+                    if (pdata.getActivityCount(ActivityType.JUMP, windowMs) > 0) types++;
+                    if (pdata.getActivityCount(ActivityType.COMMAND, windowMs) > 0) types++;
                     if (types < requiredTypes) {
                         activeMinuteCounter.put(id, minutes);
                         return;
@@ -216,7 +223,7 @@ public class CreditManager {
      */
     public boolean beginConsumeOnAfk(Player player) {
         if (!isEnabled()) return false;
-        if (!player.hasPermission("antiafkplus.credit.use")) return false;
+        if (!canUseCredits(player)) return false;
         CreditData data = getData(player.getUniqueId());
         if (data.getBalanceMinutes() <= 0) return false;
         if (data.isConsuming()) return true; // ya en consumo
@@ -229,9 +236,9 @@ public class CreditManager {
             player.sendMessage(color(msg));
         }
 
-        // Programar tarea por-minuto
+        // Programar tarea por-minuto en el hilo del jugador (región propia en Folia)
         long period = 20L * 60L; // 60s
-        PlatformScheduler.ScheduledTask task = plugin.getPlatformScheduler().runTaskTimer(() -> {
+        PlatformScheduler.ScheduledTask task = plugin.getPlatformScheduler().runTaskTimerForEntity(player, () -> {
             if (!player.isOnline()) {
                 stopConsume(player);
                 return;
@@ -287,7 +294,7 @@ public class CreditManager {
             }
             stopConsume(player);
             teleportToAfkZone(player);
-        }, period, period);
+        }, () -> stopConsume(player), period, period);
 
         data.setConsumeTask(task);
         return true;
@@ -405,8 +412,11 @@ public class CreditManager {
      * Example: For "sponsor" group → antiafkplus.credit.ratio.sponsor
      *
      * Priority: Uses the first matching group in priority order (configurable or default).
+     *
+     * Llama a hasPermission por grupo: el resultado lo cachea PermissionTierService,
+     * usar getRatioString() en lugar de este método en rutas frecuentes.
      */
-    private Ratio getRatioFor(Player player) {
+    public String resolveRatioString(Player player) {
         String basePath = "credit-system.credit-ratios.";
 
         // Obtener todos los grupos definidos en config
@@ -414,7 +424,7 @@ public class CreditManager {
         if (ratiosSection == null) {
             // Fallback si no existe la sección
             plugin.getLogger().warning("credit-system.credit-ratios section not found in config, using default 5:1");
-            return parseRatio("5:1");
+            return "5:1";
         }
 
         // Obtener lista de grupos con orden de prioridad
@@ -443,7 +453,11 @@ public class CreditManager {
             plugin.getLogger().info("Player " + player.getName() + " matched credit ratio group: " + matchedGroup + " (" + ratioStr + ")");
         }
 
-        return parseRatio(ratioStr);
+        return ratioStr;
+    }
+
+    private Ratio getRatioFor(Player player) {
+        return parseRatio(getRatioString(player));
     }
 
     /**
@@ -454,8 +468,10 @@ public class CreditManager {
      * Example: For "sponsor" group → antiafkplus.credit.ratio.sponsor
      *
      * Priority: Uses the first matching group in priority order (same as credit ratios).
+     *
+     * Llama a hasPermission por grupo: el resultado lo cachea PermissionTierService.
      */
-    private long getMaxCreditsFor(Player player) {
+    public long resolveMaxCredits(Player player) {
         String basePath = "credit-system.max-credits.";
 
         // Obtener todos los grupos definidos en config
@@ -671,6 +687,11 @@ public class CreditManager {
 
     public enum ReturnResult { SUCCESS, NOT_IN_ZONE, NO_SAVED_LOCATION, COOLDOWN, TOO_FAR, UNSAFE_LOCATION, SYSTEM_DISABLED }
 
+    public boolean canUseCredits(Player player) {
+        PermissionTierService tiers = plugin.getPermissionTierService();
+        return tiers != null ? tiers.canUseCredits(player) : player.hasPermission(PermissionTierService.CREDIT_USE);
+    }
+
     public long getBalance(Player player) {
         return getData(player.getUniqueId()).getBalanceMinutes();
     }
@@ -679,42 +700,21 @@ public class CreditManager {
         return getMaxCreditsFor(player);
     }
 
+    private long getMaxCreditsFor(Player player) {
+        PermissionTierService tiers = plugin.getPermissionTierService();
+        return tiers != null ? tiers.getMaxCredits(player) : resolveMaxCredits(player);
+    }
+
     /**
      * API METHOD: Obtiene el ratio de créditos como string para un jugador.
-     * Usa la misma lógica dinámica que getRatioFor() para detectar grupos.
+     * Usa la misma lógica dinámica que resolveRatioString(), cacheada por PermissionTierService.
      *
      * @param player Jugador a consultar
      * @return String con el ratio en formato "active:credit" (ej: "5:1")
      */
     public String getRatioString(Player player) {
-        String basePath = "credit-system.credit-ratios.";
-
-        // Obtener todos los grupos definidos en config
-        ConfigurationSection ratiosSection = plugin.getConfig().getConfigurationSection(basePath);
-        if (ratiosSection == null) {
-            return "5:1"; // Fallback
-        }
-
-        // Obtener lista de grupos con orden de prioridad
-        List<String> priorityOrder = getPriorityOrder(ratiosSection.getKeys(false));
-
-        // Buscar el primer grupo que coincida con los permisos del jugador
-        String ratioStr = plugin.getConfig().getString(basePath + "default", "5:1");
-
-        for (String group : priorityOrder) {
-            if (group.equals("default")) continue;
-
-            String permission = "antiafkplus.credit.ratio." + group.toLowerCase().replace("+", "plus");
-            if (player.hasPermission(permission)) {
-                String configRatio = plugin.getConfig().getString(basePath + group, null);
-                if (configRatio != null && !configRatio.isEmpty()) {
-                    ratioStr = configRatio;
-                    break;
-                }
-            }
-        }
-
-        return ratioStr;
+        PermissionTierService tiers = plugin.getPermissionTierService();
+        return tiers != null ? tiers.getCreditRatio(player) : resolveRatioString(player);
     }
 
     public boolean isInAfkZone(Player player) {
@@ -268,6 +268,11 @@ public class PlayerAFKPatternDetectedEvent extends PlayerEvent implements Cancel
          */
         PENDULUM_MOVEMENT("Pendulum Movement", "Player moving back and forth in pendulum pattern"),
 
+        /**
+         * Movement or head rotation repeating with a fixed period (looping AFK machine).
+         */
+        PERIODIC_MOVEMENT("Periodic Movement", "Player movement repeats with a fixed period, likely a looping machine"),
+
         /**
          * Suspicious clicking patterns.
          */
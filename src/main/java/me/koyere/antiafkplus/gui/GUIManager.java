@@ -458,16 +458,23 @@ public class GUIManager implements Listener {
         int slot = event.getRawSlot();
 
         boolean isShiftClick = event.isShiftClick();
-        switch (guiType) {
-            case MAIN_MENU -> handleMainMenuClick(player, slot);
-            case DETECTION_SETTINGS -> handleDetectionClick(player, slot);
-            case MODULE_SETTINGS -> handleModuleClick(player, slot);
-            case CREDIT_SETTINGS -> { /* Reserved for future use */ }
-            case GENERAL_SETTINGS -> handleGeneralClick(player, slot, isShiftClick);
-            case ZONE_SETTINGS -> handleZoneClick(player, slot, isShiftClick);
-            case REWARD_SETTINGS -> handleRewardClick(player, slot, isShiftClick);
-            case LANGUAGE_SELECTOR -> handleLanguageClick(player, slot);
-        }
+        // The handler (config save, menu rebuild) runs from the per-tick budget queue, which
+        // also keeps the reopened inventory out of the click event itself
+        plugin.getPlatformScheduler().runBudgetedForEntity(player, null, () -> {
+            if (!player.isOnline() || openGUIs.get(uuid) != guiType) {
+                return; // Closed or switched menus meanwhile
+            }
+            switch (guiType) {
+                case MAIN_MENU -> handleMainMenuClick(player, slot);
+                case DETECTION_SETTINGS -> handleDetectionClick(player, slot);
+                case MODULE_SETTINGS -> handleModuleClick(player, slot);
+                case CREDIT_SETTINGS -> { /* Reserved for future use */ }
+                case GENERAL_SETTINGS -> handleGeneralClick(player, slot, isShiftClick);
+                case ZONE_SETTINGS -> handleZoneClick(player, slot, isShiftClick);
+                case REWARD_SETTINGS -> handleRewardClick(player, slot, isShiftClick);
+                case LANGUAGE_SELECTOR -> handleLanguageClick(player, slot);
+            }
+        });
     }
 
     @EventHandler
@@ -1,6 +1,7 @@
 package me.koyere.antiafkplus.integrations;
 
 import me.koyere.antiafkplus.AntiAFKPlus;
+import me.koyere.antiafkplus.performance.PerformanceOptimizer;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
@@ -8,6 +9,7 @@ import org.bukkit.entity.Player;
 import java.lang.reflect.Method;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Optional;
 import java.util.Set;
 
 /**
@@ -15,6 +17,9 @@ import java.util.Set;
  * Provides region membership queries and simple zone resolution.
  */
 public class WorldGuardIntegration {
+    // Regions rarely change; a block keeps its zone for this long in the shared cache
+    private static final long ZONE_CACHE_TTL_MS = 5000L;
+
     private final AntiAFKPlus plugin;
     private final boolean available;
 
@@ -68,9 +73,21 @@ public class WorldGuardIntegration {
     /**
      * Attempts to resolve the configured zone name for a location using WorldGuard regions.
      * It matches region IDs against keys under zone-management.zones.* (case-insensitive).
+     * Results are cached per block, so the AFK checks of players standing still don't
+     * repeat the reflective region query.
      */
     public String determineZoneAt(Location location) {
-        if (location == null) return null;
+        if (location == null || location.getWorld() == null) return null;
+        PerformanceOptimizer optimizer = plugin.getPerformanceOptimizer();
+        if (optimizer == null) return lookupZoneAt(location);
+        String key = "wg-zone:" + location.getWorld().getName() + ":" + location.getBlockX()
+                + ":" + location.getBlockY() + ":" + location.getBlockZ();
+        // Optional, as the cache does not keep null ("no zone here") results
+        return optimizer.<Optional<String>>getOrCompute(key,
+                () -> Optional.ofNullable(lookupZoneAt(location)), ZONE_CACHE_TTL_MS).orElse(null);
+    }
+
+    private String lookupZoneAt(Location location) {
         Set<String> regionIds = getRegionIdsAt(location);
         if (regionIds.isEmpty()) return null;
         var zonesSection = plugin.getConfig().getConfigurationSection("zone-management.zones");
@@ -4,6 +4,7 @@ package me.koyere.antiafkplus.listener;
 import me.koyere.antiafkplus.AntiAFKPlus;
 import me.koyere.antiafkplus.afk.AFKManager;
 import me.koyere.antiafkplus.config.ConfigManager;
+import me.koyere.antiafkplus.permission.PermissionTierService;
 import me.koyere.antiafkplus.utils.AFKLogger;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -72,7 +73,8 @@ public class AutoClickListener implements Listener {
         Player player = event.getPlayer();
         UUID uuid = player.getUniqueId();
 
-        if (player.hasPermission("antiafkplus.bypass.autoclick")) {
+        PermissionTierService tiers = plugin.getPermissionTierService();
+        if (tiers != null ? tiers.hasAutoClickBypass(player) : player.hasPermission(PermissionTierService.BYPASS_AUTOCLICK)) {
             return;
         }
 
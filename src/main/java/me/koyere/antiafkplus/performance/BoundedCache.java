@@ -0,0 +1,478 @@
+package me.koyere.antiafkplus.performance;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Size-bounded cache with W-TinyLFU admission, per-entry TTL and single-flight
+ * loading.
+ *
+ * <ul>
+ *   <li>New entries go to a small LRU window (1% of the size). Entries leaving
+ *   the window compete with the main space's eviction victim and are only
+ *   admitted if a frequency sketch has seen them more often, so a burst of
+ *   one-off keys cannot flush the entries that are read all the time.</li>
+ *   <li>The main space is a segmented LRU: probation, and protected (80%) for
+ *   entries read again after admission.</li>
+ *   <li>The frequency sketch is a 4-bit count-min sketch, halved every
+ *   {@code 10 * maximumSize} increments so old popularity fades.</li>
+ *   <li>Concurrent misses for the same key share one load; a failed load is
+ *   rethrown to every waiter and not cached. {@code null} values are not
+ *   cached.</li>
+ * </ul>
+ *
+ * <p>Reads are a map lookup; the LRU reordering they cause is skipped when the
+ * policy lock is busy, so readers never wait on each other. Writes, evictions
+ * and expiry run under that lock.</p>
+ */
+public final class BoundedCache<K, V> {
+
+    /** Counters since creation. */
+    public record Stats(long hits, long misses, long loadFailures, long evictions,
+                        long expirations, int size, int maximumSize) {
+
+        /** Share of lookups that were hits, 1.0 before the first lookup. */
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 1.0 : (double) hits / requests;
+        }
+    }
+
+    private static final byte NEW = 0;
+    private static final byte WINDOW = 1;
+    private static final byte PROBATION = 2;
+    private static final byte PROTECTED = 3;
+    private static final byte DEAD = 4;
+
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        final long expiresAt; // System.nanoTime() deadline
+        // Guarded by the policy lock
+        byte queue = NEW;
+        Node<K, V> prev;
+        Node<K, V> next;
+
+        Node(K key, V value, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final int maximumSize;
+    private final int windowMaximum;
+    private final int protectedMaximum;
+    private final long defaultTtlNanos;
+
+    private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+
+    private final ReentrantLock policyLock = new ReentrantLock();
+    private final FrequencySketch sketch;
+    private final AccessQueue<K, V> window = new AccessQueue<>();
+    private final AccessQueue<K, V> probation = new AccessQueue<>();
+    private final AccessQueue<K, V> protectedQueue = new AccessQueue<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public BoundedCache(int maximumSize, long defaultTtlMillis) {
+        this.maximumSize = Math.max(1, maximumSize);
+        this.windowMaximum = Math.max(1, this.maximumSize / 100);
+        this.protectedMaximum = (int) ((this.maximumSize - windowMaximum) * 0.8);
+        this.defaultTtlNanos = Math.max(1L, defaultTtlMillis) * 1_000_000L;
+        this.sketch = new FrequencySketch(this.maximumSize);
+    }
+
+    /** The cached value, or {@code null} if absent or expired. */
+    public V getIfPresent(K key) {
+        Node<K, V> node = data.get(key);
+        long now = System.nanoTime();
+        if (node == null || expire(node, now)) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        recordRead(node);
+        return node.value;
+    }
+
+    public V get(K key, Supplier<? extends V> loader) {
+        return get(key, loader, defaultTtlNanos / 1_000_000L);
+    }
+
+    /**
+     * The cached value, or the value {@code loader} computes, cached for
+     * {@code ttlMillis}. Concurrent callers missing the same key wait for one
+     * load instead of each running the loader.
+     */
+    public V get(K key, Supplier<? extends V> loader, long ttlMillis) {
+        V cached = getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<V> ownLoad = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = loading.putIfAbsent(key, ownLoad);
+        if (inFlight != null) {
+            try {
+                return inFlight.join();
+            } catch (CompletionException e) {
+                throw rethrow(e.getCause());
+            }
+        }
+
+        try {
+            // The previous loader may have finished between the miss and putIfAbsent
+            Node<K, V> current = data.get(key);
+            if (current != null && !expire(current, System.nanoTime())) {
+                ownLoad.complete(current.value);
+                return current.value;
+            }
+            V value = loader.get();
+            if (value != null) {
+                put(key, value, ttlMillis);
+            }
+            ownLoad.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            loadFailures.increment();
+            ownLoad.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, ownLoad);
+        }
+    }
+
+    public void put(K key, V value) {
+        put(key, value, defaultTtlNanos / 1_000_000L);
+    }
+
+    public void put(K key, V value, long ttlMillis) {
+        if (value == null) {
+            invalidate(key);
+            return;
+        }
+        Node<K, V> node = new Node<>(key, value, System.nanoTime() + Math.max(1L, ttlMillis) * 1_000_000L);
+        policyLock.lock();
+        try {
+            Node<K, V> old = data.put(key, node);
+            if (old != null) {
+                unlink(old);
+            }
+            sketch.increment(key.hashCode());
+            node.queue = WINDOW;
+            window.addLast(node);
+            evict();
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    public void invalidate(K key) {
+        policyLock.lock();
+        try {
+            Node<K, V> node = data.remove(key);
+            if (node != null) {
+                unlink(node);
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        policyLock.lock();
+        try {
+            data.clear();
+            clearQueue(window);
+            clearQueue(probation);
+            clearQueue(protectedQueue);
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /**
+     * Removes every expired entry. Expired entries are also dropped when read;
+     * this reclaims the ones that are not read again.
+     *
+     * @return number of entries removed
+     */
+    public int cleanUp() {
+        long now = System.nanoTime();
+        policyLock.lock();
+        try {
+            return expireQueue(window, now) + expireQueue(probation, now) + expireQueue(protectedQueue, now);
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    public int size() {
+        return data.size();
+    }
+
+    public Stats getStats() {
+        return new Stats(hits.sum(), misses.sum(), loadFailures.sum(), evictions.sum(),
+                expirations.sum(), data.size(), maximumSize);
+    }
+
+    // ============= POLICY =============
+
+    /** Drops {@code node} if it expired. */
+    private boolean expire(Node<K, V> node, long now) {
+        if (now - node.expiresAt < 0) {
+            return false;
+        }
+        policyLock.lock();
+        try {
+            if (data.remove(node.key, node)) {
+                unlink(node);
+                expirations.increment();
+            }
+        } finally {
+            policyLock.unlock();
+        }
+        return true;
+    }
+
+    private void recordRead(Node<K, V> node) {
+        // Lossy under contention: a skipped reorder only makes eviction slightly less exact
+        if (!policyLock.tryLock()) {
+            return;
+        }
+        try {
+            sketch.increment(node.key.hashCode());
+            switch (node.queue) {
+                case WINDOW -> window.moveToLast(node);
+                case PROBATION -> {
+                    probation.remove(node);
+                    node.queue = PROTECTED;
+                    protectedQueue.addLast(node);
+                    while (protectedQueue.size > protectedMaximum) {
+                        Node<K, V> demoted = protectedQueue.pollFirst();
+                        demoted.queue = PROBATION;
+                        probation.addLast(demoted);
+                    }
+                }
+                case PROTECTED -> protectedQueue.moveToLast(node);
+                default -> { } // Replaced or removed meanwhile
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /** Moves window overflow to probation, then evicts until within the maximum size. */
+    private void evict() {
+        while (window.size > windowMaximum) {
+            Node<K, V> moved = window.pollFirst();
+            moved.queue = PROBATION;
+            probation.addLast(moved);
+        }
+        while (window.size + probation.size + protectedQueue.size > maximumSize) {
+            Node<K, V> victim = probation.first();
+            Node<K, V> candidate = probation.last();
+            Node<K, V> evicted;
+            if (victim == null) {
+                // Everything is protected or in the window
+                evicted = protectedQueue.size > 0 ? protectedQueue.first() : window.first();
+            } else if (victim == candidate) {
+                evicted = victim;
+            } else {
+                // Admit the newcomer only if it is requested more often than the victim
+                evicted = sketch.frequency(candidate.key.hashCode()) > sketch.frequency(victim.key.hashCode())
+                        ? victim : candidate;
+            }
+            data.remove(evicted.key, evicted);
+            unlink(evicted);
+            evictions.increment();
+        }
+    }
+
+    private void unlink(Node<K, V> node) {
+        switch (node.queue) {
+            case WINDOW -> window.remove(node);
+            case PROBATION -> probation.remove(node);
+            case PROTECTED -> protectedQueue.remove(node);
+            default -> { }
+        }
+        node.queue = DEAD;
+    }
+
+    private int expireQueue(AccessQueue<K, V> queue, long now) {
+        int removed = 0;
+        Node<K, V> node = queue.first();
+        while (node != null) {
+            Node<K, V> next = node.next;
+            if (now - node.expiresAt >= 0 && data.remove(node.key, node)) {
+                unlink(node);
+                expirations.increment();
+                removed++;
+            }
+            node = next;
+        }
+        return removed;
+    }
+
+    private void clearQueue(AccessQueue<K, V> queue) {
+        Node<K, V> node;
+        while ((node = queue.pollFirst()) != null) {
+            node.queue = DEAD;
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new CompletionException(cause);
+    }
+
+    /** Intrusive doubly linked LRU list, least recently used first. Guarded by the policy lock. */
+    private static final class AccessQueue<K, V> {
+        private Node<K, V> head;
+        private Node<K, V> tail;
+        int size;
+
+        Node<K, V> first() {
+            return head;
+        }
+
+        Node<K, V> last() {
+            return tail;
+        }
+
+        void addLast(Node<K, V> node) {
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+            size++;
+        }
+
+        Node<K, V> pollFirst() {
+            Node<K, V> node = head;
+            if (node != null) {
+                remove(node);
+            }
+            return node;
+        }
+
+        void remove(Node<K, V> node) {
+            if (node.prev == null) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            size--;
+        }
+
+        void moveToLast(Node<K, V> node) {
+            if (node != tail) {
+                remove(node);
+                addLast(node);
+            }
+        }
+    }
+
+    /**
+     * Count-min sketch of 4-bit counters, sixteen per {@code long}. Each key
+     * maps to one counter in each of four rows; its estimate is the smallest.
+     * Guarded by the policy lock.
+     */
+    private static final class FrequencySketch {
+        private static final long[] SEEDS = {
+                0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+        private static final long RESET_MASK = 0x7777777777777777L;
+
+        private final long[] table;
+        private final int tableMask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int maximumSize) {
+            int length = Integer.highestOneBit(Math.max(8, maximumSize - 1) << 1);
+            this.table = new long[length];
+            this.tableMask = length - 1;
+            this.sampleSize = 10 * maximumSize;
+        }
+
+        int frequency(int keyHash) {
+            int hash = spread(keyHash);
+            int start = (hash & 3) << 2;
+            int frequency = 15;
+            for (int i = 0; i < 4; i++) {
+                int index = indexOf(hash, i);
+                int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+                frequency = Math.min(frequency, count);
+            }
+            return frequency;
+        }
+
+        void increment(int keyHash) {
+            int hash = spread(keyHash);
+            int start = (hash & 3) << 2;
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                added |= incrementAt(indexOf(hash, i), start + i);
+            }
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        private boolean incrementAt(int index, int counter) {
+            int offset = counter << 2;
+            long mask = 0xfL << offset;
+            if ((table[index] & mask) != mask) {
+                table[index] += 1L << offset;
+                return true;
+            }
+            return false;
+        }
+
+        /** Halves every counter so the sketch follows changes in popularity. */
+        private void reset() {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = (table[i] >>> 1) & RESET_MASK;
+            }
+            additions /= 2;
+        }
+
+        private int indexOf(int hash, int row) {
+            long h = (hash + SEEDS[row]) * SEEDS[row];
+            h += h >>> 32;
+            return (int) h & tableMask;
+        }
+
+        private static int spread(int x) {
+            x = ((x >>> 16) ^ x) * 0x45d9f3b;
+            x = ((x >>> 16) ^ x) * 0x45d9f3b;
+            return (x >>> 16) ^ x;
+        }
+    }
+}
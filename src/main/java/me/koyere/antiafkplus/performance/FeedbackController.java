@@ -0,0 +1,163 @@
+package me.koyere.antiafkplus.performance;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Closed-loop load controller behind the adaptive intervals.
+ *
+ * <p>Every optimizer cycle it is fed the server's average tick time (MSPT) and
+ * the plugin's main-thread cost per tick for the work it paces (move event
+ * handling, which no interval can lower, is left out), and it adjusts one load scale:
+ * the factor the periodic work (AFK check slices, pattern analysis cycles,
+ * hologram and particle refreshes) stretches its configured interval by,
+ * each capped at its own maximum.</p>
+ *
+ * <ul>
+ *   <li>MSPT is smoothed with an exponential moving average first, so a single
+ *   slow tick or GC pause does not trigger anything.</li>
+ *   <li>Above the target MSPT, or above the plugin's own budget, the scale grows
+ *   multiplicatively ({@code backoffFactor}) to shed load quickly.</li>
+ *   <li>It only recovers, additively ({@code recoveryStep}), once MSPT is below
+ *   {@code target - hysteresis} and the own cost below half its budget. In the
+ *   band between the two it holds, so the intervals do not flap around the
+ *   target.</li>
+ * </ul>
+ *
+ * <p>Every decision, hold included, goes into a fixed ring buffer read by
+ * {@code /afkplus performance controller}. Bukkit-free; the optimizer reads
+ * the inputs.</p>
+ */
+public final class FeedbackController {
+
+    public static final int DECISION_LOG_SIZE = 128;
+
+    public enum Action { BACK_OFF, RECOVER, HOLD }
+
+    /**
+     * One controller step.
+     *
+     * @param msptAvg   smoothed MSPT the decision used, NaN if unavailable
+     * @param ownCostMs plugin main-thread milliseconds per tick of the paced work since the previous step
+     */
+    public record Decision(long timeMillis, Action action, double msptAvg, double ownCostMs,
+                           double previousScale, double scale, String reason) {}
+
+    public record Settings(double targetMspt, double hysteresisMspt, double maxScale,
+                           double backoffFactor, double recoveryStep, double smoothing) {
+
+        public static final Settings DEFAULTS = new Settings(40.0, 5.0, 4.0, 1.25, 0.1, 0.3);
+
+        public Settings {
+            targetMspt = Math.max(1.0, targetMspt);
+            hysteresisMspt = Math.max(0.0, Math.min(hysteresisMspt, targetMspt));
+            maxScale = Math.max(1.0, maxScale);
+            backoffFactor = Math.max(1.01, backoffFactor);
+            recoveryStep = Math.max(0.01, recoveryStep);
+            smoothing = Math.max(0.01, Math.min(1.0, smoothing));
+        }
+    }
+
+    private volatile Settings settings;
+    private volatile double scale = 1.0;
+    private double msptAvg = Double.NaN;
+
+    private final Decision[] decisions = new Decision[DECISION_LOG_SIZE];
+    private int nextDecision = 0;
+    private long decisionCount = 0L;
+
+    public FeedbackController(Settings settings) {
+        this.settings = settings;
+    }
+
+    public void setSettings(Settings settings) {
+        this.settings = settings;
+        this.scale = Math.min(scale, settings.maxScale());
+    }
+
+    /** Current load scale, 1.0 = configured intervals. */
+    public double getScale() {
+        return scale;
+    }
+
+    /**
+     * Runs one controller step. Called by a single thread (the optimizer cycle).
+     *
+     * @param mspt         server average tick time in ms, NaN if the platform does not report it
+     * @param ownCostMs    plugin main-thread ms per tick of the paced work since the previous step
+     * @param ownBudgetMs  allowed plugin ms per tick
+     */
+    public Decision update(double mspt, double ownCostMs, double ownBudgetMs, long now) {
+        Settings s = settings;
+        if (!Double.isNaN(mspt)) {
+            msptAvg = Double.isNaN(msptAvg) ? mspt : msptAvg + s.smoothing() * (mspt - msptAvg);
+        }
+
+        double previous = scale;
+        boolean msptKnown = !Double.isNaN(msptAvg);
+        Action action;
+        String reason;
+        if (msptKnown && msptAvg > s.targetMspt()) {
+            action = Action.BACK_OFF;
+            reason = String.format("MSPT %.1f > %.1f", msptAvg, s.targetMspt());
+        } else if (ownCostMs > ownBudgetMs) {
+            action = Action.BACK_OFF;
+            reason = String.format("own cost %.3f > %.3f ms/tick", ownCostMs, ownBudgetMs);
+        } else if ((!msptKnown || msptAvg < s.targetMspt() - s.hysteresisMspt()) && ownCostMs < ownBudgetMs / 2) {
+            action = previous > 1.0 ? Action.RECOVER : Action.HOLD;
+            reason = previous > 1.0 ? "headroom" : "at configured intervals";
+        } else {
+            action = Action.HOLD;
+            reason = "inside hysteresis band";
+        }
+
+        double next = switch (action) {
+            case BACK_OFF -> Math.min(s.maxScale(), previous * s.backoffFactor());
+            case RECOVER -> Math.max(1.0, previous - s.recoveryStep());
+            case HOLD -> previous;
+        };
+        if (action == Action.BACK_OFF && next == previous) {
+            reason += " (at max scale)";
+        }
+        scale = next;
+
+        Decision decision = new Decision(now, action, msptAvg, ownCostMs, previous, next, reason);
+        synchronized (decisions) {
+            decisions[nextDecision] = decision;
+            nextDecision = (nextDecision + 1) % DECISION_LOG_SIZE;
+            decisionCount++;
+        }
+        return decision;
+    }
+
+    /** Up to {@code limit} most recent decisions, newest first. */
+    public List<Decision> getRecentDecisions(int limit) {
+        synchronized (decisions) {
+            int available = (int) Math.min(decisionCount, DECISION_LOG_SIZE);
+            int count = Math.max(0, Math.min(limit, available));
+            List<Decision> result = new ArrayList<>(count);
+            for (int i = 1; i <= count; i++) {
+                result.add(decisions[Math.floorMod(nextDecision - i, DECISION_LOG_SIZE)]);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Lets a fixed-period task run on average once per {@code scale} periods,
+     * so a scaled interval needs no task restart. One gate per task; not
+     * thread-safe.
+     */
+    public static final class Gate {
+        private double credit = 0.0;
+
+        public boolean tryPass(double scale) {
+            credit += 1.0 / Math.max(1.0, scale);
+            if (credit >= 1.0 - 1e-9) { // Tolerate rounding of 1/scale sums
+                credit -= 1.0;
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package me.koyere.antiafkplus.performance;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-bucket log-linear histogram of execution times in nanoseconds.
+ *
+ * <p>Values below {@code 2^SUB_BITS} get one bucket each; above that every power
+ * of two is split into {@code 2^SUB_BITS} linear sub-buckets, so a bucket is never
+ * wider than 1/8 of its lower bound (12.5% relative error) from 1 ns up to
+ * {@link #MAX_TRACKABLE_NANOS}. Longer values land in the last bucket; the exact
+ * maximum is tracked separately.</p>
+ *
+ * <p>Buckets are {@link LongAdder}s, so concurrent recording from the main thread,
+ * region threads and async tasks never contends on one cache line. Recording is
+ * a leading-zero count, a shift and two adds.</p>
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int MAX_EXPONENT = 36; // 2^36 ns ~ 68 s
+    public static final long MAX_TRACKABLE_NANOS = (1L << (MAX_EXPONENT + 1)) - 1;
+    private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BITS + 2) * SUB_COUNT;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        long value = Math.max(0L, nanos);
+        buckets[bucketOf(Math.min(value, MAX_TRACKABLE_NANOS))].increment();
+        totalNanos.add(value);
+        maxNanos.accumulate(value);
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+        return (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+    }
+
+    /** Largest value that falls into {@code bucket}. */
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_COUNT) {
+            return bucket;
+        }
+        int shift = bucket / SUB_COUNT - 1;
+        long lower = (long) (SUB_COUNT + bucket % SUB_COUNT) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    /** Current counts without resetting them. */
+    public Summary summary() {
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return Summary.of(counts, totalNanos.sum(), maxNanos.get());
+    }
+
+    /**
+     * Current counts, clearing the histogram for the next window. A value
+     * recorded while the reset runs may be split between the two windows.
+     */
+    public Summary summaryThenReset() {
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets[i].sumThenReset();
+        }
+        return Summary.of(counts, totalNanos.sumThenReset(), maxNanos.getThenReset());
+    }
+
+    /**
+     * Percentiles of one histogram window. Percentiles are bucket upper bounds,
+     * capped at the exact maximum.
+     */
+    public record Summary(long count, long totalNanos, long p50Nanos, long p95Nanos,
+                          long p99Nanos, long maxNanos) {
+
+        public static final Summary EMPTY = new Summary(0L, 0L, 0L, 0L, 0L, 0L);
+
+        static Summary of(long[] counts, long totalNanos, long maxNanos) {
+            long count = 0L;
+            for (long c : counts) {
+                count += c;
+            }
+            if (count == 0L) {
+                return EMPTY;
+            }
+            return new Summary(count, totalNanos,
+                    percentile(counts, count, 0.50, maxNanos),
+                    percentile(counts, count, 0.95, maxNanos),
+                    percentile(counts, count, 0.99, maxNanos),
+                    maxNanos);
+        }
+
+        private static long percentile(long[] counts, long count, double quantile, long maxNanos) {
+            long rank = Math.max(1L, (long) Math.ceil(quantile * count));
+            long seen = 0L;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(upperBoundOf(i), maxNanos);
+                }
+            }
+            return maxNanos;
+        }
+
+        public double avgNanos() {
+            return count > 0 ? (double) totalNanos / count : 0.0;
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package me.koyere.antiafkplus.performance;
 
 import me.koyere.antiafkplus.AntiAFKPlus;
+import me.koyere.antiafkplus.afk.AFKManager;
+import me.koyere.antiafkplus.afk.MovementListener;
+import me.koyere.antiafkplus.afk.PatternDetector;
 import me.koyere.antiafkplus.platform.PlatformScheduler;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
@@ -9,7 +12,7 @@ import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Logger;
 
 /**
@@ -26,8 +29,12 @@ public class PerformanceOptimizer {
     // Performance monitoring
     private final PerformanceMonitor performanceMonitor;
     private final Map<String, PerformanceMetrics> componentMetrics = new ConcurrentHashMap<>();
-    private final AtomicLong totalOperations = new AtomicLong(0);
-    private final AtomicLong totalExecutionTime = new AtomicLong(0);
+    private final LongAdder totalOperations = new LongAdder();
+    private final LongAdder totalExecutionTime = new LongAdder();
+
+    // Latency histograms are reported per window: the last completed one is kept
+    private long latencyWindowMs = 60000; // 1 minute
+    private long latencyWindowStart = System.currentTimeMillis();
     
     // Optimization settings
     private boolean autoOptimizationEnabled = true;
@@ -41,17 +48,24 @@ public class PerformanceOptimizer {
     private long maxMemoryUsage = 50 * 1024 * 1024; // 50MB max memory usage
     private int maxCpuUsagePercent = 5; // 5% max CPU usage
     private long optimizationInterval = 5000; // 5 seconds
+    private static final long ACTIVITY_RATE_WINDOW_MS = 60000; // rates are per minute
     
     // Adaptive settings
     private final Map<String, Integer> adaptiveIntervals_map = new ConcurrentHashMap<>();
-    private final Map<UUID, Long> playerLastActivity = new ConcurrentHashMap<>();
+    private final FeedbackController feedbackController = new FeedbackController(FeedbackController.Settings.DEFAULTS);
+    private final Map<String, Double> componentMaxScale = new ConcurrentHashMap<>();
+    private long lastOwnCostNanos = -1L; // Own main-thread work measured at the previous controller step
+    private long lastMoveCostNanos = 0L;
+    private long lastOwnCostSampleAt = 0L;
+    private volatile double moveEventCostPerTick = 0.0; // ms/tick, reported only: intervals cannot change it
     private final Set<UUID> highActivityPlayers = ConcurrentHashMap.newKeySet();
     private final Set<UUID> lowActivityPlayers = ConcurrentHashMap.newKeySet();
     
-    // Caching system
-    private final Map<String, CacheEntry> cache = new ConcurrentHashMap<>();
+    // Caching system, shared by subsystems through getOrCompute
+    private final BoundedCache<String, Object> cache;
     private long cacheCleanupInterval = 30000; // 30 seconds
     private long cacheEntryTtl = 60000; // 1 minute TTL
+    private int cacheMaximumSize = 1000;
     
     // Resource pooling
     private final Queue<StringBuilder> stringBuilderPool = new ArrayDeque<>();
@@ -65,6 +79,7 @@ public class PerformanceOptimizer {
         this.performanceMonitor = new PerformanceMonitor();
         
         loadConfiguration();
+        this.cache = new BoundedCache<>(cacheMaximumSize, cacheEntryTtl);
         initializeOptimizations();
         startMonitoring();
         
@@ -87,6 +102,10 @@ public class PerformanceOptimizer {
         this.maxMemoryUsage = config.getLong("performance.thresholds.max-memory-mb", 50) * 1024 * 1024;
         this.maxCpuUsagePercent = config.getInt("performance.thresholds.max-cpu-percent", 5);
         this.optimizationInterval = config.getLong("performance.optimization-interval", 5000);
+        this.latencyWindowMs = Math.max(1, config.getLong("performance.latency-window-seconds", 60)) * 1000L;
+        this.cacheMaximumSize = Math.max(1, config.getInt("performance.cache.maximum-size", 1000));
+        this.cacheEntryTtl = Math.max(1, config.getLong("performance.cache.ttl-seconds", 60)) * 1000L;
+        loadFeedbackControllerSettings();
         
         // Create default configuration if needed
         if (!config.contains("performance")) {
@@ -94,6 +113,29 @@ public class PerformanceOptimizer {
         }
     }
     
+    /**
+     * Load the feedback controller's target, damping and per-component bounds.
+     */
+    private void loadFeedbackControllerSettings() {
+        var config = plugin.getConfig();
+        String path = "performance.feedback-controller.";
+        
+        componentMaxScale.put("afk-check", config.getDouble(path + "max-scale.afk-check", 3.0));
+        componentMaxScale.put("pattern-detection", config.getDouble(path + "max-scale.pattern-detection", 4.0));
+        componentMaxScale.put("holograms", config.getDouble(path + "max-scale.holograms", 4.0));
+        componentMaxScale.put("particles", config.getDouble(path + "max-scale.particles", 5.0));
+        double maxScale = componentMaxScale.values().stream().mapToDouble(Double::doubleValue).max().orElse(1.0);
+        
+        feedbackController.setSettings(new FeedbackController.Settings(
+            config.getDouble(path + "target-mspt", 40.0),
+            config.getDouble(path + "hysteresis-mspt", 5.0),
+            maxScale,
+            config.getDouble(path + "backoff-factor", 1.25),
+            config.getDouble(path + "recovery-step", 0.1),
+            config.getDouble(path + "smoothing", 0.3)
+        ));
+    }
+    
     /**
      * Create default performance configuration.
      */
@@ -118,6 +160,10 @@ public class PerformanceOptimizer {
         config.set("performance.advanced.batch-operations", true);
         config.set("performance.advanced.async-processing", true);
         
+        // Shared cache
+        config.set("performance.cache.maximum-size", 1000);
+        config.set("performance.cache.ttl-seconds", 60);
+        
         // Player categorization
         config.set("performance.player-categorization.enabled", true);
         config.set("performance.player-categorization.high-activity-threshold", 10); // actions per minute
@@ -193,6 +239,7 @@ public class PerformanceOptimizer {
     private void startMonitoring() {
         scheduler.runTaskTimerAsync(() -> {
             updatePerformanceMetrics();
+            rotateLatencyWindow();
             
             if (autoOptimizationEnabled) {
                 performAutomaticOptimizations();
@@ -207,25 +254,23 @@ public class PerformanceOptimizer {
     
     /**
      * Execute a task with performance monitoring.
+     * Only the execution time is measured: reading the heap usage around every
+     * call cost more than most of the monitored tasks.
      */
     public <T> T executeWithMonitoring(String componentName, PerformanceTask<T> task) {
         long startTime = System.nanoTime();
-        long startMemory = getCurrentMemoryUsage();
         
         try {
             T result = task.execute();
             
-            long executionTime = System.nanoTime() - startTime;
-            long memoryUsed = getCurrentMemoryUsage() - startMemory;
-            
             // Record metrics
-            recordMetrics(componentName, executionTime, memoryUsed, true);
+            recordMetrics(componentName, System.nanoTime() - startTime, true);
             
             return result;
             
         } catch (Exception e) {
             long executionTime = System.nanoTime() - startTime;
-            recordMetrics(componentName, executionTime, 0, false);
+            recordMetrics(componentName, executionTime, false);
             
             // Log the error and return null instead of throwing
             logger.warning("Error in performance monitored task '" + componentName + "': " + e.getMessage());
@@ -249,13 +294,16 @@ public class PerformanceOptimizer {
     /**
      * Record performance metrics for a component.
      */
-    private void recordMetrics(String componentName, long executionTime, long memoryUsed, boolean success) {
-        PerformanceMetrics metrics = componentMetrics.computeIfAbsent(componentName, k -> new PerformanceMetrics(k));
+    private void recordMetrics(String componentName, long executionTime, boolean success) {
+        PerformanceMetrics metrics = componentMetrics.get(componentName);
+        if (metrics == null) {
+            metrics = componentMetrics.computeIfAbsent(componentName, PerformanceMetrics::new);
+        }
         
-        metrics.recordExecution(executionTime, memoryUsed, success);
+        metrics.recordExecution(executionTime, success);
         
-        totalOperations.incrementAndGet();
-        totalExecutionTime.addAndGet(executionTime);
+        totalOperations.increment();
+        totalExecutionTime.add(executionTime);
         
         // Check for performance issues
         double executionMs = executionTime / 1_000_000.0;
@@ -272,22 +320,33 @@ public class PerformanceOptimizer {
         performanceMonitor.update();
         
         // Log performance summary periodically
-        if (totalOperations.get() % 1000 == 0) {
+        if (totalOperations.sum() % 1000 == 0) {
             logPerformanceSummary();
         }
     }
     
+    /**
+     * Closes the current latency window of every component once
+     * performance.latency-window-seconds have passed.
+     */
+    private void rotateLatencyWindow() {
+        long now = System.currentTimeMillis();
+        if (now - latencyWindowStart < latencyWindowMs) {
+            return;
+        }
+        latencyWindowStart = now;
+        for (PerformanceMetrics metrics : componentMetrics.values()) {
+            metrics.closeWindow();
+        }
+    }
+    
     /**
      * Perform automatic optimizations based on current performance.
      */
     private void performAutomaticOptimizations() {
-        double currentTps = getCurrentTPS();
-        long currentMemory = getCurrentMemoryUsage();
-        double cpuUsage = getCurrentCPUUsage();
-        
         // Adjust intervals based on performance
         if (adaptiveIntervals) {
-            optimizeIntervals(currentTps, currentMemory, cpuUsage);
+            optimizeIntervals();
         }
         
         // Memory optimization.
@@ -299,30 +358,27 @@ public class PerformanceOptimizer {
         if (memoryOptimization && isHeapUnderPressure()) {
             performMemoryOptimization();
         }
-        
-        // CPU optimization
-        if (cpuOptimization && cpuUsage > maxCpuUsagePercent) {
-            performCPUOptimization();
-        }
     }
     
     /**
      * Optimize check intervals based on current performance.
+     * One {@link FeedbackController} step on the server's MSPT and our own
+     * main-thread cost; every tick-based interval then follows the new scale.
      */
-    private void optimizeIntervals(double tps, long memory, double cpu) {
-        // Calculate performance factor (0.0 = bad performance, 1.0 = good performance)
-        double performanceFactor = Math.min(1.0, tps / 20.0);
+    private void optimizeIntervals() {
+        FeedbackController.Decision decision = feedbackController.update(
+            getAverageTickTime(), measureOwnCostPerTick(), maxTpsImpact, System.currentTimeMillis());
+        if (decision.action() != FeedbackController.Action.HOLD
+                && config().getBoolean("performance.debug-logging", false)) {
+            logger.info("⚙ Load controller " + decision.action() + ": scale "
+                + String.format("%.2f -> %.2f", decision.previousScale(), decision.scale())
+                + " (" + decision.reason() + ")");
+        }
         
-        // Adjust intervals based on performance
         for (Map.Entry<String, Integer> entry : adaptiveIntervals_map.entrySet()) {
             String component = entry.getKey();
             int currentInterval = entry.getValue();
-
-            int baseInterval = getBaseInterval(component);
-            int newInterval = (int) (baseInterval * (2.0 - performanceFactor));
-
-            // Apply gradual changes to avoid oscillation
-            int adjustedInterval = Math.max(20, (currentInterval + newInterval) / 2);
+            int adjustedInterval = (int) Math.round(getBaseInterval(component) * getLoadScale(component));
             adaptiveIntervals_map.put(component, adjustedInterval);
 
             // Propagate afk-check interval change to AFKManager on the main thread.
@@ -339,6 +395,75 @@ public class PerformanceOptimizer {
         }
     }
     
+    /**
+     * Milliseconds per tick the plugin spent on the main thread since the previous
+     * call on the work the controller paces: AFK check scheduling, the per-tick
+     * budget queue (which runs the AFK check evaluations) and the pattern
+     * detector's snapshot collection, each measured where it runs.
+     *
+     * <p>Move event handling is measured in the same step but kept out of the
+     * result ({@link #getMoveEventCostPerTick()}): it follows the players'
+     * movement, and no interval the controller stretches can lower it.</p>
+     */
+    private double measureOwnCostPerTick() {
+        long ownNanos = 0L;
+        AFKManager afkManager = plugin.getAfkManager();
+        if (afkManager != null) {
+            AFKManager.CheckSliceStats slices = afkManager.getCheckSliceStats();
+            ownNanos += (long) (slices.avgSliceNanos() * slices.slices());
+            PatternDetector patternDetector = afkManager.getPatternDetector();
+            if (patternDetector != null) {
+                ownNanos += patternDetector.getSnapshotNanos();
+            }
+        }
+        ownNanos += scheduler.getTickBudgetStats().totalDrainNanos();
+        long moveNanos = 0L;
+        MovementListener movementListener = plugin.getMovementListener();
+        if (movementListener != null) {
+            MovementListener.MoveEventStats moves = movementListener.getMoveEventStats();
+            moveNanos = (long) (moves.fastPathEvents() * moves.avgFastPathNanos()
+                + moves.fullPathEvents() * moves.avgFullPathNanos());
+        }
+        
+        long now = System.nanoTime();
+        long previousNanos = lastOwnCostNanos;
+        long previousMoveNanos = lastMoveCostNanos;
+        long elapsed = now - lastOwnCostSampleAt;
+        lastOwnCostNanos = ownNanos;
+        lastMoveCostNanos = moveNanos;
+        lastOwnCostSampleAt = now;
+        if (previousNanos < 0L || elapsed <= 0L) {
+            return 0.0;
+        }
+        double ticks = elapsed / 50_000_000.0;
+        moveEventCostPerTick = Math.max(0L, moveNanos - previousMoveNanos) / 1_000_000.0 / ticks;
+        return Math.max(0L, ownNanos - previousNanos) / 1_000_000.0 / ticks;
+    }
+
+    /**
+     * Move event handling in milliseconds per tick over the last controller step.
+     * Reported next to the controller's own-cost input, not part of it.
+     */
+    public double getMoveEventCostPerTick() {
+        return moveEventCostPerTick;
+    }
+    
+    /**
+     * Factor a component should stretch its configured interval by under the
+     * current load: the controller's scale, capped at the component's
+     * feedback-controller.max-scale. 1.0 when adaptive intervals are off.
+     */
+    public double getLoadScale(String component) {
+        if (!adaptiveIntervals) {
+            return 1.0;
+        }
+        return Math.min(feedbackController.getScale(), componentMaxScale.getOrDefault(component, 1.0));
+    }
+    
+    public FeedbackController getFeedbackController() {
+        return feedbackController;
+    }
+    
     /**
      * Get base interval for a component.
      */
@@ -381,7 +506,7 @@ public class PerformanceOptimizer {
     private void performMemoryOptimization() {
         // Clear caches
         int cacheSize = cache.size();
-        cache.clear();
+        cache.invalidateAll();
         
         // Clean up player data for offline players
         cleanupOfflinePlayerData();
@@ -392,85 +517,69 @@ public class PerformanceOptimizer {
         }
     }
     
-    /**
-     * Perform CPU optimization.
-     */
-    private void performCPUOptimization() {
-        // Increase intervals to reduce processing load
-        for (String component : adaptiveIntervals_map.keySet()) {
-            int currentInterval = adaptiveIntervals_map.get(component);
-            adaptiveIntervals_map.put(component, (int) (currentInterval * 1.5));
-        }
-        
-        // Reduce player processing for low-activity players
-        for (UUID uuid : lowActivityPlayers) {
-            // Skip detailed processing for inactive players
-        }
-        
-        // Only log if debug logging is enabled
-        if (config().getBoolean("performance.debug-logging", false)) {
-            logger.info("⚡ CPU optimization complete");
-        }
-    }
-    
     /**
      * Categorize players by activity level for optimization.
+     *
+     * <p>The rate counts only deliberate input (chat, commands, inventory,
+     * fishing; see AFKManager.PlayerActivityData#getDeliberateInputCount): AFK
+     * machines produce plenty of movement and rotating macros plenty of camera
+     * rotation, so counting either would rate them as highly active.
+     * High-activity players without violations are pattern-analyzed at a 6x
+     * stretched cadence; low-activity players whose activity score is also low
+     * are analyzed at the NORMAL cadence at the latest (see PatternDetector).</p>
      */
     private void categorizePlayersByActivity() {
         if (!config().getBoolean("performance.player-categorization.enabled", true)) {
+            highActivityPlayers.clear();
+            lowActivityPlayers.clear();
             return;
         }
         
-        long currentTime = System.currentTimeMillis();
         int highThreshold = config().getInt("performance.player-categorization.high-activity-threshold", 10);
         int lowThreshold = config().getInt("performance.player-categorization.low-activity-threshold", 2);
         
         for (Player player : Bukkit.getOnlinePlayers()) {
             UUID uuid = player.getUniqueId();
             
-            // Calculate activity rate (actions per minute)
-            long lastActivity = playerLastActivity.getOrDefault(uuid, currentTime);
-            long timeDiff = currentTime - lastActivity;
-            
-            // Simple activity calculation (would be more sophisticated in practice)
-            double activityRate = calculatePlayerActivityRate(player, timeDiff);
+            // Activity rate (deliberate inputs per minute)
+            double activityRate = calculatePlayerActivityRate(player);
             
             // Categorize player
-            highActivityPlayers.remove(uuid);
-            lowActivityPlayers.remove(uuid);
-            
             if (activityRate >= highThreshold) {
                 highActivityPlayers.add(uuid);
+                lowActivityPlayers.remove(uuid);
             } else if (activityRate <= lowThreshold) {
                 lowActivityPlayers.add(uuid);
+                highActivityPlayers.remove(uuid);
+            } else {
+                highActivityPlayers.remove(uuid);
+                lowActivityPlayers.remove(uuid);
             }
         }
     }
     
     /**
-     * Calculate a player's activity rate.
+     * Calculate a player's activity rate: deliberate input (chat, commands,
+     * inventory, fishing) over the last minute. Camera rotation is not counted.
      */
-    private double calculatePlayerActivityRate(Player player, long timePeriod) {
-        // This would integrate with the movement tracking system
-        // For now, return a placeholder value
-        return 5.0; // Average activity
+    private double calculatePlayerActivityRate(Player player) {
+        AFKManager afkManager = plugin.getAfkManager();
+        AFKManager.PlayerActivityData data = afkManager != null ? afkManager.getPlayerActivityData(player) : null;
+        if (data == null) {
+            return 0.0;
+        }
+        return data.getDeliberateInputCount(ACTIVITY_RATE_WINDOW_MS) * 60000.0 / ACTIVITY_RATE_WINDOW_MS;
     }
     
     /**
-     * Clean up cache entries.
+     * Clean up expired cache entries that were not read again. The size bound
+     * is enforced on insert; this only reclaims memory earlier.
      */
     private void cleanupCache() {
-        long currentTime = System.currentTimeMillis();
-        final int[] removed = {0}; // Use array to make it effectively final
+        int removed = cache.cleanUp();
         
-        cache.entrySet().removeIf(entry -> {
-            boolean expired = currentTime - entry.getValue().timestamp > cacheEntryTtl;
-            if (expired) removed[0]++;
-            return expired;
-        });
-        
-        if (removed[0] > 0 && config().getBoolean("performance.debug-logging", false)) {
-            logger.info("🗑️ Cleaned up " + removed[0] + " expired cache entries");
+        if (removed > 0 && config().getBoolean("performance.debug-logging", false)) {
+            logger.info("🗑️ Cleaned up " + removed + " expired cache entries");
         }
     }
     
@@ -484,7 +593,6 @@ public class PerformanceOptimizer {
         }
         
         // Clean up activity tracking
-        playerLastActivity.entrySet().removeIf(entry -> !onlineUUIDs.contains(entry.getKey()));
         highActivityPlayers.removeIf(uuid -> !onlineUUIDs.contains(uuid));
         lowActivityPlayers.removeIf(uuid -> !onlineUUIDs.contains(uuid));
     }
@@ -499,36 +607,34 @@ public class PerformanceOptimizer {
     }
     
     /**
-     * Get cached value or compute and cache it with custom TTL.
+     * Get cached value or compute and cache it with custom TTL (milliseconds).
+     * Concurrent misses of the same key run the supplier once; {@code null}
+     * results are not cached. Prefix keys with the subsystem, e.g. {@code "wg-zone:"}.
      */
     @SuppressWarnings("unchecked")
     public <T> T getOrCompute(String key, CacheSupplier<T> supplier, long ttl) {
-        CacheEntry entry = cache.get(key);
-        long currentTime = System.currentTimeMillis();
-        
-        if (entry != null && currentTime - entry.timestamp < ttl) {
-            return (T) entry.value;
-        }
-        
-        // Compute new value
-        T value = supplier.get();
-        cache.put(key, new CacheEntry(value, currentTime));
-        
-        return value;
+        return (T) cache.get(key, supplier::get, ttl);
     }
     
     /**
      * Invalidate cache entry.
      */
     public void invalidateCache(String key) {
-        cache.remove(key);
+        cache.invalidate(key);
     }
     
     /**
      * Clear all cache.
      */
     public void clearCache() {
-        cache.clear();
+        cache.invalidateAll();
+    }
+    
+    /**
+     * Hit, miss and eviction counters of the shared cache.
+     */
+    public BoundedCache.Stats getCacheStats() {
+        return cache.getStats();
     }
     
     // ============= OBJECT POOLING =============
@@ -586,43 +692,30 @@ public class PerformanceOptimizer {
      */
     private double getCurrentTPS() {
         try {
-            // This would need to be implemented based on server type
-            // For now, return a placeholder
-            return 20.0;
-        } catch (Exception e) {
+            return Math.min(20.0, Bukkit.getServer().getTPS()[0]); // Paper: 1-minute average
+        } catch (Throwable e) {
             return 20.0; // Assume normal TPS if unable to get real value
         }
     }
     
     /**
-     * Get current memory usage of the plugin.
+     * Get the server's average tick time (MSPT) over the last 100 ticks,
+     * NaN where the platform does not report it (e.g. Folia's global region).
      */
-    private long getCurrentMemoryUsage() {
-        MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
-        return memoryBean.getHeapMemoryUsage().getUsed();
+    private double getAverageTickTime() {
+        try {
+            return Bukkit.getServer().getAverageTickTime();
+        } catch (Throwable e) {
+            return Double.NaN;
+        }
     }
     
     /**
-     * Get current process CPU usage as a percentage (0-100).
-     *
-     * The previous implementation returned {@code (cpuTime / 1e6) % 100},
-     * a meaningless value that fluctuated with accumulated thread CPU time
-     * and triggered CPU "optimizations" at random. We now read the real
-     * process CPU load from the platform MXBean when available.
+     * Get current memory usage of the plugin.
      */
-    private double getCurrentCPUUsage() {
-        try {
-            java.lang.management.OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
-            if (osBean instanceof com.sun.management.OperatingSystemMXBean sunOs) {
-                double load = sunOs.getProcessCpuLoad(); // 0.0 - 1.0, or negative if not yet available
-                if (load >= 0.0) {
-                    return load * 100.0;
-                }
-            }
-        } catch (Throwable ignored) {
-            // MXBean not available on this platform; fall through.
-        }
-        return 0.0; // Unknown: do not trigger CPU-based optimizations.
+    private long getCurrentMemoryUsage() {
+        MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+        return memoryBean.getHeapMemoryUsage().getUsed();
     }
     
     /**
@@ -640,8 +733,8 @@ public class PerformanceOptimizer {
             return;
         }
         
-        long totalOps = totalOperations.get();
-        long totalTime = totalExecutionTime.get();
+        long totalOps = totalOperations.sum();
+        long totalTime = totalExecutionTime.sum();
         double avgTime = totalOps > 0 ? (totalTime / 1_000_000.0) / totalOps : 0.0;
         
         logger.info("📊 Performance Summary:");
@@ -679,8 +772,8 @@ public class PerformanceOptimizer {
      */
     public PerformanceStats getPerformanceStats() {
         return new PerformanceStats(
-            totalOperations.get(),
-            totalExecutionTime.get(),
+            totalOperations.sum(),
+            totalExecutionTime.sum(),
             getCurrentMemoryUsage(),
             getCurrentTPS(),
             cache.size(),
@@ -691,10 +784,13 @@ public class PerformanceOptimizer {
     }
     
     /**
-     * Update player activity timestamp.
+     * Latency percentiles per monitored component, sorted by name. Each is the
+     * last completed window, or the current one until the first window closes.
      */
-    public void updatePlayerActivity(Player player) {
-        playerLastActivity.put(player.getUniqueId(), System.currentTimeMillis());
+    public Map<String, LatencyHistogram.Summary> getLatencySummaries() {
+        Map<String, LatencyHistogram.Summary> result = new TreeMap<>();
+        componentMetrics.forEach((name, metrics) -> result.put(name, metrics.getLatencySummary()));
+        return result;
     }
     
     /**
@@ -702,7 +798,6 @@ public class PerformanceOptimizer {
      */
     public void clearPlayerData(Player player) {
         UUID uuid = player.getUniqueId();
-        playerLastActivity.remove(uuid);
         highActivityPlayers.remove(uuid);
         lowActivityPlayers.remove(uuid);
     }
@@ -726,53 +821,40 @@ public class PerformanceOptimizer {
     }
     
     /**
-     * Cache entry holder.
-     */
-    private static class CacheEntry {
-        final Object value;
-        final long timestamp;
-        
-        CacheEntry(Object value, long timestamp) {
-            this.value = value;
-            this.timestamp = timestamp;
-        }
-    }
-    
-    /**
-     * Performance metrics for a component.
+     * Performance metrics for a component. Striped counters, so the monitored
+     * calls of different threads do not contend.
      */
     private static class PerformanceMetrics {
         private final String componentName;
-        private long totalExecutions = 0;
-        private long totalExecutionTime = 0;
-        private long totalMemoryUsed = 0;
-        private long successfulExecutions = 0;
-        private long maxExecutionTime = 0;
-        private long minExecutionTime = Long.MAX_VALUE;
+        private final LongAdder totalExecutions = new LongAdder();
+        private final LongAdder successfulExecutions = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private volatile LatencyHistogram.Summary lastWindow;
         
         PerformanceMetrics(String componentName) {
             this.componentName = componentName;
         }
         
-        void recordExecution(long executionTime, long memoryUsed, boolean success) {
-            totalExecutions++;
-            totalExecutionTime += executionTime;
-            totalMemoryUsed += memoryUsed;
-            
+        void recordExecution(long executionTime, boolean success) {
+            totalExecutions.increment();
             if (success) {
-                successfulExecutions++;
+                successfulExecutions.increment();
             }
-            
-            maxExecutionTime = Math.max(maxExecutionTime, executionTime);
-            minExecutionTime = Math.min(minExecutionTime, executionTime);
+            latency.record(executionTime);
+        }
+        
+        void closeWindow() {
+            lastWindow = latency.summaryThenReset();
         }
         
-        double getAverageExecutionTime() {
-            return totalExecutions > 0 ? (totalExecutionTime / 1_000_000.0) / totalExecutions : 0.0;
+        LatencyHistogram.Summary getLatencySummary() {
+            LatencyHistogram.Summary window = lastWindow;
+            return window != null ? window : latency.summary();
         }
         
         double getSuccessRate() {
-            return totalExecutions > 0 ? (double) successfulExecutions / totalExecutions : 1.0;
+            long executions = totalExecutions.sum();
+            return executions > 0 ? (double) successfulExecutions.sum() / executions : 1.0;
         }
     }
     
@@ -0,0 +1,272 @@
+package me.koyere.antiafkplus.permission;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import me.koyere.antiafkplus.AntiAFKPlus;
+import me.koyere.antiafkplus.credit.CreditManager;
+import me.koyere.antiafkplus.platform.PlatformScheduler;
+
+/**
+ * Per-player cache of every permission-derived value the plugin needs on hot paths.
+ *
+ * <p>{@code hasPermission} used to be called on every PlayerMoveEvent, every AFK
+ * check cycle, every pattern-analysis cycle and every credit earning tick, and
+ * {@code permission-times} was re-scanned with one {@code hasPermission} per entry
+ * on each AFK check. With LuckPerms-backed permissions these calls are not free.
+ * The tiers are now resolved once into an immutable {@link PlayerTiers} and read
+ * as plain booleans/longs.</p>
+ *
+ * <p>Refresh points: player join (LOWEST, before any other listener runs), world
+ * change (world-contextual permissions), LuckPerms {@code UserDataRecalculateEvent}
+ * (hooked by reflection when LuckPerms is present), {@code /afkplus reload}, and a
+ * periodic safety refresh ({@code performance.permission-cache.refresh-interval-seconds})
+ * for permission plugins that publish no change event. Entries are dropped on quit.</p>
+ *
+ * <p>THREAD-SAFETY: entries are immutable and published through a ConcurrentHashMap,
+ * so any thread may read them. A miss (e.g. a player seen before join seeding ran)
+ * resolves inline on the calling thread.</p>
+ */
+public class PermissionTierService implements Listener {
+
+    public static final String BYPASS = "antiafkplus.bypass";
+    public static final String BYPASS_AUTOCLICK = "antiafkplus.bypass.autoclick";
+    public static final String BYPASS_ITEM_PICKUP = "antiafkplus.bypass.itempickup";
+    public static final String CREDIT_EARN = "antiafkplus.credit.earn";
+    public static final String CREDIT_USE = "antiafkplus.credit.use";
+
+    private static final String DEFAULT_CREDIT_RATIO = "5:1";
+    private static final long DEFAULT_MAX_CREDITS = 120L;
+    private static final int DEFAULT_REFRESH_INTERVAL_SECONDS = 60;
+
+    /**
+     * Resolved permission tiers of one player. Immutable.
+     *
+     * @param bypass           holds {@code antiafkplus.bypass}
+     * @param bypassAutoClick  holds {@code antiafkplus.bypass.autoclick}
+     * @param bypassItemPickup holds {@code antiafkplus.bypass.itempickup}
+     * @param creditEarn       holds {@code antiafkplus.credit.earn}
+     * @param creditUse        holds {@code antiafkplus.credit.use}
+     * @param afkTimeSeconds   AFK timeout from {@code permission-times} / {@code default-afk-time}
+     * @param creditRatio      credit ratio ("active:credit") of the matched credit group
+     * @param maxCredits       max-credits cap (minutes) of the matched credit group
+     */
+    public record PlayerTiers(boolean bypass, boolean bypassAutoClick, boolean bypassItemPickup,
+                              boolean creditEarn, boolean creditUse, long afkTimeSeconds,
+                              String creditRatio, long maxCredits) {}
+
+    private final AntiAFKPlus plugin;
+    private final Map<UUID, PlayerTiers> tiers = new ConcurrentHashMap<>();
+    private PlatformScheduler.ScheduledTask refreshTask;
+
+    public PermissionTierService(AntiAFKPlus plugin) {
+        this.plugin = plugin;
+        hookLuckPerms();
+        startRefreshTask();
+    }
+
+    // ============= LOOKUPS =============
+
+    /** Returns the cached tiers, resolving them on the calling thread on a miss. */
+    public PlayerTiers get(Player player) {
+        PlayerTiers cached = tiers.get(player.getUniqueId());
+        return cached != null ? cached : refresh(player);
+    }
+
+    public boolean isBypassed(Player player) {
+        return get(player).bypass();
+    }
+
+    public boolean hasAutoClickBypass(Player player) {
+        return get(player).bypassAutoClick();
+    }
+
+    public boolean hasItemPickupBypass(Player player) {
+        return get(player).bypassItemPickup();
+    }
+
+    public boolean canEarnCredits(Player player) {
+        return get(player).creditEarn();
+    }
+
+    public boolean canUseCredits(Player player) {
+        return get(player).creditUse();
+    }
+
+    public long getAfkTimeSeconds(Player player) {
+        return get(player).afkTimeSeconds();
+    }
+
+    public String getCreditRatio(Player player) {
+        return get(player).creditRatio();
+    }
+
+    public long getMaxCredits(Player player) {
+        return get(player).maxCredits();
+    }
+
+    // ============= REFRESH =============
+
+    /** Re-resolves and caches a player's tiers. Call from the player's owning thread. */
+    public PlayerTiers refresh(Player player) {
+        PlayerTiers resolved = resolve(player);
+        if (player.isOnline()) {
+            PlayerTiers previous = tiers.put(player.getUniqueId(), resolved);
+            // A new AFK timeout or bypass moves the player's AFK deadline
+            if (previous != null && (previous.bypass() != resolved.bypass()
+                    || previous.afkTimeSeconds() != resolved.afkTimeSeconds())
+                    && plugin.getAfkManager() != null) {
+                plugin.getAfkManager().scheduleCheck(player);
+            }
+        }
+        return resolved;
+    }
+
+    /** Re-resolves every online player (config reload, periodic safety refresh). */
+    public void refreshAll() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            plugin.getPlatformScheduler().runTaskForEntity(player, () -> refresh(player));
+        }
+    }
+
+    /** Called from /afkplus reload: restarts the safety refresh and re-resolves everyone. */
+    public void reloadFromConfig() {
+        if (refreshTask != null && !refreshTask.isCancelled()) {
+            refreshTask.cancel();
+        }
+        refreshTask = null;
+        startRefreshTask();
+        refreshAll();
+    }
+
+    public void invalidate(UUID uuid) {
+        tiers.remove(uuid);
+    }
+
+    public void shutdown() {
+        if (refreshTask != null && !refreshTask.isCancelled()) {
+            refreshTask.cancel();
+        }
+        refreshTask = null;
+        tiers.clear();
+    }
+
+    private PlayerTiers resolve(Player player) {
+        CreditManager creditManager = plugin.getCreditManager();
+        String creditRatio = DEFAULT_CREDIT_RATIO;
+        long maxCredits = DEFAULT_MAX_CREDITS;
+        if (creditManager != null && creditManager.isEnabled()) {
+            creditRatio = creditManager.resolveRatioString(player);
+            maxCredits = creditManager.resolveMaxCredits(player);
+        }
+        return new PlayerTiers(
+                player.hasPermission(BYPASS),
+                player.hasPermission(BYPASS_AUTOCLICK),
+                player.hasPermission(BYPASS_ITEM_PICKUP),
+                player.hasPermission(CREDIT_EARN),
+                player.hasPermission(CREDIT_USE),
+                resolveAfkTimeSeconds(player),
+                creditRatio,
+                maxCredits);
+    }
+
+    /**
+     * Resolves a player's AFK timeout in seconds.
+     *
+     * <p>{@code permission-times} entries override {@code default-afk-time}. When a
+     * player matches several entries — e.g. via a wildcard permission, OP, or group
+     * inheritance — the LARGEST (most permissive) value is used, deterministically.</p>
+     *
+     * <p>Falls back to {@code default-afk-time} only when the player matches no entry.</p>
+     */
+    private long resolveAfkTimeSeconds(Player player) {
+        long bestPermissionTime = -1L;
+        for (Map.Entry<String, Integer> entry : plugin.getConfigManager().getPermissionTimes().entrySet()) {
+            Integer value = entry.getValue();
+            if (value != null && value > 0 && player.hasPermission(entry.getKey())) {
+                bestPermissionTime = Math.max(bestPermissionTime, value);
+            }
+        }
+        return bestPermissionTime > 0 ? bestPermissionTime : plugin.getConfigManager().getDefaultAfkTime();
+    }
+
+    private void startRefreshTask() {
+        int seconds = plugin.getConfig().getInt("performance.permission-cache.refresh-interval-seconds",
+                DEFAULT_REFRESH_INTERVAL_SECONDS);
+        if (seconds <= 0) {
+            return; // Event-driven refresh only
+        }
+        long period = seconds * 20L;
+        refreshTask = plugin.getPlatformScheduler().runTaskTimer(this::refreshAll, period, period);
+    }
+
+    // ============= EVENTS =============
+
+    // LOWEST so the tiers exist before MovementListener/AFKManager handle the join.
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        refresh(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        refresh(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        invalidate(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * Subscribes to LuckPerms' {@code UserDataRecalculateEvent} via reflection so a
+     * rank change takes effect immediately instead of at the next periodic refresh.
+     * LuckPerms fires the event off the main thread; the refresh itself is scheduled
+     * on the player's entity thread.
+     */
+    private void hookLuckPerms() {
+        if (Bukkit.getPluginManager().getPlugin("LuckPerms") == null) {
+            return;
+        }
+        try {
+            Class<?> providerClass = Class.forName("net.luckperms.api.LuckPermsProvider");
+            Class<?> eventClass = Class.forName("net.luckperms.api.event.user.UserDataRecalculateEvent");
+            Object luckPerms = providerClass.getMethod("get").invoke(null);
+            Object eventBus = luckPerms.getClass().getMethod("getEventBus").invoke(luckPerms);
+            Method subscribe = eventBus.getClass().getMethod("subscribe", Object.class, Class.class, Consumer.class);
+            subscribe.setAccessible(true);
+            Consumer<Object> handler = this::onLuckPermsRecalculate;
+            subscribe.invoke(eventBus, plugin, eventClass, handler);
+            plugin.getLogger().info("Permission cache hooked into LuckPerms recalculation events.");
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to hook LuckPerms for permission cache refresh: " + e.getMessage()
+                    + " (falling back to periodic refresh)");
+        }
+    }
+
+    private void onLuckPermsRecalculate(Object event) {
+        try {
+            Object user = event.getClass().getMethod("getUser").invoke(event);
+            UUID uuid = (UUID) user.getClass().getMethod("getUniqueId").invoke(user);
+            Player player = Bukkit.getPlayer(uuid);
+            if (player == null || !plugin.isEnabled()) {
+                return;
+            }
+            plugin.getPlatformScheduler().runTaskForEntity(player, () -> refresh(player));
+        } catch (Exception ignored) {
+            // Next periodic refresh will pick the change up.
+        }
+    }
+}
@@ -9,6 +9,7 @@ import org.jetbrains.annotations.Nullable; // Not strictly needed here if using
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
 import me.koyere.antiafkplus.AntiAFKPlus;
 import me.koyere.antiafkplus.afk.AFKManager;
+import me.koyere.antiafkplus.afk.AfkSessionState;
 
 /**
  * PlaceholderAPI Expansion for AntiAFKPlus.
@@ -108,29 +109,26 @@ public class PlaceholderHook extends PlaceholderExpansion {
 
         switch (identifier.toLowerCase()) {
             case "status":
-                // Uses the AFKManager's isAFK method to determine current status.
-                // Get localized status from language files
-                if (this.afkManager.isAFK(player)) {
-                    // Check if it's manual AFK or auto AFK
-                    if (this.afkManager.isManuallyAFK(player)) {
-                        return plugin.getLocalizationManager().getMessage(player, "placeholder-status-manual-afk");
-                    } else {
-                        return plugin.getLocalizationManager().getMessage(player, "placeholder-status-auto-afk");
-                    }
+                // Read from the published snapshot: scoreboards request this for every
+                // viewer on every refresh. Get localized status from language files
+                AfkSessionState.Phase phase = this.afkManager.getSnapshot().phase(player.getUniqueId());
+                if (phase == AfkSessionState.Phase.AFK_MANUAL) {
+                    return plugin.getLocalizationManager().getMessage(player, "placeholder-status-manual-afk");
+                } else if (phase == AfkSessionState.Phase.AFK_AUTO) {
+                    return plugin.getLocalizationManager().getMessage(player, "placeholder-status-auto-afk");
                 } else {
                     return plugin.getLocalizationManager().getMessage(player, "placeholder-status-active");
                 }
 
             case "afktime":
-                // Uses the AFKManager's method to get the last movement/activity timestamp.
-                // The method was renamed to getLastMovementTimestampForPlayer.
+                // Seconds since the last movement/activity timestamp. Read live, not from
+                // the snapshot: it is a single map lookup and changes with every move.
+                // No valid timestamp (not tracked or just joined) gives "0".
                 long lastActivityTimestamp = this.afkManager.getLastMovementTimestampForPlayer(player);
-                if (lastActivityTimestamp <= 0) { // If no valid timestamp, means not tracked or just joined
-                    return "0"; // Or "N/A"
+                if (lastActivityTimestamp <= 0) {
+                    return "0";
                 }
-                long timeSinceActivityMillis = System.currentTimeMillis() - lastActivityTimestamp;
-                long timeSinceActivitySeconds = timeSinceActivityMillis / 1000L;
-                return String.valueOf(timeSinceActivitySeconds);
+                return String.valueOf((System.currentTimeMillis() - lastActivityTimestamp) / 1000L);
 
             // --- Credit System Placeholders (v2.5) ---
             case "credits": {
@@ -33,18 +33,26 @@ public class PlatformScheduler {
     
     // Fallback executor for Folia when reflection fails
     private ScheduledExecutorService foliaFallbackExecutor;
-    
+
+    // Per-tick budgeted main-thread work, drained by budgetDrainTask
+    private final TickBudgetQueue budgetQueue;
+    private volatile boolean budgetEnabled = true;
+    private volatile long budgetNanos = 500_000L;
+    private volatile ScheduledTask budgetDrainTask;
+
     public PlatformScheduler(AntiAFKPlus plugin) {
         this.plugin = plugin;
         this.logger = plugin.getLogger();
         this.platformType = detectPlatform();
         this.supportsFolia = platformType == PlatformType.FOLIA;
         this.supportsAsyncChunks = detectAsyncChunkSupport();
-        
+        this.budgetQueue = new TickBudgetQueue(logger);
+
         if (supportsFolia) {
             initializeFoliaSupport();
         }
-        
+        loadTickBudgetSettings();
+
     }
     
     /**
@@ -239,6 +247,38 @@ public class PlatformScheduler {
         }
     }
     
+    /**
+     * Run a repeating task on the entity's owning region thread (Folia) or on the main
+     * thread (others). On Folia the task follows the entity across regions and stops
+     * when the entity is removed; {@code retired} (may be null) then runs once instead.
+     * Returns null if the entity is already retired.
+     */
+    public ScheduledTask runTaskTimerForEntity(Entity entity, Runnable task, Runnable retired,
+                                               long delayTicks, long periodTicks) {
+        Runnable guardedTask = wrapWithPauseGuard(task);
+        if (supportsFolia) {
+            return runFoliaEntityRepeatingTask(entity, guardedTask, retired, delayTicks, periodTicks);
+        } else {
+            BukkitTask bukkitTask = Bukkit.getScheduler().runTaskTimer(plugin, guardedTask, delayTicks, periodTicks);
+            return new BukkitScheduledTask(bukkitTask);
+        }
+    }
+
+    /**
+     * Run {@code action} once for every entity on that entity's owning thread.
+     * On Folia each entity is dispatched to its own region so the work spreads across
+     * region threads; on other platforms the calling (main) thread runs them inline.
+     */
+    public <T extends Entity> void runForEachEntity(Iterable<T> entities, java.util.function.Consumer<T> action) {
+        for (T entity : entities) {
+            if (supportsFolia) {
+                runFoliaEntityTask(entity, () -> action.accept(entity), 1);
+            } else {
+                action.accept(entity);
+            }
+        }
+    }
+    
     /**
      * Schedule a task to run at the next tick.
      * More efficient than runTaskLater(task, 1) on some platforms.
@@ -246,6 +286,90 @@ public class PlatformScheduler {
     public ScheduledTask runTaskNextTick(Runnable task) {
         return runTaskLater(task, 1);
     }
+
+    // ============= TICK BUDGET =============
+
+    /**
+     * Reads {@code performance.tick-budget.*}. Called on start and on config reload.
+     */
+    public void loadTickBudgetSettings() {
+        var config = plugin.getConfig();
+        double fallbackMs = config.getDouble("performance.thresholds.max-tps-impact", 0.5);
+        double budgetMs = config.getDouble("performance.tick-budget.budget-ms", fallbackMs);
+        this.budgetNanos = (long) (Math.max(0.05, budgetMs) * 1_000_000L);
+        this.budgetEnabled = config.getBoolean("performance.tick-budget.enabled", true);
+    }
+
+    /**
+     * Run a one-shot main/global thread task within the per-tick budget: queued and
+     * run on a later tick once earlier queued work fits. Runs right away (or on the
+     * next tick off the main thread) when the budget is disabled.
+     */
+    public void runBudgeted(Runnable task) {
+        if (!budgetEnabled) {
+            runNowOrNextTick(task);
+            return;
+        }
+        submitBudgeted(null, task);
+    }
+
+    /**
+     * Run {@code task} for {@code entity} within the per-tick budget. With a non-null
+     * {@code key} a still-queued task of the same key is replaced instead of queueing
+     * another run (refreshes, re-checks). On Folia this runs on the entity's region
+     * thread right away, like {@link #runForEachEntity}: region threads tick
+     * separately, so one global queue cannot budget them.
+     */
+    public void runBudgetedForEntity(Entity entity, TickBudgetQueue.Key key, Runnable task) {
+        if (supportsFolia) {
+            runFoliaEntityTask(entity, task, 1);
+        } else if (!budgetEnabled) {
+            runNowOrNextTick(task);
+        } else {
+            submitBudgeted(key, task);
+        }
+    }
+
+    private void runNowOrNextTick(Runnable task) {
+        if (isMainThread()) {
+            task.run();
+        } else {
+            runTask(task);
+        }
+    }
+
+    private void submitBudgeted(TickBudgetQueue.Key key, Runnable task) {
+        budgetQueue.submit(key, task);
+        if (budgetDrainTask == null) {
+            startBudgetDrainTask();
+        }
+    }
+
+    private synchronized void startBudgetDrainTask() {
+        if (budgetDrainTask == null) {
+            budgetDrainTask = runTaskTimer(() -> budgetQueue.drain(budgetNanos), 1L, 1L);
+        }
+    }
+
+    /**
+     * Runs what is still queued without a budget, dropping pending refreshes. Called
+     * from onDisable before the systems the queued tasks use are shut down.
+     */
+    public void drainBudgetedTasks() {
+        budgetQueue.drainRemaining();
+    }
+
+    public TickBudgetQueue.Stats getTickBudgetStats() {
+        return budgetQueue.getStats();
+    }
+
+    public boolean isTickBudgetEnabled() {
+        return budgetEnabled;
+    }
+
+    public double getTickBudgetMillis() {
+        return budgetNanos / 1_000_000.0;
+    }
     
     // ============= FOLIA-SPECIFIC IMPLEMENTATIONS =============
     
@@ -361,6 +485,34 @@ public class PlatformScheduler {
         }
     }
     
+    private ScheduledTask runFoliaEntityRepeatingTask(Entity entity, Runnable task, Runnable retired,
+                                                      long delayTicks, long periodTicks) {
+        try {
+            Object entityScheduler = entity.getClass()
+                .getMethod("getScheduler")
+                .invoke(entity);
+            
+            // EntityScheduler.runAtFixedRate(Plugin, Consumer<ScheduledTask>, Runnable retired, long, long)
+            Object scheduledTask = entityScheduler.getClass()
+                .getMethod("runAtFixedRate", 
+                          org.bukkit.plugin.Plugin.class, 
+                          java.util.function.Consumer.class,
+                          Runnable.class,
+                          long.class,
+                          long.class)
+                .invoke(entityScheduler, plugin, 
+                       (java.util.function.Consumer<Object>) (scheduledTaskObj) -> task.run(),
+                       retired,
+                       Math.max(1L, delayTicks), // Folia rejects a delay below 1 tick
+                       periodTicks);
+            
+            return scheduledTask != null ? new FoliaScheduledTask(scheduledTask) : null;
+        } catch (Exception e) {
+            logger.warning("Failed to schedule Folia entity repeating task: " + e.getMessage());
+            return runFoliaGlobalRepeatingTask(task, delayTicks, periodTicks);
+        }
+    }
+    
     /**
      * Handle async timer tasks for Folia by wrapping them in async execution.
      */
@@ -0,0 +1,201 @@
+package me.koyere.antiafkplus.platform;
+
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cooperative work queue drained once per tick within a time budget.
+ *
+ * <p>Producers (AFK check evaluations, reward dispatch, hologram refreshes, GUI
+ * clicks) submit small units from any thread. {@link #drain(long)} runs them in
+ * FIFO order until the budget is spent and leaves the rest for the next tick, so
+ * however many players hit a deadline at once, the plugin's share of one tick
+ * stays bounded. At least one unit runs per drain, so a unit that alone exceeds
+ * the budget still makes progress.</p>
+ *
+ * <p>Units submitted with a {@link Key} are refreshes: while one is still
+ * pending, submitting the same key replaces its task and keeps its place in the
+ * queue instead of queueing a second run. Keyless units are one-shot and always
+ * run.</p>
+ *
+ * <p>Bukkit-free; {@link PlatformScheduler} owns the drain task.</p>
+ */
+public final class TickBudgetQueue {
+
+    /** Coalescing key: one pending unit per kind of work and owner. */
+    public record Key(String kind, UUID owner) {}
+
+    private static final class Unit {
+        final Key key;
+        final long enqueuedTick;
+        volatile Runnable task;
+
+        Unit(Key key, Runnable task, long enqueuedTick) {
+            this.key = key;
+            this.task = task;
+            this.enqueuedTick = enqueuedTick;
+        }
+    }
+
+    /** Counters since start; the drain figures only cover ticks that had work. */
+    public record Stats(long submitted, long coalesced, long executed, long failed,
+                        int pending, int maxPending, long busyTicks, long carriedTicks,
+                        long worstWaitTicks, double avgDrainNanos, long worstDrainNanos,
+                        long totalDrainNanos) {}
+
+    private final Logger logger;
+    private final Queue<Unit> queue = new ConcurrentLinkedQueue<>();
+    private final ConcurrentHashMap<Key, Unit> pendingByKey = new ConcurrentHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    // Written by the draining thread only
+    private volatile long tick = 0L;
+    private volatile long executed = 0L;
+    private volatile long failed = 0L;
+    private volatile int maxPending = 0;
+    private volatile long busyTicks = 0L;
+    private volatile long carriedTicks = 0L;
+    private volatile long worstWaitTicks = 0L;
+    private volatile long totalDrainNanos = 0L;
+    private volatile long worstDrainNanos = 0L;
+
+    public TickBudgetQueue(Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Queues {@code task} for a later drain. With a non-null {@code key} an
+     * already pending unit of the same key takes the new task instead.
+     */
+    public void submit(Key key, Runnable task) {
+        submitted.increment();
+        if (key == null) {
+            enqueue(new Unit(null, task, tick));
+            return;
+        }
+        // compute() keeps the replace atomic against the drain claiming the unit
+        pendingByKey.compute(key, (k, existing) -> {
+            if (existing != null) {
+                existing.task = task;
+                coalesced.increment();
+                return existing;
+            }
+            Unit unit = new Unit(k, task, tick);
+            enqueue(unit);
+            return unit;
+        });
+    }
+
+    private void enqueue(Unit unit) {
+        queue.add(unit);
+        pending.incrementAndGet();
+    }
+
+    /**
+     * Runs queued units until {@code budgetNanos} have been spent (at least one
+     * unit if any is queued). Call once per tick from a single thread.
+     *
+     * @return number of units run
+     */
+    public int drain(long budgetNanos) {
+        long currentTick = ++tick;
+        int depth = pending.get();
+        if (depth == 0) {
+            return 0;
+        }
+        if (depth > maxPending) {
+            maxPending = depth;
+        }
+
+        long start = System.nanoTime();
+        int ran = 0;
+        do {
+            Unit unit = queue.poll();
+            if (unit == null) {
+                break;
+            }
+            pending.decrementAndGet();
+            Runnable task = claim(unit);
+            if (task == null) {
+                continue;
+            }
+            long waited = currentTick - unit.enqueuedTick;
+            if (waited > worstWaitTicks) {
+                worstWaitTicks = waited;
+            }
+            runSafely(task);
+            ran++;
+        } while (System.nanoTime() - start < budgetNanos);
+
+        long spent = System.nanoTime() - start;
+        executed += ran;
+        busyTicks++;
+        totalDrainNanos += spent;
+        if (spent > worstDrainNanos) {
+            worstDrainNanos = spent;
+        }
+        if (pending.get() > 0) {
+            carriedTicks++;
+        }
+        return ran;
+    }
+
+    /**
+     * Empties the queue without a budget: one-shot units run, pending refreshes
+     * are dropped. For shutdown, on the draining thread.
+     */
+    public void drainRemaining() {
+        Unit unit;
+        while ((unit = queue.poll()) != null) {
+            pending.decrementAndGet();
+            Runnable task = claim(unit);
+            if (task != null && unit.key == null) {
+                runSafely(task);
+            }
+        }
+    }
+
+    private Runnable claim(Unit unit) {
+        if (unit.key == null) {
+            return unit.task;
+        }
+        Runnable[] claimed = new Runnable[1];
+        pendingByKey.computeIfPresent(unit.key, (k, current) -> {
+            if (current != unit) {
+                return current;
+            }
+            claimed[0] = current.task;
+            return null;
+        });
+        return claimed[0];
+    }
+
+    private void runSafely(Runnable task) {
+        try {
+            task.run();
+        } catch (Throwable t) {
+            failed++;
+            logger.log(Level.WARNING, "Queued plugin task failed", t);
+        }
+    }
+
+    public int getPending() {
+        return pending.get();
+    }
+
+    public Stats getStats() {
+        long busy = busyTicks;
+        long total = totalDrainNanos;
+        return new Stats(submitted.sum(), coalesced.sum(), executed, failed, pending.get(), maxPending,
+                busy, carriedTicks, worstWaitTicks, busy > 0 ? (double) total / busy : 0.0,
+                worstDrainNanos, total);
+    }
+}
@@ -184,16 +184,27 @@ public class RewardManager implements Listener {
     private void executeReward(Player player, String configPath) {
         String name = player.getName();
         String uuid = player.getUniqueId().toString();
+        PlatformScheduler scheduler = plugin.getPlatformScheduler();
 
+        // One budgeted unit per command, so many players crossing a threshold in the
+        // same check don't dispatch every command in one tick
         for (String cmd : plugin.getConfig().getStringList(configPath + ".commands")) {
-            Bukkit.dispatchCommand(Bukkit.getConsoleSender(),
-                    cmd.replace("{player}", name).replace("{uuid}", uuid));
+            String command = cmd.replace("{player}", name).replace("{uuid}", uuid);
+            scheduler.runBudgeted(() -> Bukkit.dispatchCommand(Bukkit.getConsoleSender(), command));
         }
 
+        List<String> messages = new ArrayList<>();
         for (String rawMsg : plugin.getConfig().getStringList(configPath + ".messages")) {
-            String formatted = ChatColor.translateAlternateColorCodes('&',
-                    rawMsg.replace("{player}", name).replace("{uuid}", uuid));
-            player.sendMessage(formatted);
+            messages.add(ChatColor.translateAlternateColorCodes('&',
+                    rawMsg.replace("{player}", name).replace("{uuid}", uuid)));
+        }
+        if (!messages.isEmpty()) {
+            // Queued after the commands, so the messages follow the reward
+            scheduler.runBudgeted(() -> {
+                if (player.isOnline()) {
+                    messages.forEach(player::sendMessage);
+                }
+            });
         }
     }
 
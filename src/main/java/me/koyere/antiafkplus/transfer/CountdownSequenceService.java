@@ -77,7 +77,8 @@ public class CountdownSequenceService {
         RunningCountdown rc = new RunningCountdown(seconds);
         running.put(uuid, rc);
 
-        PlatformScheduler.ScheduledTask timer = plugin.getPlatformScheduler().runTaskTimer(() -> {
+        // Timer por entidad: en Folia corre en el hilo de la región del jugador
+        PlatformScheduler.ScheduledTask timer = plugin.getPlatformScheduler().runTaskTimerForEntity(player, () -> {
             Player p = Bukkit.getPlayer(uuid);
             if (p == null || !p.isOnline()) {
                 cancelByUuid(uuid);
@@ -91,31 +92,28 @@ public class CountdownSequenceService {
 
             int secondsLeft = rc.remaining;
 
-            // Despachar acciones por entidad
-            plugin.getPlatformScheduler().runTaskForEntity(p, () -> {
-                String subtitle = subtitleTemplate.replace("{seconds}", String.valueOf(secondsLeft));
-                p.sendTitle(title, subtitle, 5, 15, 5);
-
-                if (soundEnabled) {
-                    try {
-                        Sound s = Sound.valueOf(soundName);
-                        p.playSound(p.getLocation(), s, volume, pitch);
-                    } catch (IllegalArgumentException ignored) {
-                        // Sonido inválido: no reproducir
-                    }
+            // Ya estamos en el hilo de la entidad
+            String subtitle = subtitleTemplate.replace("{seconds}", String.valueOf(secondsLeft));
+            p.sendTitle(title, subtitle, 5, 15, 5);
+
+            if (soundEnabled) {
+                try {
+                    Sound s = Sound.valueOf(soundName);
+                    p.playSound(p.getLocation(), s, volume, pitch);
+                } catch (IllegalArgumentException ignored) {
+                    // Sonido inválido: no reproducir
                 }
-            });
+            }
 
             rc.remaining--;
             if (rc.remaining <= 0) {
                 // Finalizar y ejecutar acción
                 cancelByUuid(uuid);
                 if (onComplete != null) {
-                    // Ejecutar en el hilo de la entidad para seguridad
-                    plugin.getPlatformScheduler().runTaskForEntity(p, onComplete);
+                    onComplete.run();
                 }
             }
-        }, 0, 20); // cada 20 ticks = 1s
+        }, () -> cancelByUuid(uuid), 0, 20); // cada 20 ticks = 1s; retirado = jugador desconectado
 
         rc.task = timer;
     }
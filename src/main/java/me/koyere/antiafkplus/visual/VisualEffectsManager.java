@@ -23,7 +23,10 @@ import org.bukkit.plugin.Plugin;
 import me.koyere.antiafkplus.AntiAFKPlus;
 import me.koyere.antiafkplus.events.PlayerAFKStateChangeEvent;
 import me.koyere.antiafkplus.events.PlayerAFKStateChangeEvent.AFKState;
+import me.koyere.antiafkplus.performance.FeedbackController;
+import me.koyere.antiafkplus.performance.PerformanceOptimizer;
 import me.koyere.antiafkplus.platform.PlatformScheduler;
+import me.koyere.antiafkplus.platform.TickBudgetQueue;
 
 /**
  * Manages visual indicators for AFK players: particles, tab-list prefix,
@@ -37,6 +40,8 @@ import me.koyere.antiafkplus.platform.PlatformScheduler;
 @SuppressWarnings("deprecation")
 public class VisualEffectsManager implements Listener {
 
+    private static final String HOLOGRAM_TASK_KIND = "hologram";
+
     private final AntiAFKPlus plugin;
 
     // --- Name / tab-list state ---
@@ -52,6 +57,9 @@ public class VisualEffectsManager implements Listener {
 
     // --- Scheduled tasks ---
     private PlatformScheduler.ScheduledTask particleTask;
+    // Under load the feedback controller stretches both refresh rates by skipping runs
+    private final FeedbackController.Gate hologramGate = new FeedbackController.Gate();
+    private final FeedbackController.Gate particleGate = new FeedbackController.Gate();
 
     // =========================================================================
     //  Constructor
@@ -339,22 +347,35 @@ public class VisualEffectsManager implements Listener {
 
         hologramUpdateTask = plugin.getPlatformScheduler().runTaskTimer(() -> {
             if (hologramBackend == null || hologramIds.isEmpty()) return;
+            if (!hologramGate.tryPass(loadScale("holograms"))) return;
 
             double heightOffset = plugin.getConfig().getDouble(
                     "visual-effects.holograms.height-offset", 2.5);
 
-            // Snapshot the entry set to avoid ConcurrentModificationException.
-            for (Map.Entry<UUID, String> entry : new ArrayList<>(hologramIds.entrySet())) {
-                Player player = Bukkit.getPlayer(entry.getKey());
-                if (player == null || !player.isOnline()) continue;
-
-                String id     = entry.getValue();
-                Location loc  = player.getLocation().add(0, heightOffset, 0);
-                List<String> lines = buildHologramLines(player);
+            // Snapshot the tracked players to avoid ConcurrentModificationException.
+            List<Player> players = new ArrayList<>(hologramIds.size());
+            for (UUID uuid : hologramIds.keySet()) {
+                Player player = Bukkit.getPlayer(uuid);
+                if (player != null && player.isOnline()) players.add(player);
+            }
 
-                // Remove-then-recreate is the safest update strategy across API versions.
-                hologramBackend.hide(id);
-                hologramBackend.show(id, loc, lines);
+            // One budgeted refresh per player; a refresh still queued from the previous
+            // cycle is replaced. Each player's location is read on its owning region
+            // thread (Folia).
+            PlatformScheduler scheduler = plugin.getPlatformScheduler();
+            for (Player player : players) {
+                scheduler.runBudgetedForEntity(player,
+                        new TickBudgetQueue.Key(HOLOGRAM_TASK_KIND, player.getUniqueId()), () -> {
+                    String id = hologramIds.get(player.getUniqueId());
+                    if (id == null || hologramBackend == null || !player.isOnline()) return; // Left AFK meanwhile
+
+                    Location loc  = player.getLocation().add(0, heightOffset, 0);
+                    List<String> lines = buildHologramLines(player);
+
+                    // Remove-then-recreate is the safest update strategy across API versions.
+                    hologramBackend.hide(id);
+                    hologramBackend.show(id, loc, lines);
+                });
             }
         }, intervalTicks, intervalTicks);
     }
@@ -438,6 +459,11 @@ public class VisualEffectsManager implements Listener {
     //  Particle System
     // =========================================================================
 
+    private double loadScale(String component) {
+        PerformanceOptimizer optimizer = plugin.getPerformanceOptimizer();
+        return optimizer != null ? optimizer.getLoadScale(component) : 1.0;
+    }
+
     /**
      * Starts the repeating task that spawns particles above AFK players.
      */
@@ -445,6 +471,7 @@ public class VisualEffectsManager implements Listener {
         particleTask = plugin.getPlatformScheduler().runTaskTimer(() -> {
             if (!plugin.getConfig().getBoolean("visual-effects.particles.enabled", false)) return;
             if (plugin.getAfkManager() == null) return;
+            if (!particleGate.tryPass(loadScale("particles"))) return;
 
             Set<UUID> afkUUIDs = plugin.getAfkManager().getAfkPlayerUUIDs();
             if (afkUUIDs.isEmpty()) return;
@@ -464,16 +491,22 @@ public class VisualEffectsManager implements Listener {
                 return;
             }
 
+            List<Player> players = new ArrayList<>(afkUUIDs.size());
             for (UUID uuid : afkUUIDs) {
                 Player player = Bukkit.getPlayer(uuid);
-                if (player == null || !player.isOnline()) continue;
+                if (player != null && player.isOnline()) players.add(player);
+            }
+
+            // Spawning touches the player's world region: run it on that region's thread (Folia).
+            plugin.getPlatformScheduler().runForEachEntity(players, player -> {
+                if (!player.isOnline()) return;
                 Location location = player.getLocation().add(0, 2.2, 0);
                 try {
                     player.getWorld().spawnParticle(particle, location, count, offsetX, offsetY, offsetZ, speed);
                 } catch (Exception e) {
                     plugin.getLogger().warning("Failed to spawn particle for " + player.getName() + ": " + e.getMessage());
                 }
-            }
+            });
         }, 20L, 20L);
     }
 